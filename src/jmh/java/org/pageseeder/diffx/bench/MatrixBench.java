@@ -0,0 +1,115 @@
+package org.pageseeder.diffx.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.pageseeder.diffx.algorithm.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares the matrices backed by arrays of arrays with the flat matrices backed by a single array.
+ *
+ * <p>The fill benchmark computes the LCS lengths of all the cells and the walk benchmark follows
+ * the path from the top-left corner as the matrix algorithm does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 2)
+@State(Scope.Thread)
+public class MatrixBench {
+
+  @Param({
+      "InvMatrixShort",
+      "InvFlatMatrixShort",
+      "InvMatrixInt",
+      "InvFlatMatrixInt"
+  })
+  public String matrixName;
+
+  @Param({"1000", "4000"})
+  public int length;
+
+  private Supplier<Matrix> factory;
+
+  private int[] first;
+  private int[] second;
+
+  private Matrix filled;
+
+  @Setup(Level.Trial)
+  public void setupTrial() {
+    switch (matrixName) {
+      case "InvMatrixShort":
+        this.factory = InvMatrixShort::new;
+        break;
+      case "InvFlatMatrixShort":
+        this.factory = InvFlatMatrixShort::new;
+        break;
+      case "InvMatrixInt":
+        this.factory = InvMatrixInt::new;
+        break;
+      case "InvFlatMatrixInt":
+        this.factory = InvFlatMatrixInt::new;
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown matrix: " + matrixName);
+    }
+    Random random = new Random(42);
+    this.first = random.ints(length, 0, 8).toArray();
+    this.second = this.first.clone();
+    for (int i = 0; i < this.second.length / 10; i++) {
+      this.second[random.nextInt(length)] = random.nextInt(8);
+    }
+    this.filled = fill(this.factory.get());
+  }
+
+  @Benchmark
+  public int fill() {
+    Matrix matrix = fill(this.factory.get());
+    int lcs = matrix.getLCSLength();
+    matrix.release();
+    return lcs;
+  }
+
+  @Benchmark
+  public int walk() {
+    Matrix matrix = this.filled;
+    int i = 0;
+    int j = 0;
+    int moves = 0;
+    while (i < this.first.length && j < this.second.length) {
+      if (this.first[i] == this.second[j]) {
+        i++;
+        j++;
+      } else if (matrix.isGreaterX(i, j) || matrix.isSameXY(i, j)) {
+        i++;
+      } else {
+        j++;
+      }
+      moves++;
+    }
+    return moves;
+  }
+
+  private Matrix fill(Matrix matrix) {
+    int length1 = this.first.length;
+    int length2 = this.second.length;
+    matrix.setup(length1 + 1, length2 + 1);
+    for (int i = length1; i >= 0; i--) {
+      for (int j = length2; j >= 0; j--) {
+        if (i == length1 || j == length2) {
+          matrix.set(i, j, 0);
+        } else if (this.first[i] == this.second[j]) {
+          matrix.incrementPath(i, j);
+        } else {
+          matrix.incrementByMaxPath(i, j);
+        }
+      }
+    }
+    return matrix;
+  }
+
+}
@@ -0,0 +1,80 @@
+package org.pageseeder.diffx.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.DiffHandler;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures the greedy Myers algorithms on inputs with many differences, where the trace of
+ * the V array recorded for each D dominates the memory allocated.
+ *
+ * <p>Run with the <code>gc</code> profiler and compare <code>gc.alloc.rate.norm</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 2)
+@State(Scope.Thread)
+public class MyersTraceBench {
+
+  @Param({
+      "MyersGreedy",
+      "MyersGreedyInt",
+      "MyersGreedyXML"
+  })
+  public String algorithmName;
+
+  @Param({
+      "chars_1000_var50",
+      "chars_1000_var95",
+      "chars_5000_var50",
+      "patterns_5000_var50"
+  })
+  public String datasetName;
+
+  private DiffAlgorithm<Object> algorithm;
+  private DiffAlgorithmBench.ListPairSpec<Object> spec;
+
+  private List<Object> from;
+  private List<Object> to;
+
+  private DiffHandler<Object> nop;
+
+  @Setup(Level.Trial)
+  @SuppressWarnings("unchecked")
+  public void setupTrial() {
+    Map<String, Supplier<DiffAlgorithm<?>>> algorithms = Registries.algorithms();
+    Map<String, Supplier<DiffAlgorithmBench.ListPairSpec<?>>> datasets = Registries.datasets();
+
+    Supplier<DiffAlgorithm<?>> algoFactory = algorithms.get(algorithmName);
+    if (algoFactory == null) throw new IllegalArgumentException("Unknown algorithm: " + algorithmName);
+    this.algorithm = (DiffAlgorithm<Object>) algoFactory.get();
+
+    Supplier<DiffAlgorithmBench.ListPairSpec<?>> datasetFactory = datasets.get(datasetName);
+    if (datasetFactory == null) throw new IllegalArgumentException("Unknown dataset: " + datasetName);
+    this.spec = (DiffAlgorithmBench.ListPairSpec<Object>) datasetFactory.get();
+
+    this.nop = (op, token) -> { /* NOP */ };
+  }
+
+  @Setup(Level.Iteration)
+  public void setupIteration() {
+    this.from = spec.freshFrom();
+    this.to = spec.freshTo();
+  }
+
+  @Benchmark
+  public void diff(Blackhole bh) {
+    algorithm.diff(from, to, nop);
+    bh.consume(from.size());
+    bh.consume(to.size());
+  }
+
+}
@@ -13,14 +13,18 @@ public final class Registries {
 
   public static Map<String, Supplier<DiffAlgorithm<?>>> algorithms() {
     Map<String, Supplier<DiffAlgorithm<?>>> m = new LinkedHashMap<>();
+    m.put("AllisonDix", AllisonDixAlgorithm::new);
     m.put("Wu", WuAlgorithm::new);
     m.put("MyersGreedy", MyersGreedyAlgorithm::new);
     m.put("MyersGreedy2", MyersGreedyAlgorithm2::new);
+    m.put("MyersGreedyInt", MyersGreedyIntAlgorithm::new);
+    m.put("MyersGreedyXML", MyersGreedyXMLAlgorithm::new);
     m.put("MyersLinear", MyersLinearAlgorithm::new);
     m.put("KumarRangan", KumarRanganAlgorithm::new);
     m.put("Histogram", HistogramAlgorithm::new);
     m.put("Patience", PatienceAlgorithm::new);
     m.put("Hirschberg", HirschbergAlgorithm::new);
+    m.put("HirschbergInt", HirschbergIntAlgorithm::new);
     m.put("WagnerFischer", WagnerFischerAlgorithm::new);
     return m;
   }
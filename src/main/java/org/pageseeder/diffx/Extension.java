@@ -21,6 +21,7 @@ import org.pageseeder.diffx.config.TextGranularity;
 import org.pageseeder.diffx.config.WhiteSpaceProcessing;
 import org.pageseeder.diffx.core.OptimisticXMLProcessor;
 import org.pageseeder.diffx.format.DefaultXMLDiffOutput;
+import org.pageseeder.diffx.load.ConcurrentLoader;
 import org.pageseeder.diffx.load.DOMLoader;
 import org.pageseeder.diffx.xml.NamespaceSet;
 import org.pageseeder.diffx.xml.Sequence;
@@ -38,6 +39,7 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.concurrent.Executor;
 
 
 /**
@@ -82,6 +84,25 @@ public final class Extension {
   private static final String SAXON_DOM_PACKAGE = "net.sf.saxon.dom";
   private static final String SAXON_DOM_BUILDER_FACTORY = "net.sf.saxon.dom.DocumentBuilderFactoryImpl";
 
+  /**
+   * Loads the two nodes to compare.
+   */
+  private static volatile ConcurrentLoader loading = ConcurrentLoader.SEQUENTIAL;
+
+  /**
+   * Sets the executor used to load the second node while the first one is loaded on the
+   * calling thread.
+   *
+   * <p>By default, and for nodes from the same document, the nodes are loaded one after the other.
+   *
+   * @param executor The executor to use or <code>null</code> to load the nodes one after the other.
+   *
+   * @since 1.3.4
+   */
+  public static void setLoadingExecutor(@Nullable Executor executor) {
+    loading = new ConcurrentLoader(executor);
+  }
+
   /**
    * Compares the two specified <code>Node</code>s and returns the diff as a node.
    *
@@ -104,10 +125,11 @@ public final class Extension {
     DiffConfig config = toConfig(whitespace, granularity);
 
     // Get Sequences
-    DOMLoader loader = new DOMLoader();
-    loader.setConfig(config);
-    Sequence seq1 = loader.load(xml1);
-    Sequence seq2 = loader.load(xml2);
+    ConcurrentLoader.Result loaded = loading.forNodes(xml1, xml2).load(
+        () -> newLoader(config).load(xml1),
+        () -> newLoader(config).load(xml2));
+    Sequence seq1 = loaded.first();
+    Sequence seq2 = loaded.second();
     if (seq1.isEmpty() && seq2.isEmpty()) return null;
 
     // Start comparing
@@ -125,6 +147,12 @@ public final class Extension {
 
   // private helpers ------------------------------------------------------------------------------
 
+  private static DOMLoader newLoader(DiffConfig config) {
+    DOMLoader loader = new DOMLoader();
+    loader.setConfig(config);
+    return loader;
+  }
+
   /**
    * Compares the two specified xml files and prints the diff onto the given writer.
    *
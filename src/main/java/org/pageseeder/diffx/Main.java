@@ -16,14 +16,18 @@
 package org.pageseeder.diffx;
 
 import org.jspecify.annotations.Nullable;
+import org.pageseeder.diffx.api.DiffHandler;
 import org.pageseeder.diffx.config.DiffConfig;
 import org.pageseeder.diffx.config.TextGranularity;
 import org.pageseeder.diffx.config.WhiteSpaceProcessing;
+import org.pageseeder.diffx.core.AdaptiveXMLProcessor;
 import org.pageseeder.diffx.core.DefaultXMLProcessor;
 import org.pageseeder.diffx.core.DiffProcessor;
+import org.pageseeder.diffx.core.HierarchicalXMLProcessor;
 import org.pageseeder.diffx.core.OptimisticXMLProcessor;
 import org.pageseeder.diffx.core.TextOnlyProcessor;
 import org.pageseeder.diffx.format.*;
+import org.pageseeder.diffx.handler.MoveDetectionFilter;
 import org.pageseeder.diffx.load.*;
 import org.pageseeder.diffx.token.XMLToken;
 import org.pageseeder.diffx.util.CommandLine;
@@ -37,22 +41,44 @@ import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.concurrent.Executor;
 
 /**
  * Utility class to centralise the access to this API from the command line.
  *
+ * <p>The two documents to compare are loaded concurrently, see {@link #setLoadingExecutor(Executor)}.
+ *
  * @author Christophe Lauret
- * @version 1.0.1
+ * @version 1.3.4
  * @version 0.9.0
  */
 public final class Main {
 
+  /**
+   * Loads the two documents to compare.
+   */
+  private static volatile ConcurrentLoader loading = ConcurrentLoader.SEQUENTIAL;
+
   /**
    * Prevents creation of instances.
    */
   private Main() {
   }
 
+  /**
+   * Sets the executor used to load the second document while the first one is loaded
+   * on the calling thread.
+   *
+   * <p>By default, the documents are loaded one after the other on the calling thread.
+   *
+   * @param executor The executor to use or <code>null</code> to load the documents one after the other.
+   *
+   * @since 1.3.4
+   */
+  public static void setLoadingExecutor(@Nullable Executor executor) {
+    loading = new ConcurrentLoader(executor);
+  }
+
   /**
    * Returns <code>true</code> if the two specified files are XML equivalent by looking at the
    * sequence SAX events reported an XML reader.
@@ -66,10 +92,8 @@ public final class Main {
    * @throws IOException   Should an I/O exception occur.
    */
   public static boolean equivalent(File xmlA, File xmlB) throws DiffException, IOException {
-    XMLLoader loader = new SAXLoader();
-    Sequence seq0 = loader.load(xmlA);
-    Sequence seq1 = loader.load(xmlB);
-    return seq0.equals(seq1);
+    ConcurrentLoader.Result loaded = loading.load(() -> new SAXLoader().load(xmlA), () -> new SAXLoader().load(xmlB));
+    return loaded.first().equals(loaded.second());
   }
 
   /**
@@ -85,10 +109,10 @@ public final class Main {
    * @throws IOException   Should an I/O exception occur.
    */
   public static boolean equivalent(InputStream xmlA, InputStream xmlB) throws DiffException, IOException {
-    SAXLoader loader = new SAXLoader();
-    Sequence seq0 = loader.load(new InputSource(xmlA));
-    Sequence seq1 = loader.load(new InputSource(xmlB));
-    return seq0.equals(seq1);
+    ConcurrentLoader.Result loaded = loading.load(
+        () -> new SAXLoader().load(new InputSource(xmlA)),
+        () -> new SAXLoader().load(new InputSource(xmlB)));
+    return loaded.first().equals(loaded.second());
   }
 
   /**
@@ -104,10 +128,10 @@ public final class Main {
    * @throws IOException   Should an I/O exception occur.
    */
   public static boolean equivalent(Reader xmlA, Reader xmlB) throws DiffException, IOException {
-    SAXLoader loader = new SAXLoader();
-    Sequence seq0 = loader.load(new InputSource(xmlA));
-    Sequence seq1 = loader.load(new InputSource(xmlB));
-    return seq0.equals(seq1);
+    ConcurrentLoader.Result loaded = loading.load(
+        () -> new SAXLoader().load(new InputSource(xmlA)),
+        () -> new SAXLoader().load(new InputSource(xmlB)));
+    return loaded.first().equals(loaded.second());
   }
 
   /**
@@ -124,14 +148,11 @@ public final class Main {
   public static void diff(Node xmlA, Node xmlB, Writer out, @Nullable DiffConfig config)
       throws DiffException, IOException {
     // records the tokens from the XML
-    DOMLoader loader = new DOMLoader();
-    if (config != null) {
-      loader.setConfig(config);
-    }
-    Sequence seq1 = loader.load(xmlA);
-    Sequence seq2 = loader.load(xmlB);
+    ConcurrentLoader.Result loaded = loading.forNodes(xmlA, xmlB).load(
+        () -> newDOMLoader(config).load(xmlA),
+        () -> newDOMLoader(config).load(xmlB));
     // start slicing
-    diff(seq1, seq2, out);
+    diff(loaded.first(), loaded.second(), out);
   }
 
   /**
@@ -150,14 +171,11 @@ public final class Main {
   public static void diff(NodeList xmlA, NodeList xmlB, Writer out, @Nullable DiffConfig config)
       throws DiffException, IOException {
     // records the tokens from the XML
-    DOMLoader loader = new DOMLoader();
-    if (config != null) {
-      loader.setConfig(config);
-    }
-    Sequence seq1 = loader.load(xmlA);
-    Sequence seq2 = loader.load(xmlB);
+    ConcurrentLoader.Result loaded = loading.forNodes(xmlA, xmlB).load(
+        () -> newDOMLoader(config).load(xmlA),
+        () -> newDOMLoader(config).load(xmlB));
     // start slicing
-    diff(seq1, seq2, out);
+    diff(loaded.first(), loaded.second(), out);
   }
 
   /**
@@ -174,14 +192,11 @@ public final class Main {
   public static void diff(Reader xmlA, Reader xmlB, Writer out, @Nullable DiffConfig config)
       throws DiffException, IOException {
     // records the tokens from the XML
-    SAXLoader loader = new SAXLoader();
-    if (config != null) {
-      loader.setConfig(config);
-    }
-    Sequence seq1 = loader.load(new InputSource(xmlA));
-    Sequence seq2 = loader.load(new InputSource(xmlB));
+    ConcurrentLoader.Result loaded = loading.load(
+        () -> newSAXLoader(config).load(new InputSource(xmlA)),
+        () -> newSAXLoader(config).load(new InputSource(xmlB)));
     // start slicing
-    diff(seq1, seq2, out);
+    diff(loaded.first(), loaded.second(), out);
   }
 
   /**
@@ -196,11 +211,11 @@ public final class Main {
    */
   public static void diff(Reader xmlA, Reader xmlB, Writer out) throws DiffException, IOException {
     // records the tokens from the XML
-    SAXLoader loader = new SAXLoader();
-    Sequence seq1 = loader.load(new InputSource(xmlA));
-    Sequence seq2 = loader.load(new InputSource(xmlB));
+    ConcurrentLoader.Result loaded = loading.load(
+        () -> new SAXLoader().load(new InputSource(xmlA)),
+        () -> new SAXLoader().load(new InputSource(xmlB)));
     // start slicing
-    diff(seq1, seq2, out);
+    diff(loaded.first(), loaded.second(), out);
   }
 
   /**
@@ -216,10 +231,10 @@ public final class Main {
   public static void diff(InputStream xmlA, InputStream xmlB, OutputStream out)
       throws DiffException, IOException {
     // records the tokens from the XML
-    SAXLoader loader = new SAXLoader();
-    Sequence seq1 = loader.load(new InputSource(xmlA));
-    Sequence seq2 = loader.load(new InputSource(xmlB));
-    diff(seq1, seq2, new OutputStreamWriter(out));
+    ConcurrentLoader.Result loaded = loading.load(
+        () -> new SAXLoader().load(new InputSource(xmlA)),
+        () -> new SAXLoader().load(new InputSource(xmlB)));
+    diff(loaded.first(), loaded.second(), new OutputStreamWriter(out));
   }
 
   /**
@@ -237,6 +252,22 @@ public final class Main {
     processor.diff(seq1.tokens(), seq2.tokens(), output);
   }
 
+  private static DOMLoader newDOMLoader(@Nullable DiffConfig config) {
+    DOMLoader loader = new DOMLoader();
+    if (config != null) {
+      loader.setConfig(config);
+    }
+    return loader;
+  }
+
+  private static SAXLoader newSAXLoader(@Nullable DiffConfig config) {
+    SAXLoader loader = new SAXLoader();
+    if (config != null) {
+      loader.setConfig(config);
+    }
+    return loader;
+  }
+
   // command line -------------------------------------------------------------------------
 
   /**
@@ -254,21 +285,24 @@ public final class Main {
       boolean profile = CommandLine.hasSwitch("-profile", args);
       boolean quiet = CommandLine.hasSwitch("-quiet", args);
       boolean allowDoctype = CommandLine.hasSwitch("-allowdoctype", args);
+      boolean moves = CommandLine.hasSwitch("-moves", args);
 
       // get the files
       File xmlA = toFile(args[args.length - 2]);
       File xmlB = toFile(args[args.length - 1]);
 
-      // loading
-      // TODO Use nanotime for profiling
-      long t0 = System.currentTimeMillis();
-      XMLLoader loader = getLoader(args);
-      if (loader == null) return;
-      Sequence seq1 = loader.load(xmlA);
-      Sequence seq2 = loader.load(xmlB);
-      long t1 = System.currentTimeMillis();
+      // loading (each document uses its own loader)
+      XMLLoader loader1 = getLoader(args);
+      XMLLoader loader2 = getLoader(args);
+      if (loader1 == null || loader2 == null) return;
+      ConcurrentLoader.Result loaded = loading.load(() -> loader1.load(xmlA), () -> loader2.load(xmlB));
+      Sequence seq1 = loaded.first();
+      Sequence seq2 = loaded.second();
+      long t1 = System.nanoTime();
       if (profile) {
-        System.err.println("Loaded files in " + (t1 - t0) + "ms");
+        System.err.println("Loaded " + xmlA.getName() + " in " + toMillis(loaded.firstNanos()) + "ms");
+        System.err.println("Loaded " + xmlB.getName() + " in " + toMillis(loaded.secondNanos()) + "ms");
+        System.err.println("Loaded files in " + toMillis(loaded.totalNanos()) + "ms");
       }
 
       // get the config
@@ -293,11 +327,15 @@ public final class Main {
       }
       DiffProcessor<XMLToken> processor = getProcessor(args);
       if (processor == null) return;
-      processor.diff(seq1.tokens(), seq2.tokens(), output);
+      if (profile && processor instanceof AdaptiveXMLProcessor) {
+        ((AdaptiveXMLProcessor) processor).setReporter(decision -> System.err.println("Processor: " + decision));
+      }
+      DiffHandler<XMLToken> handler = moves ? new MoveDetectionFilter(output) : output;
+      processor.diff(seq1.tokens(), seq2.tokens(), handler);
 
-      long t2 = System.currentTimeMillis();
+      long t2 = System.nanoTime();
       if (profile) {
-        System.err.println("Executed algorithm files in " + (t2 - t1) + "ms");
+        System.err.println("Executed algorithm files in " + toMillis(t2 - t1) + "ms");
       }
 
     } catch (Exception ex) {
@@ -317,12 +355,13 @@ public final class Main {
     System.err.println("  xml_file1 = Path to the new XML file");
     System.err.println("  xml_file2 = Path to the old XML file");
     System.err.println("options:");
-    System.err.println("  -profile        Display profiling info");
+    System.err.println("  -profile        Display profiling info (incl. load time per document)");
+    System.err.println("  -moves          Report moved blocks (default format only)");
     System.err.println("  -o [output]     The output file");
     System.err.println("  -l [loader]     Choose a specific loader");
     System.err.println("                   sax* | dom | stream | stax | text");
     System.err.println("  -p [processor]  Choose a specific processor");
-    System.err.println("                   optimistic* | xml | text");
+    System.err.println("                   adaptive | optimistic | xml* | hierarchical | text");
     System.err.println("  -f [format]     Choose a specific formatter");
     System.err.println("                   default* | complete | strict | report");
     System.err.println("  -w [whitespace] Define whitespace processing");
@@ -374,10 +413,14 @@ public final class Main {
    */
   private static @Nullable DiffProcessor<XMLToken> getProcessor(String[] args) {
     String loaderArg = CommandLine.getParameter("-p", args);
-    if (loaderArg == null || "optimistic".equals(loaderArg))
-      return new DefaultXMLProcessor();
-    if ("xml".equals(loaderArg))
+    if ("adaptive".equals(loaderArg))
+      return new AdaptiveXMLProcessor();
+    if ("optimistic".equals(loaderArg))
       return new OptimisticXMLProcessor();
+    if (loaderArg == null || "xml".equals(loaderArg))
+      return new DefaultXMLProcessor();
+    if ("hierarchical".equals(loaderArg))
+      return new HierarchicalXMLProcessor();
     if ("text".equals(loaderArg))
       return new TextOnlyProcessor<>();
     usage();
@@ -440,6 +483,10 @@ public final class Main {
     return TextGranularity.SPACE_WORD;
   }
 
+  private static long toMillis(long nanos) {
+    return nanos / 1_000_000;
+  }
+
   private static File toFile(String arg) {
     try {
       File f = new File(arg).getCanonicalFile();
@@ -0,0 +1,406 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.algorithm;
+
+import org.pageseeder.diffx.api.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.ToIntFunction;
+
+/**
+ * A bit-parallel implementation of the longest common subsequence (LCS) based on the bit-vector
+ * algorithm of Allison and Dix, as formulated by Hyyrö.
+ *
+ * <p>Each row of the LCS matrix is encoded as a bit-vector over the first sequence where a zero bit
+ * marks a position where the LCS length increases. A row is computed from the previous one with a
+ * handful of word operations, so 64 cells are computed at once. This algorithm performs best on long
+ * sequences over small alphabets, for example when comparing text character by character.
+ *
+ * <p>Tokens are interned using a {@link SymbolTable} and the match masks are computed for each
+ * distinct token of the first sequence.
+ *
+ * <p>The rows are kept to compute the edit script when they fit within {@link #MAX_TRACE_WORDS};
+ * otherwise the second sequence is split in half and the split point on the first sequence is
+ * found from the forward and reverse last rows as in Hirschberg's algorithm, so the space
+ * remains bounded.
+ *
+ * @param <T> The type of token being compared
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ *
+ * @see <a href="https://doi.org/10.1016/0020-0190(86)90091-8">A bit-string longest-common-subsequence algorithm, L. Allison and T.I. Dix</a>
+ * @see <a href="https://doi.org/10.1007/978-3-540-27801-6_16">Bit-Parallel LCS-length Computation Revisited, H. Hyyrö</a>
+ */
+public final class AllisonDixAlgorithm<T> implements DiffAlgorithm<T>, MatchPreferenceConfigurable, DiffContextConfigurable {
+
+  /**
+   * Maximum number of words stored for the rows of the LCS matrix before splitting (32MB).
+   */
+  static final int MAX_TRACE_WORDS = 1 << 22;
+
+  /**
+   * Maximum number of words for the match masks before computing them for each row (8MB).
+   */
+  static final int MAX_MASK_WORDS = 1 << 20;
+
+  /**
+   * The context is checked every time this number of rows is computed.
+   */
+  private static final int CHECK_MASK = 0x3F;
+
+  /**
+   * Determines the strategy to compare elements for equality within the diff algorithm.
+   */
+  private final Equality<T> eq;
+
+  /**
+   * The hash function consistent with the equality used for interning.
+   */
+  private final ToIntFunction<? super T> hasher;
+
+  /**
+   * Determines which side's element to emit when elements match.
+   */
+  private boolean preferFrom = false;
+
+  /**
+   * The context checked while computing the diff.
+   */
+  private DiffContext context = DiffContext.NONE;
+
+  /**
+   * Default constructor using token equality and hash code.
+   */
+  public AllisonDixAlgorithm() {
+    this.eq = T::equals;
+    this.hasher = Object::hashCode;
+  }
+
+  /**
+   * Constructor specifying the equality strategy and a consistent hash function.
+   *
+   * @param eq     The strategy to compare elements for equality.
+   * @param hasher A hash function consistent with the equality.
+   */
+  public AllisonDixAlgorithm(Equality<T> eq, ToIntFunction<? super T> hasher) {
+    this.eq = eq;
+    this.hasher = hasher;
+  }
+
+  /**
+   * Whether to keep matching elements from the from list (true) or to list (false).
+   *
+   * @return <code>true</code> if matching elements should be kept from the "from" list,
+   *         <code>false</code> otherwise.
+   */
+  @Override
+  public boolean isPreferFrom() {
+    return this.preferFrom;
+  }
+
+  /**
+   * Whether to keep matching elements from the from list (true) or to list (false).
+   *
+   * @param preferFrom True to keep matching elements from the from list, false to keep from the to list.
+   */
+  @Override
+  public void setPreferFrom(boolean preferFrom) {
+    this.preferFrom = preferFrom;
+  }
+
+  /**
+   * Set the context checked while computing the diff so that it stops when the context is
+   * cancelled or its deadline is exceeded.
+   *
+   * @param context The context of the diff
+   */
+  @Override
+  public void setContext(DiffContext context) {
+    this.context = context;
+  }
+
+  @Override
+  public void diff(List<? extends T> from, List<? extends T> to, DiffHandler<T> handler) {
+    List<? extends T> a = (from instanceof RandomAccess) ? from : new ArrayList<>(from);
+    List<? extends T> b = (to instanceof RandomAccess) ? to : new ArrayList<>(to);
+
+    SymbolTable<T> symbols = new SymbolTable<>(this.eq, this.hasher);
+    int[] ia = symbols.encode(a);
+    int[] ib = symbols.encode(b);
+
+    Instance<T> instance = new Instance<>(ia, a, ib, b, symbols.size(), handler, this.preferFrom, this.context);
+    instance.diff(0, ia.length, 0, ib.length);
+  }
+
+  /**
+   * An instance of this algorithm for the sequences being compared.
+   *
+   * @param <T> The type of token
+   */
+  private static final class Instance<T> {
+
+    private final int[] a;
+    private final List<? extends T> ta;
+    private final int[] b;
+    private final List<? extends T> tb;
+    private final int symbols;
+    private final DiffHandler<T> handler;
+    private final boolean preferFrom;
+    private final DiffContext context;
+
+    @SuppressWarnings("java:S107")
+    Instance(int[] a, List<? extends T> ta, int[] b, List<? extends T> tb, int symbols, DiffHandler<T> handler, boolean preferFrom,
+             DiffContext context) {
+      this.a = a;
+      this.ta = ta;
+      this.b = b;
+      this.tb = tb;
+      this.symbols = symbols;
+      this.handler = handler;
+      this.preferFrom = preferFrom;
+      this.context = context;
+    }
+
+    /**
+     * Report the differences between the specified ranges.
+     */
+    void diff(int aStart, int aEnd, int bStart, int bEnd) {
+      this.context.check();
+      int n = aEnd - aStart;
+      int m = bEnd - bStart;
+      if (n == 0 || m == 0) {
+        finish(aStart, aEnd, bStart, bEnd);
+        return;
+      }
+
+      int words = (n + 63) >>> 6;
+      if ((long) (m + 1) * words <= MAX_TRACE_WORDS || m == 1) {
+        trace(aStart, aEnd, bStart, bEnd);
+        return;
+      }
+
+      // Split the second sequence in half and find the best split in the first sequence
+      int h = bStart + m / 2;
+      long[] forward = lastRow(aStart, aEnd, bStart, h);
+      long[] reverse = lastRowReverse(aStart, aEnd, h, bEnd);
+      int[] l1 = prefixZeros(forward, n);
+      int[] l2 = prefixZeros(reverse, n);
+      int max = -1;
+      int k = 0;
+      for (int i = 0; i <= n; i++) {
+        int s = l1[i] + l2[n - i];
+        if (s > max) {
+          max = s;
+          k = i;
+        }
+      }
+
+      diff(aStart, aStart + k, bStart, h);
+      diff(aStart + k, aEnd, h, bEnd);
+    }
+
+    /**
+     * Computes all the rows of the reversed ranges and walks them forward to report the
+     * edit script in order.
+     */
+    private void trace(int aStart, int aEnd, int bStart, int bEnd) {
+      int n = aEnd - aStart;
+      int m = bEnd - bStart;
+      int words = (n + 63) >>> 6;
+      Masks masks = new Masks(this.a, aStart, aEnd, true, this.symbols);
+      long[] rows = new long[(m + 1) * words];
+      Arrays.fill(rows, 0, words, -1L);
+      for (int j = 1; j <= m; j++) {
+        if ((j & CHECK_MASK) == 0) this.context.check();
+        System.arraycopy(rows, (j - 1) * words, rows, j * words, words);
+        step(rows, j * words, words, masks.get(this.b[bEnd - j]));
+      }
+
+      // In reverse coordinates, bit (r - 1) of row c is set when the LCS of the last r tokens
+      // of A and last c tokens of B is the same as with the last r - 1 tokens of A
+      int i = aStart;
+      int j = bStart;
+      while (i < aEnd && j < bEnd) {
+        if (this.a[i] == this.b[j]) {
+          this.handler.handle(Operator.MATCH, this.preferFrom ? this.ta.get(i) : this.tb.get(j));
+          i++;
+          j++;
+        } else {
+          int r = aEnd - i - 1;
+          long word = rows[(bEnd - j) * words + (r >>> 6)];
+          if ((word & (1L << r)) != 0) {
+            this.handler.handle(Operator.DEL, this.ta.get(i++));
+          } else {
+            this.handler.handle(Operator.INS, this.tb.get(j++));
+          }
+        }
+      }
+      finish(i, aEnd, j, bEnd);
+    }
+
+    /**
+     * @return the last row for the specified ranges.
+     */
+    private long[] lastRow(int aStart, int aEnd, int bStart, int bEnd) {
+      int words = (aEnd - aStart + 63) >>> 6;
+      Masks masks = new Masks(this.a, aStart, aEnd, false, this.symbols);
+      long[] row = new long[words];
+      Arrays.fill(row, -1L);
+      for (int j = bStart; j < bEnd; j++) {
+        if ((j & CHECK_MASK) == 0) this.context.check();
+        step(row, 0, words, masks.get(this.b[j]));
+      }
+      return row;
+    }
+
+    /**
+     * @return the last row for the specified ranges in reverse order.
+     */
+    private long[] lastRowReverse(int aStart, int aEnd, int bStart, int bEnd) {
+      int words = (aEnd - aStart + 63) >>> 6;
+      Masks masks = new Masks(this.a, aStart, aEnd, true, this.symbols);
+      long[] row = new long[words];
+      Arrays.fill(row, -1L);
+      for (int j = bEnd - 1; j >= bStart; j--) {
+        if ((j & CHECK_MASK) == 0) this.context.check();
+        step(row, 0, words, masks.get(this.b[j]));
+      }
+      return row;
+    }
+
+    private void finish(int i, int aEnd, int j, int bEnd) {
+      for (; i < aEnd; i++) {
+        this.handler.handle(Operator.DEL, this.ta.get(i));
+      }
+      for (; j < bEnd; j++) {
+        this.handler.handle(Operator.INS, this.tb.get(j));
+      }
+    }
+  }
+
+  /**
+   * Computes the next row in place: <code>V' = (V + (V &amp; M)) | (V &amp; ~M)</code>.
+   *
+   * @param row    The array containing the row
+   * @param offset The offset of the row in the array
+   * @param words  The number of words in the row
+   * @param mask   The match mask of the token
+   */
+  private static void step(long[] row, int offset, int words, long[] mask) {
+    long carry = 0;
+    for (int w = 0; w < words; w++) {
+      long v = row[offset + w];
+      long u = v & mask[w];
+      long sum = v + u + carry;
+      carry = ((v & u) | ((v | u) & ~sum)) >>> 63;
+      row[offset + w] = sum | (v - u);
+    }
+  }
+
+  /**
+   * @return The LCS length for each prefix of the first sequence, that is the number of zero bits.
+   */
+  private static int[] prefixZeros(long[] row, int n) {
+    int[] zeros = new int[n + 1];
+    for (int i = 0; i < n; i++) {
+      zeros[i + 1] = zeros[i] + (int) (~row[i >>> 6] >>> i & 1L);
+    }
+    return zeros;
+  }
+
+  /**
+   * The match masks of the tokens of a range of the first sequence.
+   *
+   * <p>Masks are computed lazily for each distinct token and cached if they fit within
+   * {@link #MAX_MASK_WORDS}, otherwise a single mask is rebuilt for each row.
+   */
+  private static final class Masks {
+
+    private final int words;
+
+    /**
+     * The position of the first occurrence of each symbol in the range (-1 if none).
+     */
+    private final int[] head;
+
+    /**
+     * The position of the next occurrence of the symbol at each position (-1 if none).
+     */
+    private final int[] next;
+
+    private final long[] empty;
+
+    private final boolean cached;
+
+    private final long[][] cache;
+
+    private final long[] scratch;
+
+    private int scratchSymbol = -1;
+
+    Masks(int[] a, int aStart, int aEnd, boolean reverse, int symbols) {
+      int n = aEnd - aStart;
+      this.words = (n + 63) >>> 6;
+      this.head = new int[symbols];
+      this.next = new int[n];
+      Arrays.fill(this.head, -1);
+      int distinct = 0;
+      for (int p = n - 1; p >= 0; p--) {
+        int s = a[reverse ? aEnd - 1 - p : aStart + p];
+        if (this.head[s] == -1) distinct++;
+        this.next[p] = this.head[s];
+        this.head[s] = p;
+      }
+      this.empty = new long[this.words];
+      this.cached = (long) distinct * this.words <= MAX_MASK_WORDS;
+      this.cache = new long[this.cached ? symbols : 0][];
+      this.scratch = this.cached ? this.empty : new long[this.words];
+    }
+
+    long[] get(int symbol) {
+      if (this.head[symbol] == -1) return this.empty;
+      if (this.cached) {
+        long[] mask = this.cache[symbol];
+        if (mask == null) {
+          mask = new long[this.words];
+          fill(mask, symbol, true);
+          this.cache[symbol] = mask;
+        }
+        return mask;
+      }
+      if (this.scratchSymbol != symbol) {
+        if (this.scratchSymbol != -1) fill(this.scratch, this.scratchSymbol, false);
+        fill(this.scratch, symbol, true);
+        this.scratchSymbol = symbol;
+      }
+      return this.scratch;
+    }
+
+    private void fill(long[] mask, int symbol, boolean set) {
+      for (int p = this.head[symbol]; p != -1; p = this.next[p]) {
+        if (set) mask[p >>> 6] |= 1L << p;
+        else mask[p >>> 6] &= ~(1L << p);
+      }
+    }
+  }
+
+}
@@ -19,43 +19,65 @@ package org.pageseeder.diffx.algorithm;
  * A direction-only matrix used for reconstructing a Diff-X path.
  *
  * <p>This matrix stores only the comparison between moving on the X and Y direction
- * for each cell. It is enough for the Wagner-Fischer backtracking logic.
+ * for each cell. It is enough for the Wagner-Fischer backtracking logic and the
+ * XML-aware matrix walk.
+ *
+ * <p>Each direction is packed in 2 bits, so that the matrix takes 8 times less memory than
+ * a matrix of short and 16 times less than a matrix of integers.
  *
  * @author Christophe Lauret
  *
- * @version 1.3.3
+ * @version 1.3.4
  * @since 1.3.3
  */
 public final class DirectionMatrix {
 
-  private static final byte SAME = 0;
-  private static final byte X_GREATER = 1;
-  private static final byte Y_GREATER = 2;
+  static final byte SAME = 0;
+  static final byte X_GREATER = 1;
+  static final byte Y_GREATER = 2;
+
+  /**
+   * The maximum number of cells of a direction matrix.
+   */
+  static final long MAX_SIZE = Integer.MAX_VALUE;
 
   private int lengthX;
   private int lengthY;
-  private byte[] directions;
 
+  /**
+   * The directions packed 32 per word.
+   */
+  private long[] directions;
+
+  /**
+   * @throws IllegalArgumentException If the number of cells exceeds {@link #MAX_SIZE}.
+   */
   void setup(int lengthX, int lengthY) {
+    long size = (long) lengthX * lengthY;
+    if (size > MAX_SIZE)
+      throw new IllegalArgumentException("Matrix is too large: " + lengthX + "x" + lengthY);
     this.lengthX = lengthX;
     this.lengthY = lengthY;
-    this.directions = new byte[lengthX * lengthY];
+    this.directions = new long[(int) ((size + 31) >>> 5)];
   }
 
   void setDirection(int i, int j, byte direction) {
-    this.directions[index(i, j)] = direction;
+    int index = index(i, j);
+    int shift = (index & 31) << 1;
+    long word = this.directions[index >>> 5] & ~(3L << shift);
+    this.directions[index >>> 5] = word | ((long) direction << shift);
   }
 
   boolean isGreaterX(int i, int j) {
-    return this.directions[index(i, j)] == X_GREATER;
+    return direction(i, j) == X_GREATER;
   }
 
   boolean isGreaterY(int i, int j) {
-    return this.directions[index(i, j)] == Y_GREATER;
+    return direction(i, j) == Y_GREATER;
   }
 
   boolean isSameXY(int i, int j) {
-    return this.directions[index(i, j)] == SAME;
+    return direction(i, j) == SAME;
   }
 
   int lengthX() {
@@ -66,6 +88,11 @@ public final class DirectionMatrix {
     return this.lengthY;
   }
 
+  private int direction(int i, int j) {
+    int index = index(i, j);
+    return (int) (this.directions[index >>> 5] >>> ((index & 31) << 1)) & 3;
+  }
+
   private int index(int i, int j) {
     return i * this.lengthY + j;
   }
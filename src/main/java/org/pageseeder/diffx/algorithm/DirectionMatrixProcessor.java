@@ -15,6 +15,7 @@
  */
 package org.pageseeder.diffx.algorithm;
 
+import org.pageseeder.diffx.api.DiffContext;
 import org.pageseeder.diffx.api.Equality;
 import org.pageseeder.diffx.token.XMLToken;
 import org.pageseeder.diffx.xml.Sequence;
@@ -26,13 +27,20 @@ import java.util.List;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.3
+ * @version 1.3.4
  * @since 1.3.3
  */
 public final class DirectionMatrixProcessor<T> {
 
+  /**
+   * The context is checked every time this number of rows is filled.
+   */
+  private static final int CHECK_MASK = 0x3F;
+
   private boolean inverse = false;
 
+  private DiffContext context = DiffContext.NONE;
+
   /**
    * Sets whether to compute the matrix in reverse (from the end of both sequences).
    *
@@ -42,6 +50,15 @@ public final class DirectionMatrixProcessor<T> {
     this.inverse = inverse;
   }
 
+  /**
+   * Sets the context checked while computing the matrix.
+   *
+   * @param context The context of the diff
+   */
+  public void setContext(DiffContext context) {
+    this.context = context;
+  }
+
   /**
    * Computes a direction matrix for two XML token sequences using default token equality.
    *
@@ -89,11 +106,26 @@ public final class DirectionMatrixProcessor<T> {
     return this.inverse ? computeInverse(first, second, eq) : throwUnsupported();
   }
 
+  /**
+   * Computes a direction matrix for two sequences of token identifiers.
+   *
+   * <p>Tokens are considered equal if and only if they have the same identifier.
+   *
+   * @param first  the identifiers of the first sequence
+   * @param second the identifiers of the second sequence
+   * @return the computed direction matrix
+   *
+   * @see SymbolTable
+   */
+  public DirectionMatrix process(int[] first, int[] second) {
+    return this.inverse ? computeInverse(first, second) : throwUnsupported();
+  }
+
   private static DirectionMatrix throwUnsupported() {
     throw new IllegalStateException("DirectionMatrixProcessor currently supports inverse matrices only");
   }
 
-  private static <T> DirectionMatrix computeInverse(List<? extends T> first, List<? extends T> second, Equality<T> eq) {
+  private <T> DirectionMatrix computeInverse(List<? extends T> first, List<? extends T> second, Equality<T> eq) {
     int length1 = first.size();
     int length2 = second.size();
     DirectionMatrix matrix = new DirectionMatrix();
@@ -103,6 +135,7 @@ public final class DirectionMatrixProcessor<T> {
     int[] currRow = new int[length2 + 1];
 
     for (int i = length1; i >= 0; i--) {
+      if ((i & CHECK_MASK) == 0) this.context.check();
       currRow[length2] = 0;
       for (int j = length2 - 1; j >= 0; j--) {
         if (i == length1) {
@@ -124,4 +157,33 @@ public final class DirectionMatrixProcessor<T> {
 
     return matrix;
   }
+
+  private DirectionMatrix computeInverse(int[] first, int[] second) {
+    int length1 = first.length;
+    int length2 = second.length;
+    DirectionMatrix matrix = new DirectionMatrix();
+    matrix.setup(length1 + 1, length2 + 1);
+
+    // The last row and column are all SAME which is the default direction
+    int[] nextRow = new int[length2 + 1];
+    int[] currRow = new int[length2 + 1];
+
+    for (int i = length1 - 1; i >= 0; i--) {
+      if ((i & CHECK_MASK) == 0) this.context.check();
+      int id = first[i];
+      for (int j = length2 - 1; j >= 0; j--) {
+        if (id == second[j]) {
+          currRow[j] = nextRow[j + 1] + 1;
+        } else {
+          currRow[j] = Math.max(currRow[j + 1], nextRow[j]);
+        }
+        matrix.setDirection(i, j, DirectionMatrix.compare(nextRow[j], currRow[j + 1]));
+      }
+      int[] tmp = nextRow;
+      nextRow = currRow;
+      currRow = tmp;
+    }
+
+    return matrix;
+  }
 }
@@ -44,7 +44,7 @@ import java.util.Deque;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.0
+ * @version 1.3.4
  * @since 0.7.0
  */
 public final class ElementStackFilter extends DiffFilter<XMLToken> {
@@ -110,7 +110,7 @@ public final class ElementStackFilter extends DiffFilter<XMLToken> {
    *
    * <p>If the token is a START_ELEMENT token, it is pushed into the stack along with the corresponding operation.</p>
    *
-   * <p>If the token is an END_ELEMENT token, it is popped from the stack.</p>
+   * <p>If the token is an END_ELEMENT token, the current element is popped from the stack if there is one.</p>
    *
    * @param token    The deleted token.
    * @param operator The corresponding operator
@@ -120,7 +120,7 @@ public final class ElementStackFilter extends DiffFilter<XMLToken> {
     this.target.handle(operator, token);
     if (token instanceof StartElementToken) {
       this.elements.push(new Operation<>(operator, (StartElementToken) token));
-    } else if (token instanceof EndElementToken) {
+    } else if (token instanceof EndElementToken && !this.elements.isEmpty()) {
       this.elements.pop();
     }
   }
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.algorithm;
+
+/**
+ * A matrix implementation backed by a single contiguous array of int numbers.
+ *
+ * <p>Cells are stored row by row so that the cell at <code>(i, j)</code> is at index
+ * <code>i * height + j</code>, the neighbouring cells used to compute or walk the path
+ * are therefore at a fixed offset from each other.
+ *
+ * <p>The number of cells must not exceed {@link #MAX_SIZE}.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ *
+ * @see MatrixIntBase
+ */
+public abstract class FlatMatrixIntBase implements Matrix {
+
+  /**
+   * The maximum number of cells that a flat matrix can store.
+   */
+  public static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+
+  /**
+   * The actual matrix storing the values.
+   */
+  protected int[] matrix;
+
+  /**
+   * The number of columns.
+   */
+  protected int width;
+
+  /**
+   * The number of rows.
+   */
+  protected int height;
+
+  /**
+   * @throws IllegalArgumentException If the number of cells exceeds {@link #MAX_SIZE}.
+   *
+   * @see Matrix#setup(int, int)
+   */
+  @Override
+  public void setup(int width, int height) {
+    long size = (long) width * height;
+    if (size > MAX_SIZE)
+      throw new IllegalArgumentException("Matrix is too large for a flat array: " + width + "x" + height);
+    this.matrix = new int[(int) size];
+    this.width = width;
+    this.height = height;
+  }
+
+  /**
+   * @see Matrix#set(int, int, int)
+   */
+  @Override
+  public void set(int i, int j, int x) {
+    this.matrix[i * this.height + j] = x;
+  }
+
+  /**
+   * @see Matrix#get(int, int)
+   */
+  @Override
+  public int get(int i, int j) {
+    return this.matrix[i * this.height + j];
+  }
+
+  @Override
+  public int lengthX() {
+    return this.width;
+  }
+
+  @Override
+  public int lengthY() {
+    return this.height;
+  }
+
+  /**
+   * @see Matrix#isGreaterX(int, int)
+   */
+  @Override
+  public boolean isGreaterX(int i, int j) {
+    int index = i * this.height + j;
+    return this.matrix[index + this.height] > this.matrix[index + 1];
+  }
+
+  /**
+   * @see Matrix#isGreaterY(int, int)
+   */
+  @Override
+  public boolean isGreaterY(int i, int j) {
+    int index = i * this.height + j;
+    return this.matrix[index + this.height] < this.matrix[index + 1];
+  }
+
+  /**
+   * @see Matrix#isSameXY(int, int)
+   */
+  @Override
+  public boolean isSameXY(int i, int j) {
+    int index = i * this.height + j;
+    return this.matrix[index + this.height] == this.matrix[index + 1];
+  }
+
+  /**
+   * @see Object#toString()
+   */
+  @Override
+  public String toString() {
+    StringBuilder out = new StringBuilder();
+    for (int j = 0; j < this.height; j++) {
+      for (int i = 0; i < this.width; i++) {
+        out.append(this.matrix[i * this.height + j]).append("\t");
+      }
+      out.append('\n');
+    }
+    return out.toString();
+  }
+
+  /**
+   * Gets rid of the underlying matrix so that garbage collector can do its work.
+   *
+   * @see Matrix#release()
+   */
+  @Override
+  public void release() {
+    this.matrix = null;
+    this.width = 0;
+    this.height = 0;
+  }
+}
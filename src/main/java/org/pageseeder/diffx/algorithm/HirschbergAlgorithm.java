@@ -15,11 +15,16 @@
  */
 package org.pageseeder.diffx.algorithm;
 
+import org.jspecify.annotations.Nullable;
+import org.pageseeder.diffx.action.Operation;
+import org.pageseeder.diffx.action.OperationsBuffer;
 import org.pageseeder.diffx.api.*;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * An implementation of the Hirschberg algorithm to find the longest common subsequence (LCS).
@@ -36,25 +41,55 @@ import java.util.RandomAccess;
  * working arrays across all recursive calls, eliminating the O(n log n) allocation cascade of the
  * naive divide-and-conquer approach.
  *
+ * <p>The two halves on either side of the split point are independent, so when a pool is
+ * specified, the second half is solved in a separate task with its own session and buffered
+ * while the first half is reported to the handler. The buffer is then replayed, so the results
+ * are identical to the sequential ones.
+ *
  * @see <a href="https://www.ics.uci.edu/~dan/pubs/p341-hirschberg.pdf">Algorithm for Computing Maximal Common Subsequences D.S. Hirschberg</a>
  *
  * @author Christophe Lauret
  *
- * @version 1.3.3
+ * @version 1.3.4
  * @since 0.9.0
  */
-public final class HirschbergAlgorithm<T> implements DiffAlgorithm<T>, MatchPreferenceConfigurable {
+public final class HirschbergAlgorithm<T> implements DiffAlgorithm<T>, MatchPreferenceConfigurable, DiffContextConfigurable {
+
+  /**
+   * The default minimum number of tokens in a sub-problem to solve it in a separate task.
+   */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 4096;
+
+  /**
+   * The context is checked every time this number of rows is computed.
+   */
+  private static final int CHECK_MASK = 0x3F;
 
   /**
    * Determines the strategy to compare elements for equality within the diff algorithm.
    */
   private final Equality<T> eq;
 
+  /**
+   * The pool used to solve sub-problems in parallel (sequential if <code>null</code>)
+   */
+  private @Nullable ForkJoinPool pool = null;
+
+  /**
+   * The minimum number of tokens in a sub-problem to solve it in a separate task.
+   */
+  private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
   /**
    * Determines which side's element to emit when elements match.
    */
   private boolean preferFrom = false;
 
+  /**
+   * The context checked while computing the diff.
+   */
+  private DiffContext context = DiffContext.NONE;
+
   /**
    * Default constructor using token equality.
    */
@@ -92,13 +127,50 @@ public final class HirschbergAlgorithm<T> implements DiffAlgorithm<T>, MatchPref
     this.preferFrom = preferFrom;
   }
 
+  /**
+   * Set the context checked while computing the diff so that it stops when the context is
+   * cancelled or its deadline is exceeded.
+   *
+   * @param context The context of the diff
+   */
+  @Override
+  public void setContext(DiffContext context) {
+    this.context = context;
+  }
+
+  /**
+   * Set the pool used to solve independent sub-problems in parallel.
+   *
+   * <p>The results are the same as when running sequentially.
+   *
+   * @param pool The fork/join pool to use or <code>null</code> to run sequentially (default)
+   */
+  public void setPool(@Nullable ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Set the minimum number of tokens in a sub-problem to solve it in a separate task.
+   *
+   * <p>This setting has no effect unless a pool has been specified.
+   *
+   * @param threshold The minimum number of tokens from both sequences.
+   */
+  public void setParallelThreshold(int threshold) {
+    this.parallelThreshold = threshold;
+  }
+
   @Override
   public void diff(List<? extends T> from, List<? extends T> to, DiffHandler<T> handler) {
     List<? extends T> a = (from instanceof RandomAccess) ? from : new ArrayList<>(from);
     List<? extends T> b = (to instanceof RandomAccess) ? to : new ArrayList<>(to);
 
     Session s = new Session();
-    algorithmC(s, a.size(), b.size(), a, 0, b, 0, handler);
+    if (this.pool != null && a.size() + b.size() >= this.parallelThreshold) {
+      this.pool.invoke(ForkJoinTask.adapt(() -> algorithmC(s, a.size(), b.size(), a, 0, b, 0, handler)));
+    } else {
+      algorithmC(s, a.size(), b.size(), a, 0, b, 0, handler);
+    }
   }
 
   /**
@@ -126,6 +198,7 @@ public final class HirschbergAlgorithm<T> implements DiffAlgorithm<T>, MatchPref
     for (int j = 0; j <= n; j++) prev[j] = 0;
 
     for (int i = 1; i <= m; i++) {
+      if ((i & CHECK_MASK) == 0) this.context.check();
       curr[0] = 0;
       T ai = a.get(aOffset + i - 1);
 
@@ -171,6 +244,7 @@ public final class HirschbergAlgorithm<T> implements DiffAlgorithm<T>, MatchPref
     for (int j = 0; j <= n; j++) prev[j] = 0;
 
     for (int i = m - 1; i >= 0; i--) {
+      if ((i & CHECK_MASK) == 0) this.context.check();
       curr[0] = 0;
       T ai = a.get(aOffset + i);
 
@@ -273,8 +347,20 @@ public final class HirschbergAlgorithm<T> implements DiffAlgorithm<T>, MatchPref
     algorithmBRev(s, m - h, n, a, aOffset + h, b, bOffset, s.l2);
     int k = findK(s.l1, s.l2, n);
 
-    algorithmC(s, h, k, a, aOffset, b, bOffset, handler);
-    algorithmC(s, m - h, n - k, a, aOffset + h, b, bOffset + k, handler);
+    if (this.pool != null && m - h + n - k >= this.parallelThreshold && ForkJoinTask.getPool() == this.pool) {
+      // Solve the second half in a separate task and buffer the results
+      OperationsBuffer<T> buffer = new OperationsBuffer<>();
+      ForkJoinTask<?> task = ForkJoinTask.adapt(() ->
+          algorithmC(new Session(), m - h, n - k, a, aOffset + h, b, bOffset + k, buffer)).fork();
+      algorithmC(s, h, k, a, aOffset, b, bOffset, handler);
+      task.join();
+      for (Operation<T> operation : buffer.getOperations()) {
+        handler.handle(operation.operator(), operation.token());
+      }
+    } else {
+      algorithmC(s, h, k, a, aOffset, b, bOffset, handler);
+      algorithmC(s, m - h, n - k, a, aOffset + h, b, bOffset + k, handler);
+    }
   }
 
   /**
@@ -0,0 +1,356 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.algorithm;
+
+import org.pageseeder.diffx.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.ToIntFunction;
+
+/**
+ * A variant of the {@link HirschbergAlgorithm} which interns the tokens in a {@link SymbolTable}
+ * first and computes the LCS scores by comparing integer identifiers.
+ *
+ * <p>The tokens are only accessed again when reporting the results to the handler, so the
+ * equality is evaluated once per token instead of once per cell.
+ *
+ * @param <T> The type of token being compared
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ *
+ * @see HirschbergAlgorithm
+ * @see SymbolTable
+ */
+public final class HirschbergIntAlgorithm<T> implements DiffAlgorithm<T>, MatchPreferenceConfigurable, DiffContextConfigurable {
+
+  /**
+   * The context is checked every time this number of rows is computed.
+   */
+  private static final int CHECK_MASK = 0x3F;
+
+  /**
+   * Determines the strategy to compare elements for equality within the diff algorithm.
+   */
+  private final Equality<T> eq;
+
+  /**
+   * The hash function consistent with the equality used for interning.
+   */
+  private final ToIntFunction<? super T> hasher;
+
+  /**
+   * Determines which side's element to emit when elements match.
+   */
+  private boolean preferFrom = false;
+
+  /**
+   * The context checked while computing the diff.
+   */
+  private DiffContext context = DiffContext.NONE;
+
+  /**
+   * Default constructor using token equality and hash code.
+   */
+  public HirschbergIntAlgorithm() {
+    this.eq = T::equals;
+    this.hasher = Object::hashCode;
+  }
+
+  /**
+   * Constructor specifying the equality strategy and a consistent hash function.
+   *
+   * @param eq     The strategy to compare elements for equality.
+   * @param hasher A hash function consistent with the equality.
+   */
+  public HirschbergIntAlgorithm(Equality<T> eq, ToIntFunction<? super T> hasher) {
+    this.eq = eq;
+    this.hasher = hasher;
+  }
+
+  /**
+   * Whether to keep matching elements from the from list (true) or to list (false).
+   *
+   * @return <code>true</code> if matching elements should be kept from the "from" list,
+   *         <code>false</code> otherwise.
+   */
+  @Override
+  public boolean isPreferFrom() {
+    return this.preferFrom;
+  }
+
+  /**
+   * Whether to keep matching elements from the from list (true) or to list (false).
+   *
+   * @param preferFrom True to keep matching elements from the from list, false to keep from the to list.
+   */
+  @Override
+  public void setPreferFrom(boolean preferFrom) {
+    this.preferFrom = preferFrom;
+  }
+
+  /**
+   * Set the context checked while computing the diff so that it stops when the context is
+   * cancelled or its deadline is exceeded.
+   *
+   * @param context The context of the diff
+   */
+  @Override
+  public void setContext(DiffContext context) {
+    this.context = context;
+  }
+
+  @Override
+  public void diff(List<? extends T> from, List<? extends T> to, DiffHandler<T> handler) {
+    List<? extends T> a = (from instanceof RandomAccess) ? from : new ArrayList<>(from);
+    List<? extends T> b = (to instanceof RandomAccess) ? to : new ArrayList<>(to);
+
+    SymbolTable<T> symbols = new SymbolTable<>(this.eq, this.hasher);
+    diff(a, symbols.encode(a), b, symbols.encode(b), handler);
+  }
+
+  /**
+   * Compares the specified tokens using the identifiers they were interned to.
+   *
+   * <p>This allows a caller which has already interned the tokens to avoid encoding them again.
+   * The identifiers must come from the same symbol table, using an equality consistent with this
+   * algorithm.
+   *
+   * @param from    The first list of tokens
+   * @param ia      The identifiers of the first list of tokens
+   * @param to      The second list of tokens
+   * @param ib      The identifiers of the second list of tokens
+   * @param handler The handler receiving the operations
+   *
+   * @throws IllegalArgumentException If the number of identifiers does not match the number of tokens.
+   */
+  public void diff(List<? extends T> from, int[] ia, List<? extends T> to, int[] ib, DiffHandler<T> handler) {
+    if (ia.length != from.size() || ib.length != to.size())
+      throw new IllegalArgumentException("The identifiers must match the tokens");
+    List<? extends T> a = (from instanceof RandomAccess) ? from : new ArrayList<>(from);
+    List<? extends T> b = (to instanceof RandomAccess) ? to : new ArrayList<>(to);
+
+    Session s = new Session();
+    algorithmC(s, ia.length, ib.length, ia, a, 0, ib, b, 0, handler);
+  }
+
+  /**
+   * Algorithm B as described by Hirschberg.
+   *
+   * <p>The results are stored in the given output array.
+   *
+   * @param s       The session object that manages storage for dynamic programming arrays.
+   * @param m       The length of the first list (sublist of 'a').
+   * @param n       The length of the second list (sublist of 'b').
+   * @param a       The identifiers of the first list of elements to compare.
+   * @param aOffset The starting index in the first list to consider in this computation.
+   * @param b       The identifiers of the second list of elements to compare.
+   * @param bOffset The starting index in the second list to consider in this computation.
+   * @param out     The output array where the computed longest common subsequence lengths are stored.
+   */
+  @SuppressWarnings("java:S107")
+  private void algorithmB(Session s, int m, int n, int[] a, int aOffset, int[] b, int bOffset, int[] out) {
+    final int size = n + 1;
+    s.ensureDpCapacity(size);
+
+    int[] prev = s.prev;
+    int[] curr = s.curr;
+
+    for (int j = 0; j <= n; j++) prev[j] = 0;
+
+    for (int i = 1; i <= m; i++) {
+      if ((i & CHECK_MASK) == 0) this.context.check();
+      curr[0] = 0;
+      int ai = a[aOffset + i - 1];
+
+      for (int j = 1; j <= n; j++) {
+        if (ai == b[bOffset + j - 1]) {
+          curr[j] = prev[j - 1] + 1;
+        } else {
+          int left = curr[j - 1];
+          int up = prev[j];
+          curr[j] = Math.max(left, up);
+        }
+      }
+
+      int[] tmp = prev;
+      prev = curr;
+      curr = tmp;
+    }
+
+    System.arraycopy(prev, 0, out, 0, size);
+  }
+
+  /**
+   * Implements the reverse variant of algorithm B.
+   *
+   * @param s       The session object that manages storage for dynamic programming arrays.
+   * @param m       The length of the first list (sublist of 'a').
+   * @param n       The length of the second list (sublist of 'b').
+   * @param a       The identifiers of the first list of elements to compare.
+   * @param aOffset The starting index in the first list to consider in this computation.
+   * @param b       The identifiers of the second list of elements to compare.
+   * @param bOffset The starting index in the second list to consider in this computation.
+   * @param out     The output array where the computed longest common subsequence lengths are stored.
+   */
+  @SuppressWarnings("java:S107")
+  private void algorithmBRev(Session s, int m, int n, int[] a, int aOffset, int[] b, int bOffset, int[] out) {
+    final int size = n + 1;
+    s.ensureDpCapacity(size);
+
+    int[] prev = s.prev;
+    int[] curr = s.curr;
+
+    for (int j = 0; j <= n; j++) prev[j] = 0;
+
+    for (int i = m - 1; i >= 0; i--) {
+      if ((i & CHECK_MASK) == 0) this.context.check();
+      curr[0] = 0;
+      int ai = a[aOffset + i];
+
+      for (int j = n - 1, idx = 1; j >= 0; j--, idx++) {
+        if (ai == b[bOffset + j]) {
+          curr[idx] = prev[idx - 1] + 1;
+        } else {
+          int left = curr[idx - 1];
+          int up = prev[idx];
+          curr[idx] = Math.max(left, up);
+        }
+      }
+
+      int[] tmp = prev;
+      prev = curr;
+      curr = tmp;
+    }
+
+    System.arraycopy(prev, 0, out, 0, size);
+  }
+
+  /**
+   * Find the index of the maximum sum of L1 and L2, as described by Hirschberg.
+   */
+  private static int findK(int[] l1, int[] l2, int n) {
+    int m = 0;
+    int k = 0;
+    for (int j = 0; j <= n; j++) {
+      int s = l1[j] + l2[n - j];
+      if (m < s) {
+        m = s;
+        k = j;
+      }
+    }
+    return k;
+  }
+
+  /**
+   * Algorithm C as described by Hirschberg.
+   *
+   * @param s       The session object used to manage intermediate storage arrays during the computation.
+   * @param m       The length of the first list (sublist of 'a') to process.
+   * @param n       The length of the second list (sublist of 'b') to process.
+   * @param a       The identifiers of the first list of elements to compare.
+   * @param ta      The first list of elements to compare.
+   * @param aOffset The starting index within the first list to consider for the current recursion step.
+   * @param b       The identifiers of the second list of elements to compare.
+   * @param tb      The second list of elements to compare.
+   * @param bOffset The starting index within the second list to consider for the current recursion step.
+   * @param handler The handler used to process the computed operations (insert, delete, match).
+   */
+  @SuppressWarnings({"java:S106", "java:S107", "java:S3776"})
+  private void algorithmC(Session s, int m, int n, int[] a, List<? extends T> ta, int aOffset, int[] b, List<? extends T> tb, int bOffset, DiffHandler<T> handler) {
+    if (n == 0) {
+      for (int i = 0; i < m; i++) {
+        handler.handle(Operator.DEL, ta.get(aOffset + i));
+      }
+      return;
+    }
+
+    if (m == 0) {
+      for (int j = 0; j < n; j++) {
+        handler.handle(Operator.INS, tb.get(bOffset + j));
+      }
+      return;
+    }
+
+    if (m == 1) {
+      int matchIndex = -1;
+      int a0 = a[aOffset];
+      for (int j = 0; j < n; j++) {
+        if (a0 == b[bOffset + j]) {
+          matchIndex = j;
+          break;
+        }
+      }
+
+      if (matchIndex == -1) {
+        for (int j = 0; j < n; j++) {
+          handler.handle(Operator.INS, tb.get(bOffset + j));
+        }
+        handler.handle(Operator.DEL, ta.get(aOffset));
+      } else {
+        for (int j = 0; j < matchIndex; j++) {
+          handler.handle(Operator.INS, tb.get(bOffset + j));
+        }
+        handler.handle(Operator.MATCH, this.preferFrom ? ta.get(aOffset) : tb.get(bOffset + matchIndex));
+        for (int j = matchIndex + 1; j < n; j++) {
+          handler.handle(Operator.INS, tb.get(bOffset + j));
+        }
+      }
+      return;
+    }
+
+    int h = m / 2;
+
+    final int size = n + 1;
+    s.ensureSplitCapacity(size);
+
+    algorithmB(s, h, n, a, aOffset, b, bOffset, s.l1);
+    algorithmBRev(s, m - h, n, a, aOffset + h, b, bOffset, s.l2);
+    int k = findK(s.l1, s.l2, n);
+
+    algorithmC(s, h, k, a, ta, aOffset, b, tb, bOffset, handler);
+    algorithmC(s, m - h, n - k, a, ta, aOffset + h, b, tb, bOffset + k, handler);
+  }
+
+  /**
+   * Manages and grows the four {@code int[]} working arrays shared across all recursive calls.
+   *
+   * <p>{@code prev} and {@code curr} are swapped in place by algorithm B for the two-row DP
+   * computation. {@code l1} and {@code l2} hold the forward and reverse score vectors used by
+   * algorithm C to locate the split point before recursing.
+   */
+  private static final class Session {
+    int[] prev = new int[0];
+    int[] curr = new int[0];
+    int[] l1 = new int[0];
+    int[] l2 = new int[0];
+
+    void ensureDpCapacity(int size) {
+      if (this.prev.length < size) this.prev = new int[size];
+      if (this.curr.length < size) this.curr = new int[size];
+    }
+
+    void ensureSplitCapacity(int size) {
+      if (this.l1.length < size) this.l1 = new int[size];
+      if (this.l2.length < size) this.l2 = new int[size];
+    }
+  }
+
+}
@@ -0,0 +1,434 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.algorithm;
+
+import org.jspecify.annotations.Nullable;
+import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.DiffContext;
+import org.pageseeder.diffx.api.DiffContextConfigurable;
+import org.pageseeder.diffx.api.DiffHandler;
+import org.pageseeder.diffx.api.Equality;
+import org.pageseeder.diffx.api.Operator;
+import org.pageseeder.diffx.sequence.CommonRuns;
+import org.pageseeder.diffx.token.AttributeToken;
+import org.pageseeder.diffx.token.EndElementToken;
+import org.pageseeder.diffx.token.StartElementToken;
+import org.pageseeder.diffx.token.XMLToken;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.ToIntFunction;
+
+/**
+ * An XML-aware algorithm which uses a divide and conquer approach to compute the diff in linear space.
+ *
+ * <p>Like the {@link HirschbergAlgorithm}, this algorithm finds where an optimal path crosses the
+ * middle of the first sequence using two rows of LCS lengths and solves both halves recursively.
+ * To preserve the structure of the XML, sequences are only divided where both halves contain
+ * balanced elements: between siblings, after comparing the attributes of an element, or on
+ * either side of the start and end tags of the elements at the top of both sequences.</p>
+ *
+ * <p>Sub-problems small enough are solved by the {@link MatrixXMLAlgorithm} using the same
+ * {@link ElementStackFilter} so that the state of open elements is carried across the divide
+ * step. The result is therefore always well-formed, the memory used is proportional to the
+ * length of the sequences, and there is no limit on the number of comparisons.</p>
+ *
+ * <p>When the sequences are not balanced, this algorithm uses the {@link MatrixXMLAlgorithm}.</p>
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public final class HirschbergXMLAlgorithm implements DiffAlgorithm<XMLToken>, DiffContextConfigurable {
+
+  /**
+   * The default maximum number of cells of a sub-problem solved using a matrix.
+   */
+  public static final int DEFAULT_MATRIX_THRESHOLD = 1 << 22;
+
+  /**
+   * The default equality consistent with the token hash code.
+   */
+  private static final Equality<XMLToken> DEFAULT_EQUALITY = XMLToken::equals;
+
+  /**
+   * The context is checked every time this number of rows is computed.
+   */
+  private static final int CHECK_MASK = 0x3F;
+
+  /**
+   * Determines the strategy to compare elements for equality within the diff algorithm.
+   */
+  private final Equality<XMLToken> eq;
+
+  /**
+   * The hash function consistent with the equality used for interning.
+   */
+  private final ToIntFunction<? super XMLToken> hasher;
+
+  /**
+   * The maximum number of cells of a sub-problem solved using a matrix.
+   */
+  private int matrixThreshold = DEFAULT_MATRIX_THRESHOLD;
+
+  /**
+   * The context checked while computing the diff.
+   */
+  private DiffContext context = DiffContext.NONE;
+
+  /**
+   * Default constructor using token equality.
+   */
+  public HirschbergXMLAlgorithm() {
+    this.eq = DEFAULT_EQUALITY;
+    this.hasher = Object::hashCode;
+  }
+
+  /**
+   * Constructor specifying the equality strategy and a consistent hash function.
+   *
+   * @param eq     The strategy to compare elements for equality.
+   * @param hasher A hash function consistent with the equality.
+   */
+  public HirschbergXMLAlgorithm(Equality<XMLToken> eq, ToIntFunction<? super XMLToken> hasher) {
+    this.eq = eq;
+    this.hasher = hasher;
+  }
+
+  /**
+   * Set the maximum number of cells of a sub-problem to solve it with a matrix instead of dividing it.
+   *
+   * <p>Larger values produce results closer to the {@link MatrixXMLAlgorithm} but use more memory.
+   *
+   * @param matrixThreshold The maximum number of cells of a matrix
+   */
+  public void setMatrixThreshold(int matrixThreshold) {
+    this.matrixThreshold = matrixThreshold;
+  }
+
+  /**
+   * Set the context checked while computing the diff so that it stops when the context is
+   * cancelled or its deadline is exceeded.
+   *
+   * @param context The context of the diff
+   */
+  @Override
+  public void setContext(DiffContext context) {
+    this.context = context;
+  }
+
+  @Override
+  public void diff(List<? extends XMLToken> from, List<? extends XMLToken> to, DiffHandler<XMLToken> handler) {
+    List<? extends XMLToken> a = (from instanceof RandomAccess) ? from : new ArrayList<>(from);
+    List<? extends XMLToken> b = (to instanceof RandomAccess) ? to : new ArrayList<>(to);
+    int[] depthA = depths(a);
+    int[] depthB = depths(b);
+    MatrixXMLAlgorithm matrix = new MatrixXMLAlgorithm(this.eq, this.hasher);
+    matrix.setContext(this.context);
+    if (depthA == null || depthB == null) {
+      matrix.diff(from, to, handler);
+      return;
+    }
+    matrix.setThreshold(Integer.MAX_VALUE);
+    // Sub-ranges are sequences of siblings, the slicer assumes a single root element
+    matrix.setSlice(false);
+    SymbolTable<XMLToken> symbols = new SymbolTable<>(this.eq, this.hasher);
+    Session session = new Session(a, b, symbols.encode(a), symbols.encode(b), depthA, depthB,
+        new ElementStackFilter(handler, this.eq), matrix);
+    session.diff(0, a.size(), 0, b.size());
+  }
+
+  /**
+   * Computes the depth of the elements before each token.
+   *
+   * @return the depths or <code>null</code> if the elements in the sequence are not balanced
+   */
+  private static int @Nullable [] depths(List<? extends XMLToken> tokens) {
+    int[] depths = new int[tokens.size() + 1];
+    int depth = 0;
+    for (int i = 0; i < tokens.size(); i++) {
+      XMLToken token = tokens.get(i);
+      if (token instanceof StartElementToken) depth++;
+      else if (token instanceof EndElementToken && --depth < 0) return null;
+      depths[i + 1] = depth;
+    }
+    return depth == 0 ? depths : null;
+  }
+
+  @Override
+  public String toString() {
+    return "HirschbergXMLAlgorithm{" +
+        "matrixThreshold=" + matrixThreshold +
+        '}';
+  }
+
+  /**
+   * The state of a diff shared by all sub-problems.
+   *
+   * <p>Sub-problems are ranges of tokens in both sequences in which elements are balanced.
+   */
+  private final class Session {
+
+    private final List<? extends XMLToken> a;
+    private final List<? extends XMLToken> b;
+
+    /**
+     * Interned tokens.
+     */
+    private final int[] idsA;
+    private final int[] idsB;
+
+    /**
+     * Depth of the elements before each token.
+     */
+    private final int[] depthA;
+    private final int[] depthB;
+
+    /**
+     * The stack of open elements shared by all sub-problems.
+     */
+    private final ElementStackFilter handler;
+
+    /**
+     * Solves small sub-problems.
+     */
+    private final MatrixXMLAlgorithm matrix;
+
+    /**
+     * Working arrays for the LCS lengths reused across all sub-problems.
+     */
+    private int[] prev = new int[0];
+    private int[] curr = new int[0];
+    private int[] forward = new int[0];
+    private int[] backward = new int[0];
+
+    @SuppressWarnings("java:S107")
+    Session(List<? extends XMLToken> a, List<? extends XMLToken> b, int[] idsA, int[] idsB,
+            int[] depthA, int[] depthB, ElementStackFilter handler, MatrixXMLAlgorithm matrix) {
+      this.a = a;
+      this.b = b;
+      this.idsA = idsA;
+      this.idsB = idsB;
+      this.depthA = depthA;
+      this.depthB = depthB;
+      this.handler = handler;
+      this.matrix = matrix;
+    }
+
+    void diff(int a0, int a1, int b0, int b1) {
+      // Attributes must be reported before the content of the element
+      int attributesA = countAttributes(this.a, a0, a1);
+      int attributesB = countAttributes(this.b, b0, b1);
+      if (attributesA > 0 || attributesB > 0) {
+        solve(a0, a0 + attributesA, b0, b0 + attributesB);
+        a0 += attributesA;
+        b0 += attributesB;
+      }
+
+      // Common elements at the start and at the end
+      int prefix = commonPrefix(a0, a1, b0, b1);
+      for (int k = 0; k < prefix; k++) this.handler.handle(Operator.MATCH, this.b.get(b0 + k));
+      a0 += prefix;
+      b0 += prefix;
+      int suffix = commonSuffix(a0, a1, b0, b1);
+      a1 -= suffix;
+      b1 -= suffix;
+
+      if (a0 == a1 || b0 == b1 || (long) (a1 - a0) * (b1 - b0) <= matrixThreshold) {
+        solve(a0, a1, b0, b1);
+      } else {
+        divide(a0, a1, b0, b1);
+      }
+
+      for (int k = 0; k < suffix; k++) this.handler.handle(Operator.MATCH, this.b.get(b1 + k));
+    }
+
+    /**
+     * Divides the sub-problem between siblings or descends into the elements.
+     */
+    private void divide(int a0, int a1, int b0, int b1) {
+      int i = boundaryNear(this.depthA, a0, a1);
+      if (i > 0) {
+        // Find where an optimal path crosses the boundary between siblings
+        rows(this.idsA, a0, i, a1, this.idsB, b0, b1);
+        int k = bestSplit(this.depthB, b0, b1);
+        diff(a0, i, b0, k);
+        diff(i, a1, k, b1);
+        return;
+      }
+      int j = boundaryNear(this.depthB, b0, b1);
+      if (j > 0) {
+        // The first sequence is a single element which goes either before or after the split
+        rows(this.idsB, b0, j, b1, this.idsA, a0, a1);
+        int k = bestSplit(this.depthA, a0, a1);
+        diff(a0, k, b0, j);
+        diff(k, a1, j, b1);
+        return;
+      }
+      descend(a0, a1, b0, b1);
+    }
+
+    /**
+     * Compares the content of the elements at the top of both sequences.
+     */
+    private void descend(int a0, int a1, int b0, int b1) {
+      boolean elementA = this.a.get(a0) instanceof StartElementToken;
+      boolean elementB = this.b.get(b0) instanceof StartElementToken;
+      if (elementA && elementB && this.idsA[a0] == this.idsB[b0]) {
+        this.handler.handle(Operator.MATCH, this.b.get(b0));
+        diff(a0 + 1, a1 - 1, b0 + 1, b1 - 1);
+        this.handler.handle(Operator.MATCH, this.b.get(b1 - 1));
+      } else if (elementA && elementB) {
+        this.handler.handle(Operator.DEL, this.a.get(a0));
+        this.handler.handle(Operator.INS, this.b.get(b0));
+        diff(a0 + 1, a1 - 1, b0 + 1, b1 - 1);
+        this.handler.handle(Operator.INS, this.b.get(b1 - 1));
+        this.handler.handle(Operator.DEL, this.a.get(a1 - 1));
+      } else if (elementB) {
+        this.handler.handle(Operator.INS, this.b.get(b0));
+        diff(a0, a1, b0 + 1, b1 - 1);
+        this.handler.handle(Operator.INS, this.b.get(b1 - 1));
+      } else if (elementA) {
+        this.handler.handle(Operator.DEL, this.a.get(a0));
+        diff(a0 + 1, a1 - 1, b0, b1);
+        this.handler.handle(Operator.DEL, this.a.get(a1 - 1));
+      } else {
+        solve(a0, a1, b0, b1);
+      }
+    }
+
+    /**
+     * Solves the sub-problem using the matrix.
+     */
+    private void solve(int a0, int a1, int b0, int b1) {
+      if (a0 == a1 || b0 == b1) {
+        for (int j = b0; j < b1; j++) this.handler.handle(Operator.INS, this.b.get(j));
+        for (int i = a0; i < a1; i++) this.handler.handle(Operator.DEL, this.a.get(i));
+      } else {
+        this.matrix.diff(this.a.subList(a0, a1), this.b.subList(b0, b1), this.handler);
+      }
+    }
+
+    /**
+     * @return the length of the common prefix which ends between siblings.
+     */
+    private int commonPrefix(int a0, int a1, int b0, int b1) {
+      int common = CommonRuns.prefix(this.idsA, a0, a1, this.idsB, b0, b1);
+      for (int balanced = common; balanced > 0; balanced--) {
+        if (this.depthA[a0 + balanced] == this.depthA[a0]) return balanced;
+      }
+      return 0;
+    }
+
+    /**
+     * @return the length of the common suffix which starts between siblings.
+     */
+    private int commonSuffix(int a0, int a1, int b0, int b1) {
+      int common = CommonRuns.suffix(this.idsA, a0, a1, this.idsB, b0, b1);
+      for (int balanced = common; balanced > 0; balanced--) {
+        if (this.depthA[a1 - balanced] == this.depthA[a1]) return balanced;
+      }
+      return 0;
+    }
+
+    /**
+     * Computes the LCS lengths of the first range split at the specified position with each prefix
+     * and suffix of the second range.
+     */
+    @SuppressWarnings("java:S107")
+    private void rows(int[] x, int x0, int split, int x1, int[] y, int y0, int y1) {
+      int size = y1 - y0 + 1;
+      if (this.prev.length < size) {
+        this.prev = new int[size];
+        this.curr = new int[size];
+        this.forward = new int[size];
+        this.backward = new int[size];
+      }
+      int[] p = this.prev;
+      int[] c = this.curr;
+
+      // forward[k] = LCS(x[x0..split), y[y0..y0+k))
+      Arrays.fill(p, 0, size, 0);
+      for (int i = x0; i < split; i++) {
+        if ((i & CHECK_MASK) == 0) context.check();
+        int xi = x[i];
+        c[0] = 0;
+        for (int k = 1; k < size; k++) {
+          c[k] = xi == y[y0 + k - 1] ? p[k - 1] + 1 : Math.max(p[k], c[k - 1]);
+        }
+        int[] tmp = p;
+        p = c;
+        c = tmp;
+      }
+      System.arraycopy(p, 0, this.forward, 0, size);
+
+      // backward[k] = LCS(x[split..x1), y[y0+k..y1))
+      Arrays.fill(p, 0, size, 0);
+      for (int i = x1 - 1; i >= split; i--) {
+        if ((i & CHECK_MASK) == 0) context.check();
+        int xi = x[i];
+        c[size - 1] = 0;
+        for (int k = size - 2; k >= 0; k--) {
+          c[k] = xi == y[y0 + k] ? p[k + 1] + 1 : Math.max(p[k], c[k + 1]);
+        }
+        int[] tmp = p;
+        p = c;
+        c = tmp;
+      }
+      System.arraycopy(p, 0, this.backward, 0, size);
+    }
+
+    /**
+     * @return the position between siblings in the range where the sum of LCS lengths is the highest.
+     */
+    private int bestSplit(int[] depth, int from, int to) {
+      int best = from;
+      int max = -1;
+      for (int k = from; k <= to; k++) {
+        if (depth[k] == depth[from]) {
+          int lcs = this.forward[k - from] + this.backward[k - from];
+          if (lcs > max) {
+            max = lcs;
+            best = k;
+          }
+        }
+      }
+      return best;
+    }
+  }
+
+  /**
+   * @return the position between siblings closest to the middle of the range or -1 if there are none.
+   */
+  private static int boundaryNear(int[] depth, int from, int to) {
+    int middle = (from + to) >>> 1;
+    for (int d = 0; middle - d > from || middle + d + 1 < to; d++) {
+      if (middle - d > from && depth[middle - d] == depth[from]) return middle - d;
+      if (middle + d + 1 < to && depth[middle + d + 1] == depth[from]) return middle + d + 1;
+    }
+    return -1;
+  }
+
+  private static int countAttributes(List<? extends XMLToken> tokens, int from, int to) {
+    int count = 0;
+    while (from + count < to && tokens.get(from + count) instanceof AttributeToken) count++;
+    return count;
+  }
+
+}
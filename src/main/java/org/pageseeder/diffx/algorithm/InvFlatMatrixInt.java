@@ -0,0 +1,52 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.algorithm;
+
+/**
+ * A flat matrix of int numbers where each cell depends on the next cells.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ *
+ * @see InvMatrixInt
+ */
+public final class InvFlatMatrixInt extends FlatMatrixIntBase {
+
+  /**
+   * @see Matrix#incrementPath(int, int)
+   */
+  @Override
+  public void incrementPath(int i, int j) {
+    int index = i * this.height + j;
+    this.matrix[index] = (this.matrix[index + this.height + 1] + 1);
+  }
+
+  /**
+   * @see Matrix#incrementByMaxPath(int, int)
+   */
+  @Override
+  public void incrementByMaxPath(int i, int j) {
+    int index = i * this.height + j;
+    this.matrix[index] = Math.max(this.matrix[index + this.height], this.matrix[index + 1]);
+  }
+
+  @Override
+  public int getLCSLength() {
+    return this.matrix[0];
+  }
+}
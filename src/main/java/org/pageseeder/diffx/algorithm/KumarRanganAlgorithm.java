@@ -36,10 +36,10 @@ import java.util.RandomAccess;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.3
+ * @version 1.3.4
  * @since 0.9.0
  */
-public final class KumarRanganAlgorithm<T> implements DiffAlgorithm<T>, MatchPreferenceConfigurable {
+public final class KumarRanganAlgorithm<T> implements DiffAlgorithm<T>, MatchPreferenceConfigurable, DiffContextConfigurable {
 
   /**
    * Determines the strategy to compare elements for equality within the diff algorithm.
@@ -51,6 +51,11 @@ public final class KumarRanganAlgorithm<T> implements DiffAlgorithm<T>, MatchPre
    */
   private boolean preferFrom = false;
 
+  /**
+   * The context checked while computing the diff.
+   */
+  private DiffContext context = DiffContext.NONE;
+
   /**
    * Default constructor using token equality.
    */
@@ -88,6 +93,17 @@ public final class KumarRanganAlgorithm<T> implements DiffAlgorithm<T>, MatchPre
     this.preferFrom = preferFrom;
   }
 
+  /**
+   * Set the context checked while computing the diff so that it stops when the context is
+   * cancelled or its deadline is exceeded.
+   *
+   * @param context The context of the diff
+   */
+  @Override
+  public void setContext(DiffContext context) {
+    this.context = context;
+  }
+
   /**
    * Set to <code>true</code> to show debug info.
    */
@@ -98,7 +114,7 @@ public final class KumarRanganAlgorithm<T> implements DiffAlgorithm<T>, MatchPre
     // Ensure random access lists for efficiency
     List<? extends T> a = (from instanceof RandomAccess) ? from : new ArrayList<>(from);
     List<? extends T> b = (to instanceof RandomAccess) ? to : new ArrayList<>(to);
-    Instance<T> instance = new Instance<>(a, b, this.eq, this.preferFrom);
+    Instance<T> instance = new Instance<>(a, b, this.eq, this.preferFrom, this.context);
     instance.process(handler);
   }
 
@@ -121,6 +137,7 @@ public final class KumarRanganAlgorithm<T> implements DiffAlgorithm<T>, MatchPre
 
     private final Equality<T> eq;
     private final boolean preferFrom;
+    private final DiffContext context;
 
     /**
      * A counter for the index of the second sequence when generating the diff.
@@ -135,11 +152,12 @@ public final class KumarRanganAlgorithm<T> implements DiffAlgorithm<T>, MatchPre
      */
     private DiffHandler<T> handler;
 
-    Instance(List<? extends T> from, List<? extends T> to, Equality<T> eq, boolean preferFrom) {
+    Instance(List<? extends T> from, List<? extends T> to, Equality<T> eq, boolean preferFrom, DiffContext context) {
       this.A = Objects.requireNonNull(from);
       this.B = Objects.requireNonNull(to);
       this.eq = eq;
       this.preferFrom = preferFrom;
+      this.context = context;
     }
 
     /**
@@ -267,6 +285,7 @@ public final class KumarRanganAlgorithm<T> implements DiffAlgorithm<T>, MatchPre
      *               or from the end of the string.
      */
     private void fillOne(int startA, int startB, int n, int sign) {
+      this.context.check();
       final List<? extends T> a = this.A;
       final List<? extends T> b = this.B;
       final Equality<T> e = this.eq;
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.algorithm;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A matrix implementation backed by a memory-mapped temporary file so that matrices larger
+ * than the heap can be processed.
+ *
+ * <p>Cells are stored as integers row by row, the file is mapped in tiles of at most
+ * {@link #TILE_CELLS} cells since a single buffer cannot map more than 2GB. Only the
+ * buffer references are kept on the heap.
+ *
+ * <p>The temporary file is deleted when the matrix is released.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public abstract class MappedMatrixBase implements Matrix {
+
+  /**
+   * The number of bits to address a cell within a tile.
+   */
+  private static final int TILE_BITS = 26;
+
+  /**
+   * The number of cells in each tile (256MB).
+   */
+  public static final int TILE_CELLS = 1 << TILE_BITS;
+
+  private static final int TILE_MASK = TILE_CELLS - 1;
+
+  /**
+   * The channel to the temporary file.
+   */
+  private @Nullable FileChannel channel;
+
+  /**
+   * The mapped tiles of the matrix.
+   */
+  private IntBuffer[] tiles;
+
+  /**
+   * The number of columns.
+   */
+  protected int width;
+
+  /**
+   * The number of rows.
+   */
+  protected int height;
+
+  /**
+   * @throws UncheckedIOException If the temporary file could not be created or mapped.
+   *
+   * @see Matrix#setup(int, int)
+   */
+  @Override
+  public void setup(int width, int height) {
+    release();
+    long size = (long) width * height;
+    try {
+      Path file = Files.createTempFile("diffx-matrix-", ".bin");
+      this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+          StandardOpenOption.DELETE_ON_CLOSE, StandardOpenOption.SPARSE);
+      int count = (int) ((size + TILE_CELLS - 1) >>> TILE_BITS);
+      this.tiles = new IntBuffer[count];
+      for (int t = 0; t < count; t++) {
+        long cells = Math.min(TILE_CELLS, size - ((long) t << TILE_BITS));
+        this.tiles[t] = this.channel.map(FileChannel.MapMode.READ_WRITE, (long) t << (TILE_BITS + 2), cells * 4)
+            .order(ByteOrder.nativeOrder()).asIntBuffer();
+      }
+    } catch (IOException ex) {
+      release();
+      throw new UncheckedIOException(ex);
+    }
+    this.width = width;
+    this.height = height;
+  }
+
+  /**
+   * @see Matrix#set(int, int, int)
+   */
+  @Override
+  public void set(int i, int j, int x) {
+    put((long) i * this.height + j, x);
+  }
+
+  /**
+   * @see Matrix#get(int, int)
+   */
+  @Override
+  public int get(int i, int j) {
+    return value((long) i * this.height + j);
+  }
+
+  @Override
+  public int lengthX() {
+    return this.width;
+  }
+
+  @Override
+  public int lengthY() {
+    return this.height;
+  }
+
+  /**
+   * @see Matrix#isGreaterX(int, int)
+   */
+  @Override
+  public boolean isGreaterX(int i, int j) {
+    return get(i + 1, j) > get(i, j + 1);
+  }
+
+  /**
+   * @see Matrix#isGreaterY(int, int)
+   */
+  @Override
+  public boolean isGreaterY(int i, int j) {
+    return get(i + 1, j) < get(i, j + 1);
+  }
+
+  /**
+   * @see Matrix#isSameXY(int, int)
+   */
+  @Override
+  public boolean isSameXY(int i, int j) {
+    return get(i + 1, j) == get(i, j + 1);
+  }
+
+  /**
+   * Returns the value of the cell at the specified index.
+   *
+   * @param index The index of the cell in the matrix
+   * @return the value of the cell
+   */
+  protected final int value(long index) {
+    return this.tiles[(int) (index >>> TILE_BITS)].get((int) (index & TILE_MASK));
+  }
+
+  /**
+   * Sets the value of the cell at the specified index.
+   *
+   * @param index The index of the cell in the matrix
+   * @param x     The value to set
+   */
+  protected final void put(long index, int x) {
+    this.tiles[(int) (index >>> TILE_BITS)].put((int) (index & TILE_MASK), x);
+  }
+
+  /**
+   * @see Object#toString()
+   */
+  @Override
+  public String toString() {
+    StringBuilder out = new StringBuilder();
+    for (int j = 0; j < this.height; j++) {
+      for (int i = 0; i < this.width; i++) {
+        out.append(get(i, j)).append("\t");
+      }
+      out.append('\n');
+    }
+    return out.toString();
+  }
+
+  /**
+   * Closes and deletes the temporary file.
+   *
+   * <p>The memory is unmapped once the buffers are garbage collected.
+   *
+   * @throws UncheckedIOException If the temporary file could not be closed.
+   *
+   * @see Matrix#release()
+   */
+  @Override
+  public void release() {
+    this.tiles = null;
+    this.width = 0;
+    this.height = 0;
+    if (this.channel != null) {
+      try {
+        this.channel.close();
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      } finally {
+        this.channel = null;
+      }
+    }
+  }
+}
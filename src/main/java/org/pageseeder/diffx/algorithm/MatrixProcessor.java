@@ -15,29 +15,112 @@
  */
 package org.pageseeder.diffx.algorithm;
 
+import org.jspecify.annotations.Nullable;
+import org.pageseeder.diffx.api.DiffCancelledException;
+import org.pageseeder.diffx.api.DiffContext;
 import org.pageseeder.diffx.api.Equality;
 import org.pageseeder.diffx.token.XMLToken;
 import org.pageseeder.diffx.xml.Sequence;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Build the matrix for the specified tokens using dynamic programming.
  *
  * @author Christophe Lauret
  *
- * @version 1.3.1
+ * @version 1.3.4
  * @since 0.9.0
  */
 public final class MatrixProcessor<T> {
 
+  /**
+   * The number of rows and columns in a tile when filling the matrix in parallel.
+   */
+  static final int TILE_SIZE = 256;
+
+  /**
+   * The context is checked every time this number of rows is filled.
+   */
+  private static final int CHECK_MASK = 0x3F;
+
   private boolean inverse = false;
 
+  private int threads = 1;
+
+  /**
+   * The pool used to fill the matrix in parallel, created when first needed.
+   */
+  private @Nullable ForkJoinPool pool = null;
+
+  private long mappedThreshold = Long.MAX_VALUE;
+
+  private DiffContext context = DiffContext.NONE;
+
   public void setInverse(boolean inverse) {
     this.inverse = inverse;
   }
 
+  /**
+   * Set the number of threads used to fill the matrix.
+   *
+   * <p>With more than one thread, the matrix is filled by tiles along anti-diagonals. The
+   * resulting matrix is identical to the one filled sequentially.
+   *
+   * <p>The pool of threads is created the first time the matrix is filled in parallel and reused
+   * for every matrix built by this processor.
+   *
+   * @param threads The number of threads (1 to fill sequentially)
+   */
+  public void setThreads(int threads) {
+    if (threads != this.threads) this.pool = null;
+    this.threads = threads;
+  }
+
+  /**
+   * Set the pool used to fill the matrix in parallel.
+   *
+   * <p>The same pool can be shared by several processors; the matrix is filled using as many
+   * threads as the parallelism of the pool.
+   *
+   * @param pool The fork/join pool to use
+   */
+  public void setPool(ForkJoinPool pool) {
+    this.pool = pool;
+    this.threads = pool.getParallelism();
+  }
+
+  /**
+   * Set the number of cells above which the matrix is backed by a memory-mapped temporary
+   * file instead of the heap.
+   *
+   * <p>The matrix returned by the <code>process</code> methods should be released once it is
+   * no longer needed so that the file is deleted.
+   *
+   * @param mappedThreshold The maximum number of cells of a matrix on the heap
+   *
+   * @see MappedMatrixBase
+   */
+  public void setMappedThreshold(long mappedThreshold) {
+    this.mappedThreshold = mappedThreshold;
+  }
+
+  /**
+   * Set the context checked while filling the matrix.
+   *
+   * <p>If the context stops the diff, the matrix is released and a {@link DiffCancelledException}
+   * is thrown.
+   *
+   * @param context The context of the diff
+   */
+  public void setContext(DiffContext context) {
+    this.context = context;
+  }
+
   /**
    * @param first  The first sequence of tokens to test.
    * @param second The second sequence of tokens to test.
@@ -80,56 +163,198 @@ public final class MatrixProcessor<T> {
     return this.inverse ? computeInverse(first, second, eq) : compute(first, second, eq);
   }
 
-  private static <T> Matrix compute(List<? extends T> first, List<? extends T> second, Equality<T> eq) {
+  /**
+   * Build the matrix from sequences of interned tokens.
+   *
+   * <p>Both arrays must have been encoded with the same {@link SymbolTable} so that equal tokens
+   * have the same identifier.
+   *
+   * @param first  The identifiers of the first sequence of tokens to test.
+   * @param second The identifiers of the second sequence of tokens to test.
+   *
+   * @return the matrix using dynamic programming
+   */
+  public Matrix process(int[] first, int[] second) {
+    return this.inverse ? computeInverse(first, second) : compute(first, second);
+  }
+
+  private <T> Matrix compute(List<? extends T> first, List<? extends T> second, Equality<T> eq) {
     Matrix matrix = getMatrix(first, second, false);
     int length1 = first.size();
     int length2 = second.size();
     matrix.setup(length1 + 1, length2 + 1);
-    // allocate storage for array L
-    for (int i = 0; i < length1 + 1; i++) {
-      for (int j = 0; j < length2 + 1; j++) {
-        // we reach the end of the sequence (fill with 0)
-        if (i == 0 || j == 0) {
-          matrix.set(i, j, 0);
-        } else {
-          if (eq.equals(first.get(i - 1), second.get(j - 1))) {
-            // the tokens are the same
-            matrix.incrementPath(i, j);
+    fill(matrix, length1 + 1, length2 + 1, false, (iFrom, iTo, jFrom, jTo) -> {
+      for (int i = iFrom; i < iTo; i++) {
+        if ((i & CHECK_MASK) == 0) this.context.check();
+        for (int j = jFrom; j < jTo; j++) {
+          // we reach the end of the sequence (fill with 0)
+          if (i == 0 || j == 0) {
+            matrix.set(i, j, 0);
           } else {
-            // different tokens
-            matrix.incrementByMaxPath(i, j);
+            if (eq.equals(first.get(i - 1), second.get(j - 1))) {
+              // the tokens are the same
+              matrix.incrementPath(i, j);
+            } else {
+              // different tokens
+              matrix.incrementByMaxPath(i, j);
+            }
           }
         }
       }
-    }
+    });
     return matrix;
   }
 
-  private static <T> Matrix computeInverse(List<? extends T> first, List<? extends T> second, Equality<T> eq) {
+  private <T> Matrix computeInverse(List<? extends T> first, List<? extends T> second, Equality<T> eq) {
     Matrix matrix = getMatrix(first, second, true);
     int length1 = first.size();
     int length2 = second.size();
     matrix.setup(length1 + 1, length2 + 1);
-    // allocate storage for array L
-    for (int i = length1; i >= 0; i--) {
-      for (int j = length2; j >= 0; j--) {
-        // we reach the end of the sequence (fill with 0)
-        if (i >= length1 || j >= length2) {
-          matrix.set(i, j, 0);
-        } else {
-          if (eq.equals(first.get(i), second.get(j))) {
-            // the tokens are the same
+    fill(matrix, length1 + 1, length2 + 1, true, (iFrom, iTo, jFrom, jTo) -> {
+      for (int i = iTo - 1; i >= iFrom; i--) {
+        if ((i & CHECK_MASK) == 0) this.context.check();
+        for (int j = jTo - 1; j >= jFrom; j--) {
+          // we reach the end of the sequence (fill with 0)
+          if (i >= length1 || j >= length2) {
+            matrix.set(i, j, 0);
+          } else {
+            if (eq.equals(first.get(i), second.get(j))) {
+              // the tokens are the same
+              matrix.incrementPath(i, j);
+            } else {
+              // different tokens
+              matrix.incrementByMaxPath(i, j);
+            }
+          }
+        }
+      }
+    });
+    return matrix;
+  }
+
+  private Matrix compute(int[] first, int[] second) {
+    int length1 = first.length;
+    int length2 = second.length;
+    Matrix matrix = getMatrix(length1, length2, false);
+    matrix.setup(length1 + 1, length2 + 1);
+    fill(matrix, length1 + 1, length2 + 1, false, (iFrom, iTo, jFrom, jTo) -> {
+      for (int i = iFrom; i < iTo; i++) {
+        if ((i & CHECK_MASK) == 0) this.context.check();
+        int id = i > 0 ? first[i - 1] : -1;
+        for (int j = jFrom; j < jTo; j++) {
+          if (i == 0 || j == 0) {
+            matrix.set(i, j, 0);
+          } else if (id == second[j - 1]) {
             matrix.incrementPath(i, j);
           } else {
-            // different tokens
             matrix.incrementByMaxPath(i, j);
           }
         }
       }
-    }
+    });
+    return matrix;
+  }
+
+  private Matrix computeInverse(int[] first, int[] second) {
+    int length1 = first.length;
+    int length2 = second.length;
+    Matrix matrix = getMatrix(length1, length2, true);
+    matrix.setup(length1 + 1, length2 + 1);
+    fill(matrix, length1 + 1, length2 + 1, true, (iFrom, iTo, jFrom, jTo) -> {
+      for (int i = iTo - 1; i >= iFrom; i--) {
+        if ((i & CHECK_MASK) == 0) this.context.check();
+        int id = i < length1 ? first[i] : -1;
+        for (int j = jTo - 1; j >= jFrom; j--) {
+          if (i >= length1 || j >= length2) {
+            matrix.set(i, j, 0);
+          } else if (id == second[j]) {
+            matrix.incrementPath(i, j);
+          } else {
+            matrix.incrementByMaxPath(i, j);
+          }
+        }
+      }
+    });
     return matrix;
   }
 
+  /**
+   * Fill the cells of a matrix of the specified dimensions.
+   *
+   * <p>When using several threads, the matrix is split into tiles which are filled along
+   * anti-diagonals: all the tiles of a diagonal only depend on tiles of the previous diagonal,
+   * so they can be filled concurrently.
+   *
+   * <p>If the context stops the diff, the matrix is released once none of its tiles is being filled.
+   *
+   * @param matrix  The matrix to fill
+   * @param rows    The number of rows
+   * @param columns The number of columns
+   * @param inverse Whether cells depend on the next cells rather than the previous ones
+   * @param filler  Fills the cells in a tile
+   */
+  private void fill(Matrix matrix, int rows, int columns, boolean inverse, TileFiller filler) {
+    try {
+      fill(rows, columns, inverse, filler);
+    } catch (DiffCancelledException ex) {
+      matrix.release();
+      throw ex;
+    }
+  }
+
+  private void fill(int rows, int columns, boolean inverse, TileFiller filler) {
+    int tilesX = (rows + TILE_SIZE - 1) / TILE_SIZE;
+    int tilesY = (columns + TILE_SIZE - 1) / TILE_SIZE;
+    if (this.threads <= 1 || tilesX < 2 || tilesY < 2) {
+      filler.fill(0, rows, 0, columns);
+      return;
+    }
+    ForkJoinPool pool = this.pool;
+    if (pool == null) {
+      pool = new ForkJoinPool(this.threads);
+      this.pool = pool;
+    }
+    pool.invoke(ForkJoinTask.adapt(() -> {
+      int diagonals = tilesX + tilesY - 1;
+      List<ForkJoinTask<?>> tasks = new ArrayList<>(Math.min(tilesX, tilesY));
+      for (int d = 0; d < diagonals; d++) {
+        int diagonal = inverse ? diagonals - 1 - d : d;
+        tasks.clear();
+        for (int tx = Math.max(0, diagonal - tilesY + 1); tx <= Math.min(diagonal, tilesX - 1); tx++) {
+          int iFrom = tx * TILE_SIZE;
+          int jFrom = (diagonal - tx) * TILE_SIZE;
+          int iTo = Math.min(iFrom + TILE_SIZE, rows);
+          int jTo = Math.min(jFrom + TILE_SIZE, columns);
+          tasks.add(ForkJoinTask.adapt(() -> filler.fill(iFrom, iTo, jFrom, jTo)));
+        }
+        invokeAll(tasks);
+      }
+    }));
+  }
+
+  /**
+   * Fills the tiles of a diagonal and waits until none of them is running.
+   *
+   * <p>Unlike {@link ForkJoinTask#invokeAll(java.util.Collection)}, this method does not return as
+   * soon as a tile fails: all the tiles are joined before the failure is rethrown so that the matrix
+   * can be released safely. When the diff is cancelled, the remaining tiles stop as soon as they
+   * check the context.
+   *
+   * @param tasks The tasks filling the tiles of a diagonal
+   */
+  private static void invokeAll(List<ForkJoinTask<?>> tasks) {
+    for (int t = tasks.size() - 1; t > 0; t--) {
+      tasks.get(t).fork();
+    }
+    tasks.get(0).quietlyInvoke();
+    for (int t = 1; t < tasks.size(); t++) {
+      tasks.get(t).quietlyJoin();
+    }
+    for (ForkJoinTask<?> task : tasks) {
+      if (task.isCompletedAbnormally()) task.join();
+    }
+  }
+
   @SuppressWarnings("unused")
   private static <T> void printDebug(List<? extends T> first, List<? extends T> second, Matrix matrix, PrintStream out) {
     out.print("A:");
@@ -153,11 +378,44 @@ public final class MatrixProcessor<T> {
    *
    * @return The most appropriate matrix.
    */
-  private static <T> Matrix getMatrix(List<? extends T> first, List<? extends T> second, boolean inverse) {
-    if (first.size() + 1 > Short.MAX_VALUE || second.size() + 1 > Short.MAX_VALUE)
-      return inverse ? new InvMatrixInt() : new MatrixInt();
+  private <T> Matrix getMatrix(List<? extends T> first, List<? extends T> second, boolean inverse) {
+    return getMatrix(first.size(), second.size(), inverse);
+  }
+
+  /**
+   * Determines the most appropriate matrix to use based on the length of the sequences.
+   *
+   * @param length1 The length of the first sequence.
+   * @param length2 The length of the second sequence.
+   *
+   * @return The most appropriate matrix.
+   */
+  private Matrix getMatrix(int length1, int length2, boolean inverse) {
+    if ((long) (length1 + 1) * (length2 + 1) > this.mappedThreshold)
+      return inverse ? new InvMappedMatrix() : new MappedMatrix();
+    if (length1 + 1 <= Short.MAX_VALUE && length2 + 1 <= Short.MAX_VALUE)
+      return inverse ? new InvFlatMatrixShort() : new FlatMatrixShort();
+    // A single contiguous array is preferred unless there are too many cells to index
+    if ((long) (length1 + 1) * (length2 + 1) <= FlatMatrixIntBase.MAX_SIZE)
+      return inverse ? new InvFlatMatrixInt() : new FlatMatrixInt();
     else
-      return inverse ? new InvMatrixShort() : new MatrixShort();
+      return inverse ? new InvMatrixInt() : new MatrixInt();
+  }
+
+  /**
+   * Fills the cells of a rectangular tile of the matrix.
+   */
+  @FunctionalInterface
+  private interface TileFiller {
+
+    /**
+     * @param iFrom The first row (inclusive)
+     * @param iTo   The last row (exclusive)
+     * @param jFrom The first column (inclusive)
+     * @param jTo   The last column (exclusive)
+     */
+    void fill(int iFrom, int iTo, int jFrom, int jTo);
+
   }
 
 }
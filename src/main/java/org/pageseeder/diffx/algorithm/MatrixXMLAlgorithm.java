@@ -15,7 +15,10 @@
  */
 package org.pageseeder.diffx.algorithm;
 
+import org.jspecify.annotations.Nullable;
 import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.DiffContext;
+import org.pageseeder.diffx.api.DiffContextConfigurable;
 import org.pageseeder.diffx.api.DiffHandler;
 import org.pageseeder.diffx.api.Equality;
 import org.pageseeder.diffx.api.Operator;
@@ -23,7 +26,10 @@ import org.pageseeder.diffx.sequence.TokenListSlicer;
 import org.pageseeder.diffx.token.AttributeToken;
 import org.pageseeder.diffx.token.XMLToken;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToIntFunction;
 
 /**
  * An XML-aware algorithm based on the Wagner-Fisher algorithm.
@@ -32,21 +38,32 @@ import java.util.List;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.2
+ * @version 1.3.4
  * @since 0.9.0
  */
-public final class MatrixXMLAlgorithm implements DiffAlgorithm<XMLToken> {
+public final class MatrixXMLAlgorithm implements DiffAlgorithm<XMLToken>, DiffContextConfigurable {
 
   /**
    * The default maximum number of comparisons allowed for this algorithm.
    */
-  public static final int DEFAULT_THRESHOLD = 64_000_000;
+  public static final int DEFAULT_THRESHOLD = 256_000_000;
+
+  /**
+   * The default maximum number of comparisons when the matrix of LCS lengths is used instead of
+   * the packed directions.
+   */
+  public static final int DEFAULT_LENGTHS_THRESHOLD = 64_000_000;
 
   /**
    * Set to <code>true</code> to show debug info.
    */
   private static final boolean DEBUG = false;
 
+  /**
+   * The default equality consistent with the token hash code.
+   */
+  private static final Equality<XMLToken> DEFAULT_EQUALITY = XMLToken::equals;
+
   /**
    * Set to <code>true</code> to allow sequence slicing.
    */
@@ -54,25 +71,75 @@ public final class MatrixXMLAlgorithm implements DiffAlgorithm<XMLToken> {
 
   private int threshold = DEFAULT_THRESHOLD;
 
+  /**
+   * Set to <code>true</code> to fill the matrix from interned tokens.
+   */
+  private boolean interning = false;
+
+  /**
+   * The number of threads used to fill the matrix.
+   */
+  private int threads = 1;
+
+  /**
+   * The pool used to fill the matrix in parallel, created when first needed.
+   */
+  private @Nullable ForkJoinPool pool = null;
+
+  /**
+   * Set to <code>true</code> to walk a matrix of packed directions rather than LCS lengths.
+   */
+  private boolean packed = true;
+
+  /**
+   * The number of cells above which the matrix is memory-mapped.
+   */
+  private long mappedThreshold = Long.MAX_VALUE;
+
+  /**
+   * The context checked while computing the matrix.
+   */
+  private DiffContext context = DiffContext.NONE;
+
   /**
    * Determines the strategy to compare elements for equality within the diff algorithm.
    */
   private final Equality<XMLToken> eq;
 
+  /**
+   * The hash function consistent with the equality used for interning, if known.
+   */
+  private final @Nullable ToIntFunction<? super XMLToken> hasher;
+
   /**
    * Default constructor using token equality.
    */
   public MatrixXMLAlgorithm() {
-    this.eq = XMLToken::equals;
+    this.eq = DEFAULT_EQUALITY;
+    this.hasher = Object::hashCode;
   }
 
   /**
    * Constructor specifying the equality strategy.
    *
+   * <p>Since the hash function is not known, tokens are never interned.
+   *
    * @param eq The strategy to compare elements for equality.
    */
   public MatrixXMLAlgorithm(Equality<XMLToken> eq) {
     this.eq = eq;
+    this.hasher = null;
+  }
+
+  /**
+   * Constructor specifying the equality strategy and a consistent hash function.
+   *
+   * @param eq     The strategy to compare elements for equality.
+   * @param hasher A hash function consistent with the equality.
+   */
+  public MatrixXMLAlgorithm(Equality<XMLToken> eq, ToIntFunction<? super XMLToken> hasher) {
+    this.eq = eq;
+    this.hasher = hasher;
   }
 
   /**
@@ -90,12 +157,104 @@ public final class MatrixXMLAlgorithm implements DiffAlgorithm<XMLToken> {
    *
    * <p>If the number of tokens post-slicing is larger, it will throw an <code>IllegalArgumentException</code>.
    *
+   * <p>When left to the {@link #DEFAULT_THRESHOLD}, the number of comparisons is limited to the
+   * {@link #DEFAULT_LENGTHS_THRESHOLD} whenever the matrix of LCS lengths is used instead of the
+   * packed directions, as it takes 8 to 16 times more memory.
+   *
    * @param threshold Max number of token comparisons allowed
    */
   public void setThreshold(int threshold) {
     this.threshold = threshold;
   }
 
+  /**
+   * Set whether tokens should be interned in a {@link SymbolTable} before filling the matrix.
+   *
+   * <p>When enabled, the equality is only evaluated once per token and the matrix is filled
+   * by comparing integer identifiers. Tokens are only interned when the hash function is known,
+   * that is when using the default token equality or when a hash function was supplied.
+   *
+   * <p>The sequences are only interned once and the same identifiers are used to slice the
+   * common start and end of the sequences.
+   *
+   * @param interning true to compare interned tokens;
+   *                  false to compare tokens using the equality
+   */
+  public void setInterning(boolean interning) {
+    this.interning = interning;
+  }
+
+  /**
+   * Set the number of threads used to fill the matrix.
+   *
+   * <p>The matrix and therefore the results are identical regardless of the number of threads.
+   *
+   * <p>Only the matrix of LCS lengths can be filled concurrently, so the directions are not
+   * packed when using more than one thread.
+   *
+   * @param threads The number of threads (1 to fill sequentially)
+   *
+   * @see MatrixProcessor#setThreads(int)
+   */
+  public void setThreads(int threads) {
+    if (threads != this.threads) this.pool = null;
+    this.threads = threads;
+  }
+
+  /**
+   * Set the pool used to fill the matrix in parallel.
+   *
+   * <p>The same pool can be shared by several algorithms; the matrix is filled using as many
+   * threads as the parallelism of the pool.
+   *
+   * @param pool The fork/join pool to use
+   *
+   * @see MatrixProcessor#setPool(ForkJoinPool)
+   */
+  public void setPool(ForkJoinPool pool) {
+    this.pool = pool;
+    this.threads = pool.getParallelism();
+  }
+
+  /**
+   * Set whether to walk a {@link DirectionMatrix} which only stores the direction to follow
+   * using 2 bits per cell instead of a matrix of LCS lengths.
+   *
+   * <p>The path is the same either way, but a packed matrix takes 8 to 16 times less memory.
+   *
+   * @param packed true to use a packed direction matrix (default);
+   *               false to use the matrix of LCS lengths
+   */
+  public void setPacked(boolean packed) {
+    this.packed = packed;
+  }
+
+  /**
+   * Set the number of cells above which the matrix of LCS lengths is backed by a memory-mapped
+   * temporary file instead of the heap.
+   *
+   * <p>This allows diffs exceeding the heap to be processed provided the threshold allows it.
+   * Larger matrices are never packed as the packed directions are kept on the heap.
+   *
+   * @param mappedThreshold The maximum number of cells of a matrix on the heap
+   *
+   * @see MatrixProcessor#setMappedThreshold(long)
+   */
+  public void setMappedThreshold(long mappedThreshold) {
+    this.mappedThreshold = mappedThreshold;
+  }
+
+  /**
+   * Set the context checked while computing the matrix so that the diff stops when the context
+   * is cancelled or its deadline is exceeded.
+   *
+   * @param context The context of the diff
+   */
+  @Override
+  public void setContext(DiffContext context) {
+    this.context = context;
+  }
+
   /**
    * Determines whether the differences between two lists of {@link XMLToken} objects can be computed
    * based on the configured threshold and optional slicing.
@@ -107,12 +266,13 @@ public final class MatrixXMLAlgorithm implements DiffAlgorithm<XMLToken> {
    */
   public boolean isDiffComputable(List<? extends XMLToken> from, List<? extends XMLToken> to) {
     // Check without slicer from
-    if (from.size() * to.size() <= this.threshold) return true;
+    if ((long) from.size() * to.size() <= threshold(from.size(), to.size())) return true;
     // Check if possible after slicing
     TokenListSlicer slicer = new TokenListSlicer(from, to);
     int commonCount = this.slice ? slicer.analyze() : 0;
-    int matrixSize = (from.size() - commonCount) * (to.size() - commonCount);
-    return matrixSize > this.threshold;
+    int lengthA = from.size() - commonCount;
+    int lengthB = to.size() - commonCount;
+    return (long) lengthA * lengthB <= threshold(lengthA, lengthB);
   }
 
   @Override
@@ -138,8 +298,29 @@ public final class MatrixXMLAlgorithm implements DiffAlgorithm<XMLToken> {
     diff(from, to, estate);
   }
 
-  private void diff(List<? extends XMLToken> A, List<? extends XMLToken> B, ElementStackFilter handler) {
-    TokenListSlicer slicer = new TokenListSlicer(A, B);
+  /**
+   * Compares the specified sequences using the state of open elements of the specified filter.
+   *
+   * <p>This allows other algorithms and processors to use this one for parts of the sequences:
+   * the filter may already contain open elements that the sequences are expected to close.
+   *
+   * @param A       The first sequence
+   * @param B       The second sequence
+   * @param handler The filter keeping the state of open elements, wrapping the actual handler
+   */
+  public void diff(List<? extends XMLToken> A, List<? extends XMLToken> B, ElementStackFilter handler) {
+    // Interned tokens are encoded once and reused for both slicing and the matrix
+    int[] idsA = null;
+    int[] idsB = null;
+    TokenListSlicer slicer;
+    if (this.interning && this.slice && this.hasher != null) {
+      SymbolTable<XMLToken> symbols = newSymbolTable();
+      idsA = symbols.encode(A);
+      idsB = symbols.encode(B);
+      slicer = new TokenListSlicer(A, B, idsA, idsB);
+    } else {
+      slicer = new TokenListSlicer(A, B);
+    }
     int common = this.slice ? slicer.analyze() : 0;
 
     // Check the end
@@ -150,28 +331,58 @@ public final class MatrixXMLAlgorithm implements DiffAlgorithm<XMLToken> {
       if (subA.isEmpty() || subB.isEmpty()) {
         for (XMLToken token : subB) handler.handle(Operator.INS, token);
         for (XMLToken token : subA) handler.handle(Operator.DEL, token);
+      } else if (idsA != null) {
+        int start = slicer.getStartCount();
+        processDiff(subA, subB, Arrays.copyOfRange(idsA, start, start + subA.size()),
+            Arrays.copyOfRange(idsB, start, start + subB.size()), handler);
       } else {
-        processDiff(subA, subB, handler);
+        processDiff(subA, subB, null, null, handler);
       }
       slicer.handleEnd(handler);
     } else {
-      processDiff(A, B, handler);
+      processDiff(A, B, idsA, idsB, handler);
     }
   }
 
-  @SuppressWarnings({"java:S106", "java:S3776"}) // Complexity is inherent to the XML-aware matrix walk
-  private void processDiff(List<? extends XMLToken> A, List<? extends XMLToken> B, ElementStackFilter handler) {
+  private void processDiff(List<? extends XMLToken> A, List<? extends XMLToken> B,
+                           int @Nullable [] idsA, int @Nullable [] idsB, ElementStackFilter handler) {
     final int lengthA = A.size();
     final int lengthB = B.size();
 
     // Throws error if we can't process
-    if (lengthA * lengthB > this.threshold)
-      throw new DataLengthException(lengthA * lengthB, this.threshold);
+    int threshold = threshold(lengthA, lengthB);
+    if ((long) lengthA * lengthB > threshold)
+      throw new DataLengthException((int) Math.min((long) lengthA * lengthB, Integer.MAX_VALUE), threshold);
 
     // calculate the LCS length to fill the matrix
-    MatrixProcessor<XMLToken> builder = new MatrixProcessor<>();
-    builder.setInverse(true);
-    Matrix matrix = builder.process(A, B, this.eq);
+    Path matrix = isPacked(lengthA, lengthB) ? computeDirections(A, B, idsA, idsB) : computeLengths(A, B, idsA, idsB);
+    try {
+      walk(A, B, handler, matrix);
+    } finally {
+      matrix.release();
+    }
+  }
+
+  /**
+   * Indicates whether the sequences of the specified lengths are compared using packed directions.
+   */
+  private boolean isPacked(int lengthA, int lengthB) {
+    long cells = (long) (lengthA + 1) * (lengthB + 1);
+    return this.packed && this.threads <= 1 && cells <= this.mappedThreshold;
+  }
+
+  /**
+   * Returns the maximum number of comparisons allowed for sequences of the specified lengths.
+   */
+  private int threshold(int lengthA, int lengthB) {
+    if (this.threshold == DEFAULT_THRESHOLD && !isPacked(lengthA, lengthB)) return DEFAULT_LENGTHS_THRESHOLD;
+    return this.threshold;
+  }
+
+  @SuppressWarnings({"java:S106", "java:S3776"}) // Complexity is inherent to the XML-aware matrix walk
+  private void walk(List<? extends XMLToken> A, List<? extends XMLToken> B, ElementStackFilter handler, Path matrix) {
+    final int lengthA = A.size();
+    final int lengthB = B.size();
 
     int i = 0;
     int j = 0;
@@ -318,6 +529,95 @@ public final class MatrixXMLAlgorithm implements DiffAlgorithm<XMLToken> {
     }
   }
 
+  /**
+   * Computes the directions to follow in a packed direction matrix.
+   */
+  private Path computeDirections(List<? extends XMLToken> A, List<? extends XMLToken> B, int @Nullable [] idsA, int @Nullable [] idsB) {
+    DirectionMatrixProcessor<XMLToken> builder = new DirectionMatrixProcessor<>();
+    builder.setInverse(true);
+    builder.setContext(this.context);
+    DirectionMatrix matrix;
+    if (idsA != null && idsB != null) {
+      matrix = builder.process(idsA, idsB);
+    } else if (this.interning && this.hasher != null) {
+      SymbolTable<XMLToken> symbols = newSymbolTable();
+      matrix = builder.process(symbols.encode(A), symbols.encode(B));
+    } else {
+      matrix = builder.process(A, B, this.eq);
+    }
+    return new Path() {
+      @Override
+      public boolean isGreaterX(int i, int j) {
+        return matrix.isGreaterX(i, j);
+      }
+
+      @Override
+      public boolean isGreaterY(int i, int j) {
+        return matrix.isGreaterY(i, j);
+      }
+
+      @Override
+      public boolean isSameXY(int i, int j) {
+        return matrix.isSameXY(i, j);
+      }
+
+      @Override
+      public void release() {
+        // Nothing to release, the directions are on the heap
+      }
+    };
+  }
+
+  /**
+   * Computes the directions to follow from a matrix of LCS lengths.
+   */
+  private Path computeLengths(List<? extends XMLToken> A, List<? extends XMLToken> B, int @Nullable [] idsA, int @Nullable [] idsB) {
+    MatrixProcessor<XMLToken> builder = new MatrixProcessor<>();
+    builder.setInverse(true);
+    if (this.threads > 1) {
+      if (this.pool == null) this.pool = new ForkJoinPool(this.threads);
+      builder.setPool(this.pool);
+    }
+    builder.setMappedThreshold(this.mappedThreshold);
+    builder.setContext(this.context);
+    Matrix matrix;
+    if (idsA != null && idsB != null) {
+      matrix = builder.process(idsA, idsB);
+    } else if (this.interning && this.hasher != null) {
+      SymbolTable<XMLToken> symbols = newSymbolTable();
+      matrix = builder.process(symbols.encode(A), symbols.encode(B));
+    } else {
+      matrix = builder.process(A, B, this.eq);
+    }
+    return new Path() {
+      @Override
+      public boolean isGreaterX(int i, int j) {
+        return matrix.isGreaterX(i, j);
+      }
+
+      @Override
+      public boolean isGreaterY(int i, int j) {
+        return matrix.isGreaterY(i, j);
+      }
+
+      @Override
+      public boolean isSameXY(int i, int j) {
+        return matrix.isSameXY(i, j);
+      }
+
+      @Override
+      public void release() {
+        matrix.release();
+      }
+    };
+  }
+
+  private SymbolTable<XMLToken> newSymbolTable() {
+    ToIntFunction<? super XMLToken> hasher = this.hasher;
+    if (hasher == null) throw new IllegalStateException("Unable to intern tokens without a hash function");
+    return new SymbolTable<>(this.eq, hasher);
+  }
+
   /**
    * Print information when the algorithm gets lost in the matrix,
    * ie when it does not know which direction to follow.
@@ -326,15 +626,13 @@ public final class MatrixXMLAlgorithm implements DiffAlgorithm<XMLToken> {
    * @param j The Y position.
    */
   @SuppressWarnings("java:S106")
-  private void printLost(int i, int j, Matrix matrix, ElementStackFilter estate, List<? extends XMLToken> first, List<? extends XMLToken> second) {
+  private void printLost(int i, int j, Path matrix, ElementStackFilter estate, List<? extends XMLToken> first, List<? extends XMLToken> second) {
     XMLToken tokenA = first.get(i);
     XMLToken tokenB = second.get(j);
     System.err.println("(!) Ambiguous choice in (" + i + "," + j + ")");
     System.err.println(" ? +" + tokenA);
     System.err.println(" ? -" + tokenB);
     System.err.println(" current=" + estate.current());
-    System.err.println(" value in X+1=" + matrix.get(i + 1, j));
-    System.err.println(" value in Y+1=" + matrix.get(i, j + 1));
     System.err.println(" equals=" + this.eq.equals(tokenA, tokenB));
     System.err.println(" greaterX=" + matrix.isGreaterX(i, j));
     System.err.println(" greaterY=" + matrix.isGreaterY(i, j));
@@ -350,6 +648,29 @@ public final class MatrixXMLAlgorithm implements DiffAlgorithm<XMLToken> {
     return "MatrixXMLAlgorithm{" +
         "slice=" + slice +
         ", threshold=" + threshold +
+        ", interning=" + interning +
+        ", threads=" + threads +
+        ", packed=" + packed +
+        ", mappedThreshold=" + mappedThreshold +
         '}';
   }
+
+  /**
+   * The directions to follow when walking the matrix regardless of how they are stored.
+   */
+  private interface Path {
+
+    boolean isGreaterX(int i, int j);
+
+    boolean isGreaterY(int i, int j);
+
+    boolean isSameXY(int i, int j);
+
+    /**
+     * Releases the resources used by the underlying matrix.
+     */
+    void release();
+
+  }
+
 }
@@ -34,7 +34,7 @@ import java.util.List;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.2
+ * @version 1.3.4
  * @since 0.9.0
  */
 abstract class MyersAlgorithm<T> implements DiffAlgorithm<T> {
@@ -101,4 +101,22 @@ abstract class MyersAlgorithm<T> implements DiffAlgorithm<T> {
     }
   }
 
+  /**
+   * Reports all tokens from the first list as deleted and all tokens from the second as inserted.
+   *
+   * <p>This is the edit script used when the sequences are too different to be compared.
+   *
+   * @param a       The first list being compared.
+   * @param b       The second list being compared.
+   * @param handler The handler receiving the edits.
+   */
+  static <T> void replaceAll(List<? extends T> a, List<? extends T> b, DiffHandler<T> handler) {
+    for (T token : a) {
+      handler.handle(Operator.DEL, token);
+    }
+    for (T token : b) {
+      handler.handle(Operator.INS, token);
+    }
+  }
+
 }
@@ -16,11 +16,12 @@
 package org.pageseeder.diffx.algorithm;
 
 import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.DiffContext;
+import org.pageseeder.diffx.api.DiffContextConfigurable;
 import org.pageseeder.diffx.api.DiffHandler;
 import org.pageseeder.diffx.api.Equality;
 import org.pageseeder.diffx.api.Operator;
 
-import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -32,19 +33,34 @@ import java.util.List;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.2
+ * @version 1.3.4
  * @version 0.9.0
  *
  * @see <a href="https://neil.fraser.name/writing/diff/myers.pdf">An O(ND) Difference Algorithm and its Variations</a>
  * @see <a href="http://simplygenius.net/Article/DiffTutorial1">Myers' Diff Algorithm: The basic greedy algorithm</a>
  */
-public final class MyersGreedyAlgorithm<T> implements DiffAlgorithm<T> {
+public final class MyersGreedyAlgorithm<T> implements DiffAlgorithm<T>, DiffContextConfigurable {
 
   /**
    * Determines the strategy to compare elements for equality within the diff algorithm.
    */
   private final Equality<T> eq;
 
+  /**
+   * The maximum number of edits before the algorithm gives up.
+   */
+  private int maxEdits = Integer.MAX_VALUE;
+
+  /**
+   * Whether to replace all tokens rather than throw an exception when there are too many edits.
+   */
+  private boolean fallbackToReplace = false;
+
+  /**
+   * The context checked while computing the diff.
+   */
+  private DiffContext context = DiffContext.NONE;
+
   /**
    * Default constructor using token equality.
    */
@@ -61,10 +77,53 @@ public final class MyersGreedyAlgorithm<T> implements DiffAlgorithm<T> {
     this.eq = eq;
   }
 
+  /**
+   * Set the maximum number of edits (insertions and deletions) between the two sequences.
+   *
+   * <p>The algorithm stops as soon as it is known that more edits are needed, so that the cost
+   * for unrelated sequences is bounded by the maximum rather than their length.
+   *
+   * @param maxEdits The maximum number of edits allowed
+   *
+   * @see #setFallbackToReplace(boolean)
+   */
+  public void setMaxEdits(int maxEdits) {
+    this.maxEdits = maxEdits;
+  }
+
+  /**
+   * Set whether to report all the tokens as deleted then inserted when the maximum number of
+   * edits is exceeded.
+   *
+   * @param fallbackToReplace true to replace all tokens;
+   *                          false to throw a {@link TooDifferentException} (default)
+   */
+  public void setFallbackToReplace(boolean fallbackToReplace) {
+    this.fallbackToReplace = fallbackToReplace;
+  }
+
+  /**
+   * Set the context checked while computing the diff so that it stops when the context is
+   * cancelled or its deadline is exceeded.
+   *
+   * @param context The context of the diff
+   */
+  @Override
+  public void setContext(DiffContext context) {
+    this.context = context;
+  }
+
   @Override
   public void diff(List<? extends T> from, List<? extends T> to, DiffHandler<T> handler) {
-    MyersGreedyAlgorithm.Instance<T> instance = new MyersGreedyAlgorithm.Instance<>(from, to, this.eq);
-    List<Snake> snakes = instance.computePath();
+    MyersGreedyAlgorithm.Instance<T> instance = new MyersGreedyAlgorithm.Instance<>(from, to, this.eq, this.maxEdits, this.context);
+    List<Snake> snakes;
+    try {
+      snakes = instance.computePath();
+    } catch (TooDifferentException ex) {
+      if (!this.fallbackToReplace) throw ex;
+      MyersAlgorithm.replaceAll(from, to, handler);
+      return;
+    }
     handle(from, to, handler, snakes);
   }
 
@@ -106,12 +165,18 @@ public final class MyersGreedyAlgorithm<T> implements DiffAlgorithm<T> {
 
     private final Equality<T> eq;
 
-    Instance(List<? extends T> a, List<? extends T> b, Equality<T> eq) {
+    private final int maxEdits;
+
+    private final DiffContext context;
+
+    Instance(List<? extends T> a, List<? extends T> b, Equality<T> eq, int maxEdits, DiffContext context) {
       this.a = a;
       this.b = b;
       this.sizeA = a.size();
       this.sizeB = b.size();
       this.eq = eq;
+      this.maxEdits = maxEdits;
+      this.context = context;
     }
 
     /**
@@ -121,29 +186,37 @@ public final class MyersGreedyAlgorithm<T> implements DiffAlgorithm<T> {
      *
      * @return the corresponding list of snakes
      * @throws IllegalStateException If no solution was found.
+     * @throws TooDifferentException If the solution requires more edits than allowed.
      */
     private List<Snake> computePath() {
       Vector vector = Vector.createGreedy(this.sizeA, this.sizeB);
-      List<Vector> vectors = new ArrayList<>();
+      Trace trace = new Trace();
 
       // Maximum length for the path (N + M)
       final int max = this.sizeA + this.sizeB;
 
+      // The number of edits is at least the difference in length
+      if (Math.abs(this.sizeA - this.sizeB) > this.maxEdits)
+        throw new TooDifferentException(this.maxEdits);
+
       // Find the endpoint of the furthest reaching D-path in diagonal k
       boolean found = false;
-      for (int d = 0; d <= max; d++) {
+      for (int d = 0; d <= Math.min(max, this.maxEdits); d++) {
+        this.context.check();
         found = forward(vector, d);
-        vectors.add(vector.snapshot(d));
+        trace.record(vector);
         if (found) {
           break;
         }
       }
 
+      if (!found && this.maxEdits < max)
+        throw new TooDifferentException(this.maxEdits);
       if (!found)
         throw new IllegalStateException("Unable to find a solution!");
 
-      // Compute the snakes from the vectors
-      return solve(vectors);
+      // Compute the snakes from the trace
+      return solve(trace);
     }
 
     /**
@@ -179,22 +252,21 @@ public final class MyersGreedyAlgorithm<T> implements DiffAlgorithm<T> {
     /**
      * @throws IllegalStateException If no solution could be found
      */
-    private List<Snake> solve(List<Vector> vectors) {
+    private List<Snake> solve(Trace trace) {
       LinkedList<Snake> snakes = new LinkedList<>();
       Point target = new Point(this.sizeA, this.sizeB);
 
       // We go backwards following the vectors to get the snakes
-      for (int d = vectors.size() - 1; target.x() > 0 || target.y() > 0; d--) {
-        Vector vector = vectors.get(d);
+      for (int d = trace.size() - 1; target.x() > 0 || target.y() > 0; d--) {
         int k = target.x() - target.y();
-        int xEnd = vector.getX(k);
+        int xEnd = trace.getX(d, k);
         int yEnd = xEnd - k;
 
         if (target.isNotSame(xEnd, yEnd))
           throw new IllegalStateException("No solution for d:" + d + " k:" + k + " p:" + target + " V:( " + xEnd + ", " + yEnd + " )");
 
-        boolean down = (k == -d || (k != d && vector.getX(k - 1) < vector.getX(k + 1)));
-        int xStart = down ? vector.getX(k + 1) : vector.getX(k - 1);
+        boolean down = (k == -d || (k != d && trace.getX(d, k - 1) < trace.getX(d, k + 1)));
+        int xStart = down ? trace.getX(d, k + 1) : trace.getX(d, k - 1);
         int yStart = xStart - (down ? k + 1 : k - 1);
         int matching = Math.min(xEnd - xStart, yEnd - yStart);
 
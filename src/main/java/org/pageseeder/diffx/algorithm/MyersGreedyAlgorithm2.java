@@ -16,6 +16,8 @@
 package org.pageseeder.diffx.algorithm;
 
 import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.DiffContext;
+import org.pageseeder.diffx.api.DiffContextConfigurable;
 import org.pageseeder.diffx.api.DiffHandler;
 import org.pageseeder.diffx.api.Equality;
 import org.pageseeder.diffx.api.Operator;
@@ -34,19 +36,24 @@ import java.util.List;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.2
+ * @version 1.3.4
  * @version 0.9.0
  *
  * @see <a href="https://neil.fraser.name/writing/diff/myers.pdf">An O(ND) Difference Algorithm and its Variations</a>
  * @see <a href="http://simplygenius.net/Article/DiffTutorial1">Myers' Diff Algorithm: The basic greedy algorithm</a>
  */
-public final class MyersGreedyAlgorithm2<T> implements DiffAlgorithm<T> {
+public final class MyersGreedyAlgorithm2<T> implements DiffAlgorithm<T>, DiffContextConfigurable {
 
   /**
    * Determines the strategy to compare elements for equality within the diff algorithm.
    */
   private final Equality<T> eq;
 
+  /**
+   * The context checked while computing the diff.
+   */
+  private DiffContext context = DiffContext.NONE;
+
   /**
    * Default constructor using token equality.
    */
@@ -63,9 +70,20 @@ public final class MyersGreedyAlgorithm2<T> implements DiffAlgorithm<T> {
     this.eq = eq;
   }
 
+  /**
+   * Set the context checked while computing the diff so that it stops when the context is
+   * cancelled or its deadline is exceeded.
+   *
+   * @param context The context of the diff
+   */
+  @Override
+  public void setContext(DiffContext context) {
+    this.context = context;
+  }
+
   @Override
   public void diff(List<? extends T> from, List<? extends T> to, DiffHandler<T> handler) {
-    MyersGreedyAlgorithm2.Instance<T> instance = new MyersGreedyAlgorithm2.Instance<>(from, to, eq);
+    MyersGreedyAlgorithm2.Instance<T> instance = new MyersGreedyAlgorithm2.Instance<>(from, to, this.eq, this.context);
     instance.diff(handler);
   }
 
@@ -83,12 +101,15 @@ public final class MyersGreedyAlgorithm2<T> implements DiffAlgorithm<T> {
 
     private final Equality<T> eq;
 
-    Instance(List<? extends T> a, List<? extends T> b, Equality<T> eq) {
+    private final DiffContext context;
+
+    Instance(List<? extends T> a, List<? extends T> b, Equality<T> eq, DiffContext context) {
       this.a = a;
       this.b = b;
       this.sizeA = a.size();
       this.sizeB = b.size();
       this.eq = eq;
+      this.context = context;
     }
 
     /**
@@ -109,6 +130,7 @@ public final class MyersGreedyAlgorithm2<T> implements DiffAlgorithm<T> {
       // Find the endpoint of the furthest reaching D-path in diagonal k
       int diff = -1;
       for (int d = 0; d <= max; d++) {
+        this.context.check();
         diff = reverse(vector, d);
         vectors.add(vector.snapshot(d, false, delta));
         if (diff >= 0) {
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.algorithm;
+
+import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.DiffContext;
+import org.pageseeder.diffx.api.DiffContextConfigurable;
+import org.pageseeder.diffx.api.DiffHandler;
+import org.pageseeder.diffx.api.Equality;
+import org.pageseeder.diffx.api.Operator;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * A variant of the {@link MyersGreedyAlgorithm} which interns the tokens in a {@link SymbolTable}
+ * first and follows the snakes by comparing integer identifiers.
+ *
+ * <p>The tokens are only accessed again when reporting the results to the handler, so the
+ * equality is evaluated once per token instead of once per comparison.
+ *
+ * @param <T> The type of token being compared
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ *
+ * @see MyersGreedyAlgorithm
+ * @see SymbolTable
+ */
+public final class MyersGreedyIntAlgorithm<T> implements DiffAlgorithm<T>, DiffContextConfigurable {
+
+  /**
+   * Determines the strategy to compare elements for equality within the diff algorithm.
+   */
+  private final Equality<T> eq;
+
+  /**
+   * The hash function consistent with the equality used for interning.
+   */
+  private final ToIntFunction<? super T> hasher;
+
+  /**
+   * The maximum number of edits before the algorithm gives up.
+   */
+  private int maxEdits = Integer.MAX_VALUE;
+
+  /**
+   * Whether to replace all tokens rather than throw an exception when there are too many edits.
+   */
+  private boolean fallbackToReplace = false;
+
+  /**
+   * The context checked while computing the diff.
+   */
+  private DiffContext context = DiffContext.NONE;
+
+  /**
+   * Default constructor using token equality and hash code.
+   */
+  public MyersGreedyIntAlgorithm() {
+    this.eq = T::equals;
+    this.hasher = Object::hashCode;
+  }
+
+  /**
+   * Constructor specifying the equality strategy and a consistent hash function.
+   *
+   * @param eq     The strategy to compare elements for equality.
+   * @param hasher A hash function consistent with the equality.
+   */
+  public MyersGreedyIntAlgorithm(Equality<T> eq, ToIntFunction<? super T> hasher) {
+    this.eq = eq;
+    this.hasher = hasher;
+  }
+
+  /**
+   * Set the maximum number of edits (insertions and deletions) between the two sequences.
+   *
+   * <p>The algorithm stops as soon as it is known that more edits are needed, so that the cost
+   * for unrelated sequences is bounded by the maximum rather than their length.
+   *
+   * @param maxEdits The maximum number of edits allowed
+   *
+   * @see #setFallbackToReplace(boolean)
+   */
+  public void setMaxEdits(int maxEdits) {
+    this.maxEdits = maxEdits;
+  }
+
+  /**
+   * Set whether to report all the tokens as deleted then inserted when the maximum number of
+   * edits is exceeded.
+   *
+   * @param fallbackToReplace true to replace all tokens;
+   *                          false to throw a {@link TooDifferentException} (default)
+   */
+  public void setFallbackToReplace(boolean fallbackToReplace) {
+    this.fallbackToReplace = fallbackToReplace;
+  }
+
+  /**
+   * Set the context checked while computing the diff so that it stops when the context is
+   * cancelled or its deadline is exceeded.
+   *
+   * @param context The context of the diff
+   */
+  @Override
+  public void setContext(DiffContext context) {
+    this.context = context;
+  }
+
+  @Override
+  public void diff(List<? extends T> from, List<? extends T> to, DiffHandler<T> handler) {
+    SymbolTable<T> symbols = new SymbolTable<>(this.eq, this.hasher);
+    diff(from, symbols.encode(from), to, symbols.encode(to), handler);
+  }
+
+  /**
+   * Compares the specified tokens using the identifiers they were interned to.
+   *
+   * <p>This allows a caller which has already interned the tokens to avoid encoding them again.
+   * The identifiers must come from the same symbol table, using an equality consistent with this
+   * algorithm.
+   *
+   * @param from    The first list of tokens
+   * @param a       The identifiers of the first list of tokens
+   * @param to      The second list of tokens
+   * @param b       The identifiers of the second list of tokens
+   * @param handler The handler receiving the operations
+   *
+   * @throws IllegalArgumentException If the number of identifiers does not match the number of tokens.
+   */
+  public void diff(List<? extends T> from, int[] a, List<? extends T> to, int[] b, DiffHandler<T> handler) {
+    if (a.length != from.size() || b.length != to.size())
+      throw new IllegalArgumentException("The identifiers must match the tokens");
+    List<Snake> snakes;
+    try {
+      snakes = new Instance(a, b, this.maxEdits, this.context).computePath();
+    } catch (TooDifferentException ex) {
+      if (!this.fallbackToReplace) throw ex;
+      MyersAlgorithm.replaceAll(from, to, handler);
+      return;
+    }
+    handle(from, to, handler, snakes);
+  }
+
+  /**
+   * Handles the results of the diff by following the snakes.
+   */
+  private void handle(List<? extends T> a, List<? extends T> b, DiffHandler<T> handler, List<Snake> snakes) {
+    int x = 0;
+    int y = 0;
+    for (Snake snake : snakes) {
+      Point start = snake.getStart();
+      while (x < start.x()) {
+        handler.handle(Operator.DEL, a.get(x));
+        x++;
+      }
+      while (y < start.y()) {
+        handler.handle(Operator.INS, b.get(y));
+        y++;
+      }
+      for (int i = 0; i < snake.length(); i++) {
+        handler.handle(Operator.MATCH, b.get(y));
+        x++;
+        y++;
+      }
+    }
+  }
+
+  /**
+   * An instance of this algorithm for the encoded sequences being compared.
+   */
+  private static final class Instance {
+
+    private final int[] a;
+    private final int[] b;
+    private final int sizeA;
+    private final int sizeB;
+    private final int maxEdits;
+    private final DiffContext context;
+
+    Instance(int[] a, int[] b, int maxEdits, DiffContext context) {
+      this.a = a;
+      this.b = b;
+      this.sizeA = a.length;
+      this.sizeB = b.length;
+      this.maxEdits = maxEdits;
+      this.context = context;
+    }
+
+    /**
+     * Compute the path to generate the shortest edit sequence (SES) between the two arrays.
+     *
+     * @return the corresponding list of snakes
+     * @throws IllegalStateException If no solution was found.
+     * @throws TooDifferentException If the solution requires more edits than allowed.
+     */
+    private List<Snake> computePath() {
+      Vector vector = Vector.createGreedy(this.sizeA, this.sizeB);
+      Trace trace = new Trace();
+
+      // Maximum length for the path (N + M)
+      final int max = this.sizeA + this.sizeB;
+
+      // The number of edits is at least the difference in length
+      if (Math.abs(this.sizeA - this.sizeB) > this.maxEdits)
+        throw new TooDifferentException(this.maxEdits);
+
+      // Find the endpoint of the furthest reaching D-path in diagonal k
+      boolean found = false;
+      for (int d = 0; d <= Math.min(max, this.maxEdits); d++) {
+        this.context.check();
+        found = forward(vector, d);
+        trace.record(vector);
+        if (found) {
+          break;
+        }
+      }
+
+      if (!found && this.maxEdits < max)
+        throw new TooDifferentException(this.maxEdits);
+      if (!found)
+        throw new IllegalStateException("Unable to find a solution!");
+
+      // Compute the snakes from the trace
+      return solve(trace);
+    }
+
+    /**
+     * @return the last snake when a solution has been found.
+     */
+    private boolean forward(Vector vector, int d) {
+      for (int k = -d; k <= d; k += 2) {
+        // DOWN (insertion) or RIGHT (deletion)
+        boolean down = (k == -d || (k != d && vector.getX(k - 1) < vector.getX(k + 1)));
+
+        // To get to line k, we move DOWN (k+1) or RIGHT (k-1)
+        int x = down ? vector.getX(k + 1) : vector.getX(k - 1) + 1;
+        int y = x - k;
+
+        // Follow diagonals
+        while (x < this.sizeA && y < this.sizeB && this.a[x] == this.b[y]) {
+          x++;
+          y++;
+        }
+
+        // Save end points
+        vector.setX(k, x);
+
+        // Check if we've reached the end
+        if (x >= this.sizeA && y >= this.sizeB) {
+          return true;
+        }
+      }
+
+      return false;
+    }
+
+    /**
+     * @throws IllegalStateException If no solution could be found
+     */
+    private List<Snake> solve(Trace trace) {
+      LinkedList<Snake> snakes = new LinkedList<>();
+      Point target = new Point(this.sizeA, this.sizeB);
+
+      // We go backwards following the vectors to get the snakes
+      for (int d = trace.size() - 1; target.x() > 0 || target.y() > 0; d--) {
+        int k = target.x() - target.y();
+        int xEnd = trace.getX(d, k);
+        int yEnd = xEnd - k;
+
+        if (target.isNotSame(xEnd, yEnd))
+          throw new IllegalStateException("No solution for d:" + d + " k:" + k + " p:" + target + " V:( " + xEnd + ", " + yEnd + " )");
+
+        boolean down = (k == -d || (k != d && trace.getX(d, k - 1) < trace.getX(d, k + 1)));
+        int xStart = down ? trace.getX(d, k + 1) : trace.getX(d, k - 1);
+        int yStart = xStart - (down ? k + 1 : k - 1);
+        int matching = Math.min(xEnd - xStart, yEnd - yStart);
+
+        // Only include non-empty snakes and the last one
+        if (matching > 0 || snakes.isEmpty()) {
+          Snake snake = new Snake(new Point(target.x() - matching, target.y() - matching), matching);
+          snakes.addFirst(snake);
+        }
+
+        target = new Point(xStart, Math.max(yStart, 0));
+      }
+      return snakes;
+    }
+
+  }
+
+}
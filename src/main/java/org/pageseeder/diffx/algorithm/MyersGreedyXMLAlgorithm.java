@@ -17,6 +17,8 @@ package org.pageseeder.diffx.algorithm;
 
 import org.jspecify.annotations.Nullable;
 import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.DiffContext;
+import org.pageseeder.diffx.api.DiffContextConfigurable;
 import org.pageseeder.diffx.api.DiffHandler;
 import org.pageseeder.diffx.api.Equality;
 import org.pageseeder.diffx.api.Operator;
@@ -31,13 +33,13 @@ import java.util.List;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.2
+ * @version 1.3.4
  * @since 0.9.0
  *
  * @see <a href="https://neil.fraser.name/writing/diff/myers.pdf">An O(ND) Difference Algorithm and its Variations</a>
  */
 @SuppressWarnings("java:S106")
-public final class MyersGreedyXMLAlgorithm extends MyersAlgorithm<XMLToken> implements DiffAlgorithm<XMLToken> {
+public final class MyersGreedyXMLAlgorithm extends MyersAlgorithm<XMLToken> implements DiffAlgorithm<XMLToken>, DiffContextConfigurable {
 
   private static final boolean DEBUG = false;
 
@@ -46,6 +48,21 @@ public final class MyersGreedyXMLAlgorithm extends MyersAlgorithm<XMLToken> impl
    */
   private final Equality<XMLToken> eq;
 
+  /**
+   * The maximum number of edits before the algorithm gives up.
+   */
+  private int maxEdits = Integer.MAX_VALUE;
+
+  /**
+   * Whether to replace all tokens rather than throw an exception when there are too many edits.
+   */
+  private boolean fallbackToReplace = false;
+
+  /**
+   * The context checked while computing the diff.
+   */
+  private DiffContext context = DiffContext.NONE;
+
   /**
    * Default constructor using token equality.
    */
@@ -62,10 +79,53 @@ public final class MyersGreedyXMLAlgorithm extends MyersAlgorithm<XMLToken> impl
     this.eq = eq;
   }
 
+  /**
+   * Set the maximum number of edits (insertions and deletions) between the two sequences.
+   *
+   * <p>The algorithm stops as soon as it is known that more edits are needed, so that the cost
+   * for unrelated sequences is bounded by the maximum rather than their length.
+   *
+   * @param maxEdits The maximum number of edits allowed
+   *
+   * @see #setFallbackToReplace(boolean)
+   */
+  public void setMaxEdits(int maxEdits) {
+    this.maxEdits = maxEdits;
+  }
+
+  /**
+   * Set whether to report all the tokens as deleted then inserted when the maximum number of
+   * edits is exceeded.
+   *
+   * @param fallbackToReplace true to replace all tokens;
+   *                          false to throw a {@link TooDifferentException} (default)
+   */
+  public void setFallbackToReplace(boolean fallbackToReplace) {
+    this.fallbackToReplace = fallbackToReplace;
+  }
+
+  /**
+   * Set the context checked while computing the diff so that it stops when the context is
+   * cancelled or its deadline is exceeded.
+   *
+   * @param context The context of the diff
+   */
+  @Override
+  public void setContext(DiffContext context) {
+    this.context = context;
+  }
+
   @Override
   public void diff(List<? extends XMLToken> from, List<? extends XMLToken> to, DiffHandler<XMLToken> handler) {
-    Instance instance = new Instance(from, to, this.eq);
-    List<EdgeSnake> snakes = instance.computePath();
+    Instance instance = new Instance(from, to, this.eq, this.maxEdits, this.context);
+    List<EdgeSnake> snakes;
+    try {
+      snakes = instance.computePath();
+    } catch (TooDifferentException ex) {
+      if (!this.fallbackToReplace) throw ex;
+      replaceAll(from, to, handler);
+      return;
+    }
     // Autocorrect (required until we can fix the attributes)
     PostXMLFixer correction = new PostXMLFixer(handler);
     correction.start();
@@ -87,12 +147,18 @@ public final class MyersGreedyXMLAlgorithm extends MyersAlgorithm<XMLToken> impl
 
     private final Equality<XMLToken> eq;
 
-    Instance(List<? extends XMLToken> a, List<? extends XMLToken> b, Equality<XMLToken> eq) {
+    private final int maxEdits;
+
+    private final DiffContext context;
+
+    Instance(List<? extends XMLToken> a, List<? extends XMLToken> b, Equality<XMLToken> eq, int maxEdits, DiffContext context) {
       this.a = a;
       this.b = b;
       this.sizeA = a.size();
       this.sizeB = b.size();
       this.eq = eq;
+      this.maxEdits = maxEdits;
+      this.context = context;
     }
 
     /**
@@ -102,28 +168,35 @@ public final class MyersGreedyXMLAlgorithm extends MyersAlgorithm<XMLToken> impl
      *
      * @return the corresponding list of snakes
      * @throws IllegalStateException If no solution was found.
+     * @throws TooDifferentException If the solution requires more edits than allowed.
      */
     private List<EdgeSnake> computePath() {
       Vector vector = Vector.createGreedy(this.sizeA, this.sizeB);
-      List<Vector> vectors = new ArrayList<>();
+      Trace trace = new Trace();
       XMLStackMap elements = new XMLStackMap();
 
       // Maximum length for the path (N + M)
       final int max = sizeA + sizeB;
 
+      // The number of edits is at least the difference in length
+      if (Math.abs(this.sizeA - this.sizeB) > this.maxEdits)
+        throw new TooDifferentException(this.maxEdits);
+
       // Find the endpoint of the furthest reaching D-path in diagonal k
       boolean found = false;
-      for (int d = 0; d <= max; d++) {
+      for (int d = 0; d <= Math.min(max, this.maxEdits); d++) {
+        this.context.check();
         found = forward(vector, elements, d);
         if (DEBUG) System.err.println("D" + d + ": " + elements + " | " + vector + "\n");
-        vectors.add(vector.snapshot(d));
+        trace.record(vector);
         // We've found a path
         if (found) break;
       }
+      if (!found && this.maxEdits < max) throw new TooDifferentException(this.maxEdits);
       if (!found) throw new IllegalStateException("Unable to find a solution!");
 
       // Return the corresponding snakes
-      return solve(vectors);
+      return solve(trace);
     }
 
     /**
@@ -193,21 +266,20 @@ public final class MyersGreedyXMLAlgorithm extends MyersAlgorithm<XMLToken> impl
     /**
      * @throws IllegalStateException If no solution could be found
      */
-    private List<EdgeSnake> solve(List<Vector> vectors) {
+    private List<EdgeSnake> solve(Trace trace) {
       List<EdgeSnake> snakes = new ArrayList<>();
       Point p = new Point(this.sizeA, this.sizeB);
 
-      for (int d = vectors.size() - 1; p.x() > 0 || p.y() > 0; d--) {
-        Vector vector = vectors.get(d);
+      for (int d = trace.size() - 1; p.x() > 0 || p.y() > 0; d--) {
         int k = p.x() - p.y();
-        int xEnd = vector.getX(k);
+        int xEnd = trace.getX(d, k);
         int yEnd = xEnd - k;
         if (DEBUG) System.err.println("D=" + d + " k=" + k + " x=" + xEnd + " y=" + yEnd);
 
         if (p.isNotSame(xEnd, yEnd))
           throw new IllegalStateException("No solution for d:" + d + " k:" + k + " p:" + p + " V:( " + xEnd + ", " + yEnd + " )");
 
-        EdgeSnake solution = createToPoint(p, vector, k, d);
+        EdgeSnake solution = createToPoint(p, trace, k, d);
 
         if (p.isNotSame(solution.getXEnd(), solution.getYEnd()))
           throw new IllegalStateException("Missed solution for d:" + d + " k:" + k + " p:" + p + " V:( " + xEnd + ", " + yEnd + " )");
@@ -229,11 +301,11 @@ public final class MyersGreedyXMLAlgorithm extends MyersAlgorithm<XMLToken> impl
 
   }
 
-  private static EdgeSnake createToPoint(Point point, Vector vector, int k, int d) {
+  private static EdgeSnake createToPoint(Point point, Trace trace, int k, int d) {
     final int aEnd = point.x();
     final int bEnd = point.y();
-    boolean down = (k == -d || (k != d && vector.getX(k - 1) < vector.getX(k + 1)));
-    int xStart = down ? vector.getX(k + 1) : vector.getX(k - 1);
+    boolean down = (k == -d || (k != d && trace.getX(d, k - 1) < trace.getX(d, k + 1)));
+    int xStart = down ? trace.getX(d, k + 1) : trace.getX(d, k - 1);
     int yStart = xStart - (down ? k + 1 : k - 1);
     int xEnd = down ? xStart : xStart + 1;
     int yEnd = xEnd - k;
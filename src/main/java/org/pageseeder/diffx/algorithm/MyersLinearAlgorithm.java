@@ -17,11 +17,15 @@ package org.pageseeder.diffx.algorithm;
 
 import org.jspecify.annotations.Nullable;
 import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.DiffContext;
+import org.pageseeder.diffx.api.DiffContextConfigurable;
 import org.pageseeder.diffx.api.DiffHandler;
 import org.pageseeder.diffx.api.Equality;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import static org.pageseeder.diffx.algorithm.EdgeSnake.Direction.*;
 
@@ -31,23 +35,58 @@ import static org.pageseeder.diffx.algorithm.EdgeSnake.Direction.*;
  *
  * <p>Portions of this code are based on the C# implementation of Nicholas Butler at SimplyGenius.NET
  *
+ * <p>The two rectangles on either side of the middle snake are independent, so when a pool is
+ * specified, the bottom right rectangle is solved in a separate task while the top left is solved
+ * in the current one. The snakes of each task are collected separately and merged in order, so the
+ * results are identical to the sequential ones.
+ *
  * @param <T> The type of token being compared
  *
  * @author Christophe Lauret
  *
- * @version 1.3.1
+ * @version 1.3.4
  * @since 0.9.0
  *
  * @see <a href="https://neil.fraser.name/writing/diff/myers.pdf">An O(ND) Difference Algorithm and its Variations</a>
  * @see <a href="http://simplygenius.net/Article/DiffTutorial2">Myers' Diff Algorithm: The linear space refinement</a>
  */
-public final class MyersLinearAlgorithm<T> extends MyersAlgorithm<T> implements DiffAlgorithm<T> {
+public final class MyersLinearAlgorithm<T> extends MyersAlgorithm<T> implements DiffAlgorithm<T>, DiffContextConfigurable {
+
+  /**
+   * The default minimum number of tokens in a sub-problem to solve it in a separate task.
+   */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 4096;
 
   /**
    * Determines the strategy to compare elements for equality within the diff algorithm.
    */
   private final Equality<T> eq;
 
+  /**
+   * The pool used to solve sub-problems in parallel (sequential if <code>null</code>)
+   */
+  private @Nullable ForkJoinPool pool = null;
+
+  /**
+   * The minimum number of tokens in a sub-problem to solve it in a separate task.
+   */
+  private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+  /**
+   * The maximum number of edits before the algorithm gives up.
+   */
+  private int maxEdits = Integer.MAX_VALUE;
+
+  /**
+   * Whether to replace all tokens rather than throw an exception when there are too many edits.
+   */
+  private boolean fallbackToReplace = false;
+
+  /**
+   * The context checked while computing the diff.
+   */
+  private DiffContext context = DiffContext.NONE;
+
   /**
    * Default constructor using token equality.
    */
@@ -64,10 +103,75 @@ public final class MyersLinearAlgorithm<T> extends MyersAlgorithm<T> implements
     this.eq = eq;
   }
 
+  /**
+   * Set the pool used to solve independent sub-problems in parallel.
+   *
+   * <p>The results are the same as when running sequentially.
+   *
+   * @param pool The fork/join pool to use or <code>null</code> to run sequentially (default)
+   */
+  public void setPool(@Nullable ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Set the minimum number of tokens in a sub-problem to solve it in a separate task.
+   *
+   * <p>This setting has no effect unless a pool has been specified.
+   *
+   * @param threshold The minimum number of tokens from both sequences.
+   */
+  public void setParallelThreshold(int threshold) {
+    this.parallelThreshold = threshold;
+  }
+
+  /**
+   * Set the maximum number of edits (insertions and deletions) between the two sequences.
+   *
+   * <p>The algorithm stops once the first middle snake shows that more edits are needed, so
+   * that the cost for unrelated sequences is bounded by the maximum rather than their length.
+   *
+   * @param maxEdits The maximum number of edits allowed
+   *
+   * @see #setFallbackToReplace(boolean)
+   */
+  public void setMaxEdits(int maxEdits) {
+    this.maxEdits = maxEdits;
+  }
+
+  /**
+   * Set whether to report all the tokens as deleted then inserted when the maximum number of
+   * edits is exceeded.
+   *
+   * @param fallbackToReplace true to replace all tokens;
+   *                          false to throw a {@link TooDifferentException} (default)
+   */
+  public void setFallbackToReplace(boolean fallbackToReplace) {
+    this.fallbackToReplace = fallbackToReplace;
+  }
+
+  /**
+   * Set the context checked while computing the diff so that it stops when the context is
+   * cancelled or its deadline is exceeded.
+   *
+   * @param context The context of the diff
+   */
+  @Override
+  public void setContext(DiffContext context) {
+    this.context = context;
+  }
+
   @Override
   public void diff(List<? extends T> from, List<? extends T> to, DiffHandler<T> handler) {
-    Instance<T> instance = new Instance<>(from, to, this.eq);
-    List<EdgeSnake> snakes = instance.computePath();
+    Instance<T> instance = new Instance<>(from, to, this.eq, this.pool, this.parallelThreshold, this.maxEdits, this.context);
+    List<EdgeSnake> snakes;
+    try {
+      snakes = instance.computePath();
+    } catch (TooDifferentException ex) {
+      if (!this.fallbackToReplace) throw ex;
+      replaceAll(from, to, handler);
+      return;
+    }
     handleResults(from, to, handler, snakes);
   }
 
@@ -78,19 +182,48 @@ public final class MyersLinearAlgorithm<T> extends MyersAlgorithm<T> implements
 
     private final Equality<T> eq;
 
+    private final @Nullable ForkJoinPool pool;
+
+    private final int parallelThreshold;
+
+    private final int maxEdits;
+
+    private final DiffContext context;
+
     Instance(List<? extends T> a, List<? extends T> b, Equality<T> eq) {
+      this(a, b, eq, null, DEFAULT_PARALLEL_THRESHOLD, Integer.MAX_VALUE, DiffContext.NONE);
+    }
+
+    @SuppressWarnings("java:S107")
+    Instance(List<? extends T> a, List<? extends T> b, Equality<T> eq, @Nullable ForkJoinPool pool, int parallelThreshold,
+             int maxEdits, DiffContext context) {
       this.a = a;
       this.b = b;
       this.eq = eq;
+      this.pool = pool;
+      this.parallelThreshold = parallelThreshold;
+      this.maxEdits = maxEdits;
+      this.context = context;
     }
 
+    /**
+     * @throws TooDifferentException If the solution requires more edits than allowed.
+     */
     public List<EdgeSnake> computePath() {
+      // The number of edits is at least the difference in length
+      if (Math.abs(this.a.size() - this.b.size()) > this.maxEdits)
+        throw new TooDifferentException(this.maxEdits);
       Vector vForward = Vector.createLinear(this.a.size(), this.b.size(), true);
       Vector vReverse = Vector.createLinear(this.a.size(), this.b.size(), false);
       List<EdgeSnake> snakes = new ArrayList<>();
       List<Vector> forwardVs = new ArrayList<>();
       List<Vector> reverseVs = new ArrayList<>();
-      computePath(0, snakes, forwardVs, reverseVs, 0, this.a.size(), 0, this.b.size(), vForward, vReverse);
+      if (this.pool != null && this.a.size() + this.b.size() >= this.parallelThreshold) {
+        this.pool.invoke(ForkJoinTask.adapt(() ->
+            computePath(0, snakes, forwardVs, reverseVs, 0, this.a.size(), 0, this.b.size(), vForward, vReverse)));
+      } else {
+        computePath(0, snakes, forwardVs, reverseVs, 0, this.a.size(), 0, this.b.size(), vForward, vReverse);
+      }
       return snakes;
     }
 
@@ -104,17 +237,13 @@ public final class MyersLinearAlgorithm<T> extends MyersAlgorithm<T> implements
       // Only deletions
       if (sizeB == 0 && sizeA > 0) {
         EdgeSnake right = EdgeSnake.create(startA, sizeA, startB, sizeB, RIGHT, startA, startB, sizeA, 0);
-        if (snakes.isEmpty() || !snakes.get(snakes.size() - 1).append(right)) {
-          snakes.add(right);
-        }
+        addSnake(snakes, right);
       }
 
       // Only insertions
       if (sizeA == 0 && sizeB > 0) {
         EdgeSnake down = EdgeSnake.create(startA, sizeA, startB, sizeB, DOWN, startA, startB, sizeB, 0);
-        if (snakes.isEmpty() || !snakes.get(snakes.size() - 1).append(down)) {
-          snakes.add(down);
-        }
+        addSnake(snakes, down);
       }
 
       // We're done here
@@ -122,25 +251,46 @@ public final class MyersLinearAlgorithm<T> extends MyersAlgorithm<T> implements
         return;
       }
 
-      // Calculate middle snake
-      MiddleSnake middle = middleSnake(startA, sizeA, startB, sizeB, vForward, vReverse, forwardVs, reverseVs);
+      // Calculate middle snake, the first one determines the total number of edits
+      int limit = recursion == 0 ? this.maxEdits : Integer.MAX_VALUE;
+      MiddleSnake middle = middleSnake(startA, sizeA, startB, sizeB, vForward, vReverse, forwardVs, reverseVs, limit);
+      if (middle.getDiff() > limit)
+        throw new TooDifferentException(this.maxEdits);
 
       if (middle.getDiff() > 1) {
         // Middle snake (D > 1)
 
-        // Solve top left rectangle
         Point xy = middle.isForward() ? middle.snake().getStartPoint() : middle.snake().getEndPoint();
-        computePath(recursion + 1, snakes, null, null, startA, xy.x() - startA, startB, xy.y() - startB, vForward, vReverse);
+        Point uv = !middle.isForward() ? middle.snake().getStartPoint() : middle.snake().getEndPoint();
+        int sizeX = startA + sizeA - uv.x();
+        int sizeY = startB + sizeB - uv.y();
+
+        if (this.pool != null && sizeX + sizeY >= this.parallelThreshold && ForkJoinTask.getPool() == this.pool) {
+          // Solve bottom right rectangle in a separate task with its own vectors and snakes
+          List<EdgeSnake> bottom = new ArrayList<>();
+          ForkJoinTask<?> task = ForkJoinTask.adapt(() ->
+              computePath(recursion + 1, bottom, null, null, uv.x(), sizeX, uv.y(), sizeY,
+                  Vector.createLinear(sizeX, sizeY, true), Vector.createLinear(sizeX, sizeY, false))).fork();
+
+          // Solve top left rectangle and add middle snake to results
+          computePath(recursion + 1, snakes, null, null, startA, xy.x() - startA, startB, xy.y() - startB, vForward, vReverse);
+          addSnake(snakes, middle.snake());
+
+          task.join();
+          for (EdgeSnake snake : bottom) {
+            addSnake(snakes, snake);
+          }
 
-        // Add middle snake to results
-        if (snakes.isEmpty() || !snakes.get(snakes.size() - 1).append(middle.snake())) {
-          snakes.add(middle.snake());
-        }
+        } else {
+          // Solve top left rectangle
+          computePath(recursion + 1, snakes, null, null, startA, xy.x() - startA, startB, xy.y() - startB, vForward, vReverse);
 
-        // Solve bottom right rectangle
-        Point uv = !middle.isForward() ? middle.snake().getStartPoint() : middle.snake().getEndPoint();
-        computePath(recursion + 1, snakes, null, null, uv.x(), startA + sizeA - uv.x(), uv.y(), startB + sizeB - uv.y(),
-            vForward, vReverse);
+          // Add middle snake to results
+          addSnake(snakes, middle.snake());
+
+          // Solve bottom right rectangle
+          computePath(recursion + 1, snakes, null, null, uv.x(), sizeX, uv.y(), sizeY, vForward, vReverse);
+        }
 
       } else {
         // Edge case D=0 (identical) or D=1 (1 insertion or deletion)
@@ -151,34 +301,35 @@ public final class MyersLinearAlgorithm<T> extends MyersAlgorithm<T> implements
               throw new IllegalStateException("Missed D0 forward");
 
             EdgeSnake snake = EdgeSnake.create(startA, sizeA, startB, sizeB, DOWN, startA, startB, 0, middle.snake().x - startA);
-            if (snakes.isEmpty() || !snakes.get(snakes.size() - 1).append(snake)) {
-              snakes.add(snake);
-            }
+            addSnake(snakes, snake);
           }
 
           // Add the middle snake to results
-          if (snakes.isEmpty() || !snakes.get(snakes.size() - 1).append(middle.snake())) {
-            snakes.add(middle.snake());
-          }
+          addSnake(snakes, middle.snake());
         } else {
           // Add the middle snake to results
-          if (snakes.isEmpty() || !snakes.get(snakes.size() - 1).append(middle.snake())) {
-            snakes.add(middle.snake());
-          }
+          addSnake(snakes, middle.snake());
 
           if (middle.snake().x < startA + sizeA) {
             if (startA + sizeA - middle.snake().x != startB + sizeB - middle.snake().y)
               throw new IllegalStateException("Missed D0 reverse");
 
             EdgeSnake snake = EdgeSnake.create(startA, sizeA, startB, sizeB, DOWN, middle.snake().x, middle.snake().y, 0, startA + sizeA - middle.snake().x);
-            if (snakes.isEmpty() || !snakes.get(snakes.size() - 1).append(snake)) {
-              snakes.add(snake);
-            }
+            addSnake(snakes, snake);
           }
         }
       }
     }
 
+    /**
+     * Add the snake to the results merging it with the last one if possible.
+     */
+    private static void addSnake(List<EdgeSnake> snakes, EdgeSnake snake) {
+      if (snakes.isEmpty() || !snakes.get(snakes.size() - 1).append(snake)) {
+        snakes.add(snake);
+      }
+    }
+
     /**
      * Calculate the middle snake
      */
@@ -187,7 +338,8 @@ public final class MyersLinearAlgorithm<T> extends MyersAlgorithm<T> implements
                                     int startB, int sizeB,
                                     Vector vForward, Vector vReverse,
                                     @Nullable List<Vector> forwardVs,
-                                    @Nullable List<Vector> reverseVs) {
+                                    @Nullable List<Vector> reverseVs,
+                                    int limit) {
       final int max = (sizeA + sizeB + 1) / 2;
       final int delta = sizeA - sizeB;
 
@@ -196,7 +348,11 @@ public final class MyersLinearAlgorithm<T> extends MyersAlgorithm<T> implements
 
       final boolean deltaIsEven = (delta % 2) == 0;
 
-      for (int d = 0; d <= max; d++) {
+      // Any middle snake found after limit / 2 + 1 differences would exceed the limit
+      final int last = Math.min(max, limit / 2 + 1);
+
+      for (int d = 0; d <= last; d++) {
+        this.context.check();
         // For k in D to D in steps of 2 Do
         for (int k = -d; k <= d; k += 2) {
 
@@ -272,6 +428,8 @@ public final class MyersLinearAlgorithm<T> extends MyersAlgorithm<T> implements
         }
       }
 
+      if (last < max)
+        throw new TooDifferentException(limit);
       throw new IllegalStateException("Unable to find a middle snake");
     }
   }
@@ -15,16 +15,16 @@
  */
 package org.pageseeder.diffx.algorithm;
 
+import org.jspecify.annotations.Nullable;
 import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.DiffContext;
+import org.pageseeder.diffx.api.DiffContextConfigurable;
 import org.pageseeder.diffx.api.DiffHandler;
 import org.pageseeder.diffx.api.Equality;
 import org.pageseeder.diffx.api.Operator;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.function.ToIntFunction;
 
 /**
  * Patience Diff implementation (2025 variant) with Myers greedy fallback.
@@ -33,9 +33,12 @@ import java.util.Map;
  * longest increasing subsequence of those unique matches, and recurses on the
  * gaps. When no unique anchors are found, it falls back to a Myers greedy diff.</p>
  *
- * <p><b>Note:</b> This implementation uses {@code equals}/{@code hashCode} for
- * uniqueness detection. If a custom {@link Equality} is provided, it should be
- * consistent with {@code equals} to avoid unexpected behavior.</p>
+ * <p>Tokens are interned in a {@link SymbolTable} once, so that occurrences can be counted in
+ * integer arrays indexed by symbol which are reused at every level of recursion.</p>
+ *
+ * <p><b>Note:</b> Unless a hash function is provided, this implementation uses
+ * {@code equals}/{@code hashCode} for uniqueness detection. If a custom {@link Equality}
+ * is provided, it should be consistent with {@code equals} to avoid unexpected behavior.</p>
  *
  * @param <T> The type of token being compared
  *
@@ -44,23 +47,34 @@ import java.util.Map;
  * @version 1.3.4
  * @since 1.3.3
  */
-public final class PatienceAlgorithm<T> implements DiffAlgorithm<T> {
+public final class PatienceAlgorithm<T> implements DiffAlgorithm<T>, DiffContextConfigurable {
 
   /**
    * Determines the strategy to compare elements for equality within the diff algorithm.
    */
   private final Equality<T> eq;
 
+  /**
+   * The hash function consistent with the equality or <code>null</code> to use token hash codes.
+   */
+  private final @Nullable ToIntFunction<? super T> hasher;
+
   /**
    * Fallback algorithm used when no unique anchors are found.
    */
-  private final DiffAlgorithm<T> fallback;
+  private final MyersGreedyAlgorithm<T> fallback;
+
+  /**
+   * The context checked while computing the diff.
+   */
+  private DiffContext context = DiffContext.NONE;
 
   /**
    * Default constructor using token equality.
    */
   public PatienceAlgorithm() {
     this.eq = T::equals;
+    this.hasher = Object::hashCode;
     this.fallback = new MyersGreedyAlgorithm<>(this.eq);
   }
 
@@ -71,134 +85,221 @@ public final class PatienceAlgorithm<T> implements DiffAlgorithm<T> {
    */
   public PatienceAlgorithm(Equality<T> eq) {
     this.eq = eq;
+    this.hasher = null;
     this.fallback = new MyersGreedyAlgorithm<>(this.eq);
   }
 
+  /**
+   * Constructor specifying the equality strategy and a consistent hash function.
+   *
+   * @param eq     The strategy to compare elements for equality.
+   * @param hasher A hash function consistent with the equality.
+   */
+  public PatienceAlgorithm(Equality<T> eq, ToIntFunction<? super T> hasher) {
+    this.eq = eq;
+    this.hasher = hasher;
+    this.fallback = new MyersGreedyAlgorithm<>(this.eq);
+  }
+
+  /**
+   * Set the context checked while computing the diff so that it stops when the context is
+   * cancelled or its deadline is exceeded.
+   *
+   * @param context The context of the diff
+   */
+  @Override
+  public void setContext(DiffContext context) {
+    this.context = context;
+    this.fallback.setContext(context);
+  }
+
   @Override
   public void diff(List<? extends T> from, List<? extends T> to, DiffHandler<T> handler) {
-    diffRange(from, 0, from.size(), to, 0, to.size(), handler);
+    SymbolTable<T> symbols = this.hasher != null ? new SymbolTable<>(this.eq, this.hasher) : new SymbolTable<>();
+    Instance<T> instance = new Instance<>(from, to, symbols, this.hasher != null ? null : this.eq, this.fallback, this.context, handler);
+    instance.diffRange(0, from.size(), 0, to.size());
   }
 
-  // Cognitive complexity is inherent to the algorithm's sequential stages (base cases, prefix/suffix
-  // stripping, anchor recursion); splitting would scatter the control flow without improving clarity.
-  @SuppressWarnings("java:S3776")
-  private void diffRange(List<? extends T> a, int aStart, int aEnd,
-                         List<? extends T> b, int bStart, int bEnd,
-                         DiffHandler<T> handler) {
-    if (aStart >= aEnd) {
-      for (int i = bStart; i < bEnd; i++) {
-        handler.handle(Operator.INS, b.get(i));
-      }
-      return;
-    }
-    if (bStart >= bEnd) {
-      for (int i = aStart; i < aEnd; i++) {
-        handler.handle(Operator.DEL, a.get(i));
-      }
-      return;
-    }
+  /**
+   * An instance of this algorithm for the sequences being compared.
+   *
+   * @param <T> The type of token
+   */
+  private static final class Instance<T> {
 
-    int prefix = 0;
-    int maxPrefix = Math.min(aEnd - aStart, bEnd - bStart);
-    while (prefix < maxPrefix && this.eq.equals(a.get(aStart + prefix), b.get(bStart + prefix))) {
-      handler.handle(Operator.MATCH, b.get(bStart + prefix));
-      prefix++;
-    }
+    private final List<? extends T> a;
+    private final List<? extends T> b;
 
-    aStart += prefix;
-    bStart += prefix;
+    /**
+     * The symbol identifiers of the tokens in each sequence.
+     */
+    private final int[] idsA;
+    private final int[] idsB;
 
-    if (aStart >= aEnd || bStart >= bEnd) {
-      diffRange(a, aStart, aEnd, b, bStart, bEnd, handler);
-      return;
-    }
+    /**
+     * The equality to compare tokens or <code>null</code> to compare identifiers.
+     */
+    private final @Nullable Equality<T> eq;
+
+    private final DiffAlgorithm<T> fallback;
+
+    private final DiffContext context;
+
+    private final DiffHandler<T> handler;
+
+    /**
+     * The number of occurrences of each symbol in the current range (zeroed after use).
+     */
+    private final int[] countA;
+    private final int[] countB;
 
-    int suffix = 0;
-    int maxSuffix = Math.min(aEnd - aStart, bEnd - bStart);
-    while (suffix < maxSuffix
-        && this.eq.equals(a.get(aEnd - 1 - suffix), b.get(bEnd - 1 - suffix))) {
-      suffix++;
+    /**
+     * Position of each symbol in the current range of B.
+     */
+    private final int[] indexB;
+
+    /**
+     * Scratch buffer for the candidate anchors as pairs of positions.
+     */
+    private final int[] matches;
+
+    @SuppressWarnings("java:S107")
+    Instance(List<? extends T> a, List<? extends T> b, SymbolTable<T> symbols, @Nullable Equality<T> eq,
+             DiffAlgorithm<T> fallback, DiffContext context, DiffHandler<T> handler) {
+      this.a = a;
+      this.b = b;
+      this.idsA = symbols.encode(a);
+      this.idsB = symbols.encode(b);
+      this.eq = eq;
+      this.fallback = fallback;
+      this.context = context;
+      this.handler = handler;
+      this.countA = new int[symbols.size()];
+      this.countB = new int[symbols.size()];
+      this.indexB = new int[symbols.size()];
+      this.matches = new int[Math.min(a.size(), b.size()) * 2];
     }
 
-    int aMidEnd = aEnd - suffix;
-    int bMidEnd = bEnd - suffix;
+    private boolean equals(int i, int j) {
+      return this.eq != null ? this.eq.equals(this.a.get(i), this.b.get(j)) : this.idsA[i] == this.idsB[j];
+    }
 
-    if (aStart >= aMidEnd || bStart >= bMidEnd) {
-      diffRange(a, aStart, aMidEnd, b, bStart, bMidEnd, handler);
-    } else {
-      List<Match> anchors = uniqueAnchors(a, aStart, aMidEnd, b, bStart, bMidEnd);
-      if (anchors.isEmpty()) {
-        this.fallback.diff(a.subList(aStart, aMidEnd), b.subList(bStart, bMidEnd), handler);
-      } else {
-        int aPos = aStart;
-        int bPos = bStart;
-        for (Match anchor : anchors) {
-          diffRange(a, aPos, anchor.aIndex, b, bPos, anchor.bIndex, handler);
-          handler.handle(Operator.MATCH, b.get(anchor.bIndex));
-          aPos = anchor.aIndex + 1;
-          bPos = anchor.bIndex + 1;
+    // Cognitive complexity is inherent to the algorithm's sequential stages (base cases, prefix/suffix
+    // stripping, anchor recursion); splitting would scatter the control flow without improving clarity.
+    @SuppressWarnings("java:S3776")
+    private void diffRange(int aStart, int aEnd, int bStart, int bEnd) {
+      this.context.check();
+      if (aStart >= aEnd) {
+        for (int i = bStart; i < bEnd; i++) {
+          this.handler.handle(Operator.INS, this.b.get(i));
         }
-        diffRange(a, aPos, aMidEnd, b, bPos, bMidEnd, handler);
+        return;
+      }
+      if (bStart >= bEnd) {
+        for (int i = aStart; i < aEnd; i++) {
+          this.handler.handle(Operator.DEL, this.a.get(i));
+        }
+        return;
       }
-    }
 
-    for (int i = 0; i < suffix; i++) {
-      handler.handle(Operator.MATCH, b.get(bMidEnd + i));
-    }
-  }
+      int prefix = 0;
+      int maxPrefix = Math.min(aEnd - aStart, bEnd - bStart);
+      while (prefix < maxPrefix && equals(aStart + prefix, bStart + prefix)) {
+        this.handler.handle(Operator.MATCH, this.b.get(bStart + prefix));
+        prefix++;
+      }
 
-  @SuppressWarnings("java:S3776")
-  private List<Match> uniqueAnchors(List<? extends T> a, int aStart, int aEnd,
-                                    List<? extends T> b, int bStart, int bEnd) {
-    Map<T, Occurrence> aOcc = new HashMap<>();
-    Map<T, Occurrence> bOcc = new HashMap<>();
-
-    for (int i = aStart; i < aEnd; i++) {
-      T token = a.get(i);
-      Occurrence occ = aOcc.get(token);
-      if (occ == null) {
-        aOcc.put(token, new Occurrence(i));
-      } else {
-        occ.count++;
+      aStart += prefix;
+      bStart += prefix;
+
+      if (aStart >= aEnd || bStart >= bEnd) {
+        diffRange(aStart, aEnd, bStart, bEnd);
+        return;
       }
-    }
 
-    for (int i = bStart; i < bEnd; i++) {
-      T token = b.get(i);
-      Occurrence occ = bOcc.get(token);
-      if (occ == null) {
-        bOcc.put(token, new Occurrence(i));
+      int suffix = 0;
+      int maxSuffix = Math.min(aEnd - aStart, bEnd - bStart);
+      while (suffix < maxSuffix && equals(aEnd - 1 - suffix, bEnd - 1 - suffix)) {
+        suffix++;
+      }
+
+      int aMidEnd = aEnd - suffix;
+      int bMidEnd = bEnd - suffix;
+
+      if (aStart >= aMidEnd || bStart >= bMidEnd) {
+        diffRange(aStart, aMidEnd, bStart, bMidEnd);
       } else {
-        occ.count++;
+        int[] anchors = uniqueAnchors(aStart, aMidEnd, bStart, bMidEnd);
+        if (anchors.length == 0) {
+          this.fallback.diff(this.a.subList(aStart, aMidEnd), this.b.subList(bStart, bMidEnd), this.handler);
+        } else {
+          int aPos = aStart;
+          int bPos = bStart;
+          for (int m = 0; m < anchors.length; m += 2) {
+            diffRange(aPos, anchors[m], bPos, anchors[m + 1]);
+            this.handler.handle(Operator.MATCH, this.b.get(anchors[m + 1]));
+            aPos = anchors[m] + 1;
+            bPos = anchors[m + 1] + 1;
+          }
+          diffRange(aPos, aMidEnd, bPos, bMidEnd);
+        }
+      }
+
+      for (int i = 0; i < suffix; i++) {
+        this.handler.handle(Operator.MATCH, this.b.get(bMidEnd + i));
       }
     }
 
-    List<Match> matches = new ArrayList<>();
-    for (Map.Entry<T, Occurrence> entry : aOcc.entrySet()) {
-      Occurrence aEntry = entry.getValue();
-      if (aEntry.count == 1) {
-        Occurrence bEntry = bOcc.get(entry.getKey());
-        if (bEntry != null && bEntry.count == 1) {
-          matches.add(new Match(aEntry.index, bEntry.index));
+    /**
+     * @return the anchors as pairs of positions in A and B
+     */
+    private int[] uniqueAnchors(int aStart, int aEnd, int bStart, int bEnd) {
+      for (int i = aStart; i < aEnd; i++) {
+        this.countA[this.idsA[i]]++;
+      }
+      for (int j = bStart; j < bEnd; j++) {
+        int id = this.idsB[j];
+        this.countB[id]++;
+        this.indexB[id] = j;
+      }
+
+      // Candidates are collected in order of position in A
+      int size = 0;
+      for (int i = aStart; i < aEnd; i++) {
+        int id = this.idsA[i];
+        if (this.countA[id] == 1 && this.countB[id] == 1) {
+          this.matches[size++] = i;
+          this.matches[size++] = this.indexB[id];
         }
       }
-    }
 
-    if (matches.isEmpty()) return Collections.emptyList();
+      for (int i = aStart; i < aEnd; i++) {
+        this.countA[this.idsA[i]] = 0;
+      }
+      for (int j = bStart; j < bEnd; j++) {
+        this.countB[this.idsB[j]] = 0;
+      }
+
+      return longestIncreasingByB(this.matches, size / 2);
+    }
 
-    matches.sort((m1, m2) -> Integer.compare(m1.aIndex, m2.aIndex));
-    return longestIncreasingByB(matches);
   }
 
-  private List<Match> longestIncreasingByB(List<Match> matches) {
-    int n = matches.size();
+  /**
+   * @param matches The candidate anchors as pairs of positions sorted by position in A
+   * @param n       The number of candidates
+   *
+   * @return The longest sequence of anchors increasing in B as pairs of positions
+   */
+  private static int[] longestIncreasingByB(int[] matches, int n) {
+    if (n == 0) return new int[0];
     int[] tails = new int[n];
     int[] tailsIndex = new int[n];
     int[] prev = new int[n];
     int len = 0;
 
     for (int i = 0; i < n; i++) {
-      int bIndex = matches.get(i).bIndex;
+      int bIndex = matches[i * 2 + 1];
       int pos = lowerBound(tails, len, bIndex);
       tails[pos] = bIndex;
       tailsIndex[pos] = i;
@@ -206,13 +307,13 @@ public final class PatienceAlgorithm<T> implements DiffAlgorithm<T> {
       if (pos == len) len++;
     }
 
-    List<Match> lis = new ArrayList<>(len);
+    int[] lis = new int[len * 2];
     int idx = tailsIndex[len - 1];
-    while (idx >= 0) {
-      lis.add(matches.get(idx));
+    for (int k = len - 1; k >= 0; k--) {
+      lis[k * 2] = matches[idx * 2];
+      lis[k * 2 + 1] = matches[idx * 2 + 1];
       idx = prev[idx];
     }
-    Collections.reverse(lis);
     return lis;
   }
 
@@ -229,23 +330,4 @@ public final class PatienceAlgorithm<T> implements DiffAlgorithm<T> {
     }
     return lo;
   }
-
-  private static final class Occurrence {
-    private int count = 1;
-    private final int index;
-
-    private Occurrence(int index) {
-      this.index = index;
-    }
-  }
-
-  private static final class Match {
-    private final int aIndex;
-    private final int bIndex;
-
-    private Match(int aIndex, int bIndex) {
-      this.aIndex = aIndex;
-      this.bIndex = bIndex;
-    }
-  }
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.algorithm;
+
+import org.pageseeder.diffx.api.Equality;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Maps tokens to dense integer identifiers so that algorithms can compare <code>int</code>
+ * values instead of calling {@link Equality#equals(Object, Object)} in their inner loops.
+ *
+ * <p>Two tokens receive the same identifier if and only if they are equal according to the
+ * equality strategy of the table. Identifiers are allocated sequentially from 0, so they can
+ * be used directly as array indexes.
+ *
+ * <p>The hash function MUST be consistent with the equality strategy: tokens that are equal
+ * must have the same hash. A custom equality therefore always requires a hash function.
+ *
+ * <p>Implementation note: uses open addressing with linear probing over an <code>int[]</code>
+ * table so that interning a token does not allocate once the table has grown.
+ *
+ * @param <T> The type of token being interned
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public final class SymbolTable<T> {
+
+  /**
+   * Initial capacity of the hash table (must be a power of 2).
+   */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /**
+   * Determines the strategy to compare elements for equality.
+   */
+  private final Equality<T> eq;
+
+  /**
+   * The hash function consistent with the equality.
+   */
+  private final ToIntFunction<? super T> hasher;
+
+  /**
+   * Hash slots storing the symbol identifier + 1 (0 indicates an empty slot).
+   */
+  private int[] slots = new int[INITIAL_CAPACITY];
+
+  /**
+   * The hash of each symbol indexed by identifier.
+   */
+  private int[] hashes = new int[INITIAL_CAPACITY];
+
+  /**
+   * The first token interned for each identifier.
+   */
+  private Object[] symbols = new Object[INITIAL_CAPACITY];
+
+  /**
+   * Number of distinct symbols.
+   */
+  private int size = 0;
+
+  /**
+   * Creates a symbol table using token equality and hash code.
+   */
+  public SymbolTable() {
+    this.eq = T::equals;
+    this.hasher = Object::hashCode;
+  }
+
+  /**
+   * Creates a symbol table using the specified equality and hash function.
+   *
+   * @param eq     The strategy to compare elements for equality.
+   * @param hasher A hash function consistent with the equality.
+   */
+  public SymbolTable(Equality<T> eq, ToIntFunction<? super T> hasher) {
+    this.eq = eq;
+    this.hasher = hasher;
+  }
+
+  /**
+   * Returns the identifier of the specified token, allocating a new one if no equal token
+   * was interned before.
+   *
+   * @param token The token to intern
+   *
+   * @return The identifier of the token.
+   */
+  @SuppressWarnings("unchecked")
+  public int intern(T token) {
+    int hash = this.hasher.applyAsInt(token);
+    int mask = this.slots.length - 1;
+    int i = mix(hash) & mask;
+    int slot;
+    while ((slot = this.slots[i]) != 0) {
+      int id = slot - 1;
+      if (this.hashes[id] == hash && this.eq.equals((T) this.symbols[id], token)) {
+        return id;
+      }
+      i = (i + 1) & mask;
+    }
+    int id = this.size++;
+    if (id == this.hashes.length) {
+      int capacity = this.hashes.length * 2;
+      this.hashes = Arrays.copyOf(this.hashes, capacity);
+      this.symbols = Arrays.copyOf(this.symbols, capacity);
+    }
+    this.hashes[id] = hash;
+    this.symbols[id] = token;
+    this.slots[i] = id + 1;
+    // Keep load factor under 1/2
+    if (this.size * 2 > this.slots.length) {
+      rehash();
+    }
+    return id;
+  }
+
+  /**
+   * Encodes the specified list of tokens into an array of identifiers.
+   *
+   * @param tokens The tokens to encode
+   *
+   * @return The corresponding identifiers in the same order.
+   */
+  public int[] encode(List<? extends T> tokens) {
+    int[] ids = new int[tokens.size()];
+    int i = 0;
+    for (T token : tokens) {
+      ids[i++] = intern(token);
+    }
+    return ids;
+  }
+
+  /**
+   * Returns the first token interned with the specified identifier.
+   *
+   * @param id The identifier of the symbol
+   *
+   * @return The token used as the symbol.
+   *
+   * @throws IndexOutOfBoundsException If the identifier was not allocated by this table
+   */
+  @SuppressWarnings("unchecked")
+  public T symbol(int id) {
+    if (id < 0 || id >= this.size)
+      throw new IndexOutOfBoundsException("No symbol for " + id);
+    return (T) this.symbols[id];
+  }
+
+  /**
+   * @return The number of distinct symbols in this table.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  private void rehash() {
+    int[] table = new int[this.slots.length * 2];
+    int mask = table.length - 1;
+    for (int id = 0; id < this.size; id++) {
+      int i = mix(this.hashes[id]) & mask;
+      while (table[i] != 0) {
+        i = (i + 1) & mask;
+      }
+      table[i] = id + 1;
+    }
+    this.slots = table;
+  }
+
+  /**
+   * Spread the bits of the hash since token hashes are often poorly distributed in the lower bits.
+   */
+  private static int mix(int hash) {
+    int h = hash * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.algorithm;
+
+/**
+ * Exception thrown when the number of edits between two sequences exceeds the maximum
+ * allowed by the algorithm.
+ *
+ * <p>Algorithms stop as soon as they can determine that the maximum is exceeded, so this
+ * exception is cheap compared to computing the complete edit script of unrelated sequences.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public final class TooDifferentException extends IllegalArgumentException {
+
+  private final int maxEdits;
+
+  public TooDifferentException(int maxEdits) {
+    super(toMessage(maxEdits));
+    this.maxEdits = maxEdits;
+  }
+
+  /**
+   * @return maximum number of edits allowed (inclusive)
+   */
+  public int getMaxEdits() {
+    return this.maxEdits;
+  }
+
+  private static String toMessage(int maxEdits) {
+    return String.format("Too many differences: more than the maximum allowed (%d) edits.", maxEdits);
+  }
+
+}
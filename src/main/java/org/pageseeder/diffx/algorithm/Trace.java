@@ -0,0 +1,141 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Records the successive states of the V array of the greedy algorithm in compact storage.
+ *
+ * <p>Round D of the greedy algorithm only writes the end points of the k-lines -D, -D+2, ..., D,
+ * the other k-lines still hold the end points written in round D-1. So only these D+1 values
+ * are recorded for each D and reading a k-line of the other parity looks up the previous state.
+ *
+ * <p>The states are appended to pages of integers with the page and offset of each state kept
+ * aside, so that recording a state never copies previous ones. Pages start small and double in
+ * size up to a maximum, so that short diffs remain cheap. A state larger than a page gets its
+ * own page.
+ *
+ * <p>This is equivalent to keeping a {@link Vector#snapshot(int)} for each D, but takes half
+ * the memory and only allocates a new array for every page.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+final class Trace {
+
+  /**
+   * Number of integers in the first page (256 bytes).
+   */
+  private static final int INITIAL_PAGE_SIZE = 1 << 6;
+
+  /**
+   * Maximum number of integers in a page (128KB).
+   */
+  private static final int PAGE_SIZE = 1 << 15;
+
+  /**
+   * The pages storing the x-positions of the end points.
+   */
+  private int[][] pages = new int[4][];
+
+  /**
+   * Number of pages in use.
+   */
+  private int pageCount = 0;
+
+  /**
+   * The position of the next state in the last page.
+   */
+  private int position = 0;
+
+  /**
+   * The page index of each state.
+   */
+  private int[] pageOf = new int[64];
+
+  /**
+   * The offset in its page of each state.
+   */
+  private int[] offsetOf = new int[64];
+
+  /**
+   * The number of states recorded.
+   */
+  private int size = 0;
+
+  /**
+   * Records the state of the V array for the next D.
+   *
+   * @param vector The V array after computing the furthest reaching D-paths
+   */
+  void record(Vector vector) {
+    int d = this.size;
+    int length = d + 1;
+    if (this.pageCount == 0 || this.position + length > this.pages[this.pageCount - 1].length) {
+      newPage(Math.max(nextPageSize(), length));
+    }
+    if (d == this.pageOf.length) {
+      this.pageOf = Arrays.copyOf(this.pageOf, d * 2);
+      this.offsetOf = Arrays.copyOf(this.offsetOf, d * 2);
+    }
+    this.pageOf[d] = this.pageCount - 1;
+    this.offsetOf[d] = this.position;
+    vector.copyTo(d, this.pages[this.pageCount - 1], this.position);
+    this.position += length;
+    this.size++;
+  }
+
+  /**
+   * Returns the x-position for an end point for a given D and k-line.
+   *
+   * <p>This is the same value as <code>vector.snapshot(d).getX(k)</code>.
+   *
+   * @param d The number of differences
+   * @param k The k-line (between -D-1 and D+1)
+   *
+   * @return The x-position of an end point
+   */
+  int getX(int d, int k) {
+    // k-lines of the other parity were written in the previous round
+    int state = ((k + d) & 1) == 0 ? d : d - 1;
+    if (state < 0) return 0;
+    return this.pages[this.pageOf[state]][this.offsetOf[state] + (k + state) / 2];
+  }
+
+  /**
+   * @return The number of states recorded
+   */
+  int size() {
+    return this.size;
+  }
+
+  private int nextPageSize() {
+    if (this.pageCount == 0) return INITIAL_PAGE_SIZE;
+    return Math.min(PAGE_SIZE, this.pages[this.pageCount - 1].length * 2);
+  }
+
+  private void newPage(int length) {
+    if (this.pageCount == this.pages.length) {
+      this.pages = Arrays.copyOf(this.pages, this.pageCount * 2);
+    }
+    this.pages[this.pageCount++] = new int[length];
+    this.position = 0;
+  }
+
+}
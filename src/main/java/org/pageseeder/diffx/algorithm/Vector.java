@@ -169,6 +169,20 @@ final class Vector {
     return new Vector(array, isForward, d, isForward ? 0 : delta);
   }
 
+  /**
+   * Copy the x-positions for the k-lines -D, -D+2, ..., D in a forward direction (delta=0).
+   *
+   * @param d      Number of differences
+   * @param dest   The destination array
+   * @param offset The position in the destination array
+   */
+  void copyTo(int d, int[] dest, int offset) {
+    int from = this.max - this.delta - d;
+    for (int i = 0; i <= d; i++) {
+      dest[offset + i] = this.array[from + 2 * i];
+    }
+  }
+
   @Override
   public String toString() {
     return "V " + this.array.length + " {" + (this.delta - this.max) + ".." + this.delta + ".." +
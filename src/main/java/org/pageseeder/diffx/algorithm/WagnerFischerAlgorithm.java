@@ -16,6 +16,8 @@
 package org.pageseeder.diffx.algorithm;
 
 import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.DiffContext;
+import org.pageseeder.diffx.api.DiffContextConfigurable;
 import org.pageseeder.diffx.api.DiffHandler;
 import org.pageseeder.diffx.api.Equality;
 import org.pageseeder.diffx.api.MatchPreferenceConfigurable;
@@ -28,10 +30,10 @@ import java.util.List;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.3
+ * @version 1.3.4
  * @since 0.9.0
  */
-public final class WagnerFischerAlgorithm<T> implements DiffAlgorithm<T>, MatchPreferenceConfigurable {
+public final class WagnerFischerAlgorithm<T> implements DiffAlgorithm<T>, MatchPreferenceConfigurable, DiffContextConfigurable {
 
   /**
    * Determines the strategy to compare elements for equality within the diff algorithm.
@@ -43,6 +45,11 @@ public final class WagnerFischerAlgorithm<T> implements DiffAlgorithm<T>, MatchP
    */
   private boolean preferFrom = false;
 
+  /**
+   * The context checked while computing the diff.
+   */
+  private DiffContext context = DiffContext.NONE;
+
   /**
    * Default constructor using token equality.
    */
@@ -80,12 +87,24 @@ public final class WagnerFischerAlgorithm<T> implements DiffAlgorithm<T>, MatchP
     this.preferFrom = preferFrom;
   }
 
+  /**
+   * Set the context checked while computing the diff so that it stops when the context is
+   * cancelled or its deadline is exceeded.
+   *
+   * @param context The context of the diff
+   */
+  @Override
+  public void setContext(DiffContext context) {
+    this.context = context;
+  }
+
   @SuppressWarnings("java:S3776") // Complexity is inherent to the Wagner-Fischer matrix backtrack
   @Override
   public void diff(List<? extends T> from, List<? extends T> to, DiffHandler<T> handler) {
     // calculate the LCS length to fill the matrix
     DirectionMatrixProcessor<T> builder = new DirectionMatrixProcessor<>();
     builder.setInverse(true);
+    builder.setContext(this.context);
     DirectionMatrix matrix = builder.process(from, to, this.eq);
     final int length1 = from.size();
     final int length2 = to.size();
@@ -16,6 +16,8 @@
 package org.pageseeder.diffx.algorithm;
 
 import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.DiffContext;
+import org.pageseeder.diffx.api.DiffContextConfigurable;
 import org.pageseeder.diffx.api.DiffHandler;
 import org.pageseeder.diffx.api.Equality;
 import org.pageseeder.diffx.api.Operator;
@@ -34,16 +36,21 @@ import java.util.List;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.3
+ * @version 1.3.4
  * @since 1.3.3
  */
-public final class WuAlgorithm<T> implements DiffAlgorithm<T> {
+public final class WuAlgorithm<T> implements DiffAlgorithm<T>, DiffContextConfigurable {
 
   /**
    * Determines the strategy to compare elements for equality within the diff algorithm.
    */
   private final Equality<T> eq;
 
+  /**
+   * The context checked while computing the diff.
+   */
+  private DiffContext context = DiffContext.NONE;
+
   /**
    * Default constructor using token equality.
    */
@@ -60,9 +67,20 @@ public final class WuAlgorithm<T> implements DiffAlgorithm<T> {
     this.eq = eq;
   }
 
+  /**
+   * Set the context checked while computing the diff so that it stops when the context is
+   * cancelled or its deadline is exceeded.
+   *
+   * @param context The context of the diff
+   */
+  @Override
+  public void setContext(DiffContext context) {
+    this.context = context;
+  }
+
   @Override
   public void diff(List<? extends T> from, List<? extends T> to, DiffHandler<T> handler) {
-    Instance<T> instance = new Instance<>(from, to, this.eq);
+    Instance<T> instance = new Instance<>(from, to, this.eq, this.context);
     List<Snake> snakes = instance.computePath();
     handle(from, to, handler, snakes);
   }
@@ -103,13 +121,15 @@ public final class WuAlgorithm<T> implements DiffAlgorithm<T> {
     private final int sizeA;
     private final int sizeB;
     private final Equality<T> eq;
+    private final DiffContext context;
 
-    Instance(List<? extends T> a, List<? extends T> b, Equality<T> eq) {
+    Instance(List<? extends T> a, List<? extends T> b, Equality<T> eq, DiffContext context) {
       this.a = a;
       this.b = b;
       this.sizeA = a.size();
       this.sizeB = b.size();
       this.eq = eq;
+      this.context = context;
     }
 
     /**
@@ -130,6 +150,7 @@ public final class WuAlgorithm<T> implements DiffAlgorithm<T> {
       // Find the endpoint of the furthest reaching path in diagonal k
       boolean found = false;
       for (int d = 0; d <= max; d++) {
+        this.context.check();
         found = forward(vector, d);
         vectors.add(vector.snapshot(d));
         if (found) {
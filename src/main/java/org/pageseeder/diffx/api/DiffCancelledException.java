@@ -0,0 +1,52 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.api;
+
+/**
+ * Exception thrown when a diff is stopped by its {@link DiffContext}.
+ *
+ * <p>Operations may already have been reported to the handler when this exception is thrown.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public final class DiffCancelledException extends IllegalStateException {
+
+  /**
+   * As required for Serializable.
+   */
+  private static final long serialVersionUID = 4718279384611803227L;
+
+  private final boolean expired;
+
+  /**
+   * @param expired <code>true</code> if the deadline was exceeded; <code>false</code> if it was cancelled.
+   */
+  public DiffCancelledException(boolean expired) {
+    super(expired ? "The deadline for the diff was exceeded" : "The diff was cancelled");
+    this.expired = expired;
+  }
+
+  /**
+   * @return <code>true</code> if the deadline was exceeded; <code>false</code> if it was cancelled.
+   */
+  public boolean isExpired() {
+    return this.expired;
+  }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.api;
+
+import java.time.Duration;
+
+/**
+ * A context bounding the time that a diff can take.
+ *
+ * <p>A context carries an optional deadline and a cancellation flag which algorithms and
+ * processors check cooperatively while they compute the diff. When the deadline is exceeded
+ * or the context is cancelled from another thread, they throw a {@link DiffCancelledException}
+ * as soon as they check the context.</p>
+ *
+ * <p>Processors can also be configured to fall back on a valid but coarse result instead of
+ * throwing an exception.</p>
+ *
+ * <p>The same context can be shared by several algorithms so that the deadline applies to the
+ * whole comparison.</p>
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public final class DiffContext {
+
+  /**
+   * A context without deadline which cannot be cancelled, used by default.
+   */
+  public static final DiffContext NONE = new DiffContext(0, false);
+
+  /**
+   * The deadline as returned by {@link System#nanoTime()}.
+   */
+  private final long deadline;
+
+  /**
+   * Whether the deadline applies.
+   */
+  private final boolean bounded;
+
+  private volatile boolean cancelled = false;
+
+  private DiffContext(long deadline, boolean bounded) {
+    this.deadline = deadline;
+    this.bounded = bounded;
+  }
+
+  /**
+   * Creates a new context without deadline which can be cancelled.
+   *
+   * @return a new context
+   */
+  public static DiffContext cancellable() {
+    return new DiffContext(0, false);
+  }
+
+  /**
+   * Creates a new context expiring after the specified duration.
+   *
+   * @param timeout The maximum time to compute the diff from now
+   *
+   * @return a new context
+   */
+  public static DiffContext withTimeout(Duration timeout) {
+    return new DiffContext(System.nanoTime() + timeout.toNanos(), true);
+  }
+
+  /**
+   * Cancels the diffs using this context.
+   *
+   * <p>This method can be called from any thread.
+   *
+   * @throws UnsupportedOperationException If this is the default context
+   */
+  public void cancel() {
+    if (this == NONE) throw new UnsupportedOperationException("The default context cannot be cancelled");
+    this.cancelled = true;
+  }
+
+  /**
+   * @return <code>true</code> if this context was cancelled.
+   */
+  public boolean isCancelled() {
+    return this.cancelled;
+  }
+
+  /**
+   * @return <code>true</code> if the deadline of this context is exceeded.
+   */
+  public boolean isExpired() {
+    return this.bounded && System.nanoTime() - this.deadline >= 0;
+  }
+
+  /**
+   * @return <code>true</code> if diffs using this context should stop.
+   */
+  public boolean isStopped() {
+    return this.cancelled || isExpired();
+  }
+
+  /**
+   * Checks whether the diff can continue.
+   *
+   * @throws DiffCancelledException If this context was cancelled or the deadline is exceeded.
+   */
+  public void check() {
+    if (this.cancelled) throw new DiffCancelledException(false);
+    if (isExpired()) throw new DiffCancelledException(true);
+  }
+
+  @Override
+  public String toString() {
+    return "DiffContext{" +
+        "bounded=" + bounded +
+        ", cancelled=" + cancelled +
+        '}';
+  }
+}
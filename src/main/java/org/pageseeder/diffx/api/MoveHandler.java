@@ -0,0 +1,50 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.api;
+
+import java.util.List;
+
+/**
+ * A diff handler which can also receive blocks of tokens that were moved.
+ *
+ * <p>A moved block is reported twice with the same identifier: once with the {@link Operator#DEL}
+ * operator where the block was in the first sequence, and once with the {@link Operator#INS}
+ * operator where the block is in the second sequence. Either side may be reported first.</p>
+ *
+ * <p>The tokens of a moved block are not reported individually through
+ * {@link #handle(Operator, Object)}.</p>
+ *
+ * @param <T> The type of token the handler is designed for
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public interface MoveHandler<T> extends DiffHandler<T> {
+
+  /**
+   * Handles one side of a block of tokens moved from one position to another.
+   *
+   * @param operator {@link Operator#DEL} for the original position, {@link Operator#INS} for the new position
+   * @param move     The identifier of the move, starting at 1
+   * @param tokens   The tokens in the block
+   *
+   * @throws java.io.UncheckedIOException Should an I/O exception occur.
+   */
+  void handleMove(Operator operator, int move, List<? extends T> tokens);
+
+}
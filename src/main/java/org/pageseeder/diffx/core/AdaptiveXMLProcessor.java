@@ -0,0 +1,427 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ * http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.core;
+
+import org.jspecify.annotations.Nullable;
+import org.pageseeder.diffx.action.Operation;
+import org.pageseeder.diffx.action.OperationsBuffer;
+import org.pageseeder.diffx.algorithm.MatrixXMLAlgorithm;
+import org.pageseeder.diffx.api.DiffHandler;
+import org.pageseeder.diffx.api.Operator;
+import org.pageseeder.diffx.handler.CoalescingFilter;
+import org.pageseeder.diffx.handler.XMLBalanceCheckFilter;
+import org.pageseeder.diffx.sequence.TokenListSlicer;
+import org.pageseeder.diffx.token.EndElementToken;
+import org.pageseeder.diffx.token.StartElementToken;
+import org.pageseeder.diffx.token.TextToken;
+import org.pageseeder.diffx.token.XMLToken;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An XML processor which estimates the cost of the comparison and picks the cheapest processor
+ * able to produce a correct XML diff for each pair of inputs.
+ *
+ * <p>The estimate only requires a linear pass over the tokens: the common start and end are
+ * sliced using a {@link TokenListSlicer} and the number of edits is estimated by checking whether
+ * a sample of the tokens of each sequence occurs in the other.</p>
+ *
+ * <p>From this estimate, the processor picks one of the following {@link Engine}s:</p>
+ * <ul>
+ *   <li>{@link Engine#SLICE} when nothing is left to compare on one side after slicing</li>
+ *   <li>{@link Engine#TEXT} when only text is left to compare, using a {@link TextOnlyProcessor}</li>
+ *   <li>{@link Engine#MATRIX} when the matrix is cheaper than the estimated Myers cost, using a
+ *   {@link DefaultXMLProcessor}</li>
+ *   <li>{@link Engine#OPTIMISTIC} otherwise, using an {@link OptimisticXMLProcessor}</li>
+ * </ul>
+ *
+ * <p>Since the optimistic processor does not always produce a correct diff, its result is checked
+ * and the matrix engine is used when the operations do not rebuild both sequences.</p>
+ *
+ * <p>The decision can be reported to a listener using {@link #setReporter(Consumer)}.</p>
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public final class AdaptiveXMLProcessor extends DiffProcessorBase implements XMLDiffProcessor {
+
+  /**
+   * Maximum number of tokens sampled in each sequence to estimate the number of edits.
+   */
+  private static final int SAMPLE_SIZE = 256;
+
+  /**
+   * Estimated number of edits above which the text is compared in linear space.
+   */
+  private static final int GREEDY_MAX_EDITS = 4096;
+
+  /**
+   * Cost ratio applied to the Myers estimate when the structure changes, since the generic pass
+   * is then likely to be followed by the XML-aware one.
+   */
+  private static final int XML_COST_FACTOR = 2;
+
+  /**
+   * The engines this processor can delegate to.
+   */
+  public enum Engine {
+
+    /**
+     * No comparison is required after slicing the common start and end.
+     */
+    SLICE,
+
+    /**
+     * Only text is left to compare, a text-only processor is used.
+     */
+    TEXT,
+
+    /**
+     * The XML-aware matrix algorithm of the {@link DefaultXMLProcessor}.
+     */
+    MATRIX,
+
+    /**
+     * The Myers algorithm with XML fallbacks of the {@link OptimisticXMLProcessor}.
+     */
+    OPTIMISTIC
+  }
+
+  /**
+   * The maximum number of cells in the matrix.
+   */
+  private int threshold = MatrixXMLAlgorithm.DEFAULT_THRESHOLD;
+
+  /**
+   * Receives the decision for each comparison.
+   */
+  private @Nullable Consumer<? super Decision> reporter;
+
+  /**
+   * Set the maximum number of token comparisons that the matrix engine can perform.
+   *
+   * @param threshold Max number of token comparisons allowed
+   */
+  public void setThreshold(int threshold) {
+    this.threshold = threshold;
+  }
+
+  /**
+   * Set the listener receiving the decision made for each comparison.
+   *
+   * @param reporter The listener for decisions or <code>null</code> to not report decisions.
+   */
+  public void setReporter(@Nullable Consumer<? super Decision> reporter) {
+    this.reporter = reporter;
+  }
+
+  @Override
+  public void diff(List<? extends XMLToken> from, List<? extends XMLToken> to, DiffHandler<XMLToken> handler) {
+    TokenListSlicer slicer = new TokenListSlicer(from, to);
+    slicer.analyze();
+    Decision decision = decide(slicer);
+    if (this.reporter != null) {
+      this.reporter.accept(decision);
+    }
+    switch (decision.engine) {
+      case SLICE:
+        diffSliced(slicer, handler);
+        break;
+      case TEXT:
+        TextOnlyProcessor<XMLToken> text = new TextOnlyProcessor<>(decision.estimatedEdits <= GREEDY_MAX_EDITS
+            ? TextOnlyProcessor.Algorithm.MYER_GREEDY
+            : TextOnlyProcessor.Algorithm.MYER_LINEAR);
+        text.setContext(this.context);
+        diffOrReplace(from, to, handler, h -> text.diff(from, to, getFilter(h)));
+        break;
+      case MATRIX:
+        diffMatrix(from, to, handler);
+        break;
+      default:
+        diffOptimistic(from, to, handler);
+    }
+  }
+
+  /**
+   * Estimates the cost of comparing the specified sequences and returns the engine to use.
+   *
+   * @param from The original list of tokens to compare (deleted)
+   * @param to   The target list of tokens to compare (inserted)
+   *
+   * @return The decision for these sequences.
+   */
+  public Decision decide(List<? extends XMLToken> from, List<? extends XMLToken> to) {
+    TokenListSlicer slicer = new TokenListSlicer(from, to);
+    slicer.analyze();
+    return decide(slicer);
+  }
+
+  private Decision decide(TokenListSlicer slicer) {
+    List<XMLToken> a = slicer.getSubSequence1();
+    List<XMLToken> b = slicer.getSubSequence2();
+    int n = a.size();
+    int m = b.size();
+    if (n == 0 || m == 0) {
+      return new Decision(Engine.SLICE, slicer, n + m);
+    }
+
+    Sample sampleA = new Sample(a);
+    Sample sampleB = new Sample(b);
+    sampleA.lookup(b);
+    sampleB.lookup(a);
+    long edits = Math.max(Math.abs(n - m), Math.round(sampleA.missing() * n + sampleB.missing() * m));
+    if (isTextOnly(a) && isTextOnly(b)) {
+      return new Decision(Engine.TEXT, slicer, edits);
+    }
+
+    long cells = (long) n * m;
+    long greedyCost = (n + m) * (edits + 1);
+    if (sampleA.isStructural() || sampleB.isStructural()) {
+      greedyCost *= XML_COST_FACTOR;
+    }
+    Engine engine = cells <= this.threshold && cells <= greedyCost ? Engine.MATRIX : Engine.OPTIMISTIC;
+    return new Decision(engine, slicer, edits);
+  }
+
+  private void diffMatrix(List<? extends XMLToken> from, List<? extends XMLToken> to, DiffHandler<XMLToken> handler) {
+    DefaultXMLProcessor matrix = new DefaultXMLProcessor();
+    matrix.setThreshold(this.threshold);
+    matrix.setCoalesce(this.coalesce);
+    matrix.setContext(this.context);
+    matrix.setFallbackToReplace(this.fallbackToReplace);
+    matrix.diff(from, to, handler);
+  }
+
+  /**
+   * The optimistic processor does not guarantee a correct result, its operations are buffered
+   * and checked before being reported, otherwise the matrix engine is used instead.
+   */
+  private void diffOptimistic(List<? extends XMLToken> from, List<? extends XMLToken> to, DiffHandler<XMLToken> handler) {
+    OptimisticXMLProcessor optimistic = new OptimisticXMLProcessor();
+    optimistic.setFallbackThreshold(this.threshold);
+    optimistic.setContext(this.context);
+    optimistic.setFallbackToReplace(this.fallbackToReplace);
+    OperationsBuffer<XMLToken> buffer = new OperationsBuffer<>();
+    XMLBalanceCheckFilter check = new XMLBalanceCheckFilter(buffer);
+    optimistic.diff(from, to, check);
+    if (check.isBalanced() && isCorrect(from, to, buffer.getOperations())) {
+      buffer.applyTo(getFilter(handler));
+    } else {
+      diffMatrix(from, to, handler);
+    }
+  }
+
+  private void diffSliced(TokenListSlicer slicer, DiffHandler<XMLToken> handler) {
+    DiffHandler<XMLToken> actual = getFilter(handler);
+    actual.start();
+    slicer.handleStart(actual);
+    for (XMLToken token : slicer.getSubSequence1()) actual.handle(Operator.DEL, token);
+    for (XMLToken token : slicer.getSubSequence2()) actual.handle(Operator.INS, token);
+    slicer.handleEnd(actual);
+    actual.end();
+  }
+
+  private DiffHandler<XMLToken> getFilter(DiffHandler<XMLToken> handler) {
+    return this.coalesce ? new CoalescingFilter(handler) : handler;
+  }
+
+  /**
+   * @return <code>true</code> if the operations rebuild both sequences and leave no element open.
+   */
+  private static boolean isCorrect(List<? extends XMLToken> from, List<? extends XMLToken> to, List<Operation<XMLToken>> operations) {
+    int i = 0;
+    int j = 0;
+    int depth = 0;
+    for (Operation<XMLToken> operation : operations) {
+      XMLToken token = operation.token();
+      Operator operator = operation.operator();
+      if (operator != Operator.INS && (i >= from.size() || !from.get(i++).equals(token))) return false;
+      if (operator != Operator.DEL && (j >= to.size() || !to.get(j++).equals(token))) return false;
+      if (token instanceof StartElementToken) depth++;
+      else if (token instanceof EndElementToken) depth--;
+    }
+    return i == from.size() && j == to.size() && depth == 0;
+  }
+
+  private static boolean isTextOnly(List<XMLToken> tokens) {
+    for (XMLToken token : tokens) {
+      if (!(token instanceof TextToken)) return false;
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "AdaptiveXMLProcessor{" +
+        "coalesce=" + coalesce +
+        ", threshold=" + threshold +
+        '}';
+  }
+
+  /**
+   * The decision made for a pair of sequences.
+   */
+  public static final class Decision {
+
+    private final Engine engine;
+
+    private final int fromSize;
+
+    private final int toSize;
+
+    private final int prefix;
+
+    private final int suffix;
+
+    private final long estimatedEdits;
+
+    private Decision(Engine engine, TokenListSlicer slicer, long estimatedEdits) {
+      this.engine = engine;
+      this.prefix = slicer.getStartCount();
+      this.suffix = slicer.getEndCount();
+      this.fromSize = slicer.getSubSequence1().size() + this.prefix + this.suffix;
+      this.toSize = slicer.getSubSequence2().size() + this.prefix + this.suffix;
+      this.estimatedEdits = estimatedEdits;
+    }
+
+    /**
+     * @return The engine used to compare the sequences.
+     */
+    public Engine engine() {
+      return this.engine;
+    }
+
+    /**
+     * @return The number of tokens in the original sequence.
+     */
+    public int fromSize() {
+      return this.fromSize;
+    }
+
+    /**
+     * @return The number of tokens in the target sequence.
+     */
+    public int toSize() {
+      return this.toSize;
+    }
+
+    /**
+     * @return The number of common tokens sliced at the start of the sequences.
+     */
+    public int prefix() {
+      return this.prefix;
+    }
+
+    /**
+     * @return The number of common tokens sliced at the end of the sequences.
+     */
+    public int suffix() {
+      return this.suffix;
+    }
+
+    /**
+     * @return The estimated number of insertions and deletions.
+     */
+    public long estimatedEdits() {
+      return this.estimatedEdits;
+    }
+
+    @Override
+    public String toString() {
+      return "Decision{" +
+          "engine=" + engine +
+          ", from=" + fromSize +
+          ", to=" + toSize +
+          ", prefix=" + prefix +
+          ", suffix=" + suffix +
+          ", edits~" + estimatedEdits +
+          '}';
+    }
+  }
+
+  /**
+   * A sample of tokens evenly spread over a sequence used to estimate the proportion of tokens
+   * missing from the other sequence.
+   */
+  private static final class Sample {
+
+    /**
+     * The hash code of the sampled tokens in the high bits and their position in the low bits, sorted.
+     */
+    private final long[] entries;
+
+    /**
+     * Whether the sampled tokens, in the same order as entries, were found in the other sequence.
+     */
+    private final boolean[] found;
+
+    private final List<XMLToken> tokens;
+
+    Sample(List<XMLToken> tokens) {
+      int size = Math.min(tokens.size(), SAMPLE_SIZE);
+      this.tokens = tokens;
+      this.entries = new long[size];
+      this.found = new boolean[size];
+      for (int s = 0; s < size; s++) {
+        int position = (int) ((long) s * tokens.size() / size);
+        this.entries[s] = ((long) tokens.get(position).hashCode() << 32) | position;
+      }
+      Arrays.sort(this.entries);
+    }
+
+    /**
+     * Marks the sampled tokens which hash codes occur in the specified sequence.
+     */
+    void lookup(List<XMLToken> other) {
+      for (XMLToken token : other) {
+        long key = (long) token.hashCode() << 32;
+        int s = Arrays.binarySearch(this.entries, key);
+        if (s < 0) s = -s - 1;
+        for (; s < this.entries.length && (this.entries[s] & 0xFFFFFFFF00000000L) == key; s++) {
+          this.found[s] = true;
+        }
+      }
+    }
+
+    /**
+     * @return The proportion of sampled tokens missing from the other sequence.
+     */
+    double missing() {
+      int count = 0;
+      for (boolean f : this.found) {
+        if (!f) count++;
+      }
+      return (double) count / this.found.length;
+    }
+
+    /**
+     * @return <code>true</code> if an element token is missing from the other sequence.
+     */
+    boolean isStructural() {
+      for (int s = 0; s < this.entries.length; s++) {
+        if (!this.found[s]) {
+          XMLToken token = this.tokens.get((int) this.entries[s]);
+          if (token instanceof StartElementToken || token instanceof EndElementToken) return true;
+        }
+      }
+      return false;
+    }
+  }
+}
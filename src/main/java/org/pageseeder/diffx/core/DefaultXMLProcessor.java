@@ -15,21 +15,36 @@
  */
 package org.pageseeder.diffx.core;
 
+import org.jspecify.annotations.Nullable;
+import org.pageseeder.diffx.algorithm.HirschbergXMLAlgorithm;
 import org.pageseeder.diffx.algorithm.MatrixXMLAlgorithm;
 import org.pageseeder.diffx.api.DiffHandler;
 import org.pageseeder.diffx.handler.CoalescingFilter;
 import org.pageseeder.diffx.token.XMLToken;
 
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public class DefaultXMLProcessor extends DiffProcessorBase implements DiffProcessor<XMLToken> {
 
   private int threshold = MatrixXMLAlgorithm.DEFAULT_THRESHOLD;
 
+  private boolean interning = false;
+
+  private int threads = 1;
+
+  /**
+   * The pool used to compute the matrix in parallel, shared by all the diffs of this processor.
+   */
+  private @Nullable ForkJoinPool pool = null;
+
+  private long mappedThreshold = Long.MAX_VALUE;
+
   /**
    * Set the maximum number of token comparisons that can be performed.
    *
-   * <p>If the number of tokens post-slicing is larger, it will throw an <code>IllegalArgumentException</code>.
+   * <p>If the number of tokens post-slicing is larger, the {@link HirschbergXMLAlgorithm} is used
+   * instead of the matrix so that the memory used remains proportional to the number of tokens.
    *
    * @param threshold Max number of token comparisons allowed
    */
@@ -37,6 +52,37 @@ public class DefaultXMLProcessor extends DiffProcessorBase implements DiffProces
     this.threshold = threshold;
   }
 
+  /**
+   * Set whether tokens should be interned to integers before computing the matrix.
+   *
+   * @param interning <code>true</code> to compare interned tokens; <code>false</code> to compare the tokens.
+   */
+  public void setInterning(boolean interning) {
+    this.interning = interning;
+  }
+
+  /**
+   * Set the number of threads used to compute the matrix.
+   *
+   * <p>The pool of threads is created for the first diff computed in parallel and reused for
+   * every subsequent diff.
+   *
+   * @param threads The number of threads (1 to compute sequentially)
+   */
+  public void setThreads(int threads) {
+    if (threads != this.threads) this.pool = null;
+    this.threads = threads;
+  }
+
+  /**
+   * Set the number of cells above which the matrix is backed by a memory-mapped file.
+   *
+   * @param mappedThreshold The maximum number of cells of a matrix on the heap
+   */
+  public void setMappedThreshold(long mappedThreshold) {
+    this.mappedThreshold = mappedThreshold;
+  }
+
   /**
    * Set whether consecutive text operations should be coalesced into a single operation.
    *
@@ -55,11 +101,28 @@ public class DefaultXMLProcessor extends DiffProcessorBase implements DiffProces
 
   @Override
   public void diff(List<? extends XMLToken> from, List<? extends XMLToken> to, DiffHandler<XMLToken> handler) {
+    diffOrReplace(from, to, handler, h -> diffMatrix(from, to, h));
+  }
+
+  private void diffMatrix(List<? extends XMLToken> from, List<? extends XMLToken> to, DiffHandler<XMLToken> handler) {
     MatrixXMLAlgorithm algorithm = new MatrixXMLAlgorithm();
     algorithm.setThreshold(this.threshold);
+    algorithm.setInterning(this.interning);
+    if (this.threads > 1) {
+      if (this.pool == null) this.pool = new ForkJoinPool(this.threads);
+      algorithm.setPool(this.pool);
+    }
+    algorithm.setMappedThreshold(this.mappedThreshold);
+    algorithm.setContext(this.context);
     DiffHandler<XMLToken> actual = getFilter(handler);
     handler.start();
-    algorithm.diff(from, to, actual);
+    if (algorithm.isDiffComputable(from, to)) {
+      algorithm.diff(from, to, actual);
+    } else {
+      HirschbergXMLAlgorithm linear = new HirschbergXMLAlgorithm();
+      linear.setContext(this.context);
+      linear.diff(from, to, actual);
+    }
     handler.end();
   }
 
@@ -71,6 +134,9 @@ public class DefaultXMLProcessor extends DiffProcessorBase implements DiffProces
   public String toString() {
     return "DefaultXMLProcessor{" +
         "coalesce=" + coalesce +
+        ", interning=" + interning +
+        ", threads=" + threads +
+        ", mappedThreshold=" + mappedThreshold +
         '}';
   }
 }
@@ -16,17 +16,36 @@
 package org.pageseeder.diffx.core;
 
 import org.pageseeder.diffx.DiffException;
+import org.pageseeder.diffx.action.OperationsBuffer;
+import org.pageseeder.diffx.api.DiffCancelledException;
+import org.pageseeder.diffx.api.DiffContext;
+import org.pageseeder.diffx.api.DiffContextConfigurable;
 import org.pageseeder.diffx.api.DiffHandler;
+import org.pageseeder.diffx.api.Operator;
 import org.pageseeder.diffx.config.DiffConfig;
 import org.pageseeder.diffx.format.XMLDiffOutput;
+import org.pageseeder.diffx.handler.CoalescingFilter;
 import org.pageseeder.diffx.token.XMLToken;
 import org.pageseeder.diffx.xml.NamespaceSet;
 import org.pageseeder.diffx.xml.Sequence;
 
-abstract class DiffProcessorBase implements XMLDiffProcessor {
+import java.util.List;
+import java.util.function.Consumer;
+
+abstract class DiffProcessorBase implements XMLDiffProcessor, DiffContextConfigurable {
 
   protected boolean coalesce = false;
 
+  /**
+   * The context checked while computing the diff.
+   */
+  protected DiffContext context = DiffContext.NONE;
+
+  /**
+   * Whether to report all tokens as replaced when the deadline of the context is exceeded.
+   */
+  protected boolean fallbackToReplace = false;
+
   @Override
   public void setCoalesce(boolean coalesce) {
     this.coalesce = coalesce;
@@ -37,6 +56,33 @@ abstract class DiffProcessorBase implements XMLDiffProcessor {
     return this.coalesce;
   }
 
+  /**
+   * Set the context checked while computing the diff so that it stops when the context is
+   * cancelled or its deadline is exceeded.
+   *
+   * @param context The context of the diff
+   */
+  @Override
+  public void setContext(DiffContext context) {
+    this.context = context;
+  }
+
+  /**
+   * Set whether to report a coarse but valid result when the deadline of the context is exceeded.
+   *
+   * <p>When enabled, the operations are buffered until the diff is complete. If the deadline is
+   * exceeded, all the tokens from the first sequence are reported as deleted followed by all the
+   * tokens from the second sequence as inserted instead of throwing a {@link DiffCancelledException}.
+   *
+   * <p>A diff which is cancelled always throws an exception.
+   *
+   * @param fallbackToReplace <code>true</code> to replace all tokens when the deadline is exceeded;
+   *                          <code>false</code> to throw an exception (default).
+   */
+  public void setFallbackToReplace(boolean fallbackToReplace) {
+    this.fallbackToReplace = fallbackToReplace;
+  }
+
   @Override
   public void diff(Sequence from, Sequence to, DiffConfig config, DiffHandler<XMLToken> handler)
       throws DiffException {
@@ -50,4 +96,35 @@ abstract class DiffProcessorBase implements XMLDiffProcessor {
     this.diff(from.tokens(), to.tokens(), handler);
   }
 
+  /**
+   * Runs the specified diff, falling back on a replacement of all tokens if required.
+   *
+   * @param from    The first sequence of tokens
+   * @param to      The second sequence of tokens
+   * @param handler The handler receiving the operations
+   * @param diff    The diff reporting the start, operations and end to a handler
+   *
+   * @throws DiffCancelledException If the context was cancelled or its deadline exceeded without fallback.
+   */
+  protected final void diffOrReplace(List<? extends XMLToken> from, List<? extends XMLToken> to,
+                                     DiffHandler<XMLToken> handler, Consumer<DiffHandler<XMLToken>> diff) {
+    if (!this.fallbackToReplace) {
+      diff.accept(handler);
+      return;
+    }
+    OperationsBuffer<XMLToken> buffer = new OperationsBuffer<>();
+    try {
+      diff.accept(buffer);
+    } catch (DiffCancelledException ex) {
+      if (!ex.isExpired()) throw ex;
+      DiffHandler<XMLToken> actual = this.coalesce ? new CoalescingFilter(handler) : handler;
+      actual.start();
+      for (XMLToken token : from) actual.handle(Operator.DEL, token);
+      for (XMLToken token : to) actual.handle(Operator.INS, token);
+      actual.end();
+      return;
+    }
+    buffer.applyTo(handler);
+  }
+
 }
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.core;
+
+import org.pageseeder.diffx.action.Operation;
+import org.pageseeder.diffx.action.OperationsBuffer;
+import org.pageseeder.diffx.algorithm.MyersGreedyIntAlgorithm;
+import org.pageseeder.diffx.api.DiffHandler;
+import org.pageseeder.diffx.api.Operator;
+import org.pageseeder.diffx.handler.CoalescingFilter;
+import org.pageseeder.diffx.token.AttributeToken;
+import org.pageseeder.diffx.token.ElementToken;
+import org.pageseeder.diffx.token.EndElementToken;
+import org.pageseeder.diffx.token.StartElementToken;
+import org.pageseeder.diffx.token.XMLToken;
+import org.pageseeder.diffx.xml.SequenceFolding;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * An XML processor which compares the sequences one level of the XML tree at a time.
+ *
+ * <p>Both sequences are folded with {@link SequenceFolding} so that every element becomes a single
+ * {@link ElementToken} whose hash code covers its whole subtree. At each level, the LCS is computed
+ * on these tokens: unchanged subtrees are matched without being compared token by token and only
+ * the pairs of elements with the same name that changed are compared at the next level.</p>
+ *
+ * <p>For large documents with few edits, this replaces a single diff over every token with a few
+ * small diffs over the siblings of the changed elements. The result is always well-formed but,
+ * since an element can only be matched with an element at the same level, it may not be minimal.</p>
+ *
+ * <p>When the sequences are not well-formed, this processor falls back on the
+ * {@link OptimisticXMLProcessor}.</p>
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public final class HierarchicalXMLProcessor extends DiffProcessorBase implements XMLDiffProcessor {
+
+  @Override
+  public void diff(List<? extends XMLToken> from, List<? extends XMLToken> to, DiffHandler<XMLToken> handler) {
+    if (!isBalanced(from) || !isBalanced(to)) {
+      OptimisticXMLProcessor fallback = new OptimisticXMLProcessor();
+      fallback.setCoalesce(this.coalesce);
+      fallback.setContext(this.context);
+      fallback.setFallbackToReplace(this.fallbackToReplace);
+      fallback.diff(from, to, handler);
+      return;
+    }
+    diffOrReplace(from, to, handler, h -> diffFolded(from, to, h));
+  }
+
+  private void diffFolded(List<? extends XMLToken> from, List<? extends XMLToken> to, DiffHandler<XMLToken> handler) {
+    SequenceFolding folding = SequenceFolding.forAllElements();
+    DiffHandler<XMLToken> actual = getFilter(handler);
+    actual.start();
+    diffLevel(folding.fold(new ArrayList<>(from)), folding.fold(new ArrayList<>(to)), actual);
+    actual.end();
+  }
+
+  private DiffHandler<XMLToken> getFilter(DiffHandler<XMLToken> handler) {
+    return this.coalesce ? new CoalescingFilter(handler) : handler;
+  }
+
+  /**
+   * Compares the folded tokens at the same level.
+   */
+  private void diffLevel(List<XMLToken> a, List<XMLToken> b, DiffHandler<XMLToken> handler) {
+    MyersGreedyIntAlgorithm<XMLToken> algorithm = new MyersGreedyIntAlgorithm<>();
+    algorithm.setContext(this.context);
+
+    // Attributes must be reported before any other token in the element
+    int attributesA = countAttributes(a);
+    int attributesB = countAttributes(b);
+    if (attributesA > 0 || attributesB > 0) {
+      algorithm.diff(a.subList(0, attributesA), b.subList(0, attributesB), handler);
+      a = a.subList(attributesA, a.size());
+      b = b.subList(attributesB, b.size());
+    }
+
+    OperationsBuffer<XMLToken> buffer = new OperationsBuffer<>();
+    algorithm.diff(a, b, buffer);
+
+    List<XMLToken> deleted = new ArrayList<>();
+    List<XMLToken> inserted = new ArrayList<>();
+    for (Operation<XMLToken> operation : buffer.getOperations()) {
+      if (operation.operator() == Operator.MATCH) {
+        diffChanged(deleted, inserted, handler);
+        deleted.clear();
+        inserted.clear();
+        emit(Operator.MATCH, operation.token(), handler);
+      } else if (operation.operator() == Operator.DEL) {
+        deleted.add(operation.token());
+      } else {
+        inserted.add(operation.token());
+      }
+    }
+    diffChanged(deleted, inserted, handler);
+  }
+
+  /**
+   * Compares the tokens between two matches, pairing elements with the same name in order.
+   */
+  private void diffChanged(List<XMLToken> deleted, List<XMLToken> inserted, DiffHandler<XMLToken> handler) {
+    List<XMLToken> unpaired = new ArrayList<>();
+    int j = 0;
+    for (XMLToken del : deleted) {
+      int pair = findPair(del, inserted, j);
+      if (pair < 0) {
+        unpaired.add(del);
+      } else {
+        for (; j < pair; j++) {
+          emit(Operator.INS, inserted.get(j), handler);
+        }
+        for (XMLToken token : unpaired) {
+          emit(Operator.DEL, token, handler);
+        }
+        unpaired.clear();
+        ElementToken from = (ElementToken) del;
+        ElementToken to = (ElementToken) inserted.get(pair);
+        handler.handle(Operator.MATCH, to.getStart());
+        diffLevel(from.getContent(), to.getContent(), handler);
+        handler.handle(Operator.MATCH, to.getEnd());
+        j = pair + 1;
+      }
+    }
+    for (; j < inserted.size(); j++) {
+      emit(Operator.INS, inserted.get(j), handler);
+    }
+    for (XMLToken token : unpaired) {
+      emit(Operator.DEL, token, handler);
+    }
+  }
+
+  private static int findPair(XMLToken del, List<XMLToken> inserted, int from) {
+    if (!(del instanceof ElementToken)) return -1;
+    StartElementToken start = ((ElementToken) del).getStart();
+    for (int j = from; j < inserted.size(); j++) {
+      XMLToken ins = inserted.get(j);
+      if (ins instanceof ElementToken && ((ElementToken) ins).getStart().equals(start)) return j;
+    }
+    return -1;
+  }
+
+  private static int countAttributes(List<XMLToken> tokens) {
+    int count = 0;
+    while (count < tokens.size() && tokens.get(count) instanceof AttributeToken) count++;
+    return count;
+  }
+
+  /**
+   * Reports the specified token to the handler, unfolding elements.
+   */
+  private static void emit(Operator operator, XMLToken token, DiffHandler<XMLToken> handler) {
+    if (token instanceof ElementToken) {
+      ElementToken element = (ElementToken) token;
+      handler.handle(operator, element.getStart());
+      for (XMLToken child : element.getContent()) {
+        emit(operator, child, handler);
+      }
+      handler.handle(operator, element.getEnd());
+    } else {
+      handler.handle(operator, token);
+    }
+  }
+
+  private static boolean isBalanced(List<? extends XMLToken> tokens) {
+    Deque<StartElementToken> open = new ArrayDeque<>();
+    for (XMLToken token : tokens) {
+      if (token instanceof StartElementToken) {
+        open.push((StartElementToken) token);
+      } else if (token instanceof EndElementToken
+          && (open.isEmpty() || !((EndElementToken) token).match(open.pop()))) {
+        return false;
+      }
+    }
+    return open.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "HierarchicalXMLProcessor{" +
+        "coalesce=" + coalesce +
+        '}';
+  }
+}
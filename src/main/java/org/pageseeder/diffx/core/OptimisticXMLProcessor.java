@@ -16,11 +16,11 @@
 package org.pageseeder.diffx.core;
 
 import org.pageseeder.diffx.action.OperationsBuffer;
-import org.pageseeder.diffx.algorithm.DataLengthException;
+import org.pageseeder.diffx.algorithm.HirschbergXMLAlgorithm;
 import org.pageseeder.diffx.algorithm.MatrixXMLAlgorithm;
 import org.pageseeder.diffx.algorithm.MyersGreedyAlgorithm;
 import org.pageseeder.diffx.algorithm.MyersGreedyXMLAlgorithm;
-import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.DiffCancelledException;
 import org.pageseeder.diffx.api.DiffHandler;
 import org.pageseeder.diffx.handler.CoalescingFilter;
 import org.pageseeder.diffx.handler.PostXMLFixer;
@@ -38,7 +38,7 @@ import java.util.List;
  * counterpart, we get the solution more efficiently.</p>
  *
  * @author Christophe Lauret
- * @version 1.2.0
+ * @version 1.3.4
  * @since 0.9.0
  */
 public final class OptimisticXMLProcessor extends DiffProcessorBase implements XMLDiffProcessor {
@@ -69,6 +69,10 @@ public final class OptimisticXMLProcessor extends DiffProcessorBase implements X
 
   @Override
   public void diff(List<? extends XMLToken> from, List<? extends XMLToken> to, DiffHandler<XMLToken> handler) {
+    diffOrReplace(from, to, handler, h -> diffOptimistic(from, to, h));
+  }
+
+  private void diffOptimistic(List<? extends XMLToken> from, List<? extends XMLToken> to, DiffHandler<XMLToken> handler) {
     // Try with fast diff
     OperationsBuffer<XMLToken> buffer = new OperationsBuffer<>();
     boolean successful = fastDiff(from, to, buffer);
@@ -77,6 +81,8 @@ public final class OptimisticXMLProcessor extends DiffProcessorBase implements X
     } else {
       try {
         fallbackDiffMyers(from, to, getFilter(handler));
+      } catch (DiffCancelledException ex) {
+        throw ex;
       } catch (IllegalStateException ex) {
         // In some rare cases Myers XML fails, we fall back on the matrix
         fallbackDiffMatrix(from, to, getFilter(handler), false);
@@ -92,7 +98,8 @@ public final class OptimisticXMLProcessor extends DiffProcessorBase implements X
    * Run fast algorithm and try to fix any XML errors after the diff.
    */
   private boolean fastDiff(List<? extends XMLToken> from, List<? extends XMLToken> to, OperationsBuffer<XMLToken> buffer) {
-    DiffAlgorithm<XMLToken> algorithm = new MyersGreedyAlgorithm<>();
+    MyersGreedyAlgorithm<XMLToken> algorithm = new MyersGreedyAlgorithm<>();
+    algorithm.setContext(this.context);
     PostXMLFixer fixer = new PostXMLFixer(buffer);
     fixer.start();
     algorithm.diff(from, to, fixer);
@@ -101,10 +108,12 @@ public final class OptimisticXMLProcessor extends DiffProcessorBase implements X
   }
 
   /**
-   * Fall back on slower matrix-based algorithm.
+   * Fall back on slower matrix-based algorithm or its linear space variant when the matrix is too large.
    */
   private void fallbackDiffMatrix(List<? extends XMLToken> from, List<? extends XMLToken> to, DiffHandler<XMLToken> handler, boolean coalesced) {
     MatrixXMLAlgorithm algorithm = new MatrixXMLAlgorithm();
+    algorithm.setThreshold(this.fallbackThreshold);
+    algorithm.setContext(this.context);
     DiffHandler<XMLToken> actual = getFilter(handler);
     if (algorithm.isDiffComputable(from, to)) {
       actual.start();
@@ -115,7 +124,11 @@ public final class OptimisticXMLProcessor extends DiffProcessorBase implements X
       List<XMLToken> b = CoalescingFilter.coalesce(to);
       fallbackDiffMatrix(a, b, handler, true);
     } else {
-      throw new DataLengthException(from.size() * to.size(), this.fallbackThreshold);
+      HirschbergXMLAlgorithm linear = new HirschbergXMLAlgorithm();
+      linear.setContext(this.context);
+      actual.start();
+      linear.diff(from, to, actual);
+      actual.end();
     }
   }
 
@@ -124,6 +137,7 @@ public final class OptimisticXMLProcessor extends DiffProcessorBase implements X
    */
   private void fallbackDiffMyers(List<? extends XMLToken> from, List<? extends XMLToken> to, DiffHandler<XMLToken> handler) {
     MyersGreedyXMLAlgorithm algorithm = new MyersGreedyXMLAlgorithm();
+    algorithm.setContext(this.context);
     DiffHandler<XMLToken> actual = getFilter(handler);
     actual.start();
     algorithm.diff(from, to, actual);
@@ -0,0 +1,384 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.core;
+
+import org.pageseeder.diffx.action.Operation;
+import org.pageseeder.diffx.action.OperationsBuffer;
+import org.pageseeder.diffx.algorithm.ElementStackFilter;
+import org.pageseeder.diffx.algorithm.MatrixXMLAlgorithm;
+import org.pageseeder.diffx.api.DiffCancelledException;
+import org.pageseeder.diffx.api.DiffHandler;
+import org.pageseeder.diffx.api.Operator;
+import org.pageseeder.diffx.handler.CoalescingFilter;
+import org.pageseeder.diffx.load.XMLStreamLoader;
+import org.pageseeder.diffx.token.AttributeToken;
+import org.pageseeder.diffx.token.EndElementToken;
+import org.pageseeder.diffx.token.StartElementToken;
+import org.pageseeder.diffx.token.XMLToken;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * An XML processor which compares two streams of tokens using a sliding window.
+ *
+ * <p>Instead of requiring both sequences in memory, this processor reads at most a window of tokens
+ * from each iterator, computes the diff of both windows with the {@link MatrixXMLAlgorithm}, and
+ * only reports the operations up to a point about halfway through the windows. The remaining tokens
+ * are compared again with the next tokens from the iterators, so that the memory used depends on
+ * the size of the window rather than on the length of the documents.</p>
+ *
+ * <p>Operations are preferably reported up to a point where all the open elements are matched so
+ * that the next window starts in the same element in both sequences. Otherwise, the elements
+ * that remain open are carried over to the next window in the state of the {@link ElementStackFilter}
+ * so that the result is always well-formed.</p>
+ *
+ * <p>Tokens which are the same at the start of both windows are matched without computing a
+ * matrix. After that, windows start small and are only enlarged up to the window size until
+ * the operations to report are followed by enough matches, so that the cost is proportional to
+ * the length of the documents when they have few edits.</p>
+ *
+ * <p>The result is only approximate: changes spanning more than half a window may not be aligned
+ * the same way as when comparing the whole sequences.</p>
+ *
+ * <p>The context is checked before each window. Since operations are reported as they are found,
+ * this processor cannot fall back on a replacement and always throws a {@link DiffCancelledException}
+ * when the context is cancelled or its deadline exceeded.</p>
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @see XMLStreamLoader#iterator(javax.xml.stream.XMLStreamReader)
+ * @since 1.3.4
+ */
+public final class StreamingXMLProcessor extends DiffProcessorBase implements XMLDiffProcessor {
+
+  /**
+   * The default maximum number of tokens from each sequence in a window.
+   */
+  public static final int DEFAULT_WINDOW_SIZE = 2048;
+
+  /**
+   * The number of tokens from each sequence in the first window compared after a match.
+   */
+  private static final int INITIAL_WINDOW_SIZE = 64;
+
+  private int windowSize = DEFAULT_WINDOW_SIZE;
+
+  /**
+   * Set the maximum number of tokens from each sequence to compare at once.
+   *
+   * <p>The matrix computed for each window has up to <code>windowSize * windowSize</code> cells.
+   * Windows are only enlarged beyond this size when no operation can be reported from them, for
+   * example when a start tag has more attributes than the window can hold.
+   *
+   * @param windowSize The maximum number of tokens from each sequence in a window
+   *
+   * @throws IllegalArgumentException If the window size is lower than 2
+   */
+  public void setWindowSize(int windowSize) {
+    if (windowSize < 2) throw new IllegalArgumentException("The window size must be at least 2");
+    this.windowSize = windowSize;
+  }
+
+  /**
+   * @return The maximum number of tokens from each sequence in a window
+   */
+  public int getWindowSize() {
+    return this.windowSize;
+  }
+
+  @Override
+  public void diff(List<? extends XMLToken> from, List<? extends XMLToken> to, DiffHandler<XMLToken> handler) {
+    diff(from.iterator(), to.iterator(), handler);
+  }
+
+  /**
+   * Compares the tokens of the specified iterators and reports the operations as they are found.
+   *
+   * @param from    The tokens of the first sequence
+   * @param to      The tokens of the second sequence
+   * @param handler The handler receiving the operations
+   */
+  public void diff(Iterator<? extends XMLToken> from, Iterator<? extends XMLToken> to, DiffHandler<XMLToken> handler) {
+    DiffHandler<XMLToken> actual = getFilter(handler);
+    actual.start();
+    new Stream(from, to, actual).diff();
+    actual.end();
+  }
+
+  private DiffHandler<XMLToken> getFilter(DiffHandler<XMLToken> handler) {
+    return this.coalesce ? new CoalescingFilter(handler) : handler;
+  }
+
+  @Override
+  public String toString() {
+    return "StreamingXMLProcessor{" +
+        "coalesce=" + coalesce +
+        ", windowSize=" + windowSize +
+        '}';
+  }
+
+  /**
+   * The state of a streaming diff.
+   */
+  private final class Stream {
+
+    private final Iterator<? extends XMLToken> from;
+    private final Iterator<? extends XMLToken> to;
+    private final DiffHandler<XMLToken> handler;
+
+    /**
+     * The tokens read from each iterator which have not been reported yet.
+     */
+    private final List<XMLToken> a = new ArrayList<>();
+    private final List<XMLToken> b = new ArrayList<>();
+
+    /**
+     * The elements left open by the reported operations.
+     */
+    private final Deque<Operation<StartElementToken>> open = new ArrayDeque<>();
+
+    /**
+     * The number of open elements which were inserted or deleted.
+     */
+    private int edited = 0;
+
+    /**
+     * The maximum number of tokens read from each iterator, only larger than the window size
+     * when no operation could be reported from a full window.
+     */
+    private int capacity = windowSize;
+
+    Stream(Iterator<? extends XMLToken> from, Iterator<? extends XMLToken> to, DiffHandler<XMLToken> handler) {
+      this.from = from;
+      this.to = to;
+      this.handler = handler;
+    }
+
+    void diff() {
+      MatrixXMLAlgorithm algorithm = new MatrixXMLAlgorithm();
+      algorithm.setThreshold(Integer.MAX_VALUE);
+      // Windows do not start at the root so slicing could match elements which are not the same
+      algorithm.setSlice(false);
+      algorithm.setContext(context);
+      int size = Math.min(INITIAL_WINDOW_SIZE, windowSize);
+      while (true) {
+        context.check();
+        fill(this.a, this.from);
+        fill(this.b, this.to);
+        if (this.a.isEmpty() && this.b.isEmpty()) return;
+        if (matchPrefix() > 0) continue;
+
+        // Compare both windows from the state of the open elements
+        List<XMLToken> windowA = this.a.subList(0, Math.min(size, this.a.size()));
+        List<XMLToken> windowB = this.b.subList(0, Math.min(size, this.b.size()));
+        OperationsBuffer<XMLToken> buffer = new OperationsBuffer<>();
+        ElementStackFilter filter = new ElementStackFilter(buffer);
+        for (Iterator<Operation<StartElementToken>> i = this.open.descendingIterator(); i.hasNext(); ) {
+          Operation<StartElementToken> element = i.next();
+          filter.handle(element.operator(), element.token());
+        }
+        algorithm.diff(windowA, windowB, filter);
+        List<Operation<XMLToken>> operations = buffer.getOperations();
+        operations = operations.subList(this.open.size(), operations.size());
+        int valid = valid(operations);
+
+        // Limits of the operations to report in each window unless it includes the last tokens
+        boolean lastA = windowA.size() == this.a.size() && !this.from.hasNext();
+        boolean lastB = windowB.size() == this.b.size() && !this.to.hasNext();
+        if (lastA && lastB && valid == operations.size()) {
+          report(operations, operations.size());
+        } else {
+          int limitA = lastA ? windowA.size() : Math.max(1, windowA.size() / 2);
+          int limitB = lastB ? windowB.size() : Math.max(1, windowB.size() / 2);
+          int count = cut(operations, valid, limitA, limitB, size >= windowSize ? 0 : size / 4);
+          if (count == 0) {
+            if (lastA && lastB) throw new IllegalStateException("Unable to report the remaining operations");
+            // Try again with larger windows, beyond the window size if needed
+            if (size >= this.capacity) this.capacity *= 2;
+            size = Math.min(size * 2, this.capacity);
+            continue;
+          }
+          report(operations, count);
+        }
+        size = Math.min(INITIAL_WINDOW_SIZE, windowSize);
+        this.capacity = windowSize;
+      }
+    }
+
+    /**
+     * Reports the tokens which are the same at the start of both windows.
+     *
+     * <p>Start elements and attributes just before the first difference are left in the windows
+     * as the elements they belong to may not be the same.</p>
+     *
+     * @return the number of tokens matched
+     */
+    private int matchPrefix() {
+      if (this.edited > 0) return 0;
+      int count = 0;
+      int max = Math.min(this.a.size(), this.b.size());
+      int depth = this.open.size();
+      while (count < max && this.a.get(count).equals(this.b.get(count))) {
+        XMLToken token = this.b.get(count);
+        if (token instanceof StartElementToken) depth++;
+        else if (token instanceof EndElementToken && depth-- == 0) break;
+        count++;
+      }
+      if (count < max || this.from.hasNext() || this.to.hasNext()) {
+        while (count > 0 && (this.b.get(count - 1) instanceof StartElementToken || this.b.get(count - 1) instanceof AttributeToken)) {
+          count--;
+        }
+      }
+      for (XMLToken token : this.b.subList(0, count)) {
+        this.handler.handle(Operator.MATCH, token);
+        update(Operator.MATCH, token);
+      }
+      this.a.subList(0, count).clear();
+      this.b.subList(0, count).clear();
+      return count;
+    }
+
+    /**
+     * Finds how many operations can be reported.
+     *
+     * <p>Only the specified number of valid operations are considered.</p>
+     *
+     * <p>This is the last point within the limits where all open elements are matched and which
+     * is followed by the specified number of matches, so that the alignment of the tokens after
+     * the point is unlikely to change with larger windows.</p>
+     *
+     * <p>When no number of matches is required, the cut is forced: if there is no such point within
+     * the limits, it is the first one after the limits or, failing that, the last point within the
+     * limits or the first point after them where the next tokens are not attributes.</p>
+     *
+     * <p>The operations are never cut before an attribute, including one that has not been read
+     * yet, so that attributes are always reported right after their element.</p>
+     *
+     * @return the number of operations to report or zero if there is none
+     */
+    private int cut(List<Operation<XMLToken>> operations, int valid, int limitA, int limitB, int anchor) {
+      // Number of consecutive matches from each operation
+      int[] matches = new int[operations.size() + 1];
+      for (int k = operations.size() - 1; k >= 0; k--) {
+        matches[k] = operations.get(k).operator() == Operator.MATCH ? matches[k + 1] + 1 : 0;
+      }
+      Deque<Operator> stack = new ArrayDeque<>();
+      for (Operation<StartElementToken> element : this.open) stack.addLast(element.operator());
+      int edits = this.edited;
+      int safe = 0;
+      int last = 0;
+      int next = 0;
+      int i = 0;
+      int j = 0;
+      for (int k = 0; k < valid; k++) {
+        Operation<XMLToken> operation = operations.get(k);
+        Operator operator = operation.operator();
+        if (operator != Operator.INS) i++;
+        if (operator != Operator.DEL) j++;
+        if (operation.token() instanceof StartElementToken) {
+          stack.push(operator);
+          if (operator != Operator.MATCH) edits++;
+        } else if (operation.token() instanceof EndElementToken && !stack.isEmpty()
+            && stack.pop() != Operator.MATCH) {
+          edits--;
+        }
+        if (isPending(this.a, this.from, i) || isPending(this.b, this.to, j)) continue;
+        boolean within = i <= limitA && j <= limitB;
+        if (edits == 0) {
+          if (!within) return safe > 0 || anchor > 0 ? safe : k + 1;
+          if (matches[k + 1] >= anchor || k + 1 + matches[k + 1] == operations.size()) safe = k + 1;
+        }
+        if (within) last = k + 1;
+        else if (next == 0) next = k + 1;
+      }
+      if (safe > 0 || anchor > 0) return safe;
+      return last > 0 ? last : next;
+    }
+
+    /**
+     * Indicates whether the token at the specified index is an attribute, assuming that it is
+     * when it has not been read yet.
+     */
+    private boolean isPending(List<XMLToken> window, Iterator<? extends XMLToken> tokens, int index) {
+      return index < window.size() ? window.get(index) instanceof AttributeToken : tokens.hasNext();
+    }
+
+    /**
+     * Returns the number of operations which are consistent with the open elements.
+     *
+     * <p>Once the end of a window is reached, the algorithm reports the remaining tokens of the
+     * other window regardless of the open elements, so these operations may close an element that
+     * was opened with a different operator or that is still open in the other sequence.</p>
+     *
+     * @return the number of operations from the start which can be reported
+     */
+    private int valid(List<Operation<XMLToken>> operations) {
+      Deque<Operation<StartElementToken>> stack = new ArrayDeque<>(this.open);
+      for (int k = 0; k < operations.size(); k++) {
+        Operation<XMLToken> operation = operations.get(k);
+        XMLToken token = operation.token();
+        if (token instanceof StartElementToken) {
+          stack.push(new Operation<>(operation.operator(), (StartElementToken) token));
+        } else if (token instanceof EndElementToken) {
+          Operation<StartElementToken> start = stack.poll();
+          if (start == null || start.operator() != operation.operator()
+              || !start.token().getName().equals(token.getName())
+              || !start.token().getNamespaceURI().equals(token.getNamespaceURI())) return k;
+        }
+      }
+      return operations.size();
+    }
+
+    /**
+     * Reports the specified number of operations and removes their tokens from the windows.
+     */
+    private void report(List<Operation<XMLToken>> operations, int count) {
+      int i = 0;
+      int j = 0;
+      for (Operation<XMLToken> operation : operations.subList(0, count)) {
+        Operator operator = operation.operator();
+        this.handler.handle(operator, operation.token());
+        update(operator, operation.token());
+        if (operator != Operator.INS) i++;
+        if (operator != Operator.DEL) j++;
+      }
+      this.a.subList(0, i).clear();
+      this.b.subList(0, j).clear();
+    }
+
+    private void update(Operator operator, XMLToken token) {
+      if (token instanceof StartElementToken) {
+        this.open.push(new Operation<>(operator, (StartElementToken) token));
+        if (operator != Operator.MATCH) this.edited++;
+      } else if (token instanceof EndElementToken && !this.open.isEmpty()
+          && this.open.pop().operator() != Operator.MATCH) {
+        this.edited--;
+      }
+    }
+
+    private void fill(List<XMLToken> window, Iterator<? extends XMLToken> tokens) {
+      while (window.size() < this.capacity && tokens.hasNext()) {
+        window.add(tokens.next());
+      }
+    }
+  }
+
+}
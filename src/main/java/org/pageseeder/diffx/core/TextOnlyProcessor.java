@@ -15,12 +15,16 @@
  */
 package org.pageseeder.diffx.core;
 
+import org.jspecify.annotations.Nullable;
 import org.pageseeder.diffx.algorithm.*;
 import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.DiffContext;
+import org.pageseeder.diffx.api.DiffContextConfigurable;
 import org.pageseeder.diffx.api.DiffHandler;
 import org.pageseeder.diffx.api.Operator;
+import org.pageseeder.diffx.sequence.CommonRuns;
 
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -41,12 +45,13 @@ import java.util.List;
  *
  * @see OptimisticXMLProcessor
  */
-public final class TextOnlyProcessor<T> implements DiffProcessor<T> {
+public final class TextOnlyProcessor<T> implements DiffProcessor<T>, DiffContextConfigurable {
 
   /**
    * The available diff algorithms for non-XML token sequences.
    */
   public enum Algorithm {
+    ALLISON_DIX,
     HIRSCHBERG,
     HISTOGRAM,
     KUMAR_RANGAN,
@@ -60,6 +65,16 @@ public final class TextOnlyProcessor<T> implements DiffProcessor<T> {
 
   private final Algorithm algo;
 
+  /**
+   * Whether to use the integer-interned variant of the algorithm when available.
+   */
+  private boolean interning = false;
+
+  /**
+   * The context checked by the algorithm while computing the diff.
+   */
+  private DiffContext context = DiffContext.NONE;
+
   /**
    * Creates a text-only processor using the default algorithm ({@link Algorithm#KUMAR_RANGAN}).
    */
@@ -76,6 +91,33 @@ public final class TextOnlyProcessor<T> implements DiffProcessor<T> {
     this.algo = algorithm;
   }
 
+  /**
+   * Set whether tokens should be interned to integers before running the algorithm.
+   *
+   * <p>Only the {@link Algorithm#HIRSCHBERG} and {@link Algorithm#MYER_GREEDY} algorithms have an
+   * integer-interned variant; this setting has no effect on other algorithms. The tokens are
+   * interned once: the common prefix and suffix are sliced by comparing the identifiers, which
+   * are then passed on to the algorithm.
+   *
+   * @param interning <code>true</code> to compare interned tokens; <code>false</code> to compare the tokens.
+   *
+   * @see SymbolTable
+   */
+  public void setInterning(boolean interning) {
+    this.interning = interning;
+  }
+
+  /**
+   * Set the context checked by the algorithm so that it stops when the context is cancelled or
+   * its deadline is exceeded.
+   *
+   * @param context The context of the diff
+   */
+  @Override
+  public void setContext(DiffContext context) {
+    this.context = context;
+  }
+
   @Override
   @SuppressWarnings("java:S3776") // Complexity is inherent to the slice-and-diff pipeline
   public void diff(List<? extends T> from, List<? extends T> to, DiffHandler<T> handler) {
@@ -86,7 +128,7 @@ public final class TextOnlyProcessor<T> implements DiffProcessor<T> {
       for (T token : from) handler.handle(Operator.DEL, token);
     } else {
 
-      Slicer<T> slicer = new Slicer<>(from, to);
+      Slicer<T> slicer = isInterned() ? Slicer.interned(from, to) : new Slicer<>(from, to, null, null);
       slicer.analyze();
 
       // Slice the beginning
@@ -106,13 +148,11 @@ public final class TextOnlyProcessor<T> implements DiffProcessor<T> {
           for (T token : subB) handler.handle(Operator.INS, token);
           for (T token : subA) handler.handle(Operator.DEL, token);
         } else {
-          DiffAlgorithm<T> algorithm = getAlgorithm();
-          algorithm.diff(subA, subB, handler);
+          diff(subA, subB, slicer, startCount, endCount, handler);
         }
 
       } else {
-        DiffAlgorithm<T> algorithm = getAlgorithm();
-        algorithm.diff(from, to, handler);
+        diff(from, to, slicer, 0, 0, handler);
       }
 
       // Copy the end
@@ -123,21 +163,62 @@ public final class TextOnlyProcessor<T> implements DiffProcessor<T> {
     handler.end();
   }
 
+  /**
+   * Compares the tokens left after slicing, using the identifiers from the slicer when the
+   * tokens were interned.
+   */
+  private void diff(List<? extends T> from, List<? extends T> to, Slicer<T> slicer, int start, int end, DiffHandler<T> handler) {
+    int @Nullable [] a = slicer.ia;
+    int @Nullable [] b = slicer.ib;
+    if (a == null || b == null) {
+      getAlgorithm().diff(from, to, handler);
+      return;
+    }
+    int[] subA = Arrays.copyOfRange(a, start, a.length - end);
+    int[] subB = Arrays.copyOfRange(b, start, b.length - end);
+    if (this.algo == Algorithm.HIRSCHBERG) {
+      HirschbergIntAlgorithm<T> algorithm = new HirschbergIntAlgorithm<>();
+      algorithm.setContext(this.context);
+      algorithm.diff(from, subA, to, subB, handler);
+    } else {
+      MyersGreedyIntAlgorithm<T> algorithm = new MyersGreedyIntAlgorithm<>();
+      algorithm.setContext(this.context);
+      algorithm.diff(from, subA, to, subB, handler);
+    }
+  }
+
+  /**
+   * @return <code>true</code> if interning is enabled and the algorithm has an integer-interned variant.
+   */
+  private boolean isInterned() {
+    return this.interning && (this.algo == Algorithm.HIRSCHBERG || this.algo == Algorithm.MYER_GREEDY);
+  }
+
   @Override
   public String toString() {
     return "TextOnlyProcessor{algo=" + getAlgorithm().getClass().getSimpleName() + "}";
   }
 
   private DiffAlgorithm<T> getAlgorithm() {
+    DiffAlgorithm<T> algorithm = newAlgorithm();
+    if (algorithm instanceof DiffContextConfigurable) {
+      ((DiffContextConfigurable) algorithm).setContext(this.context);
+    }
+    return algorithm;
+  }
+
+  private DiffAlgorithm<T> newAlgorithm() {
     switch (this.algo) {
+      case ALLISON_DIX:
+        return new AllisonDixAlgorithm<>();
       case HIRSCHBERG:
-        return new HirschbergAlgorithm<>();
+        return this.interning ? new HirschbergIntAlgorithm<>() : new HirschbergAlgorithm<>();
       case HISTOGRAM:
         return new HistogramAlgorithm<>();
       case KUMAR_RANGAN:
         return new KumarRanganAlgorithm<>();
       case MYER_GREEDY:
-        return new MyersGreedyAlgorithm<>();
+        return this.interning ? new MyersGreedyIntAlgorithm<>() : new MyersGreedyAlgorithm<>();
       case MYER_GREEDY2:
         return new MyersGreedyAlgorithm2<>();
       case MYER_LINEAR:
@@ -156,14 +237,23 @@ public final class TextOnlyProcessor<T> implements DiffProcessor<T> {
   /**
    * Identify common sequences at beginning and end of specified sequences.
    *
+   * <p>When the identifiers of the interned tokens are specified, they are compared instead of
+   * the tokens.</p>
+   *
    * @author Christophe Lauret
-   * @version 0.9.0
+   * @version 1.3.4
    */
   private static final class Slicer<T> {
 
     final List<? extends T> a;
     final List<? extends T> b;
 
+    /**
+     * The identifiers of the interned tokens, if any.
+     */
+    final int @Nullable [] ia;
+    final int @Nullable [] ib;
+
     /**
      * The common start between the two sequences.
      */
@@ -177,12 +267,27 @@ public final class TextOnlyProcessor<T> implements DiffProcessor<T> {
     /**
      * Creates a new sequence slicer.
      *
-     * @param a The first sequence to slice.
-     * @param b The second sequence to slice.
+     * @param a  The first sequence to slice.
+     * @param b  The second sequence to slice.
+     * @param ia The identifiers of the first sequence, if interned.
+     * @param ib The identifiers of the second sequence, if interned.
      */
-    public Slicer(List<? extends T> a, List<? extends T> b) {
+    public Slicer(List<? extends T> a, List<? extends T> b, int @Nullable [] ia, int @Nullable [] ib) {
       this.a = a;
       this.b = b;
+      this.ia = ia;
+      this.ib = ib;
+    }
+
+    /**
+     * Creates a new sequence slicer comparing the tokens interned in a new symbol table.
+     *
+     * @param a The first sequence to slice.
+     * @param b The second sequence to slice.
+     */
+    static <T> Slicer<T> interned(List<? extends T> a, List<? extends T> b) {
+      SymbolTable<T> symbols = new SymbolTable<>();
+      return new Slicer<>(a, b, symbols.encode(a), symbols.encode(b));
     }
 
     /**
@@ -197,35 +302,15 @@ public final class TextOnlyProcessor<T> implements DiffProcessor<T> {
     }
 
     int computeStart() {
-      int counter = 0;
-      Iterator<? extends T> i = this.a.iterator();
-      Iterator<? extends T> j = this.b.iterator();
-      // calculate the max possible index for slicing.
-      while (i.hasNext() && j.hasNext()) {
-        if (j.next().equals(i.next())) {
-          counter++;
-        } else {
-          break;
-        }
-      }
-      return counter;
+      if (this.ia != null && this.ib != null)
+        return CommonRuns.prefix(this.ia, 0, this.ia.length, this.ib, 0, this.ib.length);
+      return CommonRuns.prefix(this.a, this.b);
     }
 
     public int sliceEnd(int start) {
-      int counter = 0;     // number of tokens evaluated
-      int pos1 = this.a.size() - 1;  // current position of the first sequence
-      int pos2 = this.b.size() - 1;  // current position of the second sequence
-      while (pos1 >= start && pos2 >= start) {
-        T token = this.a.get(pos1);
-        if (token.equals(this.b.get(pos2))) {
-          counter++;
-          pos1--;
-          pos2--;
-        } else {
-          break;
-        }
-      }
-      return counter;
+      if (this.ia != null && this.ib != null)
+        return CommonRuns.suffix(this.ia, start, this.ia.length, this.ib, start, this.ib.length);
+      return CommonRuns.suffix(this.a, this.b, start);
     }
 
     /**
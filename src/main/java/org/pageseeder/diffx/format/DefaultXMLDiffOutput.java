@@ -15,6 +15,7 @@
  */
 package org.pageseeder.diffx.format;
 
+import org.pageseeder.diffx.api.MoveHandler;
 import org.pageseeder.diffx.api.Operator;
 import org.pageseeder.diffx.token.*;
 import org.pageseeder.diffx.token.impl.SpaceToken;
@@ -24,6 +25,7 @@ import org.pageseeder.xmlwriter.XMLWriterNSImpl;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.util.List;
 
 /**
  * An XML formatter that tries to rectify the errors affecting the well-formedness of the XML.
@@ -38,10 +40,13 @@ import java.io.Writer;
  * <p>A limitation of this output is that it cannot report inserted/deleted attributes
  * with a namespace prefix.</p>
  *
+ * <p>Moved blocks are reported with an empty <code>move-from</code> element where the block was
+ * and the content of the block inside a <code>move-to</code> element where it is now.</p>
+ *
  * @author Christophe Lauret
- * @version 0.9.0
+ * @version 1.3.4
  */
-public final class DefaultXMLDiffOutput extends XMLDiffOutputBase implements XMLDiffOutput {
+public final class DefaultXMLDiffOutput extends XMLDiffOutputBase implements XMLDiffOutput, MoveHandler<XMLToken> {
 
   /**
    * The output goes here.
@@ -93,6 +98,26 @@ public final class DefaultXMLDiffOutput extends XMLDiffOutputBase implements XML
     }
   }
 
+  @Override
+  public void handleMove(Operator operator, int move, List<? extends XMLToken> tokens) {
+    if (this.level == 0) {
+      declareNamespaces();
+    }
+    try {
+      this.xml.openElement(getDiffNamespace().getUri(), operator == Operator.INS ? "move-to" : "move-from", false);
+      this.xml.attribute("id", move);
+      if (operator == Operator.INS) {
+        for (XMLToken token : tokens) {
+          handleMatch(token);
+        }
+      }
+      this.xml.closeElement();
+      this.xml.flush();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
   @Override
   public void end() {
     try {
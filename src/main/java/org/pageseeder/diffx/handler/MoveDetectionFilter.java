@@ -0,0 +1,626 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.handler;
+
+import org.jspecify.annotations.Nullable;
+import org.pageseeder.diffx.action.Operation;
+import org.pageseeder.diffx.api.DiffContext;
+import org.pageseeder.diffx.api.DiffContextConfigurable;
+import org.pageseeder.diffx.api.DiffHandler;
+import org.pageseeder.diffx.api.MoveHandler;
+import org.pageseeder.diffx.api.Operator;
+import org.pageseeder.diffx.core.DefaultXMLProcessor;
+import org.pageseeder.diffx.core.DiffProcessor;
+import org.pageseeder.diffx.token.AttributeToken;
+import org.pageseeder.diffx.token.EndElementToken;
+import org.pageseeder.diffx.token.StartElementToken;
+import org.pageseeder.diffx.token.XMLToken;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Detects blocks of tokens that were moved and reports them as moves.
+ *
+ * <p>The diff algorithms report a moved section as a deletion where it was and an insertion where
+ * it is now. This filter buffers the operations until the end of the processing, pairs runs of
+ * deleted tokens with identical runs of inserted tokens using hashed shingles of consecutive
+ * tokens, and reports each pair to the target using {@link MoveHandler#handleMove}. Since the
+ * diff may have matched tokens in a moved block with other tokens, the smallest elements around
+ * these matches are compared again; all other operations are kept unchanged.</p>
+ *
+ * <p>Only blocks with at least the minimum number of tokens and in which elements are balanced
+ * are reported as moves so that the XML structure is preserved. If no move is found, the operations
+ * are passed on unchanged.</p>
+ *
+ * <p>If the target is not a {@link MoveHandler}, operations are passed on directly.</p>
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public final class MoveDetectionFilter extends DiffFilter<XMLToken> implements DiffContextConfigurable {
+
+  /**
+   * The default minimum number of tokens in a moved block.
+   */
+  public static final int DEFAULT_MINIMUM_LENGTH = 32;
+
+  /**
+   * The number of consecutive tokens hashed together to find candidate blocks.
+   */
+  private static final int SHINGLE_SIZE = 8;
+
+  /**
+   * The maximum number of positions with the same shingle compared to find a block.
+   */
+  private static final int MAX_CANDIDATES = 64;
+
+  /**
+   * The target as a move handler or <code>null</code> if it doesn't support moves.
+   */
+  private final @Nullable MoveHandler<XMLToken> moves;
+
+  /**
+   * The operations buffered until the end.
+   */
+  private final List<Operation<XMLToken>> operations = new ArrayList<>();
+
+  /**
+   * The minimum number of tokens in a moved block.
+   */
+  private int minimumLength = DEFAULT_MINIMUM_LENGTH;
+
+  /**
+   * The processor to compare the tokens around moved blocks, <code>null</code> to use the default.
+   */
+  private @Nullable DiffProcessor<XMLToken> processor = null;
+
+  /**
+   * The context checked by the default processor.
+   */
+  private DiffContext context = DiffContext.NONE;
+
+  /**
+   * Whether the default processor replaces all tokens when the deadline of the context is exceeded.
+   */
+  private boolean fallbackToReplace = false;
+
+  /**
+   * Creates a new filter detecting moves.
+   *
+   * @param target The handler receiving the operations, moves are only reported if it is a {@link MoveHandler}.
+   */
+  @SuppressWarnings("unchecked")
+  public MoveDetectionFilter(DiffHandler<XMLToken> target) {
+    super(target);
+    this.moves = target instanceof MoveHandler ? (MoveHandler<XMLToken>) target : null;
+  }
+
+  /**
+   * Sets the processor used to compare the tokens around moved blocks once moves have been found.
+   *
+   * <p>Tokens in the moved blocks may have been matched with other tokens by the diff, so the
+   * elements containing these tokens are compared again without the moved tokens. The default is
+   * a {@link DefaultXMLProcessor} using the context of this filter.</p>
+   *
+   * <p>The context of this filter is not passed to the specified processor.</p>
+   *
+   * @param processor The processor to use, it must report well-formed XML
+   */
+  public void setProcessor(DiffProcessor<XMLToken> processor) {
+    this.processor = Objects.requireNonNull(processor);
+  }
+
+  /**
+   * Set the context checked by the default processor when comparing the tokens around moved blocks.
+   *
+   * @param context The context of the diff
+   */
+  @Override
+  public void setContext(DiffContext context) {
+    this.context = context;
+  }
+
+  /**
+   * Set whether the default processor reports the tokens around moved blocks as replaced when the
+   * deadline of the context is exceeded.
+   *
+   * @param fallbackToReplace <code>true</code> to replace the tokens when the deadline is exceeded;
+   *                          <code>false</code> to throw an exception (default).
+   *
+   * @see DefaultXMLProcessor#setFallbackToReplace(boolean)
+   */
+  public void setFallbackToReplace(boolean fallbackToReplace) {
+    this.fallbackToReplace = fallbackToReplace;
+  }
+
+  /**
+   * Sets the minimum number of tokens in a block for it to be reported as a move.
+   *
+   * @param length The minimum number of tokens (at least 1)
+   *
+   * @throws IllegalArgumentException If the length is lower than 1
+   */
+  public void setMinimumLength(int length) {
+    if (length < 1) throw new IllegalArgumentException("Minimum length must be at least 1");
+    this.minimumLength = length;
+  }
+
+  /**
+   * @return The minimum number of tokens in a block for it to be reported as a move.
+   */
+  public int getMinimumLength() {
+    return this.minimumLength;
+  }
+
+  @Override
+  public void start() {
+    this.operations.clear();
+    this.target.start();
+  }
+
+  @Override
+  public void handle(Operator operator, XMLToken token) {
+    if (this.moves != null) {
+      this.operations.add(new Operation<>(operator, token));
+    } else {
+      this.target.handle(operator, token);
+    }
+  }
+
+  @Override
+  public void end() {
+    if (this.moves != null && !this.operations.isEmpty()) {
+      flush(this.moves);
+      this.operations.clear();
+    }
+    this.target.end();
+  }
+
+  /**
+   * Detects the moves in the buffered operations and reports them to the specified handler.
+   */
+  private void flush(MoveHandler<XMLToken> handler) {
+    Side from = new Side(this.operations, Operator.DEL);
+    Side to = new Side(this.operations, Operator.INS);
+    int count = detect(from, to);
+    if (count == 0) {
+      for (Operation<XMLToken> operation : this.operations) {
+        handler.handle(operation.operator(), operation.token());
+      }
+    } else {
+      // Tokens matched with moved tokens must be realigned with the remaining tokens
+      MoveInserter inserter = new MoveInserter(handler, from, to, count);
+      realign(from, to, inserter);
+      inserter.flush();
+    }
+  }
+
+  /**
+   * Reports the operations on the tokens which were not moved.
+   *
+   * <p>Operations on moved tokens are removed, except matches between a moved token and another
+   * token: the smallest element containing such a match is compared again without the moved tokens.
+   */
+  private void realign(Side from, Side to, DiffHandler<XMLToken> handler) {
+    int size = this.operations.size();
+    // The number of open elements before each operation
+    int[] depths = new int[size + 1];
+    for (int k = 0; k < size; k++) {
+      XMLToken token = this.operations.get(k).token();
+      depths[k + 1] = depths[k] + (token instanceof StartElementToken ? 1 : token instanceof EndElementToken ? -1 : 0);
+    }
+    // The ranges of operations to compare again as [start, end) pairs, in order
+    int[] ranges = new int[8];
+    int count = 0;
+    for (int k = 0, i = 0, j = 0; k < size; k++) {
+      Operation<XMLToken> operation = this.operations.get(k);
+      if (operation.operator() == Operator.MATCH && (from.moves[i] != 0 || to.moves[j] != 0)) {
+        if (count == 0 || k >= ranges[2 * count - 1]) {
+          int[] range = range(depths, k);
+          // Ranges are elements so they are either nested or disjoint
+          while (count > 0 && ranges[2 * count - 2] >= range[0]) count--;
+          if (2 * count == ranges.length) ranges = Arrays.copyOf(ranges, ranges.length * 2);
+          ranges[2 * count] = range[0];
+          ranges[2 * count + 1] = range[1];
+          count++;
+        }
+      }
+      if (operation.operator() != Operator.INS) i++;
+      if (operation.operator() != Operator.DEL) j++;
+    }
+    DiffProcessor<XMLToken> processor = getProcessor();
+    int i = 0;
+    int j = 0;
+    int k = 0;
+    for (int r = 0; r <= count; r++) {
+      int start = r < count ? ranges[2 * r] : size;
+      for (; k < start; k++) {
+        Operation<XMLToken> operation = this.operations.get(k);
+        Operator operator = operation.operator();
+        boolean moved = (operator == Operator.DEL && from.moves[i] != 0) || (operator == Operator.INS && to.moves[j] != 0);
+        if (operator != Operator.INS) i++;
+        if (operator != Operator.DEL) j++;
+        if (!moved) handler.handle(operator, operation.token());
+      }
+      if (r == count) break;
+      List<XMLToken> a = new ArrayList<>();
+      List<XMLToken> b = new ArrayList<>();
+      for (; k < ranges[2 * r + 1]; k++) {
+        Operator operator = this.operations.get(k).operator();
+        if (operator != Operator.INS && from.moves[i++] == 0) a.add(from.token(i - 1));
+        if (operator != Operator.DEL && to.moves[j++] == 0) b.add(to.token(j - 1));
+      }
+      processor.diff(a, b, handler);
+    }
+  }
+
+  /**
+   * Finds the smallest range of operations containing the specified operation which can be compared
+   * again: either a single text operation or an element starting with a match so that both sequences
+   * have the same single root.
+   *
+   * @return the range as [start, end)
+   */
+  private int[] range(int[] depths, int k) {
+    int level = Math.min(depths[k], depths[k + 1]);
+    int start = k;
+    int end = k + 1;
+    while (level > 0) {
+      while (depths[start] != level) start--;
+      while (depths[end] != level) end++;
+      Operation<XMLToken> first = this.operations.get(start);
+      if (end == start + 1
+          ? !(first.token() instanceof AttributeToken)
+          : first.operator() == Operator.MATCH && first.token() instanceof StartElementToken) {
+        return new int[]{start, end};
+      }
+      level--;
+    }
+    return new int[]{0, this.operations.size()};
+  }
+
+  private DiffProcessor<XMLToken> getProcessor() {
+    if (this.processor != null) return this.processor;
+    DefaultXMLProcessor processor = new DefaultXMLProcessor();
+    processor.setContext(this.context);
+    processor.setFallbackToReplace(this.fallbackToReplace);
+    return processor;
+  }
+
+  /**
+   * Finds the blocks of deleted tokens that were inserted elsewhere and marks them on both sides.
+   *
+   * @return The number of moves
+   */
+  private int detect(Side from, Side to) {
+    int k = Math.min(SHINGLE_SIZE, this.minimumLength);
+    if (from.size < this.minimumLength || to.size < this.minimumLength) return 0;
+
+    // Index the shingles starting with a deleted token, chaining positions in the same bucket
+    int mask = Integer.highestOneBit(Math.max(from.size, 1)) * 2 - 1;
+    int[] heads = new int[mask + 1];
+    int[] hashes = new int[from.size];
+    int[] next = new int[from.size];
+    Arrays.fill(heads, -1);
+    for (int i = from.size - k; i >= 0; i--) {
+      next[i] = -1;
+      if (from.isEdit(i)) {
+        int hash = from.shingle(i, k);
+        int bucket = mix(hash) & mask;
+        hashes[i] = hash;
+        next[i] = heads[bucket];
+        heads[bucket] = i;
+      }
+    }
+
+    int moves = 0;
+    int j = 0;
+    while (j + k <= to.size) {
+      int best = -1;
+      int bestLength = 0;
+      if (to.isEdit(j)) {
+        int hash = to.shingle(j, k);
+        int candidates = 0;
+        // Repetitive content produces long chains, only the first candidates are compared
+        for (int i = heads[mix(hash) & mask]; i >= 0 && candidates < MAX_CANDIDATES; i = next[i]) {
+          if (hashes[i] != hash) continue;
+          candidates++;
+          int length = extend(from, i, to, j);
+          if (length > bestLength) {
+            best = i;
+            bestLength = length;
+          }
+        }
+      }
+      if (bestLength >= this.minimumLength) {
+        // Include identical tokens before the shingle
+        int before = 0;
+        while (best - before > 0 && j - before > 0 && isMovable(from, best - before - 1, to, j - before - 1)) {
+          before++;
+        }
+        int[] range = balanced(to, j - before, bestLength + before);
+        int offset = range[0] - j;
+        if (range[1] >= this.minimumLength
+            && 2 * from.countEdits(best + offset, range[1]) >= range[1]
+            && 2 * to.countEdits(range[0], range[1]) >= range[1]) {
+          moves++;
+          from.mark(best + offset, range[1], moves);
+          to.mark(range[0], range[1], moves);
+          j = range[0] + range[1];
+          continue;
+        }
+      }
+      j++;
+    }
+    return moves;
+  }
+
+  /**
+   * Spread the bits of the hash since shingle hashes are poorly distributed in the lower bits.
+   */
+  private static int mix(int hash) {
+    int h = hash * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * @return the number of identical tokens that can be moved from the specified positions.
+   */
+  private static int extend(Side from, int i, Side to, int j) {
+    int length = 0;
+    while (i + length < from.size && j + length < to.size && isMovable(from, i + length, to, j + length)) {
+      length++;
+    }
+    return length;
+  }
+
+  /**
+   * @return <code>true</code> if the tokens are the same, not already moved and not matched to each other.
+   */
+  private static boolean isMovable(Side from, int i, Side to, int j) {
+    return from.moves[i] == 0 && to.moves[j] == 0
+        && from.operations[i] != to.operations[j]
+        && from.token(i).equals(to.token(j));
+  }
+
+  /**
+   * Finds the longest range of tokens in which elements are balanced and that does not start with an attribute.
+   *
+   * @return the range as [start, length]
+   */
+  private static int[] balanced(Side side, int from, int length) {
+    int depth = 0;
+    int start = from;
+    int[] best = {from, 0};
+    for (int i = from; i < from + length; i++) {
+      XMLToken token = side.token(i);
+      if (token instanceof StartElementToken) {
+        depth++;
+      } else if (depth == 0 && (token instanceof EndElementToken || token instanceof AttributeToken)) {
+        start = i + 1;
+        continue;
+      } else if (token instanceof EndElementToken) {
+        depth--;
+      }
+      if (depth == 0 && i + 1 - start > best[1]) {
+        best[0] = start;
+        best[1] = i + 1 - start;
+      }
+    }
+    return best;
+  }
+
+  @Override
+  public String toString() {
+    return "MoveDetectionFilter -> " + target;
+  }
+
+  /**
+   * The tokens of one of the sequences with the operations they were reported in.
+   */
+  private static final class Side {
+
+    private final List<Operation<XMLToken>> all;
+
+    /**
+     * The edit operator for this side.
+     */
+    private final Operator operator;
+
+    /**
+     * The index of the operation for each token in the sequence.
+     */
+    final int[] operations;
+
+    /**
+     * The move each token belongs to, 0 if it wasn't moved.
+     */
+    final int[] moves;
+
+    /**
+     * Start of each moved block, indexed by move.
+     */
+    private final List<Integer> blocks = new ArrayList<>();
+
+    final int size;
+
+    Side(List<Operation<XMLToken>> all, Operator operator) {
+      this.all = all;
+      this.operator = operator;
+      int[] operations = new int[all.size()];
+      int count = 0;
+      for (int k = 0; k < all.size(); k++) {
+        Operator current = all.get(k).operator();
+        if (current == Operator.MATCH || current == operator) {
+          operations[count++] = k;
+        }
+      }
+      this.operations = operations;
+      this.moves = new int[count];
+      this.size = count;
+    }
+
+    XMLToken token(int index) {
+      return this.all.get(this.operations[index]).token();
+    }
+
+    boolean isEdit(int index) {
+      return this.all.get(this.operations[index]).operator() == this.operator;
+    }
+
+    int countEdits(int from, int length) {
+      int count = 0;
+      for (int i = from; i < from + length; i++) {
+        if (isEdit(i)) count++;
+      }
+      return count;
+    }
+
+    int shingle(int index, int k) {
+      int hash = 1;
+      for (int i = index; i < index + k; i++) {
+        hash = 31 * hash + token(i).hashCode();
+      }
+      return hash;
+    }
+
+    void mark(int from, int length, int move) {
+      this.blocks.add(from);
+      for (int i = from; i < from + length; i++) {
+        this.moves[i] = move;
+      }
+    }
+
+    /**
+     * @return the number of remaining tokens before each moved block, indexed by move.
+     */
+    int[] anchors(int count) {
+      int[] anchors = new int[count];
+      int remaining = 0;
+      for (int i = 0; i < this.size; i++) {
+        if (this.moves[i] == 0) remaining++;
+        else if (i == this.blocks.get(this.moves[i] - 1)) anchors[this.moves[i] - 1] = remaining;
+      }
+      return anchors;
+    }
+
+    List<XMLToken> block(int move) {
+      List<XMLToken> tokens = new ArrayList<>();
+      for (int i = this.blocks.get(move - 1); i < this.size && this.moves[i] == move; i++) {
+        tokens.add(token(i));
+      }
+      return tokens;
+    }
+  }
+
+  /**
+   * Reports the moves between the operations on the remaining tokens.
+   */
+  private static final class MoveInserter implements DiffHandler<XMLToken> {
+
+    private final MoveHandler<XMLToken> target;
+    private final Side from;
+    private final Side to;
+
+    /**
+     * The number of remaining tokens before each moved block on each side.
+     */
+    private final int[] anchorsFrom;
+    private final int[] anchorsTo;
+
+    /**
+     * Moves ordered by position on each side, since blocks are found in the order of the second sequence.
+     */
+    private final Integer[] orderFrom;
+    private final Integer[] orderTo;
+
+    private int nextFrom = 0;
+    private int nextTo = 0;
+
+    /**
+     * The number of remaining tokens reported on each side.
+     */
+    private int countFrom = 0;
+    private int countTo = 0;
+
+    MoveInserter(MoveHandler<XMLToken> target, Side from, Side to, int count) {
+      this.target = target;
+      this.from = from;
+      this.to = to;
+      this.anchorsFrom = from.anchors(count);
+      this.anchorsTo = to.anchors(count);
+      this.orderFrom = order(from, count);
+      this.orderTo = order(to, count);
+    }
+
+    @Override
+    public void start() {
+      // The filter reports the start
+    }
+
+    @Override
+    public void handle(Operator operator, XMLToken token) {
+      if (operator != Operator.INS) {
+        reportFrom(this.countFrom++);
+      }
+      if (operator != Operator.DEL) {
+        reportTo(this.countTo++);
+      }
+      this.target.handle(operator, token);
+    }
+
+    @Override
+    public void end() {
+      // The filter reports the end
+    }
+
+    /**
+     * Report the moves after the last remaining token.
+     */
+    void flush() {
+      reportFrom(Integer.MAX_VALUE);
+      reportTo(Integer.MAX_VALUE);
+    }
+
+    private void reportFrom(int count) {
+      while (this.nextFrom < this.orderFrom.length && this.anchorsFrom[this.orderFrom[this.nextFrom]] <= count) {
+        int move = this.orderFrom[this.nextFrom++] + 1;
+        this.target.handleMove(Operator.DEL, move, this.from.block(move));
+      }
+    }
+
+    private void reportTo(int count) {
+      while (this.nextTo < this.orderTo.length && this.anchorsTo[this.orderTo[this.nextTo]] <= count) {
+        int move = this.orderTo[this.nextTo++] + 1;
+        this.target.handleMove(Operator.INS, move, this.to.block(move));
+      }
+    }
+
+    private static Integer[] order(Side side, int count) {
+      Integer[] order = new Integer[count];
+      for (int m = 0; m < count; m++) order[m] = m;
+      Arrays.sort(order, Comparator.comparingInt(m -> side.blocks.get(m)));
+      return order;
+    }
+  }
+
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.load;
+
+import org.jspecify.annotations.Nullable;
+import org.pageseeder.diffx.api.LoadingException;
+import org.pageseeder.diffx.xml.Sequence;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Loads the two sequences to compare concurrently.
+ *
+ * <p>The second sequence is loaded by a task submitted to the executor while the first one is
+ * loaded on the calling thread, so that both are ready when {@link #load(Task, Task)} returns.
+ * When no executor is specified, or if the executor rejects the task, the sequences are loaded
+ * one after the other on the calling thread.
+ *
+ * <p>The two tasks must not share any state which is not thread-safe: in particular, each task
+ * should use its own loader when a text tokenizer has been set on the loader, and DOM nodes from
+ * the same document must not be loaded concurrently since DOM implementations are not required
+ * to be thread-safe even for reading.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public final class ConcurrentLoader {
+
+  /**
+   * An executor starting a new daemon thread for each task.
+   */
+  public static final Executor NEW_THREAD = task -> {
+    Thread thread = new Thread(task, "diffx-loader");
+    thread.setDaemon(true);
+    thread.start();
+  };
+
+  /**
+   * Loads the two sequences one after the other on the calling thread.
+   */
+  public static final ConcurrentLoader SEQUENTIAL = new ConcurrentLoader(null);
+
+  /**
+   * The executor for the second task (sequential if <code>null</code>).
+   */
+  private final @Nullable Executor executor;
+
+  /**
+   * Creates a new loader starting a new thread to load the second sequence.
+   */
+  public ConcurrentLoader() {
+    this(NEW_THREAD);
+  }
+
+  /**
+   * Creates a new loader using the specified executor to load the second sequence.
+   *
+   * @param executor The executor to use or <code>null</code> to load sequentially.
+   */
+  public ConcurrentLoader(@Nullable Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Returns the loader to use for the specified DOM nodes.
+   *
+   * @param first  The first node to load
+   * @param second The second node to load
+   *
+   * @return {@link #SEQUENTIAL} if both nodes belong to the same document; this loader otherwise.
+   */
+  public ConcurrentLoader forNodes(Node first, Node second) {
+    return document(first) == document(second) ? SEQUENTIAL : this;
+  }
+
+  /**
+   * Returns the loader to use for the specified lists of DOM nodes.
+   *
+   * @param first  The nodes to load first
+   * @param second The nodes to load second
+   *
+   * @return {@link #SEQUENTIAL} if any node of the first list belongs to the same document as
+   *         any node of the second list; this loader otherwise.
+   */
+  public ConcurrentLoader forNodes(NodeList first, NodeList second) {
+    if (this.executor == null) return this;
+    Set<@Nullable Node> documents = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (int i = 0; i < first.getLength(); i++) {
+      documents.add(document(first.item(i)));
+    }
+    for (int i = 0; i < second.getLength(); i++) {
+      if (documents.contains(document(second.item(i)))) return SEQUENTIAL;
+    }
+    return this;
+  }
+
+  private static @Nullable Node document(Node node) {
+    return node.getNodeType() == Node.DOCUMENT_NODE ? node : node.getOwnerDocument();
+  }
+
+  /**
+   * Loads the two sequences.
+   *
+   * <p>If either task fails, the other task is cancelled and the exception is rethrown.
+   *
+   * @param first  The task loading the first sequence
+   * @param second The task loading the second sequence
+   *
+   * @return The loaded sequences and the time it took to load them.
+   *
+   * @throws LoadingException If thrown by either task or if the thread is interrupted.
+   * @throws IOException      If thrown by either task.
+   */
+  public Result load(Task first, Task second) throws LoadingException, IOException {
+    long t0 = System.nanoTime();
+    if (this.executor == null) {
+      Timed a = Timed.run(first);
+      Timed b = Timed.run(second);
+      return new Result(a, b, System.nanoTime() - t0);
+    }
+    FutureTask<Timed> future = new FutureTask<>(() -> Timed.run(second));
+    try {
+      this.executor.execute(future);
+    } catch (RejectedExecutionException ex) {
+      future.run();
+    }
+    Timed a;
+    try {
+      a = Timed.run(first);
+    } catch (LoadingException | IOException | RuntimeException ex) {
+      future.cancel(true);
+      throw ex;
+    }
+    Timed b = await(future);
+    return new Result(a, b, System.nanoTime() - t0);
+  }
+
+  private static Timed await(FutureTask<Timed> future) throws LoadingException, IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException ex) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new LoadingException("Interrupted while loading", ex);
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof LoadingException) throw (LoadingException) cause;
+      if (cause instanceof IOException) throw (IOException) cause;
+      if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+      if (cause instanceof Error) throw (Error) cause;
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "ConcurrentLoader{executor=" + this.executor + '}';
+  }
+
+  /**
+   * A task loading a sequence.
+   */
+  @FunctionalInterface
+  public interface Task {
+
+    /**
+     * @return The loaded sequence
+     *
+     * @throws LoadingException If thrown whilst loading.
+     * @throws IOException      Should an I/O error occur.
+     */
+    Sequence load() throws LoadingException, IOException;
+
+  }
+
+  /**
+   * The loaded sequences and the time it took to load them.
+   */
+  public static final class Result {
+
+    private final Timed first;
+    private final Timed second;
+    private final long nanos;
+
+    private Result(Timed first, Timed second, long nanos) {
+      this.first = first;
+      this.second = second;
+      this.nanos = nanos;
+    }
+
+    /**
+     * @return The first sequence
+     */
+    public Sequence first() {
+      return this.first.sequence;
+    }
+
+    /**
+     * @return The second sequence
+     */
+    public Sequence second() {
+      return this.second.sequence;
+    }
+
+    /**
+     * @return The time it took to load the first sequence in nanoseconds.
+     */
+    public long firstNanos() {
+      return this.first.nanos;
+    }
+
+    /**
+     * @return The time it took to load the second sequence in nanoseconds.
+     */
+    public long secondNanos() {
+      return this.second.nanos;
+    }
+
+    /**
+     * @return The time it took to load both sequences in nanoseconds.
+     */
+    public long totalNanos() {
+      return this.nanos;
+    }
+
+  }
+
+  /**
+   * A sequence and the time it took to load it.
+   */
+  private static final class Timed {
+
+    final Sequence sequence;
+    final long nanos;
+
+    private Timed(Sequence sequence, long nanos) {
+      this.sequence = sequence;
+      this.nanos = nanos;
+    }
+
+    static Timed run(Task task) throws LoadingException, IOException {
+      long t0 = System.nanoTime();
+      Sequence sequence = task.load();
+      return new Timed(sequence, System.nanoTime() - t0);
+    }
+  }
+
+}
@@ -93,10 +93,10 @@ public final class DOMLoader extends XMLLoaderBase implements XMLLoader {
    */
   public Sequence load(Node node) throws LoadingException {
     boolean isFragment = node.getNodeType() != Node.DOCUMENT_NODE;
-    LoadSession session = new LoadSession(this.config, this.textTokenizer, isFragment);
+    LoadSession session = new LoadSession(this.config, newTokenFactory(), newTextTokenizer(), isFragment);
     // start processing the nodes
     session.loadNode(node);
-    return session.sequence;
+    return complete(session.sequence);
   }
 
   /**
@@ -195,9 +195,9 @@ public final class DOMLoader extends XMLLoaderBase implements XMLLoader {
 
     private int depth = 0;
 
-    public LoadSession(DiffConfig config, @Nullable TextTokenizer tokenizer, boolean isFragment) {
+    public LoadSession(DiffConfig config, XMLTokenFactory tokenFactory, @Nullable TextTokenizer tokenizer, boolean isFragment) {
       this.config = config;
-      this.tokenFactory = new XMLTokenFactory(config.isNamespaceAware());
+      this.tokenFactory = tokenFactory;
       this.tokenizer = tokenizer != null ? tokenizer : TokenizerFactory.get(config);
       this.sequence = new Sequence();
       this.namespaces = this.sequence.getNamespaces();
@@ -19,7 +19,6 @@ import org.jspecify.annotations.Nullable;
 import org.pageseeder.diffx.api.LoadingException;
 import org.pageseeder.diffx.config.DiffConfig;
 import org.pageseeder.diffx.load.text.TextTokenizer;
-import org.pageseeder.diffx.load.text.TokenizerFactory;
 import org.pageseeder.diffx.token.*;
 import org.pageseeder.diffx.token.impl.XMLComment;
 import org.pageseeder.diffx.token.impl.XMLProcessingInstruction;
@@ -63,7 +62,7 @@ import java.util.function.Function;
  * @author Christophe Lauret
  * @author Jean-Baptiste Reure
  *
- * @version 1.3.2
+ * @version 1.3.4
  * @since 0.6.0
  */
 public final class SAXLoader extends XMLLoaderBase implements XMLLoader {
@@ -129,9 +128,9 @@ public final class SAXLoader extends XMLLoaderBase implements XMLLoader {
   public Sequence load(InputSource is) throws LoadingException, IOException {
     XMLReader reader = newReader(this.config);
 
-    TextTokenizer tokenizer = this.textTokenizer != null ? this.textTokenizer : TokenizerFactory.get(this.config);
+    TextTokenizer tokenizer = newTextTokenizer();
 
-    Handler handler = new Handler(this.config, tokenizer);
+    Handler handler = new Handler(newTokenFactory(), tokenizer);
 
     reader.setContentHandler(handler);
     reader.setErrorHandler(handler);
@@ -150,7 +149,7 @@ public final class SAXLoader extends XMLLoaderBase implements XMLLoader {
     } catch (SAXException ex) {
       throw new LoadingException(ex);
     }
-    return handler.sequence;
+    return complete(handler.sequence);
   }
 
   /**
@@ -305,8 +304,8 @@ public final class SAXLoader extends XMLLoaderBase implements XMLLoader {
      */
     private final TextTokenizer tokenizer;
 
-    Handler(DiffConfig config, TextTokenizer tokenizer) {
-      this.tokenFactory = new XMLTokenFactory(config.isNamespaceAware());
+    Handler(XMLTokenFactory tokenFactory, TextTokenizer tokenizer) {
+      this.tokenFactory = Objects.requireNonNull(tokenFactory, "tokenFactory");
       this.tokenizer = Objects.requireNonNull(tokenizer, "tokenizer");
     }
 
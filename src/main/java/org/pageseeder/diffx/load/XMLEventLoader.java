@@ -17,7 +17,6 @@ package org.pageseeder.diffx.load;
 
 import org.pageseeder.diffx.api.LoadingException;
 import org.pageseeder.diffx.load.text.TextTokenizer;
-import org.pageseeder.diffx.load.text.TokenizerFactory;
 import org.pageseeder.diffx.token.*;
 import org.pageseeder.diffx.token.impl.*;
 import org.pageseeder.diffx.xml.Sequence;
@@ -43,7 +42,7 @@ import static javax.xml.stream.XMLStreamConstants.COMMENT;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.2
+ * @version 1.3.4
  * @since 0.9.0
  */
 public final class XMLEventLoader extends XMLLoaderBase implements XMLLoader {
@@ -89,9 +88,9 @@ public final class XMLEventLoader extends XMLLoaderBase implements XMLLoader {
    * @throws LoadingException If an error occurs while processing the XML events.
    */
   public Sequence load(XMLEventReader reader) throws LoadingException {
-    XMLTokenFactory tokenFactory = new XMLTokenFactory(this.config.isNamespaceAware());
+    XMLTokenFactory tokenFactory = newTokenFactory();
     AttributeComparator comparator = new AttributeComparator();
-    TextTokenizer tokenizer = this.textTokenizer != null ? this.textTokenizer : TokenizerFactory.get(this.config);
+    TextTokenizer tokenizer = newTextTokenizer();
     List<StartElementToken> startElements = new ArrayList<>();
     Sequence sequence = new Sequence();
     sequence.addNamespace(XMLConstants.XML_NS_URI, XMLConstants.XML_NS_PREFIX);
@@ -114,7 +113,7 @@ public final class XMLEventLoader extends XMLLoaderBase implements XMLLoader {
     } catch (XMLStreamException ex) {
       throw new LoadingException(ex);
     }
-    return sequence;
+    return complete(sequence);
   }
 
   private static void processNamespaces(StartElement event, Sequence sequence) {
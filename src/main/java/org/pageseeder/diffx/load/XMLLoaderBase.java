@@ -18,13 +18,21 @@ package org.pageseeder.diffx.load;
 import org.jspecify.annotations.Nullable;
 import org.pageseeder.diffx.config.DiffConfig;
 import org.pageseeder.diffx.load.text.TextTokenizer;
+import org.pageseeder.diffx.load.text.TokenizerFactory;
+import org.pageseeder.diffx.token.TextToken;
+import org.pageseeder.diffx.token.XMLTokenFactory;
+import org.pageseeder.diffx.token.XMLTokenPool;
+import org.pageseeder.diffx.token.impl.CharArena;
+import org.pageseeder.diffx.util.LimitedSizeCache;
+import org.pageseeder.diffx.xml.Sequence;
+import org.pageseeder.diffx.xml.SubtreeFingerprints;
 
 /**
  * Base class for XML loaders.
  *
  * @author Christophe Lauret
  *
- * @version 1.3.2
+ * @version 1.3.4
  * @since 0.9.0
  */
 abstract class XMLLoaderBase implements XMLLoader {
@@ -45,6 +53,26 @@ abstract class XMLLoaderBase implements XMLLoader {
    */
   protected @Nullable TextTokenizer textTokenizer;
 
+  /**
+   * Whether to compute the fingerprints of subtrees when loading.
+   */
+  protected boolean fingerprinting = false;
+
+  /**
+   * Whether text tokens should share a character arena for each document.
+   */
+  protected boolean compactText = false;
+
+  /**
+   * The pool to intern element and attribute tokens, may be <code>null</code>.
+   */
+  protected @Nullable XMLTokenPool tokenPool;
+
+  /**
+   * The cache to look up text tokens, may be <code>null</code>.
+   */
+  protected @Nullable LimitedSizeCache<String, TextToken> textCache;
+
   /**
    * Returns the configuration used by this loader.
    *
@@ -92,4 +120,120 @@ abstract class XMLLoaderBase implements XMLLoader {
   public @Nullable TextTokenizer getTextTokenizer() {
     return textTokenizer;
   }
+
+  /**
+   * Sets whether this loader should compute the fingerprint of each subtree.
+   *
+   * <p>When enabled, the loaded sequences provide {@link SubtreeFingerprints} so that processors
+   * can test whether a subtree is unchanged without comparing its tokens.
+   *
+   * @param fingerprinting <code>true</code> to compute fingerprints; <code>false</code> otherwise.
+   *
+   * @see Sequence#getFingerprints()
+   */
+  public void setFingerprinting(boolean fingerprinting) {
+    this.fingerprinting = fingerprinting;
+  }
+
+  /**
+   * @return <code>true</code> if this loader computes the fingerprint of each subtree.
+   */
+  public boolean isFingerprinting() {
+    return this.fingerprinting;
+  }
+
+  /**
+   * Sets whether the text tokens of each loaded document should share a character arena.
+   *
+   * <p>When enabled, the default tokenizers copy the characters of text into a {@link CharArena}
+   * created for each document, and text tokens reference a range in that arena instead of
+   * holding their own string. This reduces the memory retained by loaded sequences.
+   *
+   * <p>This setting has no effect when a text tokenizer is specified.
+   *
+   * @param compactText <code>true</code> to share a character arena; <code>false</code> otherwise.
+   */
+  public void setCompactText(boolean compactText) {
+    this.compactText = compactText;
+  }
+
+  /**
+   * @return <code>true</code> if the text tokens of each loaded document share a character arena.
+   */
+  public boolean isCompactText() {
+    return this.compactText;
+  }
+
+  /**
+   * Sets the pool used to intern element and attribute tokens.
+   *
+   * <p>The same pool can be shared by several loaders, including loaders used concurrently, so
+   * that the element and attribute tokens of all the documents they load are shared.
+   *
+   * @param tokenPool The pool to intern tokens, or <code>null</code> to create new tokens.
+   */
+  public void setTokenPool(@Nullable XMLTokenPool tokenPool) {
+    this.tokenPool = tokenPool;
+  }
+
+  /**
+   * @return The pool used to intern element and attribute tokens, may be <code>null</code>.
+   */
+  public @Nullable XMLTokenPool getTokenPool() {
+    return this.tokenPool;
+  }
+
+  /**
+   * Sets the cache used by the default tokenizers to look up text tokens.
+   *
+   * <p>The same cache can be shared by several loaders, including loaders used concurrently,
+   * provided that they use the same text granularity.
+   *
+   * <p>This setting has no effect when a text tokenizer is specified.
+   *
+   * @param textCache The cache of text tokens, or <code>null</code> to create new tokens.
+   */
+  public void setTextCache(@Nullable LimitedSizeCache<String, TextToken> textCache) {
+    this.textCache = textCache;
+  }
+
+  /**
+   * @return The cache used by the default tokenizers to look up text tokens, may be <code>null</code>.
+   */
+  public @Nullable LimitedSizeCache<String, TextToken> getTextCache() {
+    return this.textCache;
+  }
+
+  /**
+   * Returns the token factory to use for loading a document.
+   *
+   * @return a new token factory for the configuration and token pool of this loader.
+   */
+  protected XMLTokenFactory newTokenFactory() {
+    return new XMLTokenFactory(this.config.isNamespaceAware(), this.tokenPool);
+  }
+
+  /**
+   * Returns the text tokenizer to use for loading a document.
+   *
+   * @return the text tokenizer of this loader if specified; a new tokenizer for the configuration otherwise.
+   */
+  protected TextTokenizer newTextTokenizer() {
+    if (this.textTokenizer != null) return this.textTokenizer;
+    return TokenizerFactory.get(this.config, this.compactText ? new CharArena() : null, this.textCache);
+  }
+
+  /**
+   * Completes the specified sequence once all the tokens have been loaded.
+   *
+   * @param sequence The loaded sequence
+   *
+   * @return the same sequence
+   */
+  protected Sequence complete(Sequence sequence) {
+    if (this.fingerprinting) {
+      sequence.setFingerprints(SubtreeFingerprints.compute(sequence.tokens()));
+    }
+    return sequence;
+  }
 }
@@ -18,7 +18,6 @@ package org.pageseeder.diffx.load;
 import org.pageseeder.diffx.api.LoadingException;
 import org.pageseeder.diffx.config.DiffConfig;
 import org.pageseeder.diffx.load.text.TextTokenizer;
-import org.pageseeder.diffx.load.text.TokenizerFactory;
 import org.pageseeder.diffx.token.*;
 import org.pageseeder.diffx.token.impl.SpaceToken;
 import org.pageseeder.diffx.token.impl.XMLAttribute;
@@ -36,7 +35,9 @@ import java.io.*;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 
 import static javax.xml.stream.XMLStreamConstants.COMMENT;
@@ -47,7 +48,7 @@ import static javax.xml.stream.XMLStreamConstants.PROCESSING_INSTRUCTION;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.2
+ * @version 1.3.4
  * @since 0.9.0
  */
 public final class XMLStreamLoader extends XMLLoaderBase implements XMLLoader {
@@ -118,8 +119,8 @@ public final class XMLStreamLoader extends XMLLoaderBase implements XMLLoader {
   }
 
   public Sequence load(XMLStreamReader reader) throws LoadingException {
-    XMLTokenFactory tokenFactory = new XMLTokenFactory(this.config.isNamespaceAware());
-    TextTokenizer tokenizer = this.textTokenizer != null ? this.textTokenizer : TokenizerFactory.get(this.config);
+    XMLTokenFactory tokenFactory = newTokenFactory();
+    TextTokenizer tokenizer = newTextTokenizer();
     List<StartElementToken> startElements = new ArrayList<>();
     Sequence sequence = new Sequence();
     sequence.addNamespace(XMLConstants.XML_NS_URI, XMLConstants.XML_NS_PREFIX);
@@ -127,22 +128,71 @@ public final class XMLStreamLoader extends XMLLoaderBase implements XMLLoader {
     try {
       while (reader.hasNext()) {
         reader.next();
-        if (reader.isStartElement()) {
-          processNamespaces(reader, sequence);
-          processStartElement(reader, sequence, tokenFactory, startElements);
-          processAttributes(reader, sequence, this.config.isNamespaceAware());
-        } else if (reader.isEndElement()) {
-          processEndElement(reader, sequence, tokenFactory, startElements);
-        } else if (reader.isCharacters()) {
-          processText(reader, sequence, tokenizer);
-        } else {
-          processOther(reader, sequence);
-        }
+        process(reader, sequence, tokenFactory, tokenizer, startElements);
       }
     } catch (XMLStreamException ex) {
       throw new LoadingException(ex);
     }
-    return sequence;
+    return complete(sequence);
+  }
+
+  /**
+   * Returns an iterator over the tokens of the specified reader.
+   *
+   * <p>Unlike the <code>load</code> methods, the tokens are not collected into a sequence: the
+   * reader is only advanced as tokens are requested, so that only the tokens of the current
+   * XML event are kept in memory. Fingerprints cannot be computed this way.</p>
+   *
+   * <p>The reader is not closed by the iterator.</p>
+   *
+   * @param reader The XML stream reader
+   *
+   * @return An iterator over the tokens.
+   * @throws IllegalStateException When thrown by the iterator if the XML cannot be parsed,
+   *                               wrapping a {@link LoadingException}.
+   */
+  public Iterator<XMLToken> iterator(XMLStreamReader reader) {
+    TextTokenizer tokenizer = newTextTokenizer();
+    return new TokenIterator(reader, newTokenFactory(), tokenizer);
+  }
+
+  /**
+   * Returns an iterator over the tokens of the specified reader.
+   *
+   * <p>The character stream is not closed by the iterator.</p>
+   *
+   * @param source The character stream to read the XML from.
+   *
+   * @return An iterator over the tokens.
+   * @throws LoadingException If the XML stream reader could not be created.
+   *
+   * @see #iterator(XMLStreamReader)
+   */
+  public Iterator<XMLToken> iterator(Reader source) throws LoadingException {
+    XMLInputFactory factory = toFactory(this.config);
+    try {
+      return iterator(factory.createXMLStreamReader(source));
+    } catch (XMLStreamException ex) {
+      throw new LoadingException(ex);
+    }
+  }
+
+  /**
+   * Adds the tokens of the current event to the sequence.
+   */
+  private void process(XMLStreamReader reader, Sequence sequence, XMLTokenFactory tokenFactory,
+                       TextTokenizer tokenizer, List<StartElementToken> startElements) {
+    if (reader.isStartElement()) {
+      processNamespaces(reader, sequence);
+      processStartElement(reader, sequence, tokenFactory, startElements);
+      processAttributes(reader, sequence, this.config.isNamespaceAware());
+    } else if (reader.isEndElement()) {
+      processEndElement(reader, sequence, tokenFactory, startElements);
+    } else if (reader.isCharacters()) {
+      processText(reader, sequence, tokenizer);
+    } else {
+      processOther(reader, sequence);
+    }
   }
 
   static XMLInputFactory toFactory(DiffConfig config) {
@@ -250,4 +300,49 @@ public final class XMLStreamLoader extends XMLLoaderBase implements XMLLoader {
     }
     throw new LoadingException("Invalid InputSource");
   }
+
+  /**
+   * Reads the events of the XML stream reader as tokens are requested.
+   */
+  private final class TokenIterator implements Iterator<XMLToken> {
+
+    private final XMLStreamReader reader;
+    private final XMLTokenFactory tokenFactory;
+    private final TextTokenizer tokenizer;
+    private final List<StartElementToken> startElements = new ArrayList<>();
+
+    /**
+     * The tokens of the current event.
+     */
+    private Sequence buffer = new Sequence();
+    private int position = 0;
+
+    TokenIterator(XMLStreamReader reader, XMLTokenFactory tokenFactory, TextTokenizer tokenizer) {
+      this.reader = reader;
+      this.tokenFactory = tokenFactory;
+      this.tokenizer = tokenizer;
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        while (this.position == this.buffer.size()) {
+          if (!this.reader.hasNext()) return false;
+          this.reader.next();
+          this.buffer = new Sequence();
+          this.position = 0;
+          process(this.reader, this.buffer, this.tokenFactory, this.tokenizer, this.startElements);
+        }
+        return true;
+      } catch (XMLStreamException ex) {
+        throw new IllegalStateException(new LoadingException(ex));
+      }
+    }
+
+    @Override
+    public XMLToken next() {
+      if (!hasNext()) throw new NoSuchElementException();
+      return this.buffer.getToken(this.position++);
+    }
+  }
 }
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.load.text;
+
+import org.jspecify.annotations.Nullable;
+import org.pageseeder.diffx.config.WhiteSpaceProcessing;
+import org.pageseeder.diffx.token.TextToken;
+import org.pageseeder.diffx.token.impl.CharArena;
+import org.pageseeder.diffx.token.impl.CharSliceToken;
+import org.pageseeder.diffx.token.impl.IgnorableSpaceToken;
+import org.pageseeder.diffx.token.impl.SpaceToken;
+import org.pageseeder.diffx.token.impl.WordToken;
+import org.pageseeder.diffx.util.LimitedSizeCache;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Recycles the word and space tokens created by a tokenizer.
+ *
+ * <p>Tokens are looked up directly from a range of characters in the text so that a string is
+ * only created the first time a word or space is encountered. When a {@link CharArena} is
+ * specified, words are copied into the arena instead and no string is created.
+ *
+ * <p>The number of recycled tokens is bounded: when the table is full, it is cleared. When a
+ * {@link LimitedSizeCache} is specified, words which are not recycled are looked up in that cache
+ * so that words can be shared by several tokenizers and across documents.
+ *
+ * <p>Implementation note: uses open addressing with linear probing, the hash of a range is the
+ * same as the hash of the corresponding string.
+ *
+ * <p>This class is not synchronized.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+final class TokenRecycler {
+
+  /**
+   * Initial capacity of the hash table (must be a power of 2).
+   */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /**
+   * Maximum capacity of the hash table (must be a power of 2), the table is cleared when it is
+   * half full at that capacity.
+   */
+  private static final int MAXIMUM_CAPACITY = 1 << 14;
+
+  /**
+   * Define the whitespace processing.
+   */
+  private final WhiteSpaceProcessing whitespace;
+
+  /**
+   * The arena for the characters of words, may be <code>null</code>.
+   */
+  private final @Nullable CharArena arena;
+
+  /**
+   * The cache of words shared with other tokenizers, may be <code>null</code>.
+   */
+  private final @Nullable LimitedSizeCache<String, TextToken> cache;
+
+  /**
+   * Creates the word tokens.
+   */
+  private final Function<String, TextToken> factory;
+
+  /**
+   * The hash of the characters of the recycled tokens.
+   */
+  private int[] hashes = new int[INITIAL_CAPACITY];
+
+  /**
+   * The recycled tokens.
+   */
+  private TextToken[] tokens = new TextToken[INITIAL_CAPACITY];
+
+  /**
+   * The number of recycled tokens.
+   */
+  private int size = 0;
+
+  /**
+   * @param whitespace the whitespace processing for the space tokens.
+   */
+  TokenRecycler(WhiteSpaceProcessing whitespace) {
+    this(whitespace, null);
+  }
+
+  /**
+   * @param whitespace the whitespace processing for the space tokens.
+   * @param arena      the arena for the characters of words, may be <code>null</code>.
+   */
+  TokenRecycler(WhiteSpaceProcessing whitespace, @Nullable CharArena arena) {
+    this(whitespace, arena, null, WordToken::new);
+  }
+
+  /**
+   * @param whitespace the whitespace processing for the space tokens.
+   * @param arena      the arena for the characters of words, may be <code>null</code>.
+   * @param cache      the cache of words shared with other tokenizers, ignored if an arena is specified.
+   * @param factory    creates the word tokens when no arena is specified.
+   */
+  TokenRecycler(WhiteSpaceProcessing whitespace, @Nullable CharArena arena,
+                @Nullable LimitedSizeCache<String, TextToken> cache, Function<String, TextToken> factory) {
+    this.whitespace = whitespace;
+    this.arena = arena;
+    this.cache = arena == null ? cache : null;
+    this.factory = factory;
+  }
+
+  /**
+   * Returns the word token corresponding to the specified characters.
+   *
+   * @param text  the text
+   * @param start the index of the first character of the word
+   * @param end   the index after the last character of the word
+   *
+   * @return the corresponding word token
+   */
+  TextToken word(CharSequence text, int start, int end) {
+    return get(text, start, end, false);
+  }
+
+  /**
+   * Returns the space token corresponding to the specified characters.
+   *
+   * @param text  the text
+   * @param start the index of the first character of the space
+   * @param end   the index after the last character of the space
+   *
+   * @return the corresponding space token
+   */
+  TextToken space(CharSequence text, int start, int end) {
+    return get(text, start, end, true);
+  }
+
+  /**
+   * @return the number of recycled tokens.
+   */
+  int size() {
+    return this.size;
+  }
+
+  private TextToken get(CharSequence text, int start, int end, boolean space) {
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + text.charAt(i);
+    }
+    int mask = this.tokens.length - 1;
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    TextToken token;
+    while ((token = this.tokens[slot]) != null) {
+      if (this.hashes[slot] == hash && matches(token, text, start, end)) return token;
+      slot = (slot + 1) & mask;
+    }
+    token = space ? newSpace(text.subSequence(start, end).toString()) : newWord(text, start, end);
+    this.hashes[slot] = hash;
+    this.tokens[slot] = token;
+    if (++this.size * 2 > this.tokens.length) {
+      if (this.tokens.length < MAXIMUM_CAPACITY) resize();
+      else clear();
+    }
+    return token;
+  }
+
+  private TextToken newWord(CharSequence text, int start, int end) {
+    if (this.arena != null) return this.arena.token(text, start, end);
+    String word = text.subSequence(start, end).toString();
+    return this.cache != null ? this.cache.getOrCreate(word, this.factory) : this.factory.apply(word);
+  }
+
+  private TextToken newSpace(String space) {
+    // preserve the actual white space used
+    return this.whitespace == WhiteSpaceProcessing.PRESERVE ? new IgnorableSpaceToken(space) : SpaceToken.getInstance(space);
+  }
+
+  private static boolean matches(TextToken token, CharSequence text, int start, int end) {
+    if (token instanceof CharSliceToken) return ((CharSliceToken) token).contentEquals(text, start, end);
+    String characters = token.getCharacters();
+    if (characters.length() != end - start) return false;
+    for (int i = start; i < end; i++) {
+      if (characters.charAt(i - start) != text.charAt(i)) return false;
+    }
+    return true;
+  }
+
+  private void clear() {
+    Arrays.fill(this.hashes, 0);
+    Arrays.fill(this.tokens, null);
+    this.size = 0;
+  }
+
+  private void resize() {
+    int[] oldHashes = this.hashes;
+    TextToken[] oldTokens = this.tokens;
+    int capacity = oldTokens.length * 2;
+    this.hashes = new int[capacity];
+    this.tokens = new TextToken[capacity];
+    int mask = capacity - 1;
+    for (int i = 0; i < oldTokens.length; i++) {
+      TextToken token = oldTokens[i];
+      if (token != null) {
+        int hash = oldHashes[i];
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (this.tokens[slot] != null) slot = (slot + 1) & mask;
+        this.hashes[slot] = hash;
+        this.tokens[slot] = token;
+      }
+    }
+  }
+
+}
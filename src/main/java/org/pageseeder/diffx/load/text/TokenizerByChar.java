@@ -15,7 +15,11 @@
  */
 package org.pageseeder.diffx.load.text;
 
+import org.jspecify.annotations.Nullable;
+import org.pageseeder.diffx.config.WhiteSpaceProcessing;
 import org.pageseeder.diffx.token.TextToken;
+import org.pageseeder.diffx.token.impl.CharArena;
+import org.pageseeder.diffx.util.LimitedSizeCache;
 import org.pageseeder.diffx.token.impl.CharactersToken;
 import org.pageseeder.diffx.token.impl.SpaceToken;
 
@@ -27,15 +31,51 @@ import java.util.Objects;
  * Tokenizes text creating a text token instance of every character.
  *
  * <p>Obviously, given the number of tokens that this tokenizer generates, it should only be used for
- * short strings or testing.
+ * short strings or testing. When a {@link CharArena} or a cache is specified, tokens are recycled
+ * so that only one token is created for each distinct character.
+ *
+ * <p>This class is not synchronized.
  *
  * @author Christophe Lauret
  *
- * @version 1.3.0
+ * @version 1.3.4
  * @since 0.9.0
  */
 public final class TokenizerByChar implements TextTokenizer {
 
+  /**
+   * Recycles tokens as they are created, may be <code>null</code>.
+   */
+  private final @Nullable TokenRecycler recycling;
+
+  /**
+   * Creates a new tokenizer.
+   */
+  public TokenizerByChar() {
+    this(null);
+  }
+
+  /**
+   * Creates a new tokenizer copying the characters into the specified arena.
+   *
+   * @param arena the arena for the characters, may be <code>null</code>.
+   */
+  public TokenizerByChar(@Nullable CharArena arena) {
+    this(arena, null);
+  }
+
+  /**
+   * Creates a new tokenizer looking up characters in a cache shared with other tokenizers.
+   *
+   * @param arena the arena for the characters, may be <code>null</code>.
+   * @param cache the cache of character tokens, ignored if an arena is specified, may be <code>null</code>.
+   */
+  public TokenizerByChar(@Nullable CharArena arena, @Nullable LimitedSizeCache<String, TextToken> cache) {
+    this.recycling = arena != null || cache != null
+        ? new TokenRecycler(WhiteSpaceProcessing.COMPARE, arena, cache, CharactersToken::new)
+        : null;
+  }
+
   @Override
   public List<TextToken> tokenize(CharSequence text) {
     Objects.requireNonNull(text, "Character sequence is null");
@@ -48,7 +88,7 @@ public final class TokenizerByChar implements TextTokenizer {
       if (Character.isWhitespace(c)) {
         token = SpaceToken.getInstance(c);
       } else {
-        token = new CharactersToken(Character.toString(c));
+        token = this.recycling != null ? this.recycling.word(text, i, i + 1) : new CharactersToken(Character.toString(c));
       }
       tokens.add(token);
     }
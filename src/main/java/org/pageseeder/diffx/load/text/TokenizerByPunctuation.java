@@ -18,14 +18,14 @@ package org.pageseeder.diffx.load.text;
 import org.jspecify.annotations.Nullable;
 import org.pageseeder.diffx.config.WhiteSpaceProcessing;
 import org.pageseeder.diffx.token.TextToken;
+import org.pageseeder.diffx.token.impl.CharArena;
+import org.pageseeder.diffx.util.LimitedSizeCache;
 import org.pageseeder.diffx.token.impl.CharactersToken;
 import org.pageseeder.diffx.token.impl.IgnorableSpaceToken;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Tokenizer returning text between punctuation marks.
@@ -37,7 +37,7 @@ import java.util.regex.Pattern;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.0
+ * @version 1.3.4
  * @since 0.9.0
  */
 public final class TokenizerByPunctuation implements TextTokenizer {
@@ -47,6 +47,16 @@ public final class TokenizerByPunctuation implements TextTokenizer {
    */
   private final WhiteSpaceProcessing whitespace;
 
+  /**
+   * The arena for the characters of text, may be <code>null</code>.
+   */
+  private final @Nullable CharArena arena;
+
+  /**
+   * The cache of short text tokens, may be <code>null</code>.
+   */
+  private final @Nullable LimitedSizeCache<String, TextToken> cache;
+
   /**
    * Creates a new tokenizer.
    *
@@ -55,8 +65,35 @@ public final class TokenizerByPunctuation implements TextTokenizer {
    * @throws NullPointerException if the white space processing is not specified.
    */
   public TokenizerByPunctuation(WhiteSpaceProcessing whitespace) {
+    this(whitespace, null);
+  }
+
+  /**
+   * Creates a new tokenizer copying the characters of text into the specified arena.
+   *
+   * @param whitespace the whitespace processing for this tokenizer.
+   * @param arena      the arena for the characters of text, may be <code>null</code>.
+   *
+   * @throws NullPointerException if the white space processing is not specified.
+   */
+  public TokenizerByPunctuation(WhiteSpaceProcessing whitespace, @Nullable CharArena arena) {
+    this(whitespace, arena, null);
+  }
+
+  /**
+   * Creates a new tokenizer looking up short text in a cache shared with other tokenizers.
+   *
+   * @param whitespace the whitespace processing for this tokenizer.
+   * @param arena      the arena for the characters of text, may be <code>null</code>.
+   * @param cache      the cache of text tokens, ignored if an arena is specified, may be <code>null</code>.
+   *
+   * @throws NullPointerException if the white space processing is not specified.
+   */
+  public TokenizerByPunctuation(WhiteSpaceProcessing whitespace, @Nullable CharArena arena, @Nullable LimitedSizeCache<String, TextToken> cache) {
     Objects.requireNonNull(whitespace, "the white space processing must be specified.");
     this.whitespace = whitespace;
+    this.arena = arena;
+    this.cache = arena == null ? cache : null;
   }
 
   @Override
@@ -65,22 +102,24 @@ public final class TokenizerByPunctuation implements TextTokenizer {
     if (text.length() == 0) return List.of();
     List<TextToken> tokens = new ArrayList<>(text.length());
 
-    Pattern p = Pattern.compile("[.,?!;]+");
-    Matcher m = p.matcher(text);
+    int length = text.length();
     int index = 0;
 
-    while (m.find()) {
-      if (index < m.end()) {
-        CharSequence chunk = text.subSequence(index, m.end());
+    for (int i = 0; i < length; i++) {
+      if (isPunctuation(text.charAt(i))) {
+        // Include the entire run of punctuation marks
+        int end = i + 1;
+        while (end < length && isPunctuation(text.charAt(end))) end++;
         // Cannot be space as it necessarily contains a punctuation character
-        tokens.add(new CharactersToken(chunk));
+        tokens.add(toCharacters(text, index, end));
+        index = end;
+        i = end - 1;
       }
-      index = m.end();
     }
 
     if (index != text.length()) {
       CharSequence chunk = text.subSequence(index, text.length());
-      TextToken token = toToken(chunk, this.whitespace);
+      TextToken token = Tokenizers.isWhitespace(chunk) ? toSpace(chunk, this.whitespace) : toCharacters(text, index, length);
       if (token != null)
         tokens.add(token);
     }
@@ -88,10 +127,20 @@ public final class TokenizerByPunctuation implements TextTokenizer {
     return tokens;
   }
 
-  private static @Nullable TextToken toToken(CharSequence text, WhiteSpaceProcessing whitespace) {
-    if (Tokenizers.isWhitespace(text))
-      return whitespace == WhiteSpaceProcessing.IGNORE ? null : new IgnorableSpaceToken(text);
-    return new CharactersToken(text);
+  private static boolean isPunctuation(char c) {
+    return c == '.' || c == ',' || c == '?' || c == '!' || c == ';';
+  }
+
+  private TextToken toCharacters(CharSequence text, int start, int end) {
+    if (this.arena != null) return this.arena.token(text, start, end);
+    String chunk = text.subSequence(start, end).toString();
+    if (this.cache != null && chunk.length() <= Tokenizers.MAX_CACHED_LENGTH)
+      return this.cache.getOrCreate(chunk, CharactersToken::new);
+    return new CharactersToken(chunk);
+  }
+
+  private static @Nullable TextToken toSpace(CharSequence text, WhiteSpaceProcessing whitespace) {
+    return whitespace == WhiteSpaceProcessing.IGNORE ? null : new IgnorableSpaceToken(text);
   }
 
   public static List<TextToken> tokenize(CharSequence seq, WhiteSpaceProcessing whitespace) {
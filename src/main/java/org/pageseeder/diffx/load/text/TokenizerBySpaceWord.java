@@ -15,15 +15,16 @@
  */
 package org.pageseeder.diffx.load.text;
 
+import org.jspecify.annotations.Nullable;
 import org.pageseeder.diffx.config.WhiteSpaceProcessing;
 import org.pageseeder.diffx.token.TextToken;
-import org.pageseeder.diffx.token.impl.IgnorableSpaceToken;
-import org.pageseeder.diffx.token.impl.SpaceToken;
+import org.pageseeder.diffx.token.impl.CharArena;
 import org.pageseeder.diffx.token.impl.WordToken;
+import org.pageseeder.diffx.util.LimitedSizeCache;
 
-import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * The tokenizer for characters tokens.
@@ -32,20 +33,20 @@ import java.util.regex.Pattern;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.0
+ * @version 1.3.4
  * @since 0.9.0
  */
 public final class TokenizerBySpaceWord implements TextTokenizer {
 
   /**
-   * Map characters to tokens in order to recycle tokens as they are created.
+   * Define the whitespace processing.
    */
-  private final Map<String, TextToken> recycling = new HashMap<>();
+  private final WhiteSpaceProcessing whitespace;
 
   /**
-   * Define the whitespace processing.
+   * Recycles tokens as they are created.
    */
-  private final WhiteSpaceProcessing whitespace;
+  private final TokenRecycler recycling;
 
   /**
    * Creates a new tokenizer.
@@ -55,8 +56,34 @@ public final class TokenizerBySpaceWord implements TextTokenizer {
    * @throws NullPointerException if the white space processing is not specified.
    */
   public TokenizerBySpaceWord(WhiteSpaceProcessing whitespace) {
+    this(whitespace, null);
+  }
+
+  /**
+   * Creates a new tokenizer copying the characters of words into the specified arena.
+   *
+   * @param whitespace the whitespace processing for this tokenizer.
+   * @param arena      the arena for the characters of words, may be <code>null</code>.
+   *
+   * @throws NullPointerException if the white space processing is not specified.
+   */
+  public TokenizerBySpaceWord(WhiteSpaceProcessing whitespace, @Nullable CharArena arena) {
+    this(whitespace, arena, null);
+  }
+
+  /**
+   * Creates a new tokenizer looking up words in a cache shared with other tokenizers.
+   *
+   * @param whitespace the whitespace processing for this tokenizer.
+   * @param arena      the arena for the characters of words, may be <code>null</code>.
+   * @param cache      the cache of word tokens, ignored if an arena is specified, may be <code>null</code>.
+   *
+   * @throws NullPointerException if the white space processing is not specified.
+   */
+  public TokenizerBySpaceWord(WhiteSpaceProcessing whitespace, @Nullable CharArena arena, @Nullable LimitedSizeCache<String, TextToken> cache) {
     Objects.requireNonNull(whitespace, "the white space processing must be specified.");
     this.whitespace = whitespace;
+    this.recycling = new TokenRecycler(whitespace, arena, cache, WordToken::new);
   }
 
   @Override
@@ -65,66 +92,106 @@ public final class TokenizerBySpaceWord implements TextTokenizer {
     if (seq.length() == 0) return List.of();
     // We assume that on average we generate 1 token per 4 chars
     List<TextToken> tokens = new ArrayList<>(seq.length() / 4);
-    Pattern p = Pattern.compile("( ?[\\p{L}\\p{M}0-9_'@/$.-]*[\\p{L}\\p{M}0-9_%])|(\\S)|( ?[\"(][^ \\t\\r\\n\\f'\"()]+[\")])");
-    Matcher m = p.matcher(seq);
+    int length = seq.length();
     int index = 0;
+    int start = 0;
 
-    // Add segments before each match found
-    while (m.find()) {
-      if (index != m.start() && whitespace != WhiteSpaceProcessing.IGNORE) {
-        String space = seq.subSequence(index, m.start()).toString();
-        tokens.add(getSpaceEvent(space));
+    while (start < length) {
+      int end = match(seq, start);
+      if (end < 0) {
+        start++;
+        continue;
+      }
+      // Add segments before each match found
+      if (index != start && whitespace != WhiteSpaceProcessing.IGNORE) {
+        tokens.add(this.recycling.space(seq, index, start));
       }
       // We don't even need to record a white space if they are ignored!
-      String word = seq.subSequence(m.start(), m.end()).toString();
-      tokens.add(getWordEvent(word));
-      index = m.end();
+      tokens.add(this.recycling.word(seq, start, end));
+      index = end;
+      start = end;
     }
 
     // Add remaining word if any
-    if (index != seq.length()) {
-      String space = seq.subSequence(index, seq.length()).toString();
-      tokens.add(getSpaceEvent(space));
+    if (index != length) {
+      tokens.add(this.recycling.space(seq, index, length));
     }
 
     return tokens;
   }
 
-  public static List<TextToken> tokenize(CharSequence seq, WhiteSpaceProcessing whitespace) {
-    TokenizerBySpaceWord tokenizer = new TokenizerBySpaceWord(whitespace);
-    return tokenizer.tokenize(seq);
-  }
-
   /**
-   * Returns the word token corresponding to the specified characters.
+   * Returns the end of the word starting at the specified position.
+   *
+   * <p>This is equivalent to matching the following regular expression at that position:
+   * <pre>( ?[\p{L}\p{M}0-9_'@/$.-]*[\p{L}\p{M}0-9_%])|(\S)|( ?["(][^ \t\r\n\f'"()]+[")])</pre>
    *
-   * @param word the characters of the word
+   * @param seq   the text
+   * @param start the position in the text
    *
-   * @return the corresponding word token
+   * @return the index after the last character of the word or -1 if no word starts at that position.
    */
-  private TextToken getWordEvent(String word) {
-    return this.recycling.computeIfAbsent(word, WordToken::new);
+  private static int match(CharSequence seq, int start) {
+    char c = seq.charAt(start);
+    if (c == ' ') {
+      int end = matchWord(seq, start + 1);
+      return end >= 0 ? end : matchQuoted(seq, start + 1);
+    }
+    int end = matchWord(seq, start);
+    if (end >= 0) return end;
+    if (Tokenizers.isRegexSpace(c)) return -1;
+    return start + Character.charCount(Character.codePointAt(seq, start));
   }
 
   /**
-   * Returns the space token corresponding to the specified characters.
-   *
-   * @param space the characters of the space
-   *
-   * @return the corresponding space token
+   * Matches <code>[\p{L}\p{M}0-9_'@/$.-]*[\p{L}\p{M}0-9_%]</code>
    */
-  private TextToken getSpaceEvent(String space) {
-    // preserve the actual white space used
-    TextToken token = this.recycling.get(space);
-    if (token == null) {
-      if (this.whitespace == WhiteSpaceProcessing.PRESERVE) {
-        token = new IgnorableSpaceToken(space);
-      } else {
-        token = SpaceToken.getInstance(space);
+  private static int matchWord(CharSequence seq, int start) {
+    int length = seq.length();
+    int last = -1;
+    int i = start;
+    while (i < length) {
+      int cp = Character.codePointAt(seq, i);
+      boolean alphanumeric = isAlphanumeric(cp);
+      if (alphanumeric || cp == '%') {
+        last = i + Character.charCount(cp);
       }
-      this.recycling.put(space, token);
+      if (!alphanumeric && "'@/$.-".indexOf(cp) < 0) break;
+      i += Character.charCount(cp);
+    }
+    return last;
+  }
+
+  /**
+   * Matches <code>["(][^ \t\r\n\f'"()]+[")]</code>
+   */
+  private static int matchQuoted(CharSequence seq, int start) {
+    int length = seq.length();
+    if (start >= length) return -1;
+    char c = seq.charAt(start);
+    if (c != '"' && c != '(') return -1;
+    int i = start + 1;
+    while (i < length && " \t\r\n\f'\"()".indexOf(seq.charAt(i)) < 0) i++;
+    if (i == start + 1 || i == length) return -1;
+    c = seq.charAt(i);
+    return c == '"' || c == ')' ? i + 1 : -1;
+  }
+
+  /**
+   * @return <code>true</code> if the code point is a letter, a mark, an ASCII digit or an underscore.
+   */
+  private static boolean isAlphanumeric(int cp) {
+    if (cp < 0x80) {
+      return (cp >= 'a' && cp <= 'z') || (cp >= 'A' && cp <= 'Z') || (cp >= '0' && cp <= '9') || cp == '_';
     }
-    return token;
+    if (Character.isLetter(cp)) return true;
+    int type = Character.getType(cp);
+    return type == Character.NON_SPACING_MARK || type == Character.ENCLOSING_MARK || type == Character.COMBINING_SPACING_MARK;
+  }
+
+  public static List<TextToken> tokenize(CharSequence seq, WhiteSpaceProcessing whitespace) {
+    TokenizerBySpaceWord tokenizer = new TokenizerBySpaceWord(whitespace);
+    return tokenizer.tokenize(seq);
   }
 
 }
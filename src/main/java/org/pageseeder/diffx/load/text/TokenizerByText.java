@@ -15,8 +15,11 @@
  */
 package org.pageseeder.diffx.load.text;
 
+import org.jspecify.annotations.Nullable;
 import org.pageseeder.diffx.config.WhiteSpaceProcessing;
 import org.pageseeder.diffx.token.TextToken;
+import org.pageseeder.diffx.token.impl.CharArena;
+import org.pageseeder.diffx.util.LimitedSizeCache;
 import org.pageseeder.diffx.token.impl.CharactersToken;
 import org.pageseeder.diffx.token.impl.IgnorableSpaceToken;
 import org.pageseeder.diffx.token.impl.SpaceToken;
@@ -42,7 +45,7 @@ import java.util.Objects;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.0
+ * @version 1.3.4
  * @since 0.9.0
  */
 public final class TokenizerByText implements TextTokenizer {
@@ -52,6 +55,16 @@ public final class TokenizerByText implements TextTokenizer {
    */
   private final WhiteSpaceProcessing whitespace;
 
+  /**
+   * The arena for the characters of text, may be <code>null</code>.
+   */
+  private final @Nullable CharArena arena;
+
+  /**
+   * The cache of short text tokens, may be <code>null</code>.
+   */
+  private final @Nullable LimitedSizeCache<String, TextToken> cache;
+
   /**
    * Creates a new tokenizer.
    *
@@ -60,8 +73,35 @@ public final class TokenizerByText implements TextTokenizer {
    * @throws NullPointerException if the white space processing is not specified.
    */
   public TokenizerByText(WhiteSpaceProcessing whitespace) {
+    this(whitespace, null);
+  }
+
+  /**
+   * Creates a new tokenizer copying the characters of text into the specified arena.
+   *
+   * @param whitespace the whitespace processing for this tokenizer.
+   * @param arena      the arena for the characters of text, may be <code>null</code>.
+   *
+   * @throws NullPointerException if the white space processing is not specified.
+   */
+  public TokenizerByText(WhiteSpaceProcessing whitespace, @Nullable CharArena arena) {
+    this(whitespace, arena, null);
+  }
+
+  /**
+   * Creates a new tokenizer looking up short text in a cache shared with other tokenizers.
+   *
+   * @param whitespace the whitespace processing for this tokenizer.
+   * @param arena      the arena for the characters of text, may be <code>null</code>.
+   * @param cache      the cache of text tokens, ignored if an arena is specified, may be <code>null</code>.
+   *
+   * @throws NullPointerException if the white space processing is not specified.
+   */
+  public TokenizerByText(WhiteSpaceProcessing whitespace, @Nullable CharArena arena, @Nullable LimitedSizeCache<String, TextToken> cache) {
     Objects.requireNonNull(whitespace, "the white space processing must be specified.");
     this.whitespace = whitespace;
+    this.arena = arena;
+    this.cache = arena == null ? cache : null;
   }
 
   @Override
@@ -73,7 +113,7 @@ public final class TokenizerByText implements TextTokenizer {
     int y = Tokenizers.getTrailingWhiteSpace(text);
     // no leading or trailing spaces return a singleton in all configurations
     if (x == 0 && y == 0) {
-      TextToken token = new CharactersToken(text);
+      TextToken token = toCharacters(text, 0, text.length());
       return List.of(token);
     }
     // The text node is only white space (white space = leading space)
@@ -87,7 +127,7 @@ public final class TokenizerByText implements TextTokenizer {
           return List.of();
         default:
       }
-      TextToken token = new CharactersToken(text);
+      TextToken token = toCharacters(text, 0, text.length());
       return List.of(token);
     }
     // some trailing or leading whitespace, behaviour changes depending on whitespace processing
@@ -98,7 +138,7 @@ public final class TokenizerByText implements TextTokenizer {
         if (x > 0) {
           tokens.add(SpaceToken.getInstance(text.subSequence(0, x)));
         }
-        tokens.add(new CharactersToken(text.subSequence(x, text.length() - y)));
+        tokens.add(toCharacters(text, x, text.length() - y));
         if (y > 0) {
           tokens.add(SpaceToken.getInstance(text.subSequence(text.length() - y, text.length())));
         }
@@ -108,13 +148,13 @@ public final class TokenizerByText implements TextTokenizer {
         if (x > 0) {
           tokens.add(new IgnorableSpaceToken(text.subSequence(0, x)));
         }
-        tokens.add(new CharactersToken(text.subSequence(x, text.length() - y)));
+        tokens.add(toCharacters(text, x, text.length() - y));
         if (y > 0) {
           tokens.add(new IgnorableSpaceToken(text.subSequence(text.length() - y, text.length())));
         }
         break;
       case IGNORE:
-        TextToken token = new CharactersToken(text.subSequence(x, text.length() - y));
+        TextToken token = toCharacters(text, x, text.length() - y);
         tokens = List.of(token);
         break;
       default:
@@ -122,4 +162,12 @@ public final class TokenizerByText implements TextTokenizer {
     return tokens;
   }
 
+  private TextToken toCharacters(CharSequence text, int start, int end) {
+    if (this.arena != null) return this.arena.token(text, start, end);
+    String chunk = text.subSequence(start, end).toString();
+    if (this.cache != null && chunk.length() <= Tokenizers.MAX_CACHED_LENGTH)
+      return this.cache.getOrCreate(chunk, CharactersToken::new);
+    return new CharactersToken(chunk);
+  }
+
 }
@@ -15,15 +15,16 @@
  */
 package org.pageseeder.diffx.load.text;
 
+import org.jspecify.annotations.Nullable;
 import org.pageseeder.diffx.config.WhiteSpaceProcessing;
 import org.pageseeder.diffx.token.TextToken;
-import org.pageseeder.diffx.token.impl.IgnorableSpaceToken;
-import org.pageseeder.diffx.token.impl.SpaceToken;
+import org.pageseeder.diffx.token.impl.CharArena;
 import org.pageseeder.diffx.token.impl.WordToken;
+import org.pageseeder.diffx.util.LimitedSizeCache;
 
-import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * The tokenizer for characters tokens.
@@ -38,14 +39,14 @@ import java.util.regex.Pattern;
 public final class TokenizerByWord implements TextTokenizer {
 
   /**
-   * Map characters to tokens in order to recycle tokens as they are created.
+   * Define the whitespace processing.
    */
-  private final Map<String, TextToken> recycling = new HashMap<>();
+  private final WhiteSpaceProcessing whitespace;
 
   /**
-   * Define the whitespace processing.
+   * Recycles tokens as they are created.
    */
-  private final WhiteSpaceProcessing whitespace;
+  private final TokenRecycler recycling;
 
   /**
    * Creates a new tokenizer.
@@ -55,8 +56,34 @@ public final class TokenizerByWord implements TextTokenizer {
    * @throws NullPointerException if the white space processing is not specified.
    */
   public TokenizerByWord(WhiteSpaceProcessing whitespace) {
+    this(whitespace, null);
+  }
+
+  /**
+   * Creates a new tokenizer copying the characters of words into the specified arena.
+   *
+   * @param whitespace the whitespace processing for this tokenizer.
+   * @param arena      the arena for the characters of words, may be <code>null</code>.
+   *
+   * @throws NullPointerException if the white space processing is not specified.
+   */
+  public TokenizerByWord(WhiteSpaceProcessing whitespace, @Nullable CharArena arena) {
+    this(whitespace, arena, null);
+  }
+
+  /**
+   * Creates a new tokenizer looking up words in a cache shared with other tokenizers.
+   *
+   * @param whitespace the whitespace processing for this tokenizer.
+   * @param arena      the arena for the characters of words, may be <code>null</code>.
+   * @param cache      the cache of word tokens, ignored if an arena is specified, may be <code>null</code>.
+   *
+   * @throws NullPointerException if the white space processing is not specified.
+   */
+  public TokenizerByWord(WhiteSpaceProcessing whitespace, @Nullable CharArena arena, @Nullable LimitedSizeCache<String, TextToken> cache) {
     Objects.requireNonNull(whitespace, "the white space processing must be specified.");
     this.whitespace = whitespace;
+    this.recycling = new TokenRecycler(whitespace, arena, cache, WordToken::new);
   }
 
   @Override
@@ -64,29 +91,23 @@ public final class TokenizerByWord implements TextTokenizer {
     Objects.requireNonNull(text, "Character sequence is null");
     if (text.length() == 0) return List.of();
     List<TextToken> tokens = new ArrayList<>(text.length());
-
-    Pattern p = Pattern.compile("\\s+");
-    Matcher m = p.matcher(text);
+    int length = text.length();
     int index = 0;
 
-    // Add segments before each match found
-    while (m.find()) {
-      if (index != m.start()) {
-        String word = text.subSequence(index, m.start()).toString();
-        tokens.add(getWordEvent(word));
-      }
-      // We don't even need to record a white space if they are ignored!
-      if (whitespace != WhiteSpaceProcessing.IGNORE) {
-        String space = text.subSequence(m.start(), m.end()).toString();
-        tokens.add(getSpaceEvent(space));
+    // Alternate between runs of words and runs of white spaces
+    while (index < length) {
+      int end = index;
+      if (Tokenizers.isRegexSpace(text.charAt(index))) {
+        while (end < length && Tokenizers.isRegexSpace(text.charAt(end))) end++;
+        // We don't even need to record a white space if they are ignored!
+        if (this.whitespace != WhiteSpaceProcessing.IGNORE) {
+          tokens.add(this.recycling.space(text, index, end));
+        }
+      } else {
+        while (end < length && !Tokenizers.isRegexSpace(text.charAt(end))) end++;
+        tokens.add(this.recycling.word(text, index, end));
       }
-      index = m.end();
-    }
-
-    // Add remaining word if any
-    if (index != text.length()) {
-      String word = text.subSequence(index, text.length()).toString();
-      tokens.add(getWordEvent(word));
+      index = end;
     }
 
     return tokens;
@@ -97,36 +118,4 @@ public final class TokenizerByWord implements TextTokenizer {
     return tokenizer.tokenize(seq);
   }
 
-  /**
-   * Returns the word token corresponding to the specified characters.
-   *
-   * @param word the characters of the word
-   *
-   * @return the corresponding word token
-   */
-  private TextToken getWordEvent(String word) {
-    return this.recycling.computeIfAbsent(word, WordToken::new);
-  }
-
-  /**
-   * Returns the space token corresponding to the specified characters.
-   *
-   * @param space the characters of the space
-   *
-   * @return the corresponding space token
-   */
-  private TextToken getSpaceEvent(String space) {
-    // preserve the actual white space used
-    TextToken token = this.recycling.get(space);
-    if (token == null) {
-      if (this.whitespace == WhiteSpaceProcessing.PRESERVE) {
-        token = new IgnorableSpaceToken(space);
-      } else {
-        token = SpaceToken.getInstance(space);
-      }
-      this.recycling.put(space, token);
-    }
-    return token;
-  }
-
 }
@@ -15,8 +15,12 @@
  */
 package org.pageseeder.diffx.load.text;
 
+import org.jspecify.annotations.Nullable;
 import org.pageseeder.diffx.config.DiffConfig;
 import org.pageseeder.diffx.config.TextGranularity;
+import org.pageseeder.diffx.token.TextToken;
+import org.pageseeder.diffx.token.impl.CharArena;
+import org.pageseeder.diffx.util.LimitedSizeCache;
 
 import java.util.Objects;
 
@@ -25,9 +29,12 @@ import java.util.Objects;
  *
  * <p>This class is designed to returned tokenizers that corresponds to the given configuration.
  *
+ * <p>The tokenizers can look up word and short text tokens in a bounded cache, so that tokens
+ * are reused across documents without unbounded growth. No cache is used unless one is specified.
+ *
  * @author Christophe Lauret
  *
- * @version 1.3.0
+ * @version 1.3.4
  * @since 0.7.0
  */
 public final class TokenizerFactory {
@@ -47,19 +54,52 @@ public final class TokenizerFactory {
    * @throws NullPointerException If the configuration is <code>null</code>.
    */
   public static TextTokenizer get(DiffConfig config) {
+    return get(config, null, null);
+  }
+
+  /**
+   * Returns the text tokenizer copying the characters of text tokens into the specified arena.
+   *
+   * <p>The tokenizers are not synchronized and the arena should only be used for one document.
+   *
+   * @param config The configuration to use.
+   * @param arena  The arena for the characters of text tokens, may be <code>null</code>.
+   *
+   * @return the corresponding tokenizer.
+   * @throws NullPointerException If the configuration is <code>null</code>.
+   */
+  public static TextTokenizer get(DiffConfig config, @Nullable CharArena arena) {
+    return get(config, arena, null);
+  }
+
+  /**
+   * Returns the text tokenizer copying the characters of text tokens into the specified arena
+   * and looking up tokens in the specified cache.
+   *
+   * <p>The cache is thread-safe and can be shared by several tokenizers, including tokenizers
+   * used concurrently, but it should only be shared by tokenizers of the same granularity.
+   *
+   * @param config The configuration to use.
+   * @param arena  The arena for the characters of text tokens, may be <code>null</code>.
+   * @param cache  The cache of text tokens, may be <code>null</code>.
+   *
+   * @return the corresponding tokenizer.
+   * @throws NullPointerException If the configuration is <code>null</code>.
+   */
+  public static TextTokenizer get(DiffConfig config, @Nullable CharArena arena, @Nullable LimitedSizeCache<String, TextToken> cache) {
     Objects.requireNonNull(config, "The config should be specified");
     TextGranularity granularity = config.granularity();
     switch (granularity) {
       case CHARACTER:
-        return new TokenizerByChar();
+        return new TokenizerByChar(arena, cache);
       case WORD:
-        return new TokenizerByWord(config.whitespace());
+        return new TokenizerByWord(config.whitespace(), arena, cache);
       case SPACE_WORD:
-        return new TokenizerBySpaceWord(config.whitespace());
+        return new TokenizerBySpaceWord(config.whitespace(), arena, cache);
       case PUNCTUATION:
-        return new TokenizerByPunctuation(config.whitespace());
+        return new TokenizerByPunctuation(config.whitespace(), arena, cache);
       case TEXT:
-        return new TokenizerByText(config.whitespace());
+        return new TokenizerByText(config.whitespace(), arena, cache);
       default:
         throw new IllegalArgumentException("Unsupported text granularity " + granularity);
     }
@@ -23,12 +23,29 @@ package org.pageseeder.diffx.load.text;
  */
 final class Tokenizers {
 
+  /**
+   * The maximum length of text tokens to look up in a shared cache.
+   */
+  static final int MAX_CACHED_LENGTH = 64;
+
   /**
    * Utility class.
    */
   private Tokenizers() {
   }
 
+  /**
+   * Indicates whether the specified character is a white space as defined by the <code>\s</code>
+   * character class of regular expressions.
+   *
+   * @param c the character to check
+   *
+   * @return <code>true</code> if it is a space, a tab, a new line, a vertical tab, a form feed or a carriage return.
+   */
+  public static boolean isRegexSpace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
   public static boolean isWhitespace(CharSequence text) {
     return getLeadingWhiteSpace(text) == text.length();
   }
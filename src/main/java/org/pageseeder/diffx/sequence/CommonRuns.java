@@ -0,0 +1,135 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.sequence;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Computes the length of the runs of equal items at the start and at the end of two sequences.
+ *
+ * <p>The methods working on arrays of integers are meant for tokens interned with a symbol table,
+ * they compare the arrays with {@link Arrays#mismatch(int[], int, int, int[], int, int)} and
+ * {@link Arrays#equals(int[], int, int, int[], int, int)} which the JVM vectorizes. The methods
+ * working on lists compare the items with {@link Object#equals(Object)}.</p>
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public final class CommonRuns {
+
+  /**
+   * The number of identifiers compared at once when looking for the common suffix.
+   */
+  private static final int BLOCK = 64;
+
+  private CommonRuns() {
+  }
+
+  /**
+   * Returns the length of the common prefix of the specified ranges.
+   *
+   * @param a    The first array of identifiers
+   * @param a0   The start of the range in the first array (inclusive)
+   * @param a1   The end of the range in the first array (exclusive)
+   * @param b    The second array of identifiers
+   * @param b0   The start of the range in the second array (inclusive)
+   * @param b1   The end of the range in the second array (exclusive)
+   *
+   * @return the number of equal identifiers at the start of both ranges.
+   */
+  public static int prefix(int[] a, int a0, int a1, int[] b, int b0, int b1) {
+    int mismatch = Arrays.mismatch(a, a0, a1, b, b0, b1);
+    return mismatch < 0 ? a1 - a0 : mismatch;
+  }
+
+  /**
+   * Returns the length of the common suffix of the specified ranges.
+   *
+   * @param a    The first array of identifiers
+   * @param a0   The start of the range in the first array (inclusive)
+   * @param a1   The end of the range in the first array (exclusive)
+   * @param b    The second array of identifiers
+   * @param b0   The start of the range in the second array (inclusive)
+   * @param b1   The end of the range in the second array (exclusive)
+   *
+   * @return the number of equal identifiers at the end of both ranges.
+   */
+  public static int suffix(int[] a, int a0, int a1, int[] b, int b0, int b1) {
+    int max = Math.min(a1 - a0, b1 - b0);
+    int common = 0;
+    // Skip whole blocks going backwards, then find the mismatch in the last block
+    while (max - common >= BLOCK && Arrays.equals(a, a1 - common - BLOCK, a1 - common, b, b1 - common - BLOCK, b1 - common)) {
+      common += BLOCK;
+    }
+    while (common < max && a[a1 - common - 1] == b[b1 - common - 1]) {
+      common++;
+    }
+    return common;
+  }
+
+  /**
+   * Returns the length of the common prefix of the specified lists.
+   *
+   * @param a The first list
+   * @param b The second list
+   *
+   * @return the number of equal items at the start of both lists.
+   */
+  public static int prefix(List<?> a, List<?> b) {
+    if (!(a instanceof RandomAccess) || !(b instanceof RandomAccess)) {
+      int common = 0;
+      Iterator<?> i = a.iterator();
+      Iterator<?> j = b.iterator();
+      while (i.hasNext() && j.hasNext() && i.next().equals(j.next())) {
+        common++;
+      }
+      return common;
+    }
+    int max = Math.min(a.size(), b.size());
+    int common = 0;
+    while (common < max && a.get(common).equals(b.get(common))) {
+      common++;
+    }
+    return common;
+  }
+
+  /**
+   * Returns the length of the common suffix of the specified lists ignoring the specified number
+   * of items at the start of the lists.
+   *
+   * @param a     The first list
+   * @param b     The second list
+   * @param start The number of items to ignore at the start of the lists
+   *
+   * @return the number of equal items at the end of both lists.
+   */
+  public static int suffix(List<?> a, List<?> b, int start) {
+    int sizeA = a.size();
+    int sizeB = b.size();
+    int max = Math.min(sizeA, sizeB) - start;
+    int common = 0;
+    while (common < max && a.get(sizeA - common - 1).equals(b.get(sizeB - common - 1))) {
+      common++;
+    }
+    return common;
+  }
+
+}
@@ -21,7 +21,8 @@ import org.pageseeder.diffx.token.EndElementToken;
 import org.pageseeder.diffx.token.StartElementToken;
 import org.pageseeder.diffx.token.XMLToken;
 
-import java.util.Iterator;
+import org.jspecify.annotations.Nullable;
+
 import java.util.List;
 
 /**
@@ -35,6 +36,10 @@ import java.util.List;
  * algorithm and incorrect results, because it could potentially take off some parts
  * that helps the Diff-X algorithm ensuring that the XML is well-formed.
  *
+ * <p>When the tokens have already been interned to integers, the identifiers can be supplied so
+ * that the common runs are found by comparing arrays of integers rather than tokens, see
+ * {@link CommonRuns}. The sub-sequences are always views of the original lists.
+ *
  * @author Christophe Lauret
  *
  * @version 1.3.4
@@ -52,6 +57,16 @@ public final class TokenListSlicer {
    */
   final List<XMLToken> sequence2;
 
+  /**
+   * The interned identifiers of the first sequence (optional).
+   */
+  final int @Nullable [] ids1;
+
+  /**
+   * The interned identifiers of the second sequence (optional).
+   */
+  final int @Nullable [] ids2;
+
   /**
    * The common start between the two sequences.
    */
@@ -72,6 +87,33 @@ public final class TokenListSlicer {
   public TokenListSlicer(List<? extends XMLToken> seq0, List<? extends XMLToken> seq1) {
     this.sequence1 = (List<XMLToken>) seq0;
     this.sequence2 = (List<XMLToken>) seq1;
+    this.ids1 = null;
+    this.ids2 = null;
+  }
+
+  /**
+   * Creates a new sequence slicer comparing the interned identifiers of the tokens.
+   *
+   * <p>The identifiers must have been produced by the same symbol table so that two tokens are
+   * equal if and only if they have the same identifier.
+   *
+   * @param seq0 The first sequence to slice.
+   * @param seq1 The second sequence to slice.
+   * @param ids0 The interned identifiers of the first sequence.
+   * @param ids1 The interned identifiers of the second sequence.
+   *
+   * @throws IllegalArgumentException If the identifiers do not have the same length as the sequences.
+   *
+   * @since 1.3.4
+   */
+  @SuppressWarnings("unchecked")
+  public TokenListSlicer(List<? extends XMLToken> seq0, List<? extends XMLToken> seq1, int[] ids0, int[] ids1) {
+    if (ids0.length != seq0.size() || ids1.length != seq1.size())
+      throw new IllegalArgumentException("Identifiers must match the sequences");
+    this.sequence1 = (List<XMLToken>) seq0;
+    this.sequence2 = (List<XMLToken>) seq1;
+    this.ids1 = ids0;
+    this.ids2 = ids1;
   }
 
   /**
@@ -95,30 +137,24 @@ public final class TokenListSlicer {
    * @throws IllegalStateException If the start buffer is not empty.
    */
   public int computeStart() throws IllegalStateException {
+    int common = this.ids1 != null && this.ids2 != null
+        ? CommonRuns.prefix(this.ids1, 0, this.ids1.length, this.ids2, 0, this.ids2.length)
+        : CommonRuns.prefix(this.sequence1, this.sequence2);
     int toBeRemoved = 0; // the number of tokens to be removed
     int depth = 0;       // the depth of the XML or number of open elements
-    Iterator<XMLToken> i = this.sequence1.iterator();
-    Iterator<XMLToken> j = this.sequence2.iterator();
-    int counter = 0;
-    // calculate the max possible index for slicing.
-    while (i.hasNext() && j.hasNext()) {
-      XMLToken token = i.next();
-      if (j.next().equals(token)) {
-        counter++;
-        // increase the depth
-        if (token instanceof StartElementToken) {
-          depth++;
-          // decrease the depth
-        } else if (token instanceof EndElementToken) {
-          depth--;
-        }
-        // if depth = 1, it is a direct child of the document element,
-        // so we can cut off the whole branch
-        if (depth == 1 || depth == 0) {
-          toBeRemoved = counter;
-        }
-      } else {
-        break;
+    for (int counter = 1; counter <= common; counter++) {
+      XMLToken token = this.sequence1.get(counter - 1);
+      // increase the depth
+      if (token instanceof StartElementToken) {
+        depth++;
+        // decrease the depth
+      } else if (token instanceof EndElementToken) {
+        depth--;
+      }
+      // if depth = 1, it is a direct child of the document element,
+      // so we can cut off the whole branch
+      if (depth == 1 || depth == 0) {
+        toBeRemoved = counter;
       }
     }
     return toBeRemoved;
@@ -136,30 +172,28 @@ public final class TokenListSlicer {
    * @throws IllegalStateException If the end buffer is not empty.
    */
   public int sliceEnd(int start) throws IllegalStateException {
+    int common;
+    if (this.ids1 != null && this.ids2 != null) {
+      int max = Math.max(Math.min(this.ids1.length, this.ids2.length) - start, 0);
+      common = CommonRuns.suffix(this.ids1, this.ids1.length - max, this.ids1.length, this.ids2, this.ids2.length - max, this.ids2.length);
+    } else {
+      common = CommonRuns.suffix(this.sequence1, this.sequence2, start);
+    }
     int depth = 0;       // the depth of the XML or number of open elements
     int toBeRemoved = 0; // number of tokens to be removed from the end
-    int counter = 0;     // number of tokens evaluated
-    int pos1 = this.sequence1.size() - 1;  // current position of the first sequence
-    int pos2 = this.sequence2.size() - 1;  // current position of the second sequence
-    while (pos1 >= start && pos2 >= start) {
-      XMLToken token = this.sequence1.get(pos1);
-      if (token.equals(this.sequence2.get(pos2))) {
-        counter++;
-        // increase the depth for close, decrease for open
-        if (token instanceof EndElementToken) {
-          depth++;
-        } else if (token instanceof StartElementToken) {
-          depth--;
-        }
-        // if depth = 1, it is a direct child of the document element,
-        // so we can cut off the whole branch
-        if (depth == 1 || depth == 0) {
-          toBeRemoved = counter;
-        }
-        pos1--;
-        pos2--;
-      } else {
-        break;
+    int last = this.sequence1.size() - 1;
+    for (int counter = 1; counter <= common; counter++) {
+      XMLToken token = this.sequence1.get(last - counter + 1);
+      // increase the depth for close, decrease for open
+      if (token instanceof EndElementToken) {
+        depth++;
+      } else if (token instanceof StartElementToken) {
+        depth--;
+      }
+      // if depth = 1, it is a direct child of the document element,
+      // so we can cut off the whole branch
+      if (depth == 1 || depth == 0) {
+        toBeRemoved = counter;
       }
     }
     return toBeRemoved;
@@ -34,10 +34,10 @@ import java.util.stream.Stream;
  * @param <T> the type of elements in the streams
  *
  * @author Christophe Lauret
- * @version 1.1.3
+ * @version 1.3.4
  * @since 1.1.3
  */
-public final class CosineSimilarity<T> implements StreamSimilarity<T> {
+public final class CosineSimilarity<T> implements StreamSimilarity<T>, VectorSimilarity {
 
   @Override
   public float score(Stream<T> a, Stream<T> b) {
@@ -70,4 +70,15 @@ public final class CosineSimilarity<T> implements StreamSimilarity<T> {
   private Map<T, Integer> toFreqMap(Stream<T> children) {
     return children.collect(Collectors.toMap( item -> item, item -> 1, Integer::sum));
   }
+
+  /**
+   * Computes the cosine similarity of the two term vectors without allocating.
+   *
+   * @since 1.3.4
+   */
+  @Override
+  public float score(TermVector a, TermVector b) {
+    return a.cosine(b);
+  }
+
 }
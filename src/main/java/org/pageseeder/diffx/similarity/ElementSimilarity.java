@@ -15,10 +15,15 @@
  */
 package org.pageseeder.diffx.similarity;
 
+import org.pageseeder.diffx.algorithm.SymbolTable;
 import org.pageseeder.diffx.token.ElementToken;
 import org.pageseeder.diffx.token.XMLToken;
 import org.pageseeder.diffx.token.XMLTokenType;
 
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Stream;
 
@@ -32,8 +37,13 @@ import java.util.stream.Stream;
  * on XML elements. For XML elements, the similarity is determined by their tag names and
  * the similarity of their children, while other token types are compared for equality.
  *
+ * <p>When the stream similarity is also a {@link VectorSimilarity}, such as {@link CosineSimilarity}
+ * or {@link JaccardSimilarity}, the text of each element is converted once into a {@link TermVector}
+ * which is cached and reused for every comparison involving that element. Vectors are kept until
+ * {@link #clear()} is called, so an instance is best used for a single diff.
+ *
  * @author Christophe Lauret
- * @version 1.2.0
+ * @version 1.3.4
  * @since 1.2.0
  */
 public class ElementSimilarity implements Similarity<XMLToken> {
@@ -50,6 +60,16 @@ public class ElementSimilarity implements Similarity<XMLToken> {
    */
   private final double k;
 
+  /**
+   * The term vectors of the elements compared so far, by identity.
+   */
+  private final Map<ElementToken, TermVector> vectors = new IdentityHashMap<>();
+
+  /**
+   * The identifiers of the terms in the vectors.
+   */
+  private SymbolTable<String> terms = new SymbolTable<>();
+
   /**
    * Constructs an instance of ElementSimilarity, which calculates similarity scores
    * for XML elements using a specified stream-based similarity metric.
@@ -72,6 +92,27 @@ public class ElementSimilarity implements Similarity<XMLToken> {
     return a.equals(b) ? 1.0f : 0;
   }
 
+  /**
+   * Returns 0 for elements with different names. When the stream similarity is a
+   * {@link VectorSimilarity}, returns its bound for the term vectors of the elements, boosted by
+   * length. Returns 1 otherwise.
+   *
+   * @since 1.3.4
+   */
+  @Override
+  public final float bound(XMLToken a, XMLToken b) {
+    if (a.getType() != XMLTokenType.ELEMENT || b.getType() != XMLTokenType.ELEMENT) return 1.0f;
+    ElementToken elementA = (ElementToken) a;
+    ElementToken elementB = (ElementToken) b;
+    if (!elementA.getStart().equals(elementB.getStart())) return 0;
+    if (!(this.similarity instanceof VectorSimilarity)) return 1.0f;
+    if (elementA.getContent().isEmpty() && elementB.getContent().isEmpty()) return 1.0f;
+    float bound = ((VectorSimilarity) this.similarity).bound(toVector(elementA), toVector(elementB));
+    if (this.k <= 0) return bound;
+    int length = Math.min(elementA.getContent().size(), elementB.getContent().size());
+    return lengthBoostedSimilarity(bound, length);
+  }
+
   private float scoreForElement(ElementToken a, ElementToken b) {
     boolean sameElementName = a.getStart().equals(b.getStart());
     // Don't bother if the first token is different
@@ -81,7 +122,9 @@ public class ElementSimilarity implements Similarity<XMLToken> {
     if (a.getContent().isEmpty() && b.getContent().isEmpty())
       return 1;
 
-    float score = this.similarity.score(toTextStream(a), toTextStream(b));
+    float score = this.similarity instanceof VectorSimilarity
+        ? ((VectorSimilarity) this.similarity).score(toVector(a), toVector(b))
+        : this.similarity.score(toTextStream(a), toTextStream(b));
     if (this.k <= 0) return score;
 
     int length = Math.min(a.getContent().size(), b.getContent().size());
@@ -97,11 +140,43 @@ public class ElementSimilarity implements Similarity<XMLToken> {
    * @param length The length of the XML element used to compute the boosting adjustment.
    * @return The length-boosted similarity score as a float, where larger lengths
    *         lead to a potentially smaller adjustment depending on the boosting factor.
+   *         The result must not decrease when the score increases.
    */
   protected float lengthBoostedSimilarity(float score, int length) {
     return (float) Math.pow(score, 1.0 / Math.pow(length, k));
   }
 
+  /**
+   * Clears the term vectors cached by this instance.
+   *
+   * @since 1.3.4
+   */
+  public void clear() {
+    synchronized (this.vectors) {
+      this.vectors.clear();
+      this.terms = new SymbolTable<>();
+    }
+  }
+
+  private TermVector toVector(ElementToken element) {
+    synchronized (this.vectors) {
+      TermVector vector = this.vectors.get(element);
+      if (vector == null) {
+        List<XMLToken> content = element.getContent();
+        int[] ids = new int[content.size()];
+        int count = 0;
+        for (XMLToken token : content) {
+          if (token.getType() == XMLTokenType.TEXT) {
+            ids[count++] = this.terms.intern(token.getValue().trim());
+          }
+        }
+        vector = TermVector.of(count == ids.length ? ids : Arrays.copyOf(ids, count));
+        this.vectors.put(element, vector);
+      }
+      return vector;
+    }
+  }
+
   private Stream<String> toTextStream(ElementToken element) {
     return element.getContent().stream()
         .filter(t -> t.getType() == XMLTokenType.TEXT)
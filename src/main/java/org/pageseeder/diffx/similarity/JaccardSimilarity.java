@@ -36,10 +36,10 @@ import java.util.stream.Stream;
  * @param <T> the type of elements in the streams
  *
  * @author Christophe Lauret
- * @version 1.1.3
+ * @version 1.3.4
  * @since 1.1.3
  */
-public final class JaccardSimilarity<T> implements StreamSimilarity<T> {
+public final class JaccardSimilarity<T> implements StreamSimilarity<T>, VectorSimilarity {
 
   @Override
   public float score(Stream<T> a,Stream<T> b) {
@@ -56,4 +56,27 @@ public final class JaccardSimilarity<T> implements StreamSimilarity<T> {
     return (float) intersectionCount / unionCount;
   }
 
+  /**
+   * Computes the Jaccard similarity of the two term vectors without allocating.
+   *
+   * @since 1.3.4
+   */
+  @Override
+  public float score(TermVector a, TermVector b) {
+    return a.jaccard(b);
+  }
+
+  /**
+   * The Jaccard index cannot exceed the ratio of the number of distinct terms in the
+   * smaller vector over the number in the larger one.
+   *
+   * @since 1.3.4
+   */
+  @Override
+  public float bound(TermVector a, TermVector b) {
+    int min = Math.min(a.size(), b.size());
+    int max = Math.max(a.size(), b.size());
+    return max == 0 ? 1.0f : (float) min / max;
+  }
+
 }
@@ -24,7 +24,7 @@ package org.pageseeder.diffx.similarity;
  * @param <T> the type of elements being compared
  *
  * @author Christophe Lauret
- * @version 1.1.3
+ * @version 1.3.4
  * @since 1.1.3
  */
 @FunctionalInterface
@@ -42,4 +42,21 @@ public interface Similarity<T> {
    */
   float score(T a, T b);
 
+  /**
+   * Returns an upper bound of the similarity score between two elements.
+   *
+   * <p>Algorithms may use this method to skip the calculation of the score when the bound is below
+   * the score they require, so implementations should only override it when the bound is much
+   * cheaper to compute than the score. The default implementation returns 1.0.
+   *
+   * @param a the first element to compare, must not be null
+   * @param b the second element to compare, must not be null
+   * @return a value greater or equal to the score of the two elements
+   *
+   * @since 1.3.4
+   */
+  default float bound(T a, T b) {
+    return 1.0f;
+  }
+
 }
@@ -16,6 +16,8 @@
 package org.pageseeder.diffx.similarity;
 
 import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.DiffContext;
+import org.pageseeder.diffx.api.DiffContextConfigurable;
 import org.pageseeder.diffx.api.DiffHandler;
 import org.pageseeder.diffx.api.Operator;
 import org.pageseeder.diffx.token.Token;
@@ -28,22 +30,53 @@ import java.util.List;
  * optimal alignment by maximizing similarity, considering operations like match, deletion,
  * and insertion.
  *
+ * <p>The decisions are stored in a matrix of bytes as long as the number of cells does not exceed
+ * the matrix threshold. Above it, the problem is split in the middle using Hirschberg's method so
+ * that only two rows of scores are kept in memory, until the sub-problems are small enough.</p>
+ *
+ * <p>The similarity is only computed for pairs which can reach the minimum threshold according to
+ * {@link Similarity#bound(Object, Object)}. An optional diagonal band further restricts the pairs
+ * which can be matched to those whose positions are close.</p>
+ *
+ * <p>The context is checked for every row of scores, including the rows computed to split
+ * the problem.</p>
+ *
  * @param <T> The type of token this algorithm operates on, which must extend the {@code Token} class.
  *
  * @author Christophe Lauret
- * @version 1.3.3
+ * @version 1.3.4
  * @since 1.1.2
  */
-public final class SimilarityWagnerFischerAlgorithm<T extends Token> implements DiffAlgorithm<T> {
+public final class SimilarityWagnerFischerAlgorithm<T extends Token> implements DiffAlgorithm<T>, DiffContextConfigurable {
 
   // Define constants for operations (easily fits in a byte)
   private static final byte MATCH = 0;
   private static final byte DELETE = 1;
   private static final byte INSERT = 2;
 
+  /**
+   * The default maximum number of cells in the decision matrix (4M).
+   */
+  public static final int DEFAULT_MATRIX_THRESHOLD = 1 << 22;
+
   private final Similarity<T> similarity;
   private final float minThreshold;
 
+  /**
+   * The maximum number of cells of the decision matrix.
+   */
+  private int matrixThreshold = DEFAULT_MATRIX_THRESHOLD;
+
+  /**
+   * The width of the diagonal band, negative to compare all pairs.
+   */
+  private int band = -1;
+
+  /**
+   * The context checked while computing the diff.
+   */
+  private DiffContext context = DiffContext.NONE;
+
   /**
    * Creates a new Wagner-Fischer algorithm for computing the differences between the two.
    *
@@ -55,6 +88,49 @@ public final class SimilarityWagnerFischerAlgorithm<T extends Token> implements
     this.minThreshold = minThreshold;
   }
 
+  /**
+   * Set the maximum number of cells of the decision matrix.
+   *
+   * <p>Larger problems are split in linear space, which computes some similarity scores
+   * more than once.
+   *
+   * @param matrixThreshold The maximum number of cells of the decision matrix.
+   *
+   * @since 1.3.4
+   */
+  public void setMatrixThreshold(int matrixThreshold) {
+    this.matrixThreshold = matrixThreshold;
+  }
+
+  /**
+   * Set the width of the diagonal band outside which tokens are never matched.
+   *
+   * <p>A token at position <i>i</i> can only be matched with a token at position <i>j</i> when
+   * <i>j - i</i> is within the band, widened by the difference of length of the sequences so that
+   * both ends of the sequences remain reachable. A negative value compares all pairs, which is
+   * the default.
+   *
+   * @param band The width of the band or a negative value to disable it
+   *
+   * @since 1.3.4
+   */
+  public void setBand(int band) {
+    this.band = band;
+  }
+
+  /**
+   * Set the context checked while computing the diff so that it stops when the context is
+   * cancelled or its deadline is exceeded.
+   *
+   * @param context The context of the diff
+   *
+   * @since 1.3.4
+   */
+  @Override
+  public void setContext(DiffContext context) {
+    this.context = context;
+  }
+
   @Override
   public void diff(List<? extends T> from, List<? extends T> to, DiffHandler<T> handler) {
     // Early termination for empty lists
@@ -85,8 +161,8 @@ public final class SimilarityWagnerFischerAlgorithm<T extends Token> implements
       return;
     }
 
-    Instance<T> instance = new Instance<>(from, to);
-    instance.process(handler, this.similarity, this.minThreshold);
+    Instance<T> instance = new Instance<>(from, to, this.similarity, this.minThreshold, this.band, this.context);
+    instance.process(handler, this.matrixThreshold);
   }
 
   /**
@@ -99,34 +175,78 @@ public final class SimilarityWagnerFischerAlgorithm<T extends Token> implements
 
     private final List<? extends T> from;
     private final List<? extends T> to;
+    private final Similarity<T> similarity;
+    private final float minThreshold;
+    private final DiffContext context;
 
-    Instance(List<? extends T> from, List<? extends T> to) {
+    /**
+     * The lowest and highest values of <code>j - i</code> for which tokens can be matched.
+     */
+    private final int low;
+    private final int high;
+
+    Instance(List<? extends T> from, List<? extends T> to, Similarity<T> similarity, float minThreshold, int band, DiffContext context) {
       this.from = from;
       this.to = to;
+      this.similarity = similarity;
+      this.minThreshold = minThreshold;
+      this.context = context;
+      int delta = to.size() - from.size();
+      this.low = band < 0 ? Integer.MIN_VALUE : Math.min(0, delta) - band;
+      this.high = band < 0 ? Integer.MAX_VALUE : Math.max(0, delta) + band;
+    }
+
+    public void process(DiffHandler<T> handler, int matrixThreshold) {
+      process(handler, matrixThreshold, 0, this.from.size(), 0, this.to.size());
+    }
+
+    /**
+     * Processes the specified ranges, splitting them in linear space while they are too large
+     * for the decision matrix.
+     */
+    private void process(DiffHandler<T> handler, int matrixThreshold, int a0, int a1, int b0, int b1) {
+      if (a1 - a0 <= 1 || (long) (a1 - a0 + 1) * (b1 - b0 + 1) <= matrixThreshold) {
+        byte[][] decisions = computeDecisions(a0, a1, b0, b1);
+        handle(decisions, handler, a0, a1, b0, b1);
+        return;
+      }
+      int mid = (a0 + a1) >>> 1;
+      float[] forward = forward(a0, mid, b0, b1);
+      float[] backward = backward(mid, a1, b0, b1);
+      int split = 0;
+      for (int k = 1; k < forward.length; k++) {
+        if (forward[k] + backward[k] > forward[split] + backward[split]) split = k;
+      }
+      process(handler, matrixThreshold, a0, mid, b0, b0 + split);
+      process(handler, matrixThreshold, mid, a1, b0 + split, b1);
     }
 
-    public void process(DiffHandler<T> handler, Similarity<T> similarity, float minThreshold) {
-      byte[][] decisions = computeDecisions(similarity, minThreshold);
-      handle(decisions, handler);
+    /**
+     * Returns the similarity score of the tokens at the specified positions or a negative value
+     * if they cannot be matched.
+     */
+    private float score(int i, int j) {
+      int diagonal = j - i;
+      if (diagonal < this.low || diagonal > this.high) return -1;
+      T a = this.from.get(i);
+      T b = this.to.get(j);
+      if (this.similarity.bound(a, b) < this.minThreshold) return -1;
+      float score = this.similarity.score(a, b);
+      return score >= this.minThreshold ? score : -1;
     }
 
     /**
      * Calculates the decision matrix required for identifying optimal
-     * operations (insert, delete, or match) between two sequences based
-     * on similarity scores and a minimum similarity threshold.
-     *
-     * @param similarity A function to compute the similarity score
-     *                           between elements of the two sequences.
-     * @param minThreshold       A minimum similarity score required to
-     *                           consider two elements as matching.
+     * operations (insert, delete, or match) between the specified ranges
+     * of the two sequences based on similarity scores.
      *
      * @return A 2D byte array representing decisions for each pair of elements
-     *         of the sequences. The values indicate the operations:
+     *         of the ranges. The values indicate the operations:
      *         MATCH, DELETE, or INSERT.
      */
-    private byte[][] computeDecisions(Similarity<T> similarity, float minThreshold) {
-      final int fromSize = from.size();
-      final int toSize = to.size();
+    private byte[][] computeDecisions(int a0, int a1, int b0, int b1) {
+      final int fromSize = a1 - a0;
+      final int toSize = b1 - b0;
 
       // We only need two rows for the score matrix
       float[] prevRow = new float[toSize + 1];
@@ -147,17 +267,18 @@ public final class SimilarityWagnerFischerAlgorithm<T extends Token> implements
 
       // Fill the score matrix one row at a time, starting from the end
       for (int i = fromSize - 1; i >= 0; i--) {
+        this.context.check();
         // Start from the end of the second sequence
         for (int j = toSize - 1; j >= 0; j--) {
           // Calculate score on demand
-          float score = similarity.score(from.get(i), to.get(j));
+          float score = score(a0 + i, b0 + j);
 
-          float matchScore = prevRow[j+1] + (score >= minThreshold ? score : 0);
+          float matchScore = prevRow[j+1] + (score >= 0 ? score : 0);
           float deleteScore = prevRow[j];
           float insertScore = currRow[j+1];
 
           // Choose the action with the highest score
-          if (matchScore >= deleteScore && matchScore >= insertScore && score >= minThreshold) {
+          if (matchScore >= deleteScore && matchScore >= insertScore && score >= 0) {
             currRow[j] = matchScore;
             decisions[i][j] = MATCH;
           } else if (deleteScore >= insertScore) {
@@ -178,21 +299,65 @@ public final class SimilarityWagnerFischerAlgorithm<T extends Token> implements
       return decisions;
     }
 
+    /**
+     * Computes the best scores of the first range with every prefix of the second range.
+     */
+    private float[] forward(int a0, int a1, int b0, int b1) {
+      final int toSize = b1 - b0;
+      float[] prevRow = new float[toSize + 1];
+      float[] currRow = new float[toSize + 1];
+      for (int i = a0; i < a1; i++) {
+        this.context.check();
+        currRow[0] = 0;
+        for (int j = 0; j < toSize; j++) {
+          float score = score(i, b0 + j);
+          float best = Math.max(prevRow[j + 1], currRow[j]);
+          currRow[j + 1] = score >= 0 ? Math.max(best, prevRow[j] + score) : best;
+        }
+        float[] temp = prevRow;
+        prevRow = currRow;
+        currRow = temp;
+      }
+      return prevRow;
+    }
+
+    /**
+     * Computes the best scores of the first range with every suffix of the second range.
+     */
+    private float[] backward(int a0, int a1, int b0, int b1) {
+      final int toSize = b1 - b0;
+      float[] prevRow = new float[toSize + 1];
+      float[] currRow = new float[toSize + 1];
+      for (int i = a1 - 1; i >= a0; i--) {
+        this.context.check();
+        currRow[toSize] = 0;
+        for (int j = toSize - 1; j >= 0; j--) {
+          float score = score(i, b0 + j);
+          float best = Math.max(prevRow[j], currRow[j + 1]);
+          currRow[j] = score >= 0 ? Math.max(best, prevRow[j + 1] + score) : best;
+        }
+        float[] temp = prevRow;
+        prevRow = currRow;
+        currRow = temp;
+      }
+      return prevRow;
+    }
+
     /**
      * Processes the decision matrix to determine and execute operations (match, delete, or insert)
-     * between elements in two sequences.
+     * between elements in the specified ranges of the two sequences.
      *
-     * @param decisions A 2D byte array representing decisions for each pair of elements in the sequences.
+     * @param decisions A 2D byte array representing decisions for each pair of elements in the ranges.
      *                  Each value indicates the operation to perform: MATCH, DELETE, or INSERT.
      * @param handler   The object responsible for handling the diff operations.
      */
-    private void handle(byte[][] decisions, DiffHandler<T> handler) {
-      int i = 0;
-      int j = 0;
+    private void handle(byte[][] decisions, DiffHandler<T> handler, int a0, int a1, int b0, int b1) {
+      int i = a0;
+      int j = b0;
 
       // Start from the beginning and follow decisions
-      while (i < from.size() && j < to.size()) {
-        byte decision = decisions[i][j];
+      while (i < a1 && j < b1) {
+        byte decision = decisions[i - a0][j - b0];
         if (decision == MATCH) {
           handler.handle(Operator.MATCH, to.get(j));
           i++;
@@ -207,15 +372,15 @@ public final class SimilarityWagnerFischerAlgorithm<T extends Token> implements
       }
 
       // We've exhausted 'to', delete remaining from 'from'
-      while (i < from.size()) {
+      while (i < a1) {
         handler.handle(Operator.DEL, from.get(i));
         i++;
       }
       // We've exhausted 'from', insert remaining from 'to'
-      while (j < to.size()) {
+      while (j < b1) {
         handler.handle(Operator.INS, to.get(j));
         j++;
       }
     }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.similarity;
+
+import java.util.Arrays;
+
+/**
+ * A sparse vector of term frequencies.
+ *
+ * <p>Terms are identified by integers, typically interned with a symbol table, and stored in
+ * increasing order with their counts so that two vectors can be compared by merging them without
+ * any allocation or boxing.</p>
+ *
+ * <p>Instances are immutable.</p>
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ *
+ * @see VectorSimilarity
+ */
+public final class TermVector {
+
+  /**
+   * A vector without any term.
+   */
+  public static final TermVector EMPTY = new TermVector(new int[0], new int[0]);
+
+  /**
+   * The term identifiers in increasing order.
+   */
+  private final int[] terms;
+
+  /**
+   * The number of occurrences of each term.
+   */
+  private final int[] counts;
+
+  /**
+   * The sum of the squares of the counts.
+   */
+  private final long squares;
+
+  private TermVector(int[] terms, int[] counts) {
+    this.terms = terms;
+    this.counts = counts;
+    long sum = 0;
+    for (int count : counts) sum += (long) count * count;
+    this.squares = sum;
+  }
+
+  /**
+   * Creates the vector counting the occurrences of the specified terms.
+   *
+   * @param ids The identifiers of the terms in any order, the array is not modified.
+   *
+   * @return the corresponding vector
+   */
+  public static TermVector of(int[] ids) {
+    if (ids.length == 0) return EMPTY;
+    int[] sorted = ids.clone();
+    Arrays.sort(sorted);
+    int[] terms = new int[sorted.length];
+    int[] counts = new int[sorted.length];
+    int size = 0;
+    for (int i = 0; i < sorted.length; i++) {
+      if (size > 0 && terms[size - 1] == sorted[i]) {
+        counts[size - 1]++;
+      } else {
+        terms[size] = sorted[i];
+        counts[size++] = 1;
+      }
+    }
+    return new TermVector(Arrays.copyOf(terms, size), Arrays.copyOf(counts, size));
+  }
+
+  /**
+   * @return the number of distinct terms.
+   */
+  public int size() {
+    return this.terms.length;
+  }
+
+  /**
+   * Returns the cosine of the angle between this vector and the specified vector.
+   *
+   * <p>If either vector is empty, the score is 1.</p>
+   *
+   * @param other The vector to compare with
+   *
+   * @return a value between 0 and 1
+   */
+  public float cosine(TermVector other) {
+    if (this.squares == 0 || other.squares == 0) return 1.0f;
+    long dotProduct = 0;
+    int i = 0;
+    int j = 0;
+    while (i < this.terms.length && j < other.terms.length) {
+      if (this.terms[i] < other.terms[j]) {
+        i++;
+      } else if (this.terms[i] > other.terms[j]) {
+        j++;
+      } else {
+        dotProduct += (long) this.counts[i++] * other.counts[j++];
+      }
+    }
+    return (float) (dotProduct / (Math.sqrt(this.squares) * Math.sqrt(other.squares)));
+  }
+
+  /**
+   * Returns the Jaccard index of the distinct terms of this vector and the specified vector,
+   * that is the number of terms in both vectors over the number of terms in either vector.
+   *
+   * @param other The vector to compare with
+   *
+   * @return a value between 0 and 1
+   */
+  public float jaccard(TermVector other) {
+    int intersection = 0;
+    int i = 0;
+    int j = 0;
+    while (i < this.terms.length && j < other.terms.length) {
+      if (this.terms[i] < other.terms[j]) {
+        i++;
+      } else if (this.terms[i] > other.terms[j]) {
+        j++;
+      } else {
+        intersection++;
+        i++;
+        j++;
+      }
+    }
+    int union = this.terms.length + other.terms.length - intersection;
+    return (float) intersection / union;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder out = new StringBuilder("{");
+    for (int i = 0; i < this.terms.length; i++) {
+      if (i > 0) out.append(", ");
+      out.append(this.terms[i]).append('=').append(this.counts[i]);
+    }
+    return out.append('}').toString();
+  }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.similarity;
+
+/**
+ * Calculates the similarity between two term vectors.
+ *
+ * <p>Stream similarities that only depend on the frequency of each item, rather than on the order
+ * of the items, can implement this interface so that the vectors can be computed once and reused
+ * for every comparison, see {@link ElementSimilarity}.</p>
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+@FunctionalInterface
+public interface VectorSimilarity {
+
+  /**
+   * Calculates the similarity score between two term vectors.
+   *
+   * @param a the first vector
+   * @param b the second vector
+   * @return a float value between 0.0 and 1.0 representing the similarity score
+   */
+  float score(TermVector a, TermVector b);
+
+  /**
+   * Returns an upper bound of the similarity score between two term vectors.
+   *
+   * <p>The default implementation returns 1.0.
+   *
+   * @param a the first vector
+   * @param b the second vector
+   * @return a value greater or equal to the score of the two vectors
+   */
+  default float bound(TermVector a, TermVector b) {
+    return 1.0f;
+  }
+
+}
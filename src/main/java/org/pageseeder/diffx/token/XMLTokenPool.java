@@ -0,0 +1,112 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.token;
+
+import org.pageseeder.diffx.util.LimitedSizeCache;
+
+/**
+ * A bounded pool of element and attribute tokens which can be shared by factories across
+ * loads and threads.
+ *
+ * <p>Documents usually repeat the same element names and attributes many times. When a pool is
+ * specified, the {@link XMLTokenFactory} returns the same instance for equal tokens so that only
+ * one instance is retained in memory, and token comparisons are resolved by identity.
+ *
+ * <p>The tokens are kept in a {@link LimitedSizeCache}, so that lookups are striped and the least
+ * recently used tokens are evicted when the pool is full. An evicted token remains valid, it is
+ * simply no longer shared.
+ *
+ * <p>This class is thread-safe.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public final class XMLTokenPool {
+
+  /**
+   * The default maximum number of tokens in the pool.
+   */
+  public static final int DEFAULT_MAXIMUM_SIZE = 1 << 16;
+
+  /**
+   * The pooled tokens.
+   */
+  private final LimitedSizeCache<XMLToken, XMLToken> tokens;
+
+  /**
+   * Creates a new pool with the default maximum size.
+   */
+  public XMLTokenPool() {
+    this(DEFAULT_MAXIMUM_SIZE);
+  }
+
+  /**
+   * Creates a new pool.
+   *
+   * @param maximumSize The maximum number of tokens in the pool.
+   *
+   * @throws IllegalArgumentException If the maximum size is not strictly positive.
+   */
+  public XMLTokenPool(int maximumSize) {
+    this.tokens = new LimitedSizeCache<>(maximumSize);
+  }
+
+  /**
+   * Returns the pooled token equal to the specified token, adding it to the pool if there is none.
+   *
+   * @param token The token to intern
+   * @param <T>   The type of token
+   *
+   * @return The pooled instance equal to the specified token.
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends XMLToken> T intern(T token) {
+    XMLToken pooled = this.tokens.getOrCreate(token, t -> t);
+    // Equal tokens are necessarily of the same kind but may be different implementations
+    return token.getClass() == pooled.getClass() ? (T) pooled : token;
+  }
+
+  /**
+   * @return The number of tokens currently in the pool.
+   */
+  public int size() {
+    return this.tokens.size();
+  }
+
+  /**
+   * @return The maximum number of tokens in the pool.
+   */
+  public int maximumSize() {
+    return this.tokens.maxSize();
+  }
+
+  /**
+   * @return The cache holding the tokens, to access its statistics.
+   */
+  public LimitedSizeCache<XMLToken, XMLToken> cache() {
+    return this.tokens;
+  }
+
+  /**
+   * Removes all the tokens from the pool.
+   */
+  public void clear() {
+    this.tokens.clear();
+  }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.token.impl;
+
+import java.util.Objects;
+
+/**
+ * An arena of characters shared by the text tokens of a document.
+ *
+ * <p>The characters of each token are copied into large chunks of memory so that a token only needs
+ * to keep a reference to the chunk, an offset and a length instead of its own string. Strings are
+ * only created when the characters of a token are requested.
+ *
+ * <p>Chunks are never resized, so tokens created from this arena remain valid as it grows. Text
+ * longer than a chunk is given its own array.
+ *
+ * <p>An arena is intended to be used for a single document. This class is not synchronized.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ *
+ * @see CharSliceToken
+ */
+public final class CharArena {
+
+  /**
+   * The default size of chunks in characters.
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+  /**
+   * The size of chunks in characters.
+   */
+  private final int chunkSize;
+
+  /**
+   * The current chunk.
+   */
+  private char[] chunk;
+
+  /**
+   * The number of characters used in the current chunk.
+   */
+  private int used = 0;
+
+  /**
+   * The total number of characters in this arena.
+   */
+  private long length = 0;
+
+  /**
+   * Creates a new arena using the default chunk size.
+   */
+  public CharArena() {
+    this(DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Creates a new arena.
+   *
+   * @param chunkSize The size of chunks in characters.
+   *
+   * @throws IllegalArgumentException If the chunk size is not strictly positive.
+   */
+  public CharArena(int chunkSize) {
+    if (chunkSize <= 0) throw new IllegalArgumentException("The chunk size must be strictly positive");
+    this.chunkSize = chunkSize;
+    this.chunk = new char[chunkSize];
+  }
+
+  /**
+   * Copies the specified characters into this arena and returns a token for them.
+   *
+   * @param text The text
+   *
+   * @return A new token for the characters
+   *
+   * @throws NullPointerException If the text is <code>null</code>.
+   */
+  public CharSliceToken token(CharSequence text) {
+    return token(text, 0, text.length());
+  }
+
+  /**
+   * Copies the specified range of characters into this arena and returns a token for them.
+   *
+   * @param text  The text
+   * @param start The index of the first character
+   * @param end   The index after the last character
+   *
+   * @return A new token for the characters
+   *
+   * @throws NullPointerException      If the text is <code>null</code>.
+   * @throws IndexOutOfBoundsException If the range is not within the text.
+   */
+  public CharSliceToken token(CharSequence text, int start, int end) {
+    Objects.checkFromToIndex(start, end, text.length());
+    int count = end - start;
+    char[] target;
+    int offset;
+    if (count > this.chunkSize - this.used) {
+      if (count > this.chunkSize / 2) {
+        // Large text gets its own array so that the current chunk can still be filled
+        target = new char[count];
+        offset = 0;
+      } else {
+        this.chunk = new char[this.chunkSize];
+        this.used = 0;
+        target = this.chunk;
+        offset = 0;
+      }
+    } else {
+      target = this.chunk;
+      offset = this.used;
+    }
+    copy(text, start, end, target, offset);
+    if (target == this.chunk) this.used += count;
+    this.length += count;
+    return new CharSliceToken(target, offset, count);
+  }
+
+  /**
+   * @return The total number of characters copied into this arena.
+   */
+  public long length() {
+    return this.length;
+  }
+
+  private static void copy(CharSequence text, int start, int end, char[] target, int offset) {
+    if (text instanceof String) {
+      ((String) text).getChars(start, end, target, offset);
+    } else if (text instanceof StringBuilder) {
+      ((StringBuilder) text).getChars(start, end, target, offset);
+    } else {
+      for (int i = start; i < end; i++) {
+        target[offset++] = text.charAt(i);
+      }
+    }
+  }
+
+}
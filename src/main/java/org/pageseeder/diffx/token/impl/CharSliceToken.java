@@ -0,0 +1,177 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.token.impl;
+
+import org.jspecify.annotations.Nullable;
+import org.pageseeder.diffx.token.TextToken;
+import org.pageseeder.diffx.token.XMLToken;
+import org.pageseeder.xmlwriter.XMLWriter;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+
+/**
+ * A text token referencing a range of characters in a {@link CharArena}.
+ *
+ * <p>This token is equivalent to a {@link CharactersToken} with the same characters: they are
+ * equal and have the same hash code, but the characters are only turned into a string when
+ * {@link #getCharacters()} is called.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ *
+ * @see CharArena
+ */
+public final class CharSliceToken extends TokenBase implements TextToken {
+
+  /**
+   * The array holding the characters.
+   */
+  private final char[] chars;
+
+  /**
+   * The index of the first character.
+   */
+  private final int offset;
+
+  /**
+   * The number of characters.
+   */
+  private final int length;
+
+  /**
+   * The hashcode, same as a characters token.
+   */
+  private final int hashCode;
+
+  /**
+   * Creates a new token over the specified characters.
+   *
+   * @param chars  The array holding the characters
+   * @param offset The index of the first character
+   * @param length The number of characters
+   */
+  CharSliceToken(char[] chars, int offset, int length) {
+    this.chars = chars;
+    this.offset = offset;
+    this.length = length;
+    int hash = 0;
+    for (int i = offset; i < offset + length; i++) {
+      hash = 31 * hash + chars[i];
+    }
+    this.hashCode = 13 * 47 + hash;
+  }
+
+  /**
+   * @return The number of characters in this token.
+   */
+  public int length() {
+    return this.length;
+  }
+
+  @Override
+  public int hashCode() {
+    return this.hashCode;
+  }
+
+  /**
+   * Returns <code>true</code> if the token is a text token with the same characters.
+   *
+   * @param token The token to compare with this token.
+   *
+   * @return <code>true</code> if considered equal; <code>false</code> otherwise.
+   */
+  @Override
+  public boolean equals(@Nullable XMLToken token) {
+    if (this == token) return true;
+    if (token instanceof CharSliceToken) {
+      CharSliceToken slice = (CharSliceToken) token;
+      if (slice.hashCode != this.hashCode || slice.length != this.length) return false;
+      for (int i = 0; i < this.length; i++) {
+        if (this.chars[this.offset + i] != slice.chars[slice.offset + i]) return false;
+      }
+      return true;
+    }
+    if (token instanceof CharactersTokenBase && token.hashCode() != this.hashCode) return false;
+    if (!(token instanceof TextToken)) return false;
+    return contentEquals(((TextToken) token).getCharacters());
+  }
+
+  /**
+   * Indicates whether this token has the same characters as the specified sequence.
+   *
+   * @param seq The characters to compare with
+   *
+   * @return <code>true</code> if the characters are the same; <code>false</code> otherwise.
+   */
+  public boolean contentEquals(CharSequence seq) {
+    return contentEquals(seq, 0, seq.length());
+  }
+
+  /**
+   * Indicates whether this token has the same characters as the specified range.
+   *
+   * @param seq   The characters to compare with
+   * @param start The index of the first character in the sequence
+   * @param end   The index after the last character in the sequence
+   *
+   * @return <code>true</code> if the characters are the same; <code>false</code> otherwise.
+   */
+  public boolean contentEquals(CharSequence seq, int start, int end) {
+    if (end - start != this.length) return false;
+    for (int i = 0; i < this.length; i++) {
+      if (this.chars[this.offset + i] != seq.charAt(start + i)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns a new string with the characters of this token.
+   *
+   * @return The characters that this token represents.
+   */
+  @Override
+  public String getCharacters() {
+    return new String(this.chars, this.offset, this.length);
+  }
+
+  @Override
+  public boolean isWhitespace() {
+    for (int i = this.offset; i < this.offset + this.length; i++) {
+      if (!Character.isWhitespace(this.chars[i])) return false;
+    }
+    return true;
+  }
+
+  @Override
+  public void toXML(XMLWriter xml) throws IOException {
+    xml.writeText(this.chars, this.offset, this.length);
+  }
+
+  @Override
+  public void toXML(XMLStreamWriter xml) throws XMLStreamException {
+    xml.writeCharacters(this.chars, this.offset, this.length);
+  }
+
+  @Override
+  public String toString() {
+    return "\"" + getCharacters() + '"';
+  }
+
+}
@@ -31,7 +31,7 @@ import java.util.Objects;
  * @author Christophe Lauret
  *
  * @since 0.9.0
- * @version 1.2.0
+ * @version 1.3.4
  */
 public abstract class CharactersTokenBase extends TokenBase implements TextToken {
 
@@ -54,7 +54,7 @@ public abstract class CharactersTokenBase extends TokenBase implements TextToken
    */
   protected CharactersTokenBase(CharSequence seq) {
     this.characters = Objects.requireNonNull(seq.toString(), "The characters cannot be null, use \"\"");
-    this.hashCode = toHashCode(seq);
+    this.hashCode = toHashCode(this.characters);
   }
 
   @Override
@@ -73,6 +73,8 @@ public abstract class CharactersTokenBase extends TokenBase implements TextToken
   public final boolean equals(@Nullable XMLToken token) {
     if (this == token)
       return true;
+    if (token instanceof CharSliceToken)
+      return token.hashCode() == this.hashCode && ((CharSliceToken) token).contentEquals(this.characters);
     if (!(token instanceof TextToken))
       return false;
     TextToken ce = (TextToken) token;
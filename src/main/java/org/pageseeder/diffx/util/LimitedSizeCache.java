@@ -15,8 +15,11 @@
  */
 package org.pageseeder.diffx.util;
 
+import org.jspecify.annotations.Nullable;
+
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 /**
@@ -26,40 +29,62 @@ import java.util.function.Function;
  * when the number of entries exceeds the specified maximum size. A factory function is used to generate values
  * when they are not present in the cache.
  *
+ * <p>This class is thread-safe. Large caches are divided into segments guarded by their own lock, the maximum
+ * size is divided evenly between segments and the least recently used entry of a segment is evicted when that
+ * segment is full.
+ *
+ * <p>The cache keeps track of the number of hits, misses and evictions.
+ *
  * @param <K> the type of keys maintained by this cache
  * @param <V> the type of mapped values
  *
  * @author Christophe Lauret
  *
  * @since 1.3.0
- * @version 1.3.0
+ * @version 1.3.4
  */
 public class LimitedSizeCache<K, V> {
+
+  /**
+   * The number of segments for large caches (must be a power of 2).
+   */
+  private static final int SEGMENTS = 16;
+
+  /**
+   * Caches smaller than this use a single segment.
+   */
+  private static final int MIN_SEGMENTED_SIZE = 256;
+
   private final int maxSize;
-  private final Map<K, V> cache;
+  private final Segment<K, V>[] segments;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
 
   /**
    * Constructs a limited size cache with a specified maximum size and a factory function to create values.
    * The cache automatically evicts the least recently used entry when the number of entries exceeds the maximum size.
    *
    * @param maxSize      the maximum number of entries the cache can hold
+   *
+   * @throws IllegalArgumentException if the maximum size is not strictly positive
    */
+  @SuppressWarnings({"unchecked", "rawtypes"})
   public LimitedSizeCache(int maxSize) {
+    if (maxSize <= 0) throw new IllegalArgumentException("The maximum size must be strictly positive");
     this.maxSize = maxSize;
-
-    // Use LinkedHashMap with access-order to implement LRU behavior
-    this.cache = new LinkedHashMap<>(16, 0.75f, true) {
-      @Override
-      protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
-        return size() > LimitedSizeCache.this.maxSize;
-      }
-    };
+    int count = maxSize < MIN_SEGMENTED_SIZE ? 1 : SEGMENTS;
+    this.segments = new Segment[count];
+    for (int i = 0; i < count; i++) {
+      this.segments[i] = new Segment<>(maxSize / count, this.evictions);
+    }
   }
 
   /**
    * Retrieves a value associated with the given key from the cache, or creates it using the provided
    * factory function if it is not present. If the cache has reached its maximum size and the key is
-   * not present, the value will be created using the factory but will not be stored in the cache.
+   * not present, the least recently used entry is evicted to store the new value.
    *
    * @param key          The key whose associated value is to be retrieved or created.
    * @param valueFactory A function that generates a value for the key if it is not already present.
@@ -67,30 +92,138 @@ public class LimitedSizeCache<K, V> {
    * @return The value associated with the key, either retrieved from the cache or created using the factory function.
    */
   public V getOrCreate(K key, Function<K, V> valueFactory) {
-    // Check if the cache is at capacity and key is not present
-    if (cache.size() >= maxSize && !cache.containsKey(key)) {
-      // At capacity and key not present - create but don't store
-      return valueFactory.apply(key);
-    } else {
-      // Either the cache has space or key is already present
-      return cache.computeIfAbsent(key, valueFactory);
+    Segment<K, V> segment = segment(key);
+    synchronized (segment) {
+      V value = segment.get(key);
+      if (value != null) {
+        this.hits.increment();
+        return value;
+      }
+      this.misses.increment();
+      value = valueFactory.apply(key);
+      segment.put(key, value);
+      return value;
     }
   }
 
+  /**
+   * Retrieves the value associated with the given key from the cache.
+   *
+   * @param key The key whose associated value is to be retrieved.
+   *
+   * @return The value associated with the key or <code>null</code> if not in the cache.
+   */
+  public @Nullable V get(K key) {
+    Segment<K, V> segment = segment(key);
+    V value;
+    synchronized (segment) {
+      value = segment.get(key);
+    }
+    if (value != null) this.hits.increment();
+    else this.misses.increment();
+    return value;
+  }
+
   /**
    * Get the current size of the cache
    *
    * @return the size of the cache
    */
   public int size() {
-    return cache.size();
+    int size = 0;
+    for (Segment<K, V> segment : this.segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  /**
+   * @return the maximum number of entries the cache can hold
+   */
+  public int maxSize() {
+    return this.maxSize;
+  }
+
+  /**
+   * @return the number of times a value was found in the cache
+   */
+  public long hitCount() {
+    return this.hits.sum();
+  }
+
+  /**
+   * @return the number of times a value was not found in the cache
+   */
+  public long missCount() {
+    return this.misses.sum();
+  }
+
+  /**
+   * @return the number of entries evicted to make room for new ones
+   */
+  public long evictionCount() {
+    return this.evictions.sum();
+  }
+
+  /**
+   * @return the ratio of hits to requests, or 1 if there was no request
+   */
+  public double hitRate() {
+    long hits = hitCount();
+    long requests = hits + missCount();
+    return requests == 0 ? 1.0 : (double) hits / requests;
   }
 
   /**
    * Clear all entries from the cache
    */
   public void clear() {
-    cache.clear();
+    for (Segment<K, V> segment : this.segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
   }
-}
 
+  @Override
+  public String toString() {
+    return "LimitedSizeCache{size=" + size() + ", maxSize=" + this.maxSize + ", hits=" + hitCount()
+        + ", misses=" + missCount() + ", evictions=" + evictionCount() + '}';
+  }
+
+  private Segment<K, V> segment(K key) {
+    int hash = key.hashCode();
+    return this.segments[(hash ^ (hash >>> 16)) & (this.segments.length - 1)];
+  }
+
+  /**
+   * A segment of the cache using a LinkedHashMap with access-order to implement LRU behavior.
+   *
+   * <p>Callers must synchronize on the segment.
+   */
+  private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int maxSize;
+
+    private final transient LongAdder evictions;
+
+    Segment(int maxSize, LongAdder evictions) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+      this.evictions = evictions;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      if (size() > this.maxSize) {
+        this.evictions.increment();
+        return true;
+      }
+      return false;
+    }
+  }
+}
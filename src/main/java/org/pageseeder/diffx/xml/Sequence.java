@@ -31,7 +31,7 @@ import java.util.*;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.3
+ * @version 1.3.4
  * @since 0.7
  */
 public final class Sequence extends AbstractList<XMLToken> implements List<XMLToken>, RandomAccess {
@@ -46,6 +46,11 @@ public final class Sequence extends AbstractList<XMLToken> implements List<XMLTo
    */
   private final List<XMLToken> tokens;
 
+  /**
+   * The fingerprints of the subtrees in this sequence if computed.
+   */
+  private @Nullable SubtreeFingerprints fingerprints;
+
   /**
    * Creates a new token sequence.
    */
@@ -293,6 +298,29 @@ public final class Sequence extends AbstractList<XMLToken> implements List<XMLTo
     return this.namespaces;
   }
 
+  /**
+   * Returns the fingerprints of the subtrees in this sequence.
+   *
+   * <p>Fingerprints are computed by the loaders when fingerprinting is enabled, or can be set
+   * using {@link #setFingerprints(SubtreeFingerprints)}. Since they are not updated when tokens
+   * are modified, this method returns <code>null</code> if the number of tokens has changed.
+   *
+   * @return the fingerprints of the subtrees or <code>null</code> if not available.
+   */
+  public @Nullable SubtreeFingerprints getFingerprints() {
+    SubtreeFingerprints f = this.fingerprints;
+    return f != null && f.size() == this.tokens.size() ? f : null;
+  }
+
+  /**
+   * Sets the fingerprints of the subtrees in this sequence.
+   *
+   * @param fingerprints The fingerprints computed for the tokens of this sequence.
+   */
+  public void setFingerprints(@Nullable SubtreeFingerprints fingerprints) {
+    this.fingerprints = fingerprints;
+  }
+
   @Override
   public Iterator<XMLToken> iterator() {
     return this.tokens.iterator();
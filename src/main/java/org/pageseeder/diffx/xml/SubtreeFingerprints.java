@@ -0,0 +1,187 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.xml;
+
+import org.pageseeder.diffx.token.ElementToken;
+import org.pageseeder.diffx.token.EndElementToken;
+import org.pageseeder.diffx.token.StartElementToken;
+import org.pageseeder.diffx.token.XMLToken;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Merkle-style 64-bit fingerprints of every subtree in a list of XML tokens.
+ *
+ * <p>The fingerprint of a start element covers all the tokens up to and including its matching
+ * end element, each child element contributing its own fingerprint. The fingerprint of any other
+ * token only covers that token. Two subtrees with different fingerprints are different, and two
+ * subtrees with the same fingerprint are the same with a very high probability, so that testing
+ * whether a subtree is unchanged only requires comparing two numbers.</p>
+ *
+ * <p>Fingerprints are computed from the type, namespace URI, name and value of tokens rather than
+ * from their hash codes, so they do not depend on the 32-bit hash codes of tokens. A folded
+ * {@link ElementToken} has the same fingerprint as the corresponding unfolded subtree.</p>
+ *
+ * <p>Fingerprints can be computed by the loaders when fingerprinting is enabled and are then
+ * available from {@link Sequence#getFingerprints()}.</p>
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public final class SubtreeFingerprints {
+
+  private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+  private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+  private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+  private static final long FNV_PRIME = 0x100000001B3L;
+
+  /**
+   * The fingerprint of the subtree or token at each position.
+   */
+  private final long[] fingerprints;
+
+  /**
+   * The position of the last token of the subtree starting at each position.
+   */
+  private final int[] ends;
+
+  private SubtreeFingerprints(long[] fingerprints, int[] ends) {
+    this.fingerprints = fingerprints;
+    this.ends = ends;
+  }
+
+  /**
+   * Computes the fingerprints of the specified tokens in a single pass.
+   *
+   * <p>Start elements without a matching end element extend to the last token.</p>
+   *
+   * @param tokens The list of tokens
+   *
+   * @return The fingerprints for these tokens.
+   */
+  public static SubtreeFingerprints compute(List<? extends XMLToken> tokens) {
+    int size = tokens.size();
+    long[] fingerprints = new long[size];
+    int[] ends = new int[size];
+    // Positions of open elements and their running hash
+    int[] open = new int[16];
+    long[] hashes = new long[16];
+    int depth = 0;
+    for (int i = 0; i < size; i++) {
+      XMLToken token = tokens.get(i);
+      ends[i] = i;
+      if (token instanceof StartElementToken) {
+        if (depth == open.length) {
+          open = Arrays.copyOf(open, depth * 2);
+          hashes = Arrays.copyOf(hashes, depth * 2);
+        }
+        open[depth] = i;
+        hashes[depth++] = token(token);
+      } else if (token instanceof EndElementToken && depth > 0) {
+        int start = open[--depth];
+        long fingerprint = finish(mix(hashes[depth], token(token)));
+        fingerprints[start] = fingerprint;
+        fingerprints[i] = token(token);
+        ends[start] = i;
+        if (depth > 0) hashes[depth - 1] = mix(hashes[depth - 1], fingerprint);
+      } else {
+        long fingerprint = token instanceof ElementToken ? element((ElementToken) token) : token(token);
+        fingerprints[i] = fingerprint;
+        if (depth > 0) hashes[depth - 1] = mix(hashes[depth - 1], fingerprint);
+      }
+    }
+    // Unclosed elements
+    while (depth > 0) {
+      int start = open[--depth];
+      long fingerprint = finish(hashes[depth]);
+      fingerprints[start] = fingerprint;
+      ends[start] = size - 1;
+      if (depth > 0) hashes[depth - 1] = mix(hashes[depth - 1], fingerprint);
+    }
+    return new SubtreeFingerprints(fingerprints, ends);
+  }
+
+  /**
+   * Returns the fingerprint of the subtree starting at the specified position.
+   *
+   * @param index The position of a token
+   *
+   * @return the fingerprint of the subtree for a start element, the fingerprint of the token otherwise.
+   */
+  public long get(int index) {
+    return this.fingerprints[index];
+  }
+
+  /**
+   * Returns the position of the last token of the subtree starting at the specified position.
+   *
+   * @param index The position of a token
+   *
+   * @return the position of the matching end element for a start element, the same position otherwise.
+   */
+  public int end(int index) {
+    return this.ends[index];
+  }
+
+  /**
+   * @return The number of tokens.
+   */
+  public int size() {
+    return this.fingerprints.length;
+  }
+
+  private static long element(ElementToken element) {
+    long hash = token(element.getStart());
+    // The content may include both folded and unfolded elements
+    SubtreeFingerprints content = compute(element.getContent());
+    for (int i = 0; i < content.size(); i = content.end(i) + 1) {
+      hash = mix(hash, content.get(i));
+    }
+    return finish(mix(hash, token(element.getEnd())));
+  }
+
+  private static long token(XMLToken token) {
+    long hash = FNV_OFFSET ^ token.getType().ordinal();
+    hash = string(hash, token.getNamespaceURI());
+    hash = string(hash, token.getName());
+    hash = string(hash, token.getValue());
+    return finish(hash);
+  }
+
+  private static long string(long hash, String s) {
+    for (int i = 0; i < s.length(); i++) {
+      hash = (hash ^ s.charAt(i)) * FNV_PRIME;
+    }
+    // Separator so that adjacent strings cannot be confused
+    return (hash ^ 0xFFFF) * FNV_PRIME;
+  }
+
+  private static long mix(long hash, long value) {
+    return Long.rotateLeft(hash + value * PRIME_2, 31) * PRIME_1;
+  }
+
+  private static long finish(long hash) {
+    hash ^= hash >>> 33;
+    hash *= PRIME_2;
+    hash ^= hash >>> 29;
+    hash *= PRIME_1;
+    return hash ^ (hash >>> 32);
+  }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.algorithm;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.action.Action;
+import org.pageseeder.diffx.action.ActionsBuffer;
+import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.profile.Profilers;
+import org.pageseeder.diffx.test.DiffAssertions;
+import org.pageseeder.diffx.test.TestActions;
+import org.pageseeder.diffx.test.TestTokens;
+import org.pageseeder.diffx.token.XMLToken;
+import org.pageseeder.diffx.token.impl.CharToken;
+import org.pageseeder.diffx.token.impl.LineToken;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test case for the bit-parallel Allison-Dix algorithm (text-only).
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public final class AllisonDixAlgorithmTest {
+
+  private <T> DiffAlgorithm<T> newAlgorithm() {
+    return new AllisonDixAlgorithm<>();
+  }
+
+  @Test
+  void testLargeSplit() {
+    // Large enough to exceed the trace budget and split the sequences
+    String from = Profilers.getRandomString(20_000, false);
+    String to = Profilers.vary(from, .05);
+    List<CharToken> a = TestTokens.toCharTokens(from);
+    List<CharToken> b = TestTokens.toCharTokens(to);
+    DiffAlgorithm<XMLToken> algorithm = newAlgorithm();
+    List<Action<XMLToken>> actions = TestActions.diffToActions(algorithm, a, b);
+    DiffAssertions.assertIsCorrect(a, b, actions);
+
+    ActionsBuffer<XMLToken> expected = new ActionsBuffer<>();
+    new MyersGreedyAlgorithm<XMLToken>().diff(a, b, expected);
+    ActionsBuffer<XMLToken> actual = new ActionsBuffer<>();
+    algorithm.diff(a, b, actual);
+    assertEquals(expected.countEdits(), actual.countEdits());
+  }
+
+  @Nested
+  public class GeneralDiff extends BasicGeneralDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newAlgorithm();
+    }
+  }
+
+  @Nested
+  public class RandomGeneralDiff extends RandomGeneralDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newAlgorithm();
+    }
+  }
+
+  @Nested
+  public class LinesDiff extends BasicLinesDiffTest {
+    @Override
+    public DiffAlgorithm<LineToken> getDiffAlgorithm() {
+      return newAlgorithm();
+    }
+  }
+
+  @Nested
+  public class ConsistentDiff extends ConsistentOutputTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newAlgorithm();
+    }
+  }
+
+  @Nested
+  public class EqualityDiff extends BasicEqualityAlgorithmTest {
+
+    EqualityDiff() {
+      super(eq -> new AllisonDixAlgorithm<>(eq, CASE_INSENSITIVE_HASH));
+    }
+
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newAlgorithm();
+    }
+  }
+
+  @Nested
+  public class ContextDiff extends BasicContextTest {
+    ContextDiff() {
+      super(context -> {
+        AllisonDixAlgorithm<XMLToken> algorithm = new AllisonDixAlgorithm<>();
+        algorithm.setContext(context);
+        return algorithm;
+      });
+    }
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.algorithm;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.action.OperationsBuffer;
+import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.DiffCancelledException;
+import org.pageseeder.diffx.api.DiffContext;
+import org.pageseeder.diffx.profile.Profilers;
+import org.pageseeder.diffx.test.TestTokens;
+import org.pageseeder.diffx.token.XMLToken;
+import org.pageseeder.diffx.token.impl.CharToken;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Test cases for algorithms checking a diff context.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public abstract class BasicContextTest {
+
+  /**
+   * Creates an algorithm checking the specified context.
+   */
+  @FunctionalInterface
+  public interface Factory {
+    DiffAlgorithm<XMLToken> create(DiffContext context);
+  }
+
+  private final Factory factory;
+
+  protected BasicContextTest(Factory factory) {
+    this.factory = factory;
+  }
+
+  @Test
+  final void testActive() {
+    String from = Profilers.getRandomString(300, false);
+    List<CharToken> a = TestTokens.toCharTokens(from);
+    List<CharToken> b = TestTokens.toCharTokens(Profilers.vary(from, .2));
+    OperationsBuffer<XMLToken> expected = new OperationsBuffer<>();
+    this.factory.create(DiffContext.NONE).diff(a, b, expected);
+    OperationsBuffer<XMLToken> actual = new OperationsBuffer<>();
+    this.factory.create(DiffContext.withTimeout(Duration.ofMinutes(1))).diff(a, b, actual);
+    Assertions.assertEquals(expected.getOperations(), actual.getOperations());
+  }
+
+  @Test
+  final void testCancelled() {
+    String from = Profilers.getRandomString(300, false);
+    List<CharToken> a = TestTokens.toCharTokens(from);
+    List<CharToken> b = TestTokens.toCharTokens(Profilers.vary(from, .2));
+    DiffContext context = DiffContext.cancellable();
+    context.cancel();
+    DiffAlgorithm<XMLToken> algorithm = this.factory.create(context);
+    DiffCancelledException ex = Assertions.assertThrows(DiffCancelledException.class,
+        () -> algorithm.diff(a, b, new OperationsBuffer<>()));
+    Assertions.assertFalse(ex.isExpired());
+  }
+
+  @Test
+  final void testExpired() {
+    String from = Profilers.getRandomString(300, false);
+    List<CharToken> a = TestTokens.toCharTokens(from);
+    List<CharToken> b = TestTokens.toCharTokens(Profilers.vary(from, .2));
+    DiffAlgorithm<XMLToken> algorithm = this.factory.create(DiffContext.withTimeout(Duration.ZERO));
+    DiffCancelledException ex = Assertions.assertThrows(DiffCancelledException.class,
+        () -> algorithm.diff(a, b, new OperationsBuffer<>()));
+    Assertions.assertTrue(ex.isExpired());
+  }
+
+}
@@ -12,6 +12,7 @@ import org.pageseeder.diffx.token.XMLToken;
 
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 abstract class BasicEqualityAlgorithmTest extends AlgorithmTest<XMLToken> {
 
@@ -24,6 +25,12 @@ abstract class BasicEqualityAlgorithmTest extends AlgorithmTest<XMLToken> {
     return a.equals(b);
   };
 
+  /**
+   * A hash function consistent with the case-insensitive equality for algorithms interning tokens.
+   */
+  static final ToIntFunction<XMLToken> CASE_INSENSITIVE_HASH = token ->
+      token instanceof TextToken ? token.getValue().toLowerCase().hashCode() : token.hashCode();
+
   BasicEqualityAlgorithmTest(Function<Equality<XMLToken>, DiffAlgorithm<XMLToken>> algorithmFunction) {
     this.algorithmFunction = algorithmFunction;
   }
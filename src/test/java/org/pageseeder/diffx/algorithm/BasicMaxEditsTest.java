@@ -0,0 +1,126 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.algorithm;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.action.Operation;
+import org.pageseeder.diffx.action.OperationsBuffer;
+import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.Operator;
+import org.pageseeder.diffx.profile.Profilers;
+import org.pageseeder.diffx.test.TestTokens;
+import org.pageseeder.diffx.token.XMLToken;
+import org.pageseeder.diffx.token.impl.CharToken;
+
+import java.util.List;
+
+/**
+ * Test cases for algorithms supporting a maximum number of edits.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+abstract class BasicMaxEditsTest {
+
+  /**
+   * Creates an algorithm with the specified limit.
+   */
+  @FunctionalInterface
+  interface Factory {
+    DiffAlgorithm<XMLToken> create(int maxEdits, boolean fallbackToReplace);
+  }
+
+  private final Factory factory;
+
+  BasicMaxEditsTest(Factory factory) {
+    this.factory = factory;
+  }
+
+  @Test
+  final void testWithinLimit() {
+    List<CharToken> a = TestTokens.toCharTokens("abcdef");
+    List<CharToken> b = TestTokens.toCharTokens("abxdef");
+    OperationsBuffer<XMLToken> result = new OperationsBuffer<>();
+    this.factory.create(2, false).diff(a, b, result);
+    Assertions.assertEquals(2, countEdits(result.getOperations()));
+  }
+
+  @Test
+  final void testExactLimit() {
+    List<CharToken> a = TestTokens.toCharTokens("abcdef");
+    List<CharToken> b = TestTokens.toCharTokens("uvwxyz");
+    OperationsBuffer<XMLToken> result = new OperationsBuffer<>();
+    this.factory.create(12, false).diff(a, b, result);
+    Assertions.assertEquals(12, countEdits(result.getOperations()));
+  }
+
+  @Test
+  final void testTooDifferent() {
+    List<CharToken> a = TestTokens.toCharTokens("abcdef");
+    List<CharToken> b = TestTokens.toCharTokens("uvwxyz");
+    DiffAlgorithm<XMLToken> algorithm = this.factory.create(11, false);
+    TooDifferentException ex = Assertions.assertThrows(TooDifferentException.class,
+        () -> algorithm.diff(a, b, new OperationsBuffer<>()));
+    Assertions.assertEquals(11, ex.getMaxEdits());
+  }
+
+  @Test
+  final void testTooDifferentLength() {
+    List<CharToken> a = TestTokens.toCharTokens("a");
+    List<CharToken> b = TestTokens.toCharTokens("abcdefgh");
+    DiffAlgorithm<XMLToken> algorithm = this.factory.create(3, false);
+    Assertions.assertThrows(TooDifferentException.class, () -> algorithm.diff(a, b, new OperationsBuffer<>()));
+  }
+
+  @Test
+  final void testFallbackToReplace() {
+    List<CharToken> a = TestTokens.toCharTokens("abcxyz");
+    List<CharToken> b = TestTokens.toCharTokens("uvwxyz");
+    OperationsBuffer<XMLToken> result = new OperationsBuffer<>();
+    this.factory.create(4, true).diff(a, b, result);
+    List<Operation<XMLToken>> operations = result.getOperations();
+    Assertions.assertEquals(12, operations.size());
+    for (int i = 0; i < 6; i++) {
+      Assertions.assertEquals(new Operation<>(Operator.DEL, a.get(i)), operations.get(i));
+      Assertions.assertEquals(new Operation<>(Operator.INS, b.get(i)), operations.get(i + 6));
+    }
+  }
+
+  @Test
+  final void testRandomLimit() {
+    for (int n = 0; n < 20; n++) {
+      String from = Profilers.getRandomString(50 + n * 10, false);
+      List<CharToken> a = TestTokens.toCharTokens(from);
+      List<CharToken> b = TestTokens.toCharTokens(Profilers.vary(from, .2));
+      OperationsBuffer<XMLToken> result = new OperationsBuffer<>();
+      this.factory.create(Integer.MAX_VALUE, false).diff(a, b, result);
+      int edits = countEdits(result.getOperations());
+      OperationsBuffer<XMLToken> limited = new OperationsBuffer<>();
+      this.factory.create(edits, false).diff(a, b, limited);
+      Assertions.assertEquals(result.getOperations(), limited.getOperations());
+      DiffAlgorithm<XMLToken> algorithm = this.factory.create(edits - 1, false);
+      Assertions.assertThrows(TooDifferentException.class, () -> algorithm.diff(a, b, new OperationsBuffer<>()));
+    }
+  }
+
+  private static int countEdits(List<Operation<XMLToken>> operations) {
+    return (int) operations.stream().filter(operation -> operation.operator() != Operator.MATCH).count();
+  }
+
+}
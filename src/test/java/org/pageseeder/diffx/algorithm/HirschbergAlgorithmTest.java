@@ -16,24 +16,58 @@
 package org.pageseeder.diffx.algorithm;
 
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.action.OperationsBuffer;
 import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.profile.Profilers;
+import org.pageseeder.diffx.test.TestTokens;
 import org.pageseeder.diffx.token.XMLToken;
+import org.pageseeder.diffx.token.impl.CharToken;
 import org.pageseeder.diffx.token.impl.LineToken;
 
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 /**
  * Test case for Hirschberg algorithm (text-only).
  *
  * @author Christophe Lauret
  *
- * @version 1.3.2
+ * @version 1.3.4
  * @since 0.9.0
  */
 public final class HirschbergAlgorithmTest {
 
+  private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
   private <T> DiffAlgorithm<T> newAlgorithm() {
     return new HirschbergAlgorithm<>();
   }
 
+  private HirschbergAlgorithm<XMLToken> newParallelAlgorithm(int threshold) {
+    HirschbergAlgorithm<XMLToken> algorithm = new HirschbergAlgorithm<>();
+    algorithm.setPool(POOL);
+    algorithm.setParallelThreshold(threshold);
+    return algorithm;
+  }
+
+  @Test
+  void testParallelIdentical() {
+    for (double variation : new double[]{.05, .25, .5}) {
+      String from = Profilers.getRandomString(5000, false);
+      String to = Profilers.vary(from, variation);
+      List<CharToken> a = TestTokens.toCharTokens(from);
+      List<CharToken> b = TestTokens.toCharTokens(to);
+      OperationsBuffer<XMLToken> sequential = new OperationsBuffer<>();
+      new HirschbergAlgorithm<XMLToken>().diff(a, b, sequential);
+      OperationsBuffer<XMLToken> parallel = new OperationsBuffer<>();
+      newParallelAlgorithm(64).diff(a, b, parallel);
+      assertEquals(sequential.getOperations(), parallel.getOperations());
+    }
+  }
+
   @Nested
   public class GeneralDiff extends BasicGeneralDiffTest {
     @Override
@@ -78,4 +112,32 @@ public final class HirschbergAlgorithmTest {
       return newAlgorithm();
     }
   }
+
+  @Nested
+  public class ParallelGeneralDiff extends BasicGeneralDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newParallelAlgorithm(2);
+    }
+  }
+
+  @Nested
+  public class ParallelRandomGeneralDiff extends RandomGeneralDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newParallelAlgorithm(8);
+    }
+  }
+
+  @Nested
+  public class ContextDiff extends BasicContextTest {
+    ContextDiff() {
+      super(context -> {
+        HirschbergAlgorithm<XMLToken> algorithm = new HirschbergAlgorithm<>();
+        algorithm.setContext(context);
+        return algorithm;
+      });
+    }
+  }
+
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.algorithm;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.action.Action;
+import org.pageseeder.diffx.action.ActionsBuffer;
+import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.LoadingException;
+import org.pageseeder.diffx.config.TextGranularity;
+import org.pageseeder.diffx.core.RandomXMLDiffTest;
+import org.pageseeder.diffx.handler.XMLBalanceCheckFilter;
+import org.pageseeder.diffx.test.DOMUtils;
+import org.pageseeder.diffx.test.DiffAssertions;
+import org.pageseeder.diffx.test.RandomXMLFactory;
+import org.pageseeder.diffx.test.TestActions;
+import org.pageseeder.diffx.test.TestTokens;
+import org.pageseeder.diffx.token.XMLToken;
+import org.pageseeder.diffx.xml.Sequence;
+import org.w3c.dom.Document;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test case for the linear space XML algorithm.
+ *
+ * <p>With the default threshold, small sequences are compared by the matrix so the results are
+ * the same as the {@link MatrixXMLAlgorithm}. Sequences are always divided by the other algorithm
+ * so that the divide and conquer is also tested on small sequences, but since it may find another
+ * alignment of the same length, only the correctness of the results is checked.</p>
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public final class HirschbergXMLAlgorithmTest {
+
+  private HirschbergXMLAlgorithm newAlgorithm() {
+    return new HirschbergXMLAlgorithm();
+  }
+
+  private HirschbergXMLAlgorithm newDividingAlgorithm() {
+    HirschbergXMLAlgorithm algorithm = new HirschbergXMLAlgorithm();
+    algorithm.setMatrixThreshold(1);
+    return algorithm;
+  }
+
+  @Test
+  void testDivided() throws LoadingException {
+    assertDiffXMLOK("<a><b>x</b><c>y</c></a>", "<a><b>x</b><c>z</c></a>", "<a><b>x</b><c>-y+z</c></a>");
+    assertDiffXMLOK("<a><b>x</b><c>y</c></a>", "<a><c>y</c><b>x</b></a>");
+    assertDiffXMLOK("<a x='1'><b>x</b></a>", "<a x='2'><b>y</b><b>x</b></a>");
+    assertDiffXMLOK("<a><b>x y</b></a>", "<c><b>x y</b></c>", "-<a>+<c><b>x y</b>+</c>-</a>");
+    assertDiffXMLOK("<a>x</a>", "<a><a>x</a></a>");
+    assertDiffXMLOK("<a><b>X</b></a>", "<b><a>X</a></b>");
+  }
+
+  @Test
+  void testLarge() throws LoadingException {
+    StringBuilder a = new StringBuilder("<doc>");
+    StringBuilder b = new StringBuilder("<doc>");
+    for (int i = 0; i < 400; i++) {
+      a.append("<p id='").append(i).append("'>paragraph ").append(i).append(" <b>bold</b> text</p>");
+      if (i % 50 == 0) b.append("<p>new paragraph</p>");
+      if (i % 70 != 0) b.append("<p id='").append(i).append("'>paragraph ").append(i % 30 == 0 ? "changed" : i).append(" <b>bold</b> text</p>");
+    }
+    a.append("</doc>");
+    b.append("</doc>");
+    HirschbergXMLAlgorithm algorithm = newAlgorithm();
+    algorithm.setMatrixThreshold(1 << 12);
+    Sequence seqA = TestTokens.loadSequence(a.toString(), TextGranularity.SPACE_WORD);
+    Sequence seqB = TestTokens.loadSequence(b.toString(), TextGranularity.SPACE_WORD);
+    List<Action<XMLToken>> actions = TestActions.diffToActions(algorithm, seqA.tokens(), seqB.tokens());
+    DiffAssertions.assertIsCorrect(seqA, seqB, actions);
+    DiffAssertions.assertIsWellFormedXML(actions);
+  }
+
+  @Test
+  void testRandomBalanced() throws LoadingException {
+    RandomXMLFactory factory = new RandomXMLFactory();
+    for (int threshold : new int[]{1, 4, 16, 64, 256}) {
+      HirschbergXMLAlgorithm algorithm = newAlgorithm();
+      algorithm.setMatrixThreshold(threshold);
+      for (int i = 0; i < 300; i++) {
+        Document docA = factory.getRandomXML(3 + i % 4, 2 + i % 5);
+        Document docB = factory.vary(docA, i % 2 == 0 ? .2 : .5);
+        Sequence seqA = TestTokens.loadSequence(DOMUtils.toString(docA, true), TextGranularity.SPACE_WORD);
+        Sequence seqB = TestTokens.loadSequence(DOMUtils.toString(docB, true), TextGranularity.SPACE_WORD);
+        ActionsBuffer<XMLToken> buffer = new ActionsBuffer<>();
+        XMLBalanceCheckFilter check = new XMLBalanceCheckFilter(buffer);
+        algorithm.diff(seqA.tokens(), seqB.tokens(), check);
+        assertTrue(check.isBalanced(), () -> "Threshold " + threshold + ": " + check.getErrors());
+        DiffAssertions.assertIsCorrect(seqA, seqB, buffer.getActions());
+      }
+    }
+  }
+
+  private void assertDiffXMLOK(String xmlA, String xmlB, String... exp) throws LoadingException {
+    Sequence seqA = TestTokens.loadSequence(xmlA, TextGranularity.SPACE_WORD);
+    Sequence seqB = TestTokens.loadSequence(xmlB, TextGranularity.SPACE_WORD);
+    List<Action<XMLToken>> actions = TestActions.diffToActions(newDividingAlgorithm(), seqA.tokens(), seqB.tokens());
+    DiffAssertions.assertIsCorrect(seqA, seqB, actions);
+    DiffAssertions.assertIsWellFormedXML(actions);
+    if (exp.length > 0) {
+      DiffAssertions.assertMatchTestOutput(actions, exp);
+    }
+  }
+
+  @Nested
+  public class GeneralDiff extends BasicGeneralDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newAlgorithm();
+    }
+  }
+
+  @Nested
+  public class BasicXMLDiff extends BasicXMLDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newAlgorithm();
+    }
+  }
+
+  @Nested
+  public class EqualityDiff extends BasicEqualityAlgorithmTest {
+
+    EqualityDiff() {
+      super(eq -> new HirschbergXMLAlgorithm(eq, CASE_INSENSITIVE_HASH));
+    }
+
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newAlgorithm();
+    }
+  }
+
+  @Nested
+  public class DividingRandomGeneralDiff extends RandomGeneralDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newDividingAlgorithm();
+    }
+  }
+
+  @Nested
+  public class DividingRandomXMLDiff extends RandomXMLDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newDividingAlgorithm();
+    }
+  }
+
+  @Nested
+  public class ContextDiff extends BasicContextTest {
+    ContextDiff() {
+      super(context -> {
+        HirschbergXMLAlgorithm algorithm = new HirschbergXMLAlgorithm();
+        algorithm.setContext(context);
+        return algorithm;
+      });
+    }
+  }
+
+}
@@ -25,7 +25,7 @@ import org.pageseeder.diffx.token.impl.LineToken;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.2
+ * @version 1.3.4
  * @since 0.9.0
  */
 public final class KumarRanganAlgorithmTest {
@@ -79,4 +79,15 @@ public final class KumarRanganAlgorithmTest {
     }
   }
 
+  @Nested
+  public class ContextDiff extends BasicContextTest {
+    ContextDiff() {
+      super(context -> {
+        KumarRanganAlgorithm<XMLToken> algorithm = new KumarRanganAlgorithm<>();
+        algorithm.setContext(context);
+        return algorithm;
+      });
+    }
+  }
+
 }
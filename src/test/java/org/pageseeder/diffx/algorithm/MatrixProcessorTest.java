@@ -16,11 +16,23 @@
 package org.pageseeder.diffx.algorithm;
 
 import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.api.DiffCancelledException;
+import org.pageseeder.diffx.api.DiffContext;
+import org.pageseeder.diffx.api.Equality;
+import org.pageseeder.diffx.profile.Profilers;
 import org.pageseeder.diffx.xml.Sequence;
 import org.pageseeder.diffx.token.XMLToken;
 import org.pageseeder.diffx.token.impl.CharToken;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class MatrixProcessorTest {
 
@@ -141,4 +153,169 @@ class MatrixProcessorTest {
     assertEquals(4, matrix.getLCSLength()); // "deab"
   }
 
+  @Test
+  void testInterned() {
+    SymbolTable<XMLToken> symbols = new SymbolTable<>();
+    int[] a = symbols.encode(asSequenceOfCharTokens("acbdeacbed"));
+    int[] b = symbols.encode(asSequenceOfCharTokens("debabb"));
+    Matrix matrix = new MatrixProcessor<XMLToken>().process(a, b);
+    assertEquals(77, matrix.size()); // 11x7
+    assertEquals(4, matrix.getLCSLength()); // "deab"
+  }
+
+  @Test
+  void testInternedInverse() {
+    Sequence s1 = asSequenceOfCharTokens("GCCCTAGCG");
+    Sequence s2 = asSequenceOfCharTokens("GCGCAATG");
+    MatrixProcessor<XMLToken> processor = new MatrixProcessor<>();
+    processor.setInverse(true);
+    Matrix expected = processor.process(s1, s2);
+    SymbolTable<XMLToken> symbols = new SymbolTable<>();
+    Matrix matrix = processor.process(symbols.encode(s1), symbols.encode(s2));
+    for (int i = 0; i < matrix.lengthX(); i++) {
+      for (int j = 0; j < matrix.lengthY(); j++) {
+        assertEquals(expected.get(i, j), matrix.get(i, j));
+      }
+    }
+    assertEquals(5, matrix.getLCSLength()); // "GCGAG"
+  }
+
+  @Test
+  void testParallelIdentical() {
+    Sequence s1 = asSequenceOfCharTokens(Profilers.getRandomString(1000, false));
+    Sequence s2 = asSequenceOfCharTokens(Profilers.vary(s1.tokens().stream().map(XMLToken::getValue).collect(Collectors.joining()), .2));
+    SymbolTable<XMLToken> symbols = new SymbolTable<>();
+    int[] a = symbols.encode(s1);
+    int[] b = symbols.encode(s2);
+    for (boolean inverse : new boolean[]{false, true}) {
+      MatrixProcessor<XMLToken> sequential = new MatrixProcessor<>();
+      sequential.setInverse(inverse);
+      MatrixProcessor<XMLToken> parallel = new MatrixProcessor<>();
+      parallel.setInverse(inverse);
+      parallel.setThreads(4);
+      assertSameMatrix(sequential.process(s1, s2), parallel.process(s1, s2));
+      assertSameMatrix(sequential.process(a, b), parallel.process(a, b));
+    }
+  }
+
+  @Test
+  void testParallelCancelled() throws InterruptedException {
+    Sequence s1 = asSequenceOfCharTokens(Profilers.getRandomString(2000, false));
+    Sequence s2 = asSequenceOfCharTokens(Profilers.vary(s1.tokens().stream().map(XMLToken::getValue).collect(Collectors.joining()), .2));
+    DiffContext context = DiffContext.cancellable();
+    AtomicLong comparisons = new AtomicLong();
+    // The first tile is filled by the thread joining the tiles of each diagonal
+    AtomicReference<Thread> joiner = new AtomicReference<>();
+    Set<Thread> delayed = ConcurrentHashMap.newKeySet();
+    Equality<XMLToken> eq = (a, b) -> {
+      joiner.compareAndSet(null, Thread.currentThread());
+      boolean joining = joiner.get() == Thread.currentThread();
+      if (comparisons.incrementAndGet() >= 500_000 && joining) context.cancel();
+      // Slow down the other tiles still running once cancelled
+      if (context.isCancelled() && !joining && delayed.add(Thread.currentThread())) pause(100);
+      return a.equals(b);
+    };
+    MatrixProcessor<XMLToken> parallel = new MatrixProcessor<>();
+    parallel.setInverse(true);
+    parallel.setThreads(4);
+    parallel.setMappedThreshold(1000);
+    parallel.setContext(context);
+    assertThrows(DiffCancelledException.class, () -> parallel.process(s1, s2, eq));
+    // No tile may still be filling the released matrix
+    long count = comparisons.get();
+    Thread.sleep(200);
+    assertEquals(count, comparisons.get());
+  }
+
+  @Test
+  void testFlatMatchesNested() {
+    SymbolTable<Character> symbols = new SymbolTable<>();
+    String x = Profilers.getRandomString(120, false);
+    int[] a = symbols.encode(x.chars().mapToObj(c -> (char) c).collect(Collectors.toList()));
+    int[] b = symbols.encode(Profilers.vary(x, .3).chars().mapToObj(c -> (char) c).collect(Collectors.toList()));
+    assertSameMatrix(fill(new MatrixShort(), a, b, false), fill(new FlatMatrixShort(), a, b, false));
+    assertSameMatrix(fill(new MatrixInt(), a, b, false), fill(new FlatMatrixInt(), a, b, false));
+    assertSameMatrix(fill(new InvMatrixShort(), a, b, true), fill(new InvFlatMatrixShort(), a, b, true));
+    assertSameMatrix(fill(new InvMatrixInt(), a, b, true), fill(new InvFlatMatrixInt(), a, b, true));
+  }
+
+  @Test
+  void testDirectionsMatchLengths() {
+    Sequence s1 = asSequenceOfCharTokens(Profilers.getRandomString(150, false));
+    Sequence s2 = asSequenceOfCharTokens(Profilers.vary(s1.tokens().stream().map(XMLToken::getValue).collect(Collectors.joining()), .3));
+    MatrixProcessor<XMLToken> lengths = new MatrixProcessor<>();
+    lengths.setInverse(true);
+    DirectionMatrixProcessor<XMLToken> directions = new DirectionMatrixProcessor<>();
+    directions.setInverse(true);
+    SymbolTable<XMLToken> symbols = new SymbolTable<>();
+    int[] a = symbols.encode(s1);
+    int[] b = symbols.encode(s2);
+    Matrix expected = lengths.process(s1, s2);
+    for (DirectionMatrix actual : new DirectionMatrix[]{directions.process(s1, s2), directions.process(a, b)}) {
+      assertEquals(expected.lengthX(), actual.lengthX());
+      assertEquals(expected.lengthY(), actual.lengthY());
+      for (int i = 0; i < a.length; i++) {
+        for (int j = 0; j < b.length; j++) {
+          assertEquals(expected.isGreaterX(i, j), actual.isGreaterX(i, j));
+          assertEquals(expected.isGreaterY(i, j), actual.isGreaterY(i, j));
+          assertEquals(expected.isSameXY(i, j), actual.isSameXY(i, j));
+        }
+      }
+    }
+  }
+
+  @Test
+  void testMappedIdentical() {
+    Sequence s1 = asSequenceOfCharTokens(Profilers.getRandomString(300, false));
+    Sequence s2 = asSequenceOfCharTokens(Profilers.vary(s1.tokens().stream().map(XMLToken::getValue).collect(Collectors.joining()), .2));
+    for (boolean inverse : new boolean[]{false, true}) {
+      MatrixProcessor<XMLToken> heap = new MatrixProcessor<>();
+      heap.setInverse(inverse);
+      MatrixProcessor<XMLToken> mapped = new MatrixProcessor<>();
+      mapped.setInverse(inverse);
+      mapped.setMappedThreshold(1000);
+      Matrix matrix = mapped.process(s1, s2);
+      assertInstanceOf(MappedMatrixBase.class, matrix);
+      assertSameMatrix(heap.process(s1, s2), matrix);
+      matrix.release();
+    }
+  }
+
+  private static void pause(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static Matrix fill(Matrix matrix, int[] a, int[] b, boolean inverse) {
+    matrix.setup(a.length + 1, b.length + 1);
+    for (int n = 0; n <= a.length; n++) {
+      int i = inverse ? a.length - n : n;
+      for (int m = 0; m <= b.length; m++) {
+        int j = inverse ? b.length - m : m;
+        if (inverse ? (i == a.length || j == b.length) : (i == 0 || j == 0)) {
+          matrix.set(i, j, 0);
+        } else if (inverse ? a[i] == b[j] : a[i - 1] == b[j - 1]) {
+          matrix.incrementPath(i, j);
+        } else {
+          matrix.incrementByMaxPath(i, j);
+        }
+      }
+    }
+    return matrix;
+  }
+
+  private static void assertSameMatrix(Matrix expected, Matrix actual) {
+    assertEquals(expected.lengthX(), actual.lengthX());
+    assertEquals(expected.lengthY(), actual.lengthY());
+    assertEquals(expected.getLCSLength(), actual.getLCSLength());
+    for (int i = 0; i < expected.lengthX(); i++) {
+      for (int j = 0; j < expected.lengthY(); j++) {
+        assertEquals(expected.get(i, j), actual.get(i, j));
+      }
+    }
+  }
+
 }
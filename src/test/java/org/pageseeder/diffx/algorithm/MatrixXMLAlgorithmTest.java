@@ -16,15 +16,23 @@
 package org.pageseeder.diffx.algorithm;
 
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
 import org.pageseeder.diffx.api.DiffAlgorithm;
 import org.pageseeder.diffx.token.XMLToken;
+import org.pageseeder.diffx.token.impl.CharToken;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Test case for the default XML algorithm.
  *
  * @author Christophe Lauret
  *
- * @version 1.3.2
+ * @version 1.3.4
  * @since 0.9.0
  */
 public final class MatrixXMLAlgorithmTest {
@@ -33,6 +41,24 @@ public final class MatrixXMLAlgorithmTest {
     return new MatrixXMLAlgorithm();
   }
 
+  private MatrixXMLAlgorithm newInterningAlgorithm() {
+    MatrixXMLAlgorithm algorithm = new MatrixXMLAlgorithm();
+    algorithm.setInterning(true);
+    return algorithm;
+  }
+
+  private MatrixXMLAlgorithm newMappedAlgorithm() {
+    MatrixXMLAlgorithm algorithm = new MatrixXMLAlgorithm();
+    algorithm.setMappedThreshold(0);
+    return algorithm;
+  }
+
+  private MatrixXMLAlgorithm newUnpackedAlgorithm() {
+    MatrixXMLAlgorithm algorithm = new MatrixXMLAlgorithm();
+    algorithm.setPacked(false);
+    return algorithm;
+  }
+
   @Nested
   public class GeneralDiff extends BasicGeneralDiffTest {
     @Override
@@ -78,4 +104,96 @@ public final class MatrixXMLAlgorithmTest {
     }
   }
 
+  @Nested
+  public class InterningGeneralDiff extends BasicGeneralDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newInterningAlgorithm();
+    }
+  }
+
+  @Nested
+  public class InterningBasicXMLDiff extends BasicXMLDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newInterningAlgorithm();
+    }
+  }
+
+  @Nested
+  public class InterningEqualityDiff extends BasicEqualityAlgorithmTest {
+
+    InterningEqualityDiff() {
+      super(eq -> {
+        MatrixXMLAlgorithm algorithm = new MatrixXMLAlgorithm(eq);
+        algorithm.setInterning(true);
+        return algorithm;
+      });
+    }
+
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newInterningAlgorithm();
+    }
+  }
+
+  @Nested
+  public class UnpackedGeneralDiff extends BasicGeneralDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newUnpackedAlgorithm();
+    }
+  }
+
+  @Nested
+  public class UnpackedBasicXMLDiff extends BasicXMLDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newUnpackedAlgorithm();
+    }
+  }
+
+  @Nested
+  public class MappedGeneralDiff extends BasicGeneralDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newMappedAlgorithm();
+    }
+  }
+
+  @Nested
+  public class MappedBasicXMLDiff extends BasicXMLDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newMappedAlgorithm();
+    }
+  }
+
+  @Nested
+  public class ContextDiff extends BasicContextTest {
+    ContextDiff() {
+      super(context -> {
+        MatrixXMLAlgorithm algorithm = new MatrixXMLAlgorithm();
+        algorithm.setContext(context);
+        return algorithm;
+      });
+    }
+  }
+
+  @Test
+  void testDefaultThresholdDependsOnMatrix() {
+    // 100M comparisons: within the default for packed directions only
+    List<XMLToken> a = Collections.nCopies(10_000, new CharToken('a'));
+    List<XMLToken> b = Collections.nCopies(10_000, new CharToken('b'));
+    assertTrue(newAlgorithm().isDiffComputable(a, b));
+    assertFalse(newUnpackedAlgorithm().isDiffComputable(a, b));
+    assertFalse(newMappedAlgorithm().isDiffComputable(a, b));
+    MatrixXMLAlgorithm parallel = new MatrixXMLAlgorithm();
+    parallel.setThreads(2);
+    assertFalse(parallel.isDiffComputable(a, b));
+    MatrixXMLAlgorithm explicit = newUnpackedAlgorithm();
+    explicit.setThreshold(100_000_000);
+    assertTrue(explicit.isDiffComputable(a, b));
+  }
+
 }
@@ -25,7 +25,7 @@ import org.pageseeder.diffx.token.impl.LineToken;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.2
+ * @version 1.3.4
  * @since 0.9.0
  */
 public final class MyersGreedyAlgorithm2Test {
@@ -79,4 +79,15 @@ public final class MyersGreedyAlgorithm2Test {
     }
   }
 
+  @Nested
+  public class ContextDiff extends BasicContextTest {
+    ContextDiff() {
+      super(context -> {
+        MyersGreedyAlgorithm2<XMLToken> algorithm = new MyersGreedyAlgorithm2<>();
+        algorithm.setContext(context);
+        return algorithm;
+      });
+    }
+  }
+
 }
@@ -25,7 +25,7 @@ import org.pageseeder.diffx.token.impl.LineToken;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.2
+ * @version 1.3.4
  * @since 0.9.0
  */
 public final class MyersGreedyAlgorithmTest {
@@ -79,4 +79,27 @@ public final class MyersGreedyAlgorithmTest {
     }
   }
 
+  @Nested
+  public class MaxEditsDiff extends BasicMaxEditsTest {
+    MaxEditsDiff() {
+      super((maxEdits, fallbackToReplace) -> {
+        MyersGreedyAlgorithm<XMLToken> algorithm = new MyersGreedyAlgorithm<XMLToken>();
+        algorithm.setMaxEdits(maxEdits);
+        algorithm.setFallbackToReplace(fallbackToReplace);
+        return algorithm;
+      });
+    }
+  }
+
+  @Nested
+  public class ContextDiff extends BasicContextTest {
+    ContextDiff() {
+      super(context -> {
+        MyersGreedyAlgorithm<XMLToken> algorithm = new MyersGreedyAlgorithm<>();
+        algorithm.setContext(context);
+        return algorithm;
+      });
+    }
+  }
+
 }
@@ -26,7 +26,7 @@ import org.pageseeder.diffx.token.XMLToken;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.2
+ * @version 1.3.4
  * @since 0.9.0
  */
 public final class MyersGreedyXMLAlgorithmTest {
@@ -104,4 +104,27 @@ public final class MyersGreedyXMLAlgorithmTest {
     }
   }
 
+  @Nested
+  public class MaxEditsDiff extends BasicMaxEditsTest {
+    MaxEditsDiff() {
+      super((maxEdits, fallbackToReplace) -> {
+        MyersGreedyXMLAlgorithm algorithm = new MyersGreedyXMLAlgorithm();
+        algorithm.setMaxEdits(maxEdits);
+        algorithm.setFallbackToReplace(fallbackToReplace);
+        return algorithm;
+      });
+    }
+  }
+
+  @Nested
+  public class ContextDiff extends BasicContextTest {
+    ContextDiff() {
+      super(context -> {
+        MyersGreedyXMLAlgorithm algorithm = new MyersGreedyXMLAlgorithm();
+        algorithm.setContext(context);
+        return algorithm;
+      });
+    }
+  }
+
 }
@@ -16,23 +16,57 @@
 package org.pageseeder.diffx.algorithm;
 
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.action.OperationsBuffer;
 import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.profile.Profilers;
+import org.pageseeder.diffx.test.TestTokens;
 import org.pageseeder.diffx.token.XMLToken;
+import org.pageseeder.diffx.token.impl.CharToken;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 /**
  * Test case for the Myers' linear algorithm.
  *
  * @author Christophe Lauret
  *
- * @version 1.3.2
+ * @version 1.3.4
  * @since 0.9.0
  */
 public final class MyersLinearAlgorithmTest {
 
+  private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
   private MyersLinearAlgorithm<XMLToken> newAlgorithm() {
     return new MyersLinearAlgorithm<XMLToken>();
   }
 
+  private MyersLinearAlgorithm<XMLToken> newParallelAlgorithm(int threshold) {
+    MyersLinearAlgorithm<XMLToken> algorithm = new MyersLinearAlgorithm<>();
+    algorithm.setPool(POOL);
+    algorithm.setParallelThreshold(threshold);
+    return algorithm;
+  }
+
+  @Test
+  void testParallelIdentical() {
+    for (double variation : new double[]{.05, .25, .5}) {
+      String from = Profilers.getRandomString(5000, false);
+      String to = Profilers.vary(from, variation);
+      List<CharToken> a = TestTokens.toCharTokens(from);
+      List<CharToken> b = TestTokens.toCharTokens(to);
+      OperationsBuffer<XMLToken> sequential = new OperationsBuffer<>();
+      new MyersLinearAlgorithm<XMLToken>().diff(a, b, sequential);
+      OperationsBuffer<XMLToken> parallel = new OperationsBuffer<>();
+      newParallelAlgorithm(64).diff(a, b, parallel);
+      assertEquals(sequential.getOperations(), parallel.getOperations());
+    }
+  }
+
   @Nested
   public class GeneralDiff extends BasicGeneralDiffTest {
     @Override
@@ -78,4 +112,43 @@ public final class MyersLinearAlgorithmTest {
     }
   }
 
+  @Nested
+  public class ParallelGeneralDiff extends BasicGeneralDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newParallelAlgorithm(2);
+    }
+  }
+
+  @Nested
+  public class ParallelRandomGeneralDiff extends RandomGeneralDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newParallelAlgorithm(8);
+    }
+  }
+
+  @Nested
+  public class MaxEditsDiff extends BasicMaxEditsTest {
+    MaxEditsDiff() {
+      super((maxEdits, fallbackToReplace) -> {
+        MyersLinearAlgorithm<XMLToken> algorithm = new MyersLinearAlgorithm<XMLToken>();
+        algorithm.setMaxEdits(maxEdits);
+        algorithm.setFallbackToReplace(fallbackToReplace);
+        return algorithm;
+      });
+    }
+  }
+
+  @Nested
+  public class ContextDiff extends BasicContextTest {
+    ContextDiff() {
+      super(context -> {
+        MyersLinearAlgorithm<XMLToken> algorithm = new MyersLinearAlgorithm<>();
+        algorithm.setContext(context);
+        return algorithm;
+      });
+    }
+  }
+
 }
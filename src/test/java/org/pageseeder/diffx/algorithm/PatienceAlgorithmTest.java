@@ -17,6 +17,7 @@ package org.pageseeder.diffx.algorithm;
 
 import org.junit.jupiter.api.Nested;
 import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.token.TextToken;
 import org.pageseeder.diffx.token.XMLToken;
 import org.pageseeder.diffx.token.impl.LineToken;
 
@@ -25,7 +26,7 @@ import org.pageseeder.diffx.token.impl.LineToken;
  *
  * @author Christophe Lauret
  *
- * @version 1.3.3
+ * @version 1.3.4
  * @since 1.3.3
  */
 public final class PatienceAlgorithmTest {
@@ -71,6 +72,20 @@ public final class PatienceAlgorithmTest {
     }
   }
 
+  @Nested
+  public class HashedEqualityDiff extends BasicEqualityAlgorithmTest {
+
+    HashedEqualityDiff() {
+      super(eq -> new PatienceAlgorithm<>(eq, token -> token instanceof TextToken
+          ? token.getValue().toLowerCase().hashCode() : token.hashCode()));
+    }
+
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newAlgorithm();
+    }
+  }
+
   @Nested
   public class ConsistentDiff extends ConsistentOutputTest {
     @Override
@@ -79,4 +94,15 @@ public final class PatienceAlgorithmTest {
     }
   }
 
+  @Nested
+  public class ContextDiff extends BasicContextTest {
+    ContextDiff() {
+      super(context -> {
+        PatienceAlgorithm<XMLToken> algorithm = new PatienceAlgorithm<>();
+        algorithm.setContext(context);
+        return algorithm;
+      });
+    }
+  }
+
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.algorithm;
+
+import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.api.Equality;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for the symbol table.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+final class SymbolTableTest {
+
+  private static final Equality<String> CASE_INSENSITIVE = String::equalsIgnoreCase;
+
+  @Test
+  void testEmpty() {
+    SymbolTable<String> symbols = new SymbolTable<>();
+    assertEquals(0, symbols.size());
+    assertArrayEquals(new int[0], symbols.encode(List.of()));
+    assertThrows(IndexOutOfBoundsException.class, () -> symbols.symbol(0));
+  }
+
+  @Test
+  void testEncodeShared() {
+    SymbolTable<String> symbols = new SymbolTable<>();
+    int[] a = symbols.encode(Arrays.asList("a", "b", "c", "a"));
+    int[] b = symbols.encode(Arrays.asList("c", "d", "a"));
+    assertArrayEquals(new int[]{0, 1, 2, 0}, a);
+    assertArrayEquals(new int[]{2, 3, 0}, b);
+    assertEquals(4, symbols.size());
+    assertEquals("d", symbols.symbol(3));
+  }
+
+  @Test
+  void testEquality() {
+    SymbolTable<String> symbols = new SymbolTable<>(CASE_INSENSITIVE, s -> s.toLowerCase().hashCode());
+    int[] ids = symbols.encode(Arrays.asList("a", "A", "b", "B"));
+    assertArrayEquals(new int[]{0, 0, 1, 1}, ids);
+    assertEquals("a", symbols.symbol(0));
+  }
+
+  @Test
+  void testEqualityWithHash() {
+    SymbolTable<String> symbols = new SymbolTable<>(CASE_INSENSITIVE, s -> s.toLowerCase().hashCode());
+    int[] ids = symbols.encode(Arrays.asList("x", "y", "X", "Y", "z"));
+    assertArrayEquals(new int[]{0, 1, 0, 1, 2}, ids);
+  }
+
+  @Test
+  void testGrow() {
+    SymbolTable<String> symbols = new SymbolTable<>();
+    List<String> tokens = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      tokens.add("t" + (i % 700));
+    }
+    int[] ids = symbols.encode(tokens);
+    assertEquals(700, symbols.size());
+    for (int i = 0; i < ids.length; i++) {
+      assertEquals(i % 700, ids[i]);
+      assertEquals(tokens.get(i), symbols.symbol(ids[i]));
+    }
+  }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test case for the trace of the greedy algorithm.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+final class TraceTest {
+
+  @Test
+  void testSameAsSnapshots() {
+    // Simulate the rounds of the greedy algorithm with large enough D to span several pages
+    int max = 600;
+    Random random = new Random(7);
+    Vector vector = Vector.createGreedy(max, max);
+    List<Vector> snapshots = new ArrayList<>();
+    Trace trace = new Trace();
+    for (int d = 0; d < max; d++) {
+      for (int k = -d; k <= d; k += 2) {
+        vector.setX(k, random.nextInt(max));
+      }
+      snapshots.add(vector.snapshot(d));
+      trace.record(vector);
+    }
+    assertEquals(snapshots.size(), trace.size());
+    for (int d = 0; d < max; d++) {
+      Vector snapshot = snapshots.get(d);
+      int span = Math.max(d, 1);
+      for (int k = -span; k <= span; k++) {
+        assertEquals(snapshot.getX(k), trace.getX(d, k), "d=" + d + " k=" + k);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiffContextTest {
+
+  @Test
+  void testNone() {
+    assertFalse(DiffContext.NONE.isStopped());
+    assertDoesNotThrow(DiffContext.NONE::check);
+    assertThrows(UnsupportedOperationException.class, DiffContext.NONE::cancel);
+  }
+
+  @Test
+  void testCancel() {
+    DiffContext context = DiffContext.cancellable();
+    assertFalse(context.isCancelled());
+    assertDoesNotThrow(context::check);
+    context.cancel();
+    assertTrue(context.isCancelled());
+    assertTrue(context.isStopped());
+    assertFalse(context.isExpired());
+    DiffCancelledException ex = assertThrows(DiffCancelledException.class, context::check);
+    assertFalse(ex.isExpired());
+  }
+
+  @Test
+  void testTimeout() {
+    DiffContext context = DiffContext.withTimeout(Duration.ofMinutes(1));
+    assertFalse(context.isExpired());
+    assertDoesNotThrow(context::check);
+    DiffContext expired = DiffContext.withTimeout(Duration.ZERO);
+    assertTrue(expired.isExpired());
+    assertTrue(expired.isStopped());
+    DiffCancelledException ex = assertThrows(DiffCancelledException.class, expired::check);
+    assertTrue(ex.isExpired());
+  }
+
+}
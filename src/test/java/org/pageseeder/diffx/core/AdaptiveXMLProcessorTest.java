@@ -0,0 +1,204 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.core;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.action.Action;
+import org.pageseeder.diffx.action.ActionsBuffer;
+import org.pageseeder.diffx.algorithm.BasicGeneralDiffTest;
+import org.pageseeder.diffx.algorithm.BasicXMLDiffTest;
+import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.DiffContext;
+import org.pageseeder.diffx.api.LoadingException;
+import org.pageseeder.diffx.config.TextGranularity;
+import org.pageseeder.diffx.core.AdaptiveXMLProcessor.Decision;
+import org.pageseeder.diffx.core.AdaptiveXMLProcessor.Engine;
+import org.pageseeder.diffx.handler.XMLBalanceCheckFilter;
+import org.pageseeder.diffx.test.DOMUtils;
+import org.pageseeder.diffx.test.DiffAssertions;
+import org.pageseeder.diffx.test.RandomXMLFactory;
+import org.pageseeder.diffx.test.TestActions;
+import org.pageseeder.diffx.test.TestTokens;
+import org.pageseeder.diffx.token.XMLToken;
+import org.pageseeder.diffx.xml.Sequence;
+import org.w3c.dom.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test case for the adaptive XML processor.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public final class AdaptiveXMLProcessorTest {
+
+  private AdaptiveXMLProcessor newProcessor() {
+    return new AdaptiveXMLProcessor();
+  }
+
+  @Test
+  void testDecisionSlice() throws LoadingException {
+    Decision decision = assertEngine(newProcessor(), "<a><b>x</b></a>", "<a><b>x</b><c/></a>", Engine.SLICE);
+    assertEquals(4, decision.prefix());
+    assertEquals(1, decision.suffix());
+    assertEquals(2, decision.estimatedEdits());
+  }
+
+  @Test
+  void testDecisionIdentical() throws LoadingException {
+    Decision decision = assertEngine(newProcessor(), "<a><b>x</b></a>", "<a><b>x</b></a>", Engine.SLICE);
+    assertEquals(0, decision.estimatedEdits());
+  }
+
+  @Test
+  void testDecisionText() throws LoadingException {
+    assertEngine(newProcessor(), "<p>a b c</p>", "<p>a x c</p>", Engine.TEXT);
+  }
+
+  @Test
+  void testDecisionMatrix() throws LoadingException {
+    assertEngine(newProcessor(), "<a><b>x</b><c>y</c></a>", "<a><d>x</d><c>z</c></a>", Engine.MATRIX);
+  }
+
+  @Test
+  void testDecisionOptimistic() throws LoadingException {
+    AdaptiveXMLProcessor processor = newProcessor();
+    processor.setThreshold(1);
+    assertEngine(processor, "<a><b>x</b><c>y</c></a>", "<a><c>y</c><b>x</b></a>", Engine.OPTIMISTIC);
+  }
+
+  @Test
+  void testOptimisticFallback() throws LoadingException {
+    AdaptiveXMLProcessor processor = newProcessor();
+    processor.setThreshold(1);
+    assertEngine(processor, "<r><b k='x'>w w x </b><a>w </a><a k='x'></a></r>",
+        "<r><a><a>w y <a></a></a></a><a><a></a>w </a></r>", Engine.OPTIMISTIC);
+  }
+
+  @Test
+  void testDecisionLargeFewEdits() throws LoadingException {
+    StringBuilder a = new StringBuilder("<a>");
+    StringBuilder b = new StringBuilder("<a>");
+    for (int i = 0; i < 500; i++) {
+      a.append("<p>").append(i).append("</p>");
+      b.append("<p>").append(i == 250 ? "x" : Integer.toString(i)).append("</p>");
+      if (i == 10) b.append("<q/>");
+    }
+    a.append("</a>");
+    b.append("</a>");
+    assertEngine(newProcessor(), a.toString(), b.toString(), Engine.OPTIMISTIC);
+  }
+
+  @Test
+  void testRandomOptimistic() throws LoadingException {
+    RandomXMLFactory factory = new RandomXMLFactory();
+    AdaptiveXMLProcessor processor = newProcessor();
+    processor.setThreshold(1);
+    double[] changes = {.05, .1, .2, .5, .8};
+    for (int i = 0; i < 1000; i++) {
+      Document docA = factory.getRandomXML(1 + i % 5, 1 + i % 6);
+      Document docB = factory.vary(docA, changes[i % changes.length]);
+      Sequence seqA = TestTokens.loadSequence(DOMUtils.toString(docA, true), TextGranularity.SPACE_WORD);
+      Sequence seqB = TestTokens.loadSequence(DOMUtils.toString(docB, true), TextGranularity.SPACE_WORD);
+      ActionsBuffer<XMLToken> buffer = new ActionsBuffer<>();
+      XMLBalanceCheckFilter check = new XMLBalanceCheckFilter(buffer);
+      processor.diff(seqA.tokens(), seqB.tokens(), check);
+      assertTrue(check.isBalanced(), () -> check.getErrors().toString());
+      DiffAssertions.assertIsCorrect(seqA, seqB, buffer.getActions());
+    }
+  }
+
+  private static Decision assertEngine(AdaptiveXMLProcessor processor, String xml1, String xml2, Engine engine)
+      throws LoadingException {
+    Sequence seq1 = TestTokens.loadSequence(xml1, TextGranularity.SPACE_WORD);
+    Sequence seq2 = TestTokens.loadSequence(xml2, TextGranularity.SPACE_WORD);
+    List<Decision> decisions = new ArrayList<>();
+    processor.setReporter(decisions::add);
+    List<Action<XMLToken>> actions = TestActions.diffToActions(processor, seq1.tokens(), seq2.tokens());
+    assertEquals(1, decisions.size());
+    assertEquals(engine, decisions.get(0).engine());
+    assertEquals(seq1.size(), decisions.get(0).fromSize());
+    assertEquals(seq2.size(), decisions.get(0).toSize());
+    assertEquals(engine, processor.decide(seq1.tokens(), seq2.tokens()).engine());
+    DiffAssertions.assertIsCorrect(seq1, seq2, actions);
+    DiffAssertions.assertIsWellFormedXML(actions);
+    return decisions.get(0);
+  }
+
+  @Nested
+  public class GeneralDiff extends BasicGeneralDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newProcessor();
+    }
+  }
+
+  @Nested
+  public class BasicXMLDiff extends BasicXMLDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newProcessor();
+    }
+  }
+
+  @Nested
+  public class AdvancedXMLDiff extends AdvancedXMLDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newProcessor();
+    }
+  }
+
+  @Nested
+  public class CoalesceXMLDiff extends CoalesceXMLDiffTest {
+    @Override
+    public DiffProcessor<XMLToken> getProcessor() {
+      AdaptiveXMLProcessor processor = newProcessor();
+      processor.setCoalesce(true);
+      return processor;
+    }
+  }
+
+  @Nested
+  public class RandomXMLDiff extends RandomXMLDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      AdaptiveXMLProcessor processor = newProcessor();
+      processor.setThreshold(Integer.MAX_VALUE);
+      return processor;
+    }
+  }
+
+  @Nested
+  public class ContextXMLDiff extends ContextXMLDiffTest {
+    @Override
+    public DiffProcessor<XMLToken> getProcessor(DiffContext context, boolean fallbackToReplace) {
+      AdaptiveXMLProcessor processor = newProcessor();
+      processor.setContext(context);
+      processor.setFallbackToReplace(fallbackToReplace);
+      return processor;
+    }
+  }
+
+}
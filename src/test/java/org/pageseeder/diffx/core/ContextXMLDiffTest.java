@@ -0,0 +1,104 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.core;
+
+import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.action.Action;
+import org.pageseeder.diffx.action.OperationsBuffer;
+import org.pageseeder.diffx.api.DiffCancelledException;
+import org.pageseeder.diffx.api.DiffContext;
+import org.pageseeder.diffx.api.LoadingException;
+import org.pageseeder.diffx.api.Operator;
+import org.pageseeder.diffx.config.TextGranularity;
+import org.pageseeder.diffx.test.DiffAssertions;
+import org.pageseeder.diffx.test.TestActions;
+import org.pageseeder.diffx.test.TestTokens;
+import org.pageseeder.diffx.token.XMLToken;
+import org.pageseeder.diffx.xml.Sequence;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for processors checking a diff context.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public abstract class ContextXMLDiffTest {
+
+  private static final String XML_A = "<a><b>x y z</b><c>u v</c><e>t</e></a>";
+
+  private static final String XML_B = "<a><b>x w z</b><d>u v</d><e k='1'>t</e></a>";
+
+  /**
+   * @param context           The context checked by the processor
+   * @param fallbackToReplace Whether to replace all tokens when the deadline is exceeded
+   *
+   * @return The processor instance to use for testing.
+   */
+  public abstract DiffProcessor<XMLToken> getProcessor(DiffContext context, boolean fallbackToReplace);
+
+  @Test
+  public final void testActive() throws LoadingException {
+    Sequence a = TestTokens.loadSequence(XML_A, TextGranularity.SPACE_WORD);
+    Sequence b = TestTokens.loadSequence(XML_B, TextGranularity.SPACE_WORD);
+    DiffContext context = DiffContext.withTimeout(Duration.ofMinutes(1));
+    List<Action<XMLToken>> expected = TestActions.diffToActions(getProcessor(DiffContext.NONE, false), a.tokens(), b.tokens());
+    List<Action<XMLToken>> actual = TestActions.diffToActions(getProcessor(context, true), a.tokens(), b.tokens());
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public final void testCancelled() throws LoadingException {
+    Sequence a = TestTokens.loadSequence(XML_A, TextGranularity.SPACE_WORD);
+    Sequence b = TestTokens.loadSequence(XML_B, TextGranularity.SPACE_WORD);
+    DiffContext context = DiffContext.cancellable();
+    context.cancel();
+    DiffProcessor<XMLToken> processor = getProcessor(context, true);
+    DiffCancelledException ex = assertThrows(DiffCancelledException.class,
+        () -> processor.diff(a.tokens(), b.tokens(), new OperationsBuffer<>()));
+    assertFalse(ex.isExpired());
+  }
+
+  @Test
+  public final void testExpired() throws LoadingException {
+    Sequence a = TestTokens.loadSequence(XML_A, TextGranularity.SPACE_WORD);
+    Sequence b = TestTokens.loadSequence(XML_B, TextGranularity.SPACE_WORD);
+    DiffProcessor<XMLToken> processor = getProcessor(DiffContext.withTimeout(Duration.ZERO), false);
+    DiffCancelledException ex = assertThrows(DiffCancelledException.class,
+        () -> processor.diff(a.tokens(), b.tokens(), new OperationsBuffer<>()));
+    assertTrue(ex.isExpired());
+  }
+
+  @Test
+  public final void testExpiredFallback() throws LoadingException {
+    Sequence a = TestTokens.loadSequence(XML_A, TextGranularity.SPACE_WORD);
+    Sequence b = TestTokens.loadSequence(XML_B, TextGranularity.SPACE_WORD);
+    DiffProcessor<XMLToken> processor = getProcessor(DiffContext.withTimeout(Duration.ZERO), true);
+    List<Action<XMLToken>> actions = TestActions.diffToActions(processor, a.tokens(), b.tokens());
+    DiffAssertions.assertIsCorrect(a, b, actions);
+    DiffAssertions.assertIsWellFormedXML(actions);
+    assertEquals(2, actions.size());
+    assertEquals(Operator.DEL, actions.get(0).operator());
+    assertEquals(Operator.INS, actions.get(1).operator());
+  }
+
+}
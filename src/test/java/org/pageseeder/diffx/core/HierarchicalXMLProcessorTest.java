@@ -0,0 +1,145 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.core;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.action.Action;
+import org.pageseeder.diffx.action.Actions;
+import org.pageseeder.diffx.algorithm.BasicGeneralDiffTest;
+import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.DiffContext;
+import org.pageseeder.diffx.api.LoadingException;
+import org.pageseeder.diffx.api.Operator;
+import org.pageseeder.diffx.config.TextGranularity;
+import org.pageseeder.diffx.test.DiffAssertions;
+import org.pageseeder.diffx.test.TestActions;
+import org.pageseeder.diffx.test.TestTokens;
+import org.pageseeder.diffx.token.XMLToken;
+import org.pageseeder.diffx.xml.Sequence;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test case for the hierarchical XML processor.
+ *
+ * <p>Since elements are only compared with elements at the same level, the output differs from the
+ * XML-LCS expected by the basic and advanced XML tests when elements are moved across levels.</p>
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public final class HierarchicalXMLProcessorTest {
+
+  private HierarchicalXMLProcessor newProcessor() {
+    return new HierarchicalXMLProcessor();
+  }
+
+  @Test
+  void testIdentical() throws LoadingException {
+    assertDiffXMLOK("<a><b>x</b><c>y</c></a>", "<a><b>x</b><c>y</c></a>", "<a><b>x</b><c>y</c></a>");
+  }
+
+  @Test
+  void testChangedText() throws LoadingException {
+    assertDiffXMLOK("<a><b>x</b><c>y</c></a>", "<a><b>x</b><c>z</c></a>", "<a><b>x</b><c>+z-y</c></a>");
+  }
+
+  @Test
+  void testChangedAttribute() throws LoadingException {
+    assertDiffXMLOK("<a><b x='1' y='2'>t</b></a>", "<a><b x='1' y='3'>t</b></a>",
+        "<a><b>@(x=1)-@(y=2)+@(y=3)t</b></a>", "<a><b>@(x=1)+@(y=3)-@(y=2)t</b></a>");
+  }
+
+  @Test
+  void testInsertedElement() throws LoadingException {
+    assertDiffXMLOK("<a><b>x</b><c>y</c></a>", "<a><b>x</b><d>z</d><c>y</c></a>", "<a><b>x</b>+<d>+z+</d><c>y</c></a>");
+  }
+
+  @Test
+  void testDeepChange() throws LoadingException {
+    StringBuilder a = new StringBuilder("<a>");
+    StringBuilder b = new StringBuilder("<a>");
+    for (int i = 0; i < 100; i++) {
+      a.append("<s><p>").append(i).append("</p><p>x</p></s>");
+      b.append("<s><p>").append(i).append("</p><p>").append(i == 50 ? "y" : "x").append("</p></s>");
+    }
+    a.append("</a>");
+    b.append("</a>");
+    List<Action<XMLToken>> actions = assertDiffXMLOK(a.toString(), b.toString());
+    assertEquals(2, Actions.toOperations(actions).stream().filter(o -> o.operator() != Operator.MATCH).count());
+  }
+
+  @Test
+  void testMovedAcrossLevels() throws LoadingException {
+    assertDiffXMLOK("<a>x</a>", "<a><a>x</a></a>");
+    assertDiffXMLOK("<a><b>X</b></a>", "<b><a>X</a></b>");
+  }
+
+  private List<Action<XMLToken>> assertDiffXMLOK(String xmlA, String xmlB, String... exp) throws LoadingException {
+    Sequence seqA = TestTokens.loadSequence(xmlA, TextGranularity.SPACE_WORD);
+    Sequence seqB = TestTokens.loadSequence(xmlB, TextGranularity.SPACE_WORD);
+    List<Action<XMLToken>> actions = TestActions.diffToActions(newProcessor(), seqA.tokens(), seqB.tokens());
+    DiffAssertions.assertIsCorrect(seqA, seqB, actions);
+    DiffAssertions.assertIsWellFormedXML(actions);
+    if (exp.length > 0) {
+      DiffAssertions.assertMatchTestOutput(actions, exp);
+    }
+    return actions;
+  }
+
+  @Nested
+  public class GeneralDiff extends BasicGeneralDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newProcessor();
+    }
+  }
+
+  @Nested
+  public class CoalesceXMLDiff extends CoalesceXMLDiffTest {
+    @Override
+    public DiffProcessor<XMLToken> getProcessor() {
+      HierarchicalXMLProcessor processor = newProcessor();
+      processor.setCoalesce(true);
+      return processor;
+    }
+  }
+
+  @Nested
+  public class RandomXMLDiff extends RandomXMLDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newProcessor();
+    }
+  }
+
+  @Nested
+  public class ContextXMLDiff extends ContextXMLDiffTest {
+    @Override
+    public DiffProcessor<XMLToken> getProcessor(DiffContext context, boolean fallbackToReplace) {
+      HierarchicalXMLProcessor processor = newProcessor();
+      processor.setContext(context);
+      processor.setFallbackToReplace(fallbackToReplace);
+      return processor;
+    }
+  }
+
+}
@@ -19,13 +19,14 @@ import org.junit.jupiter.api.Nested;
 import org.pageseeder.diffx.algorithm.BasicGeneralDiffTest;
 import org.pageseeder.diffx.algorithm.BasicXMLDiffTest;
 import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.DiffContext;
 import org.pageseeder.diffx.token.XMLToken;
 
 /**
  * Test case for progressive XML processor.
  *
  * @author Christophe Lauret
- * @version 0.9.0
+ * @version 1.3.4
  */
 public final class OptimisticXMLProcessorTest {
 
@@ -77,4 +78,15 @@ public final class OptimisticXMLProcessorTest {
     }
   }
 
+  @Nested
+  public class ContextXMLDiff extends ContextXMLDiffTest {
+    @Override
+    public DiffProcessor<XMLToken> getProcessor(DiffContext context, boolean fallbackToReplace) {
+      OptimisticXMLProcessor processor = newProcessor();
+      processor.setContext(context);
+      processor.setFallbackToReplace(fallbackToReplace);
+      return processor;
+    }
+  }
+
 }
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.core;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.action.Action;
+import org.pageseeder.diffx.action.ActionsBuffer;
+import org.pageseeder.diffx.algorithm.BasicGeneralDiffTest;
+import org.pageseeder.diffx.algorithm.BasicXMLDiffTest;
+import org.pageseeder.diffx.algorithm.RandomGeneralDiffTest;
+import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.DiffCancelledException;
+import org.pageseeder.diffx.api.DiffContext;
+import org.pageseeder.diffx.api.LoadingException;
+import org.pageseeder.diffx.config.TextGranularity;
+import org.pageseeder.diffx.handler.XMLBalanceCheckFilter;
+import org.pageseeder.diffx.load.XMLStreamLoader;
+import org.pageseeder.diffx.test.DOMUtils;
+import org.pageseeder.diffx.test.DiffAssertions;
+import org.pageseeder.diffx.test.RandomXMLFactory;
+import org.pageseeder.diffx.test.TestActions;
+import org.pageseeder.diffx.test.TestTokens;
+import org.pageseeder.diffx.token.AttributeToken;
+import org.pageseeder.diffx.token.StartElementToken;
+import org.pageseeder.diffx.token.XMLToken;
+import org.pageseeder.diffx.xml.Sequence;
+import org.w3c.dom.Document;
+
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test case for the streaming XML processor.
+ *
+ * <p>With the default window, small sequences fit in a single window so the results are the same
+ * as the {@link DefaultXMLProcessor}. Sequences are also compared using a tiny window so that
+ * sliding windows are tested on small sequences, but since the result is approximate, only the
+ * correctness of the results is checked.</p>
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+public final class StreamingXMLProcessorTest {
+
+  private StreamingXMLProcessor newProcessor() {
+    return new StreamingXMLProcessor();
+  }
+
+  private StreamingXMLProcessor newSlidingProcessor() {
+    StreamingXMLProcessor processor = new StreamingXMLProcessor();
+    processor.setWindowSize(4);
+    return processor;
+  }
+
+  @Test
+  void testSliding() throws LoadingException {
+    assertDiffXMLOK("<a><b>x</b><c>y</c></a>", "<a><b>x</b><c>z</c></a>", "<a><b>x</b><c>-y+z</c></a>");
+    assertDiffXMLOK("<a><b>x</b><c>y</c></a>", "<a><c>y</c><b>x</b></a>");
+    assertDiffXMLOK("<a x='1' y='2'><b>x</b></a>", "<a x='2' y='2'><b>y</b><b>x</b></a>");
+    assertDiffXMLOK("<a><b>x y z</b></a>", "<c><b>x y z</b></c>");
+    assertDiffXMLOK("<a>x</a>", "<a><a>x</a></a>");
+    assertDiffXMLOK("<a><b>X</b></a>", "<b><a>X</a></b>");
+    assertDiffXMLOK("<a>one two three four five six</a>", "<b>one two three four five six</b>");
+  }
+
+  @Test
+  void testWindowSize() {
+    StreamingXMLProcessor processor = newProcessor();
+    assertEquals(StreamingXMLProcessor.DEFAULT_WINDOW_SIZE, processor.getWindowSize());
+    assertThrows(IllegalArgumentException.class, () -> processor.setWindowSize(1));
+  }
+
+  @Test
+  void testAttributesLargerThanWindow() throws LoadingException {
+    Sequence a = TestTokens.loadSequence("<r><a x='1' y='2' z='3' t='4'>x</a></r>", TextGranularity.SPACE_WORD);
+    Sequence b = TestTokens.loadSequence("<r>y <a x='1' y='2' z='3' t='4'>x</a></r>", TextGranularity.SPACE_WORD);
+    for (int windowSize = 2; windowSize <= 4; windowSize++) {
+      StreamingXMLProcessor processor = newProcessor();
+      processor.setWindowSize(windowSize);
+      List<Action<XMLToken>> actions = TestActions.diffToActions(processor, a.tokens(), b.tokens());
+      DiffAssertions.assertIsCorrect(a, b, actions);
+      assertAttributesFollowElements(actions);
+    }
+  }
+
+  @Test
+  void testExpired() throws LoadingException {
+    Sequence a = TestTokens.loadSequence("<a><b>x</b><c>y</c></a>", TextGranularity.SPACE_WORD);
+    Sequence b = TestTokens.loadSequence("<a><b>x</b><c>z</c></a>", TextGranularity.SPACE_WORD);
+    StreamingXMLProcessor processor = newProcessor();
+    processor.setContext(DiffContext.withTimeout(Duration.ZERO));
+    processor.setFallbackToReplace(true);
+    DiffCancelledException ex = assertThrows(DiffCancelledException.class,
+        () -> processor.diff(a.tokens(), b.tokens(), new ActionsBuffer<>()));
+    assertTrue(ex.isExpired());
+  }
+
+  @Test
+  void testStream() throws LoadingException {
+    StringBuilder a = new StringBuilder("<doc>");
+    StringBuilder b = new StringBuilder("<doc>");
+    for (int i = 0; i < 2000; i++) {
+      a.append("<p id='").append(i).append("'>paragraph ").append(i).append(" <b>bold</b> text</p>");
+      if (i == 1000) continue;
+      b.append("<p id='").append(i).append("'>paragraph ").append(i % 500 == 0 ? "changed" : i).append(" <b>bold</b> text</p>");
+    }
+    a.append("</doc>");
+    b.append("</doc>");
+    XMLStreamLoader loader = new XMLStreamLoader();
+    StreamingXMLProcessor processor = newProcessor();
+    processor.setWindowSize(256);
+    ActionsBuffer<XMLToken> buffer = new ActionsBuffer<>();
+    processor.diff(loader.iterator(new StringReader(a.toString())), loader.iterator(new StringReader(b.toString())), buffer);
+    assertEquals(3 * 2 + 12, buffer.countEdits());
+    Sequence seqA = loader.load(a.toString());
+    Sequence seqB = loader.load(b.toString());
+    List<Action<XMLToken>> actions = buffer.getActions();
+    DiffAssertions.assertIsCorrect(seqA, seqB, actions);
+    DiffAssertions.assertIsWellFormedXML(actions);
+  }
+
+  @Test
+  void testRandomWindows() throws LoadingException {
+    RandomXMLFactory factory = new RandomXMLFactory();
+    for (int windowSize : new int[]{2, 3, 4, 16, 64}) {
+      StreamingXMLProcessor processor = newProcessor();
+      processor.setWindowSize(windowSize);
+      for (int i = 0; i < 100; i++) {
+        Document docA = factory.getRandomXML(4, 4);
+        Document docB = factory.vary(docA, i % 2 == 0 ? .2 : .5);
+        Sequence seqA = TestTokens.loadSequence(DOMUtils.toString(docA, true), TextGranularity.SPACE_WORD);
+        Sequence seqB = TestTokens.loadSequence(DOMUtils.toString(docB, true), TextGranularity.SPACE_WORD);
+        ActionsBuffer<XMLToken> buffer = new ActionsBuffer<>();
+        XMLBalanceCheckFilter check = new XMLBalanceCheckFilter(buffer);
+        processor.diff(seqA.tokens(), seqB.tokens(), check);
+        assertTrue(check.isBalanced(), () -> "Window " + windowSize + ": " + check.getErrors());
+        DiffAssertions.assertIsCorrect(seqA, seqB, buffer.getActions());
+        assertAttributesFollowElements(buffer.getActions());
+      }
+    }
+  }
+
+  private static void assertAttributesFollowElements(List<Action<XMLToken>> actions) {
+    XMLToken previous = null;
+    for (Action<XMLToken> action : actions) {
+      for (XMLToken token : action.tokens()) {
+        if (token instanceof AttributeToken) {
+          assertTrue(previous instanceof StartElementToken || previous instanceof AttributeToken,
+              () -> "Attribute " + token + " reported after content in " + actions);
+        }
+        previous = token;
+      }
+    }
+  }
+
+  private void assertDiffXMLOK(String xmlA, String xmlB, String... exp) throws LoadingException {
+    Sequence seqA = TestTokens.loadSequence(xmlA, TextGranularity.SPACE_WORD);
+    Sequence seqB = TestTokens.loadSequence(xmlB, TextGranularity.SPACE_WORD);
+    List<Action<XMLToken>> actions = TestActions.diffToActions(newSlidingProcessor(), seqA.tokens(), seqB.tokens());
+    DiffAssertions.assertIsCorrect(seqA, seqB, actions);
+    DiffAssertions.assertIsWellFormedXML(actions);
+    if (exp.length > 0) {
+      DiffAssertions.assertMatchTestOutput(actions, exp);
+    }
+  }
+
+  @Nested
+  public class GeneralDiff extends BasicGeneralDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newProcessor();
+    }
+  }
+
+  @Nested
+  public class BasicXMLDiff extends BasicXMLDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newProcessor();
+    }
+  }
+
+  @Nested
+  public class AdvancedXMLDiff extends AdvancedXMLDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newProcessor();
+    }
+  }
+
+  @Nested
+  public class CoalesceXMLDiff extends CoalesceXMLDiffTest {
+    @Override
+    public DiffProcessor<XMLToken> getProcessor() {
+      StreamingXMLProcessor processor = newProcessor();
+      processor.setCoalesce(true);
+      return processor;
+    }
+  }
+
+  @Nested
+  public class SlidingRandomGeneralDiff extends RandomGeneralDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newSlidingProcessor();
+    }
+  }
+
+  @Nested
+  public class SlidingRandomXMLDiff extends RandomXMLDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newSlidingProcessor();
+    }
+  }
+
+}
@@ -17,14 +17,24 @@ package org.pageseeder.diffx.core;
 
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.action.OperationsBuffer;
 import org.pageseeder.diffx.algorithm.BasicGeneralDiffTest;
 import org.pageseeder.diffx.algorithm.BasicLinesDiffTest;
 import org.pageseeder.diffx.algorithm.RandomGeneralDiffTest;
 import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.DiffCancelledException;
+import org.pageseeder.diffx.api.DiffContext;
 import org.pageseeder.diffx.core.TextOnlyProcessor.Algorithm;
+import org.pageseeder.diffx.profile.Profilers;
+import org.pageseeder.diffx.test.TestTokens;
 import org.pageseeder.diffx.token.XMLToken;
+import org.pageseeder.diffx.token.impl.CharToken;
 import org.pageseeder.diffx.token.impl.LineToken;
 
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -36,6 +46,12 @@ final class TextOnlyProcessorTest {
     return new TextOnlyProcessor<>(algorithm);
   }
 
+  private static <T> DiffAlgorithm<T> interningProcessor(Algorithm algorithm) {
+    TextOnlyProcessor<T> processor = new TextOnlyProcessor<>(algorithm);
+    processor.setInterning(true);
+    return processor;
+  }
+
   @Test
   void testToString() {
     String result = new TextOnlyProcessor<>().toString();
@@ -43,6 +59,49 @@ final class TextOnlyProcessorTest {
     assertTrue(result.endsWith("}"));
   }
 
+  @Test
+  void testCancelled() {
+    List<CharToken> a = TestTokens.toCharTokens("abcdef");
+    List<CharToken> b = TestTokens.toCharTokens("abxdyf");
+    DiffContext context = DiffContext.cancellable();
+    context.cancel();
+    for (Algorithm algorithm : Algorithm.values()) {
+      TextOnlyProcessor<XMLToken> processor = new TextOnlyProcessor<>(algorithm);
+      processor.setContext(context);
+      assertThrows(DiffCancelledException.class, () -> processor.diff(a, b, new OperationsBuffer<>()), algorithm.name());
+    }
+  }
+
+  @Test
+  void testInterningSameResult() {
+    for (Algorithm algorithm : new Algorithm[]{Algorithm.HIRSCHBERG, Algorithm.MYER_GREEDY}) {
+      for (int i = 0; i < 20; i++) {
+        String from = Profilers.getRandomString(100 + i * 10, false);
+        List<CharToken> a = TestTokens.toCharTokens(from);
+        List<CharToken> b = TestTokens.toCharTokens(Profilers.vary(from, .05 * (i % 5)));
+        OperationsBuffer<XMLToken> expected = new OperationsBuffer<>();
+        new TextOnlyProcessor<XMLToken>(algorithm).diff(a, b, expected);
+        OperationsBuffer<XMLToken> actual = new OperationsBuffer<>();
+        TextOnlyProcessorTest.<XMLToken>interningProcessor(algorithm).diff(a, b, actual);
+        assertEquals(expected.getOperations(), actual.getOperations(), algorithm.name());
+      }
+    }
+  }
+
+  @Test
+  void testInterningCancelled() {
+    List<CharToken> a = TestTokens.toCharTokens("abcdef");
+    List<CharToken> b = TestTokens.toCharTokens("abxdyf");
+    DiffContext context = DiffContext.cancellable();
+    context.cancel();
+    for (Algorithm algorithm : new Algorithm[]{Algorithm.HIRSCHBERG, Algorithm.MYER_GREEDY}) {
+      TextOnlyProcessor<XMLToken> processor = new TextOnlyProcessor<>(algorithm);
+      processor.setInterning(true);
+      processor.setContext(context);
+      assertThrows(DiffCancelledException.class, () -> processor.diff(a, b, new OperationsBuffer<>()), algorithm.name());
+    }
+  }
+
   @Nested
   public class KumarRanganDiff extends BasicGeneralDiffTest {
     @Override
@@ -67,6 +126,14 @@ final class TextOnlyProcessorTest {
     }
   }
 
+  @Nested
+  public class AllisonDixDiff extends BasicGeneralDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return processor(Algorithm.ALLISON_DIX);
+    }
+  }
+
   @Nested
   public class HirschbergDiff extends BasicGeneralDiffTest {
     @Override
@@ -75,6 +142,14 @@ final class TextOnlyProcessorTest {
     }
   }
 
+  @Nested
+  public class HirschbergInterningDiff extends BasicGeneralDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return interningProcessor(Algorithm.HIRSCHBERG);
+    }
+  }
+
   @Nested
   public class HistogramDiff extends BasicGeneralDiffTest {
     @Override
@@ -91,6 +166,14 @@ final class TextOnlyProcessorTest {
     }
   }
 
+  @Nested
+  public class MyerGreedyInterningDiff extends BasicGeneralDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return interningProcessor(Algorithm.MYER_GREEDY);
+    }
+  }
+
   @Nested
   public class MyerGreedy2Diff extends BasicGeneralDiffTest {
     @Override
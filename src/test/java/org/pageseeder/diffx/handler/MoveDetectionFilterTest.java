@@ -0,0 +1,241 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.handler;
+
+import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.action.Operation;
+import org.pageseeder.diffx.action.OperationsBuffer;
+import org.pageseeder.diffx.api.LoadingException;
+import org.pageseeder.diffx.api.MoveHandler;
+import org.pageseeder.diffx.api.Operator;
+import org.pageseeder.diffx.config.TextGranularity;
+import org.pageseeder.diffx.core.DefaultXMLProcessor;
+import org.pageseeder.diffx.format.DefaultXMLDiffOutput;
+import org.pageseeder.diffx.test.DOMUtils;
+import org.pageseeder.diffx.test.DiffAssertions;
+import org.pageseeder.diffx.test.RandomXMLFactory;
+import org.pageseeder.diffx.test.TestTokens;
+import org.pageseeder.diffx.token.XMLToken;
+import org.pageseeder.diffx.token.XMLTokenType;
+import org.pageseeder.diffx.xml.Sequence;
+import org.w3c.dom.Document;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class MoveDetectionFilterTest {
+
+  private static final String SECTION = "<section><h>Moved</h><p>This section is long enough to be reported as a move</p>"
+      + "<p>because it includes more tokens than the default minimum length</p>"
+      + "<p>and no other section has the same content</p></section>";
+
+  @Test
+  void testMovedSection() throws LoadingException {
+    Sequence a = load("<doc>" + SECTION + sections(5) + "</doc>");
+    Sequence b = load("<doc>" + sections(5) + SECTION + "</doc>");
+    MoveRecorder recorder = diff(a, b, MoveDetectionFilter.DEFAULT_MINIMUM_LENGTH);
+    assertEquals(2, recorder.moves.size());
+    assertEquals(recorder.moves.get(0).tokens, recorder.moves.get(1).tokens);
+    assertEquals(load(SECTION).tokens(), recorder.moves.get(0).tokens);
+    assertEquals(a.tokens(), recorder.tokens(Operator.DEL));
+    assertEquals(b.tokens(), recorder.tokens(Operator.INS));
+  }
+
+  @Test
+  void testShortMove() throws LoadingException {
+    Sequence a = load("<doc><p>x y</p>" + section(1) + "</doc>");
+    Sequence b = load("<doc>" + section(1) + "<p>x y</p></doc>");
+    MoveRecorder recorder = diff(a, b, MoveDetectionFilter.DEFAULT_MINIMUM_LENGTH);
+    assertTrue(recorder.moves.isEmpty());
+    recorder = diff(a, b, 4);
+    assertEquals(2, recorder.moves.size());
+    assertEquals(a.tokens(), recorder.tokens(Operator.DEL));
+    assertEquals(b.tokens(), recorder.tokens(Operator.INS));
+  }
+
+  @Test
+  void testUnbalancedBlock() throws LoadingException {
+    // The same words are moved but from one element to another
+    Sequence a = load("<doc><p>a b c d e f g h</p><q>x</q></doc>");
+    Sequence b = load("<doc><q>x</q><r>a b c d e f g h</r></doc>");
+    MoveRecorder recorder = diff(a, b, 8);
+    for (Move move : recorder.moves) {
+      int depth = 0;
+      for (XMLToken token : move.tokens) {
+        if (token.getType() == XMLTokenType.START_ELEMENT) depth++;
+        if (token.getType() == XMLTokenType.END_ELEMENT) depth--;
+        assertTrue(depth >= 0);
+      }
+      assertEquals(0, depth);
+    }
+    assertEquals(a.tokens(), recorder.tokens(Operator.DEL));
+    assertEquals(b.tokens(), recorder.tokens(Operator.INS));
+  }
+
+  @Test
+  void testNoMoveHandler() throws LoadingException {
+    Sequence a = load("<doc>" + SECTION + section(1) + "</doc>");
+    Sequence b = load("<doc>" + section(1) + SECTION + "</doc>");
+    OperationsBuffer<XMLToken> expected = new OperationsBuffer<>();
+    new DefaultXMLProcessor().diff(a.tokens(), b.tokens(), expected);
+    OperationsBuffer<XMLToken> got = new OperationsBuffer<>();
+    new DefaultXMLProcessor().diff(a.tokens(), b.tokens(), new MoveDetectionFilter(got));
+    assertEquals(expected.getOperations(), got.getOperations());
+  }
+
+  @Test
+  void testDefaultOutput() throws LoadingException {
+    Sequence a = load("<doc>" + SECTION + sections(5) + "</doc>");
+    Sequence b = load("<doc>" + sections(5) + SECTION + "</doc>");
+    StringWriter xml = new StringWriter();
+    DefaultXMLDiffOutput output = new DefaultXMLDiffOutput(xml);
+    output.setWriteXMLDeclaration(false);
+    new DefaultXMLProcessor().diff(a.tokens(), b.tokens(), new MoveDetectionFilter(output));
+    String got = xml.toString();
+    assertTrue(got.contains("<diff:move-from id=\"1\"/>"), got);
+    assertTrue(got.contains("<diff:move-to id=\"1\"><section><h>Moved</h>"), got);
+  }
+
+  @Test
+  void testRandom() throws Exception {
+    RandomXMLFactory factory = new RandomXMLFactory();
+    int moves = 0;
+    for (int i = 0; i < 100; i++) {
+      Document docX = factory.getRandomXML(4, 4);
+      Document docY = factory.getRandomXML(4, 4);
+      String x = toXML(docX);
+      String y = toXML(docY);
+      // Move X after Y and vary both
+      Sequence a = load("<root>" + x + y + "</root>");
+      Sequence b = load("<root>" + toXML(factory.vary(docY, .2)) + toXML(factory.vary(docX, .1)) + "</root>");
+      MoveRecorder recorder = diff(a, b, 8);
+      moves += recorder.moves.size();
+      assertEquals(a.tokens(), recorder.tokens(Operator.DEL));
+      assertEquals(b.tokens(), recorder.tokens(Operator.INS));
+      StringWriter xml = new StringWriter();
+      MoveDetectionFilter filter = new MoveDetectionFilter(new DefaultXMLDiffOutput(xml));
+      filter.setMinimumLength(8);
+      new DefaultXMLProcessor().diff(a.tokens(), b.tokens(), filter);
+      DiffAssertions.assertIsWellFormedXML(xml.toString());
+    }
+    assertTrue(moves > 0);
+  }
+
+  @Test
+  void testRepetitive() throws LoadingException {
+    StringBuilder paragraphs = new StringBuilder();
+    for (int i = 0; i < 200; i++) paragraphs.append("<p>a a a a a a a a a a</p>");
+    Sequence a = load("<doc>" + SECTION + paragraphs + "</doc>");
+    Sequence b = load("<doc>" + paragraphs + SECTION + "</doc>");
+    MoveRecorder recorder = diff(a, b, MoveDetectionFilter.DEFAULT_MINIMUM_LENGTH);
+    assertEquals(2, recorder.moves.size());
+    assertEquals(a.tokens(), recorder.tokens(Operator.DEL));
+    assertEquals(b.tokens(), recorder.tokens(Operator.INS));
+  }
+
+  @Test
+  void testMinimumLength() {
+    MoveDetectionFilter filter = new MoveDetectionFilter(new OperationsBuffer<>());
+    assertEquals(MoveDetectionFilter.DEFAULT_MINIMUM_LENGTH, filter.getMinimumLength());
+    filter.setMinimumLength(1);
+    assertEquals(1, filter.getMinimumLength());
+    assertThrows(IllegalArgumentException.class, () -> filter.setMinimumLength(0));
+  }
+
+  private static String sections(int count) {
+    StringBuilder xml = new StringBuilder();
+    for (int i = 1; i <= count; i++) xml.append(section(i));
+    return xml.toString();
+  }
+
+  private static String section(int i) {
+    return "<section><h>Section " + i + "</h><p>Content of section " + i + "</p></section>";
+  }
+
+  private static String toXML(Document document) {
+    return DOMUtils.toString(document, false).replaceFirst("^<\\?xml[^>]*\\?>", "");
+  }
+
+  private static Sequence load(String xml) throws LoadingException {
+    return TestTokens.loadSequence(xml, TextGranularity.SPACE_WORD);
+  }
+
+  private static MoveRecorder diff(Sequence a, Sequence b, int minimumLength) {
+    MoveRecorder recorder = new MoveRecorder();
+    MoveDetectionFilter filter = new MoveDetectionFilter(recorder);
+    filter.setMinimumLength(minimumLength);
+    new DefaultXMLProcessor().diff(a.tokens(), b.tokens(), filter);
+    return recorder;
+  }
+
+  private static final class Move {
+    final Operator operator;
+    final int id;
+    final List<XMLToken> tokens;
+
+    Move(Operator operator, int id, List<? extends XMLToken> tokens) {
+      this.operator = operator;
+      this.id = id;
+      this.tokens = new ArrayList<>(tokens);
+    }
+  }
+
+  /**
+   * Records operations and moves, keeping moves in place so that both sequences can be rebuilt.
+   */
+  private static final class MoveRecorder implements MoveHandler<XMLToken> {
+
+    final List<Object> events = new ArrayList<>();
+
+    final List<Move> moves = new ArrayList<>();
+
+    @Override
+    public void handle(Operator operator, XMLToken token) {
+      this.events.add(new Operation<>(operator, token));
+    }
+
+    @Override
+    public void handleMove(Operator operator, int move, List<? extends XMLToken> tokens) {
+      Move m = new Move(operator, move, tokens);
+      for (Move other : this.moves) {
+        if (other.id == move) assertNotEquals(other.operator, operator);
+      }
+      this.moves.add(m);
+      this.events.add(m);
+    }
+
+    /**
+     * @return The tokens of the sequence on the side of the specified operator.
+     */
+    @SuppressWarnings("unchecked")
+    List<XMLToken> tokens(Operator operator) {
+      List<XMLToken> tokens = new ArrayList<>();
+      for (Object event : this.events) {
+        if (event instanceof Move) {
+          if (((Move) event).operator == operator) tokens.addAll(((Move) event).tokens);
+        } else {
+          Operation<XMLToken> operation = (Operation<XMLToken>) event;
+          if (operation.operator() == operator || operation.operator() == Operator.MATCH) tokens.add(operation.token());
+        }
+      }
+      return tokens;
+    }
+  }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.load;
+
+import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.api.LoadingException;
+import org.pageseeder.diffx.xml.Sequence;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for the concurrent loader.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+final class ConcurrentLoaderTest {
+
+  @Test
+  void testLoad() throws LoadingException, IOException {
+    assertLoaded(new ConcurrentLoader());
+    assertLoaded(ConcurrentLoader.SEQUENTIAL);
+    assertLoaded(new ConcurrentLoader(task -> {
+      throw new RejectedExecutionException();
+    }));
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      assertLoaded(new ConcurrentLoader(executor));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void testConcurrent() throws LoadingException, IOException {
+    Thread caller = Thread.currentThread();
+    ConcurrentLoader.Result result = new ConcurrentLoader().load(
+        () -> {
+          assertSame(caller, Thread.currentThread());
+          return new SAXLoader().load("<a/>");
+        },
+        () -> {
+          assertNotSame(caller, Thread.currentThread());
+          return new SAXLoader().load("<b/>");
+        });
+    assertEquals(2, result.first().size());
+    assertEquals(2, result.second().size());
+  }
+
+  @Test
+  void testFirstFails() {
+    ConcurrentLoader loader = new ConcurrentLoader();
+    assertThrows(LoadingException.class, () -> loader.load(() -> new SAXLoader().load("<a>"), () -> new SAXLoader().load("<b/>")));
+  }
+
+  @Test
+  void testSecondFails() {
+    ConcurrentLoader loader = new ConcurrentLoader();
+    assertThrows(LoadingException.class, () -> loader.load(() -> new SAXLoader().load("<a/>"), () -> new SAXLoader().load("<b>")));
+    assertThrows(IOException.class, () -> loader.load(() -> new SAXLoader().load("<a/>"), () -> {
+      throw new IOException("test");
+    }));
+    assertThrows(IllegalArgumentException.class, () -> loader.load(() -> new SAXLoader().load("<a/>"), () -> {
+      throw new IllegalArgumentException("test");
+    }));
+  }
+
+  @Test
+  void testForNodes() throws Exception {
+    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+    Document a = factory.newDocumentBuilder().newDocument();
+    a.appendChild(a.createElement("a")).appendChild(a.createElement("x"));
+    Document b = factory.newDocumentBuilder().newDocument();
+    b.appendChild(b.createElement("b"));
+    ConcurrentLoader loader = new ConcurrentLoader();
+    assertSame(ConcurrentLoader.SEQUENTIAL, loader.forNodes(a.getDocumentElement(), a.getDocumentElement().getFirstChild()));
+    assertSame(ConcurrentLoader.SEQUENTIAL, loader.forNodes(a, a.getDocumentElement()));
+    assertSame(loader, loader.forNodes(a.getDocumentElement(), b.getDocumentElement()));
+  }
+
+  @Test
+  void testForNodeLists() throws Exception {
+    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+    Document a = factory.newDocumentBuilder().newDocument();
+    a.appendChild(a.createElement("a")).appendChild(a.createElement("x"));
+    Document b = factory.newDocumentBuilder().newDocument();
+    b.appendChild(b.createElement("b"));
+    ConcurrentLoader loader = new ConcurrentLoader();
+    Node x = a.getDocumentElement().getFirstChild();
+    assertSame(loader, loader.forNodes(nodes(a.getDocumentElement()), nodes(b.getDocumentElement())));
+    assertSame(loader, loader.forNodes(nodes(), nodes(b)));
+    assertSame(ConcurrentLoader.SEQUENTIAL, loader.forNodes(nodes(a.getDocumentElement()), nodes(x)));
+    // Only the second node of the first list shares the document of the second list
+    assertSame(ConcurrentLoader.SEQUENTIAL, loader.forNodes(nodes(b, x), nodes(a.getDocumentElement())));
+    assertSame(ConcurrentLoader.SEQUENTIAL, loader.forNodes(nodes(b), nodes(a, b.getDocumentElement())));
+  }
+
+  private static NodeList nodes(Node... nodes) {
+    List<Node> list = Arrays.asList(nodes);
+    return new NodeList() {
+      @Override
+      public Node item(int index) {
+        return index < list.size() ? list.get(index) : null;
+      }
+
+      @Override
+      public int getLength() {
+        return list.size();
+      }
+    };
+  }
+
+  private static void assertLoaded(ConcurrentLoader loader) throws LoadingException, IOException {
+    ConcurrentLoader.Result result = loader.load(() -> new SAXLoader().load("<a>x</a>"), () -> new SAXLoader().load("<b>y z</b>"));
+    Sequence first = new SAXLoader().load("<a>x</a>");
+    Sequence second = new SAXLoader().load("<b>y z</b>");
+    assertEquals(first, result.first());
+    assertEquals(second, result.second());
+    assertTrue(result.firstNanos() >= 0);
+    assertTrue(result.secondNanos() >= 0);
+    assertTrue(result.totalNanos() >= result.firstNanos());
+  }
+
+}
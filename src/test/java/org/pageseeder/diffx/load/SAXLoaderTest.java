@@ -18,6 +18,9 @@ package org.pageseeder.diffx.load;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.pageseeder.diffx.config.DiffConfig;
+import org.pageseeder.diffx.token.TextToken;
+import org.pageseeder.diffx.token.XMLTokenPool;
+import org.pageseeder.diffx.util.LimitedSizeCache;
 
 /**
  * @author Christophe Lauret
@@ -25,12 +28,39 @@ import org.pageseeder.diffx.config.DiffConfig;
  */
 public final class SAXLoaderTest {
 
+  private static final XMLTokenPool POOL = new XMLTokenPool();
+
+  private static final LimitedSizeCache<String, TextToken> TEXT_CACHE = new LimitedSizeCache<>(1024);
+
+  private static final LimitedSizeCache<String, TextToken> WORD_CACHE = new LimitedSizeCache<>(1024);
+
   public XMLLoader configureLoader(DiffConfig config) {
     SAXLoader recorder = new SAXLoader();
     recorder.setConfig(config);
     return recorder;
   }
 
+  public XMLLoader configurePooledLoader(DiffConfig config) {
+    SAXLoader recorder = new SAXLoader();
+    recorder.setConfig(config);
+    recorder.setTokenPool(POOL);
+    return recorder;
+  }
+
+  public XMLLoader configureCachedLoader(DiffConfig config, LimitedSizeCache<String, TextToken> cache) {
+    SAXLoader recorder = new SAXLoader();
+    recorder.setConfig(config);
+    recorder.setTextCache(cache);
+    return recorder;
+  }
+
+  public XMLLoader configureCompactLoader(DiffConfig config) {
+    SAXLoader recorder = new SAXLoader();
+    recorder.setConfig(config);
+    recorder.setCompactText(true);
+    return recorder;
+  }
+
   @Nested
   @DisplayName("Text / No namespace")
   public class Text_NoNamespace extends XMLLoader_Text_NoNS {
@@ -66,4 +96,67 @@ public final class SAXLoaderTest {
       return configureLoader(config);
     }
   }
+
+  @Nested
+  @DisplayName("Text / No namespace / Compact")
+  public class Text_NoNamespace_Compact extends XMLLoader_Text_NoNS {
+    @Override
+    public XMLLoader newXMLLoader(DiffConfig config) {
+      return configureCompactLoader(config);
+    }
+  }
+
+  @Nested
+  @DisplayName("Word / Namespace aware / Compact")
+  public class Word_NamespaceAware_Compact extends XMLLoader_Word_NS {
+    @Override
+    public XMLLoader newXMLLoader(DiffConfig config) {
+      return configureCompactLoader(config);
+    }
+  }
+
+  @Nested
+  @DisplayName("SpaceWord / Namespace aware / Compact")
+  public class SpaceWord_NamespaceAware_Compact extends XMLLoader_SpaceWord_NS {
+    @Override
+    public XMLLoader newXMLLoader(DiffConfig config) {
+      return configureCompactLoader(config);
+    }
+  }
+
+  @Nested
+  @DisplayName("Text / No namespace / Pooled")
+  public class Text_NoNamespace_Pooled extends XMLLoader_Text_NoNS {
+    @Override
+    public XMLLoader newXMLLoader(DiffConfig config) {
+      return configurePooledLoader(config);
+    }
+  }
+
+  @Nested
+  @DisplayName("Word / Namespace aware / Pooled")
+  public class Word_NamespaceAware_Pooled extends XMLLoader_Word_NS {
+    @Override
+    public XMLLoader newXMLLoader(DiffConfig config) {
+      return configurePooledLoader(config);
+    }
+  }
+
+  @Nested
+  @DisplayName("Text / No namespace / Cached")
+  public class Text_NoNamespace_Cached extends XMLLoader_Text_NoNS {
+    @Override
+    public XMLLoader newXMLLoader(DiffConfig config) {
+      return configureCachedLoader(config, TEXT_CACHE);
+    }
+  }
+
+  @Nested
+  @DisplayName("SpaceWord / Namespace aware / Cached")
+  public class SpaceWord_NamespaceAware_Cached extends XMLLoader_SpaceWord_NS {
+    @Override
+    public XMLLoader newXMLLoader(DiffConfig config) {
+      return configureCachedLoader(config, WORD_CACHE);
+    }
+  }
 }
@@ -17,11 +17,23 @@ package org.pageseeder.diffx.load;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.api.LoadingException;
 import org.pageseeder.diffx.config.DiffConfig;
+import org.pageseeder.diffx.token.XMLToken;
+import org.pageseeder.diffx.xml.Sequence;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * @author Christophe Lauret
- * @version 0.9.0
+ * @version 1.3.4
  */
 public final class XMLStreamLoaderTest {
 
@@ -31,6 +43,24 @@ public final class XMLStreamLoaderTest {
     return loader;
   }
 
+  @Test
+  void testIterator() throws LoadingException {
+    String xml = "<a xmlns:x='urn:x' k='v'><x:b>some text</x:b> <!-- c --><?pi data?><c/></a>";
+    XMLStreamLoader loader = new XMLStreamLoader();
+    Sequence sequence = loader.load(xml);
+    List<XMLToken> tokens = new ArrayList<>();
+    loader.iterator(new StringReader(xml)).forEachRemaining(tokens::add);
+    assertEquals(sequence.tokens(), tokens);
+  }
+
+  @Test
+  void testIteratorError() throws LoadingException {
+    Iterator<XMLToken> tokens = new XMLStreamLoader().iterator(new StringReader("<a><b></a>"));
+    assertThrows(IllegalStateException.class, () -> {
+      while (tokens.hasNext()) tokens.next();
+    });
+  }
+
   @Nested
   @DisplayName("Text / No namespace")
   public class Text_NoNamespace extends XMLLoader_Text_NoNS {
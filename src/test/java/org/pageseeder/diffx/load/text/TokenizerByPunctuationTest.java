@@ -135,5 +135,14 @@ final class TokenizerByPunctuationTest {
     assertEquals(new CharactersToken(" and a black mat."), e.get(4));
   }
 
-}
+  @Test
+  void testPunctuation6() {
+    TextTokenizer t = new TokenizerByPunctuation(WhiteSpaceProcessing.PRESERVE);
+    List<TextToken> e = t.tokenize("Wait... what?! ");
+    assertEquals(3, e.size());
+    assertEquals(new CharactersToken("Wait..."), e.get(0));
+    assertEquals(new CharactersToken(" what?!"), e.get(1));
+    assertEquals(new IgnorableSpaceToken(" "), e.get(2));
+  }
 
+}
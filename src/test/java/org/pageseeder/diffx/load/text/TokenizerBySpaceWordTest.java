@@ -18,10 +18,18 @@ package org.pageseeder.diffx.load.text;
 import org.junit.jupiter.api.Test;
 import org.pageseeder.diffx.config.WhiteSpaceProcessing;
 import org.pageseeder.diffx.token.TextToken;
+import org.pageseeder.diffx.token.impl.IgnorableSpaceToken;
+import org.pageseeder.diffx.token.impl.SpaceToken;
+import org.pageseeder.diffx.token.impl.WordToken;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.pageseeder.diffx.test.TestTokens.toTextTokens;
 
@@ -231,4 +239,74 @@ final class TokenizerBySpaceWordTest {
     assertEquals(toTextTokens("A", " test", ")"), tokens);
   }
 
+  @Test
+  void testQuoted() {
+    List<TextToken> tokens = TokenizerBySpaceWord.tokenize("A \"test\" (x)", WhiteSpaceProcessing.PRESERVE);
+    assertEquals(toTextTokens("A", " \"test\"", " (x)"), tokens);
+  }
+
+  @Test
+  void testSupplementary() {
+    List<TextToken> tokens = TokenizerBySpaceWord.tokenize("\ud801\udc00x \ud83d\ude00", WhiteSpaceProcessing.PRESERVE);
+    assertEquals(toTextTokens("\ud801\udc00x", " ", "\ud83d\ude00"), tokens);
+  }
+
+  @Test
+  void testRecycling() {
+    List<TextToken> tokens = TokenizerBySpaceWord.tokenize("A cat, a cat", WhiteSpaceProcessing.PRESERVE);
+    assertSame(tokens.get(1), tokens.get(4));
+  }
+
+  @Test
+  void testSameAsRegex() {
+    Random random = new Random(42);
+    for (WhiteSpaceProcessing whitespace : WhiteSpaceProcessing.values()) {
+      for (int i = 0; i < 2000; i++) {
+        String text = randomText(random, random.nextInt(30));
+        assertEquals(describe(tokenizeWithRegex(text, whitespace)), describe(TokenizerBySpaceWord.tokenize(text, whitespace)), text);
+      }
+    }
+  }
+
+  /**
+   * The regular expression based implementation used until 1.3.4.
+   */
+  private static List<TextToken> tokenizeWithRegex(CharSequence seq, WhiteSpaceProcessing whitespace) {
+    List<TextToken> tokens = new ArrayList<>();
+    Pattern p = Pattern.compile("( ?[\\p{L}\\p{M}0-9_'@/$.-]*[\\p{L}\\p{M}0-9_%])|(\\S)|( ?[\"(][^ \\t\\r\\n\\f'\"()]+[\")])");
+    Matcher m = p.matcher(seq);
+    int index = 0;
+    while (m.find()) {
+      if (index != m.start() && whitespace != WhiteSpaceProcessing.IGNORE) {
+        tokens.add(toSpace(seq.subSequence(index, m.start()).toString(), whitespace));
+      }
+      tokens.add(new WordToken(seq.subSequence(m.start(), m.end()).toString()));
+      index = m.end();
+    }
+    if (index != seq.length()) {
+      tokens.add(toSpace(seq.subSequence(index, seq.length()).toString(), whitespace));
+    }
+    return tokens;
+  }
+
+  private static TextToken toSpace(String space, WhiteSpaceProcessing whitespace) {
+    return whitespace == WhiteSpaceProcessing.PRESERVE ? new IgnorableSpaceToken(space) : SpaceToken.getInstance(space);
+  }
+
+  private static String randomText(Random random, int length) {
+    String[] pieces = {" ", "  ", "\t", "\n", "\r\n", "\u000B", "\f", "a", "Z", "7", "_", "%", "'", "@", "/", "$",
+        ".", "-", "\"", "(", ")", ",", ";", "!", "?", "\u00e9", "e\u0301", "\u4e2d", "\ud83d\ude00", "\ud801\udc00", "\u00a0"};
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      text.append(pieces[random.nextInt(pieces.length)]);
+    }
+    return text.toString();
+  }
+
+  private static List<String> describe(List<TextToken> tokens) {
+    List<String> out = new ArrayList<>(tokens.size());
+    for (TextToken token : tokens) out.add(token.getClass().getSimpleName() + ':' + token.getCharacters());
+    return out;
+  }
+
 }
@@ -20,12 +20,20 @@ import org.pageseeder.diffx.config.WhiteSpaceProcessing;
 import org.pageseeder.diffx.token.TextToken;
 import org.pageseeder.diffx.token.XMLToken;
 import org.pageseeder.diffx.token.impl.IgnorableSpaceToken;
+import org.pageseeder.diffx.token.impl.SpaceToken;
 import org.pageseeder.diffx.token.impl.WordToken;
+import org.pageseeder.diffx.util.LimitedSizeCache;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Test case for the tokenizer.
@@ -227,5 +235,84 @@ final class TokenizerByWordTest {
     assertEquals(new WordToken("xx"), e.get(1));
   }
 
-}
+  @Test
+  void testRecycling() {
+    List<TextToken> tokens = TokenizerByWord.tokenize("a b a\tb", WhiteSpaceProcessing.PRESERVE);
+    assertEquals(7, tokens.size());
+    assertSame(tokens.get(0), tokens.get(4));
+    assertSame(tokens.get(1), tokens.get(3));
+  }
+
+  @Test
+  void testSharedCache() {
+    LimitedSizeCache<String, TextToken> cache = new LimitedSizeCache<>(100);
+    List<TextToken> a = new TokenizerByWord(WhiteSpaceProcessing.COMPARE, null, cache).tokenize("a b");
+    List<TextToken> b = new TokenizerByWord(WhiteSpaceProcessing.COMPARE, null, cache).tokenize("b a");
+    assertSame(a.get(0), b.get(2));
+    assertSame(a.get(2), b.get(0));
+    assertEquals(2, cache.size());
+    assertEquals(2, cache.hitCount());
+  }
 
+  @Test
+  void testBoundedRecycling() {
+    TokenRecycler recycler = new TokenRecycler(WhiteSpaceProcessing.COMPARE);
+    for (int i = 0; i < 50000; i++) {
+      String word = "w" + i;
+      assertEquals(new WordToken(word), recycler.word(word, 0, word.length()));
+    }
+    assertTrue(recycler.size() < 10000);
+    assertSame(recycler.word("w49999", 0, 6), recycler.word("w49999", 0, 6));
+  }
+
+  @Test
+  void testSameAsRegex() {
+    Random random = new Random(42);
+    for (WhiteSpaceProcessing whitespace : WhiteSpaceProcessing.values()) {
+      for (int i = 0; i < 2000; i++) {
+        String text = randomText(random, random.nextInt(30));
+        assertEquals(describe(tokenizeWithRegex(text, whitespace)), describe(TokenizerByWord.tokenize(text, whitespace)), text);
+      }
+    }
+  }
+
+  /**
+   * The regular expression based implementation used until 1.3.4.
+   */
+  private static List<TextToken> tokenizeWithRegex(CharSequence text, WhiteSpaceProcessing whitespace) {
+    List<TextToken> tokens = new ArrayList<>();
+    Matcher m = Pattern.compile("\\s+").matcher(text);
+    int index = 0;
+    while (m.find()) {
+      if (index != m.start()) {
+        tokens.add(new WordToken(text.subSequence(index, m.start()).toString()));
+      }
+      if (whitespace != WhiteSpaceProcessing.IGNORE) {
+        String space = text.subSequence(m.start(), m.end()).toString();
+        tokens.add(whitespace == WhiteSpaceProcessing.PRESERVE ? new IgnorableSpaceToken(space) : SpaceToken.getInstance(space));
+      }
+      index = m.end();
+    }
+    if (index != text.length()) {
+      tokens.add(new WordToken(text.subSequence(index, text.length()).toString()));
+    }
+    return tokens;
+  }
+
+  private static String randomText(Random random, int length) {
+    String[] pieces = {" ", "  ", "\t", "\n", "\r\n", "\u000B", "\f", "a", "Z", "7", "_", "%", "'", "@", "/", "$",
+        ".", "-", "\"", "(", ")", ",", ";", "!", "?", "\u00e9", "e\u0301", "\u4e2d", "\ud83d\ude00", "\ud801\udc00", "\u00a0"};
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      text.append(pieces[random.nextInt(pieces.length)]);
+    }
+    return text.toString();
+  }
+
+  private static List<String> describe(List<TextToken> tokens) {
+    List<String> out = new ArrayList<>(tokens.size());
+    for (TextToken token : tokens) out.add(token.getClass().getSimpleName() + ':' + token.getCharacters());
+    return out;
+  }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.sequence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test case for the common runs.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+final class CommonRunsTest {
+
+  @Test
+  void testEmpty() {
+    int[] empty = new int[0];
+    assertEquals(0, CommonRuns.prefix(empty, 0, 0, empty, 0, 0));
+    assertEquals(0, CommonRuns.suffix(empty, 0, 0, empty, 0, 0));
+    assertEquals(0, CommonRuns.prefix(List.of(), List.of()));
+    assertEquals(0, CommonRuns.suffix(List.of(), List.of(), 0));
+  }
+
+  @Test
+  void testIdentical() {
+    int[] a = {1, 2, 3, 4};
+    assertEquals(4, CommonRuns.prefix(a, 0, 4, a.clone(), 0, 4));
+    assertEquals(4, CommonRuns.suffix(a, 0, 4, a.clone(), 0, 4));
+  }
+
+  @Test
+  void testRanges() {
+    int[] a = {9, 1, 2, 3, 9};
+    int[] b = {1, 2, 4, 2, 3};
+    assertEquals(2, CommonRuns.prefix(a, 1, 4, b, 0, 5));
+    assertEquals(2, CommonRuns.suffix(a, 0, 4, b, 0, 5));
+    assertEquals(0, CommonRuns.suffix(a, 0, 5, b, 0, 5));
+  }
+
+  @Test
+  void testLists() {
+    List<String> a = List.of("a", "b", "c", "d");
+    List<String> b = new LinkedList<>(List.of("a", "b", "x", "d"));
+    assertEquals(2, CommonRuns.prefix(a, b));
+    assertEquals(1, CommonRuns.suffix(a, b, 0));
+    assertEquals(0, CommonRuns.suffix(a, b, 4));
+    assertEquals(4, CommonRuns.prefix(a, a));
+    assertEquals(2, CommonRuns.suffix(a, a, 2));
+  }
+
+  @Test
+  void testRandom() {
+    Random random = new Random(42);
+    for (int n = 0; n < 200; n++) {
+      int[] a = new int[random.nextInt(300)];
+      for (int i = 0; i < a.length; i++) a[i] = random.nextInt(4);
+      int[] b = Arrays.copyOf(a, a.length + random.nextInt(3));
+      if (b.length > 0) b[random.nextInt(b.length)] = 7;
+      assertEquals(naivePrefix(a, b), CommonRuns.prefix(a, 0, a.length, b, 0, b.length));
+      assertEquals(naiveSuffix(a, b), CommonRuns.suffix(a, 0, a.length, b, 0, b.length));
+    }
+  }
+
+  private static int naivePrefix(int[] a, int[] b) {
+    int common = 0;
+    while (common < a.length && common < b.length && a[common] == b[common]) common++;
+    return common;
+  }
+
+  private static int naiveSuffix(int[] a, int[] b) {
+    int common = 0;
+    while (common < a.length && common < b.length && a[a.length - common - 1] == b[b.length - common - 1]) common++;
+    return common;
+  }
+
+}
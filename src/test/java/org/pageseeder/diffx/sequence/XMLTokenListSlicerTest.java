@@ -18,9 +18,11 @@ package org.pageseeder.diffx.sequence;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.pageseeder.diffx.DiffException;
+import org.pageseeder.diffx.algorithm.SymbolTable;
 import org.pageseeder.diffx.config.DiffConfig;
 import org.pageseeder.diffx.config.TextGranularity;
 import org.pageseeder.diffx.load.SAXLoader;
+import org.pageseeder.diffx.token.XMLToken;
 import org.pageseeder.diffx.token.impl.CharactersToken;
 import org.pageseeder.diffx.token.impl.XMLEndElement;
 import org.pageseeder.diffx.token.impl.XMLStartElement;
@@ -406,6 +408,9 @@ final class XMLTokenListSlicerTest {
   private void assertStartOK(TokenListSlicer slicer, Sequence exp) {
     slicer.analyze();
     assertEquals(exp.tokens(), slicer.getStart());
+    TokenListSlicer interned = interned();
+    interned.analyze();
+    assertEquals(exp.tokens(), interned.getStart());
   }
 
   /**
@@ -417,6 +422,17 @@ final class XMLTokenListSlicerTest {
   private void assertEndOK(TokenListSlicer slicer, Sequence exp) {
     slicer.analyze();
     assertEquals(exp.tokens(), slicer.getEnd());
+    TokenListSlicer interned = interned();
+    interned.analyze();
+    assertEquals(exp.tokens(), interned.getEnd());
+  }
+
+  /**
+   * @return A slicer on the same sequences comparing interned tokens.
+   */
+  private TokenListSlicer interned() {
+    SymbolTable<XMLToken> symbols = new SymbolTable<>();
+    return new TokenListSlicer(this.seqA, this.seqB, symbols.encode(this.seqA.tokens()), symbols.encode(this.seqB.tokens()));
   }
 
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.similarity;
+
+import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.api.LoadingException;
+import org.pageseeder.diffx.config.TextGranularity;
+import org.pageseeder.diffx.test.TestTokens;
+import org.pageseeder.diffx.token.ElementToken;
+import org.pageseeder.diffx.token.XMLToken;
+import org.pageseeder.diffx.xml.SequenceFolding;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test case for the element similarity.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+final class ElementSimilarityTest {
+
+  private static final String[] XML = {
+      "<p>a b c</p>",
+      "<p>a x c</p>",
+      "<p>c b a a</p>",
+      "<p/>",
+      "<p><b>a</b></p>",
+      "<q>a b c</q>",
+      "<p>a b c d e f</p>"
+  };
+
+  @Test
+  void testCosine() throws LoadingException {
+    assertSameAsStream(new CosineSimilarity<>(), 0);
+    assertSameAsStream(new CosineSimilarity<>(), .5);
+  }
+
+  @Test
+  void testJaccard() throws LoadingException {
+    assertSameAsStream(new JaccardSimilarity<>(), 0);
+    assertSameAsStream(new JaccardSimilarity<>(), .5);
+  }
+
+  @Test
+  void testBound() throws LoadingException {
+    ElementSimilarity jaccard = new ElementSimilarity(new JaccardSimilarity<>(), .5);
+    ElementSimilarity cosine = new ElementSimilarity(new CosineSimilarity<>(), .5);
+    for (String xmlA : XML) {
+      for (String xmlB : XML) {
+        ElementToken a = element(xmlA);
+        ElementToken b = element(xmlB);
+        if (!a.getName().equals(b.getName())) {
+          assertEquals(0, jaccard.bound(a, b));
+          assertEquals(0, cosine.bound(a, b));
+        }
+        float score = jaccard.score(a, b);
+        if (!Float.isNaN(score)) assertTrue(jaccard.bound(a, b) >= score, xmlA + " / " + xmlB);
+      }
+    }
+    assertEquals(.5f, new JaccardSimilarity<>().bound(TermVector.of(new int[]{1, 2}), TermVector.of(new int[]{1, 2, 3, 4})));
+  }
+
+  @Test
+  void testClear() throws LoadingException {
+    ElementSimilarity similarity = new ElementSimilarity(new CosineSimilarity<>(), 0);
+    ElementToken a = element("<p>a b</p>");
+    ElementToken b = element("<p>a c</p>");
+    float score = similarity.score(a, b);
+    similarity.clear();
+    assertEquals(score, similarity.score(b, a));
+    assertEquals(1.0f, similarity.score(a, a));
+  }
+
+  /**
+   * Checks that the scores computed from the cached vectors are the same as with streams.
+   */
+  private static void assertSameAsStream(StreamSimilarity<String> kernel, double k) throws LoadingException {
+    ElementSimilarity vectors = new ElementSimilarity(kernel, k);
+    ElementSimilarity streams = new ElementSimilarity(kernel::score, k);
+    for (String xmlA : XML) {
+      for (String xmlB : XML) {
+        ElementToken a = element(xmlA);
+        ElementToken b = element(xmlB);
+        assertEquals(streams.score(a, b), vectors.score(a, b), 0.0f, xmlA + " / " + xmlB);
+      }
+    }
+  }
+
+  private static ElementToken element(String xml) throws LoadingException {
+    List<XMLToken> tokens = TestTokens.loadSequence(xml, TextGranularity.SPACE_WORD).tokens();
+    return (ElementToken) SequenceFolding.forAllElements().fold(tokens).get(0);
+  }
+
+}
@@ -16,19 +16,35 @@
 package org.pageseeder.diffx.similarity;
 
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.action.Operation;
+import org.pageseeder.diffx.action.OperationsBuffer;
+import org.pageseeder.diffx.algorithm.BasicContextTest;
 import org.pageseeder.diffx.algorithm.BasicGeneralDiffTest;
 import org.pageseeder.diffx.algorithm.BasicLinesDiffTest;
 import org.pageseeder.diffx.algorithm.RandomGeneralDiffTest;
 import org.pageseeder.diffx.api.DiffAlgorithm;
+import org.pageseeder.diffx.api.LoadingException;
+import org.pageseeder.diffx.api.Operator;
+import org.pageseeder.diffx.config.TextGranularity;
+import org.pageseeder.diffx.test.TestTokens;
 import org.pageseeder.diffx.token.Token;
 import org.pageseeder.diffx.token.XMLToken;
 import org.pageseeder.diffx.token.impl.LineToken;
+import org.pageseeder.diffx.xml.SequenceFolding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 /**
  * Test case for the WagnerFischer based similarity algorithm.
  *
  * @author Christophe Lauret
- * @version 1.1.2
+ * @version 1.3.4
  */
 public final class SimilarityWagnerFischerAlgorithmTest {
 
@@ -37,6 +53,103 @@ public final class SimilarityWagnerFischerAlgorithmTest {
     return new SimilarityWagnerFischerAlgorithm<>(equality, .5f);
   }
 
+  private <T extends Token> SimilarityWagnerFischerAlgorithm<T> newLinearAlgorithm() {
+    SimilarityWagnerFischerAlgorithm<T> algorithm = newAlgorithm();
+    algorithm.setMatrixThreshold(0);
+    return algorithm;
+  }
+
+  @Test
+  void testLinearSameScore() throws LoadingException {
+    Random random = new Random(7);
+    for (int n = 0; n < 10; n++) {
+      List<XMLToken> from = randomElements(random, 40);
+      List<XMLToken> to = randomElements(random, 30);
+      Similarity<XMLToken> similarity = new ElementSimilarity(new CosineSimilarity<>(), 0);
+      SimilarityWagnerFischerAlgorithm<XMLToken> matrix = new SimilarityWagnerFischerAlgorithm<>(similarity, .3f);
+      SimilarityWagnerFischerAlgorithm<XMLToken> linear = new SimilarityWagnerFischerAlgorithm<>(similarity, .3f);
+      linear.setMatrixThreshold(16);
+      assertEquals(totalScore(matrix, similarity, from, to), totalScore(linear, similarity, from, to), .0001);
+    }
+  }
+
+  @Test
+  void testBand() {
+    List<LineToken> from = lines("a", "b", "c", "x", "y", "z");
+    List<LineToken> to = lines("x", "y", "z", "a", "b", "c");
+    SimilarityWagnerFischerAlgorithm<LineToken> algorithm = newAlgorithm();
+    assertEquals(3, countMatches(algorithm, from, to));
+    algorithm.setBand(0);
+    assertEquals(0, countMatches(algorithm, from, to));
+    algorithm.setBand(3);
+    assertEquals(3, countMatches(algorithm, from, to));
+  }
+
+  @Test
+  void testBound() {
+    AtomicInteger scored = new AtomicInteger();
+    Similarity<LineToken> similarity = new Similarity<>() {
+      @Override
+      public float score(LineToken a, LineToken b) {
+        scored.incrementAndGet();
+        return a.equals(b) ? 1f : 0f;
+      }
+
+      @Override
+      public float bound(LineToken a, LineToken b) {
+        return a.getValue().charAt(0) == b.getValue().charAt(0) ? 1f : 0f;
+      }
+    };
+    SimilarityWagnerFischerAlgorithm<LineToken> algorithm = new SimilarityWagnerFischerAlgorithm<>(similarity, .5f);
+    assertEquals(2, countMatches(algorithm, lines("a1", "b1", "c1"), lines("a1", "b2", "c1")));
+    assertEquals(3, scored.get());
+  }
+
+  private static List<LineToken> lines(String... lines) {
+    List<LineToken> tokens = new ArrayList<>();
+    for (int i = 0; i < lines.length; i++) tokens.add(new LineToken(lines[i], i + 1));
+    return tokens;
+  }
+
+  private static List<XMLToken> randomElements(Random random, int count) throws LoadingException {
+    StringBuilder xml = new StringBuilder("<root>");
+    for (int i = 0; i < count; i++) {
+      String name = random.nextInt(4) == 0 ? "q" : "p";
+      xml.append('<').append(name).append('>');
+      for (int w = random.nextInt(6); w >= 0; w--) xml.append((char) ('a' + random.nextInt(6))).append(' ');
+      xml.append("</").append(name).append('>');
+    }
+    xml.append("</root>");
+    List<XMLToken> tokens = TestTokens.loadSequence(xml.toString(), TextGranularity.SPACE_WORD).tokens();
+    List<XMLToken> elements = SequenceFolding.forElements("p", "q").fold(tokens);
+    return new ArrayList<>(elements.subList(1, elements.size() - 1));
+  }
+
+  private static <T extends Token> int countMatches(DiffAlgorithm<T> algorithm, List<T> from, List<T> to) {
+    OperationsBuffer<T> buffer = new OperationsBuffer<>();
+    algorithm.diff(from, to, buffer);
+    return (int) buffer.getOperations().stream().filter(o -> o.operator() == Operator.MATCH).count();
+  }
+
+  private static double totalScore(DiffAlgorithm<XMLToken> algorithm, Similarity<XMLToken> similarity,
+                                   List<XMLToken> from, List<XMLToken> to) {
+    OperationsBuffer<XMLToken> buffer = new OperationsBuffer<>();
+    algorithm.diff(from, to, buffer);
+    double total = 0;
+    int i = 0;
+    int j = 0;
+    for (Operation<XMLToken> operation : buffer.getOperations()) {
+      if (operation.operator() == Operator.MATCH) {
+        total += similarity.score(from.get(i++), to.get(j++));
+      } else if (operation.operator() == Operator.DEL) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return total;
+  }
+
   @Nested
   public class GeneralDiff extends BasicGeneralDiffTest {
     @Override
@@ -61,4 +174,50 @@ public final class SimilarityWagnerFischerAlgorithmTest {
     }
   }
 
+  @Nested
+  public class LinearGeneralDiff extends BasicGeneralDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newLinearAlgorithm();
+    }
+  }
+
+  @Nested
+  public class LinearRandomGeneralDiff extends RandomGeneralDiffTest {
+    @Override
+    public DiffAlgorithm<XMLToken> getDiffAlgorithm() {
+      return newLinearAlgorithm();
+    }
+  }
+
+  @Nested
+  public class LinearLinesDiff extends BasicLinesDiffTest {
+    @Override
+    public DiffAlgorithm<LineToken> getDiffAlgorithm() {
+      return newLinearAlgorithm();
+    }
+  }
+
+  @Nested
+  public class ContextDiff extends BasicContextTest {
+    ContextDiff() {
+      super(context -> {
+        SimilarityWagnerFischerAlgorithm<XMLToken> algorithm = newAlgorithm();
+        algorithm.setContext(context);
+        return algorithm;
+      });
+    }
+  }
+
+  @Nested
+  public class LinearContextDiff extends BasicContextTest {
+    LinearContextDiff() {
+      super(context -> {
+        SimilarityWagnerFischerAlgorithm<XMLToken> algorithm = newLinearAlgorithm();
+        algorithm.setContext(context);
+        return algorithm;
+      });
+    }
+  }
+
 }
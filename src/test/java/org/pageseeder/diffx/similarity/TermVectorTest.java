@@ -0,0 +1,84 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.similarity;
+
+import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.algorithm.SymbolTable;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Test case for term vectors.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+final class TermVectorTest {
+
+  @Test
+  void testOf() {
+    assertSame(TermVector.EMPTY, TermVector.of(new int[0]));
+    int[] ids = {3, 1, 3, 2, 3};
+    TermVector vector = TermVector.of(ids);
+    assertEquals(3, vector.size());
+    assertEquals("{1=1, 2=1, 3=3}", vector.toString());
+    assertEquals(3, ids[0]);
+  }
+
+  @Test
+  void testCosine() {
+    for (String[] pair : pairs()) {
+      assertKernels(pair[0], pair[1]);
+    }
+  }
+
+  @Test
+  void testEmpty() {
+    TermVector a = TermVector.of(new int[]{1});
+    assertEquals(1.0f, TermVector.EMPTY.cosine(a));
+    assertEquals(1.0f, a.cosine(TermVector.EMPTY));
+    assertEquals(0.0f, a.jaccard(TermVector.EMPTY));
+  }
+
+  private static List<String[]> pairs() {
+    return List.of(
+        new String[]{"A", "X"},
+        new String[]{"A B", "A B"},
+        new String[]{"A B C", "A D C"},
+        new String[]{"A B", "B A"},
+        new String[]{"A", "A B C"},
+        new String[]{"A A B", "A B B C"},
+        new String[]{"X Y Z X", "Z Z A X"}
+    );
+  }
+
+  private static void assertKernels(String a, String b) {
+    SymbolTable<String> terms = new SymbolTable<>();
+    TermVector va = TermVector.of(terms.encode(Arrays.asList(a.split(" "))));
+    TermVector vb = TermVector.of(terms.encode(Arrays.asList(b.split(" "))));
+    CosineSimilarity<String> cosine = new CosineSimilarity<>();
+    JaccardSimilarity<String> jaccard = new JaccardSimilarity<>();
+    assertEquals(cosine.score(Arrays.stream(a.split(" ")), Arrays.stream(b.split(" "))), cosine.score(va, vb));
+    assertEquals(jaccard.score(Arrays.stream(a.split(" ")), Arrays.stream(b.split(" "))), jaccard.score(va, vb));
+  }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.token;
+
+import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.api.LoadingException;
+import org.pageseeder.diffx.load.SAXLoader;
+import org.pageseeder.diffx.token.impl.XMLAttribute;
+import org.pageseeder.diffx.token.impl.XMLStartElement;
+import org.pageseeder.diffx.xml.Sequence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for the token pool.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+final class XMLTokenPoolTest {
+
+  @Test
+  void testIntern() {
+    XMLTokenPool pool = new XMLTokenPool();
+    XMLStartElement a = new XMLStartElement("a");
+    assertSame(a, pool.intern(a));
+    assertSame(a, pool.intern(new XMLStartElement("a")));
+    assertNotSame(a, pool.intern(new XMLStartElement("b")));
+    assertEquals(2, pool.size());
+    pool.clear();
+    assertEquals(0, pool.size());
+  }
+
+  @Test
+  void testFactory() {
+    XMLTokenFactory factory = new XMLTokenFactory(true, new XMLTokenPool());
+    StartElementToken start = factory.newStartElement("", "a");
+    assertSame(start, factory.newStartElement("", "a"));
+    assertSame(factory.newEndElement(start), factory.newEndElement(start));
+    assertSame(factory.newAttribute("x", "1"), factory.newAttribute("", "x", "1"));
+    assertNotSame(factory.newAttribute("x", "1"), factory.newAttribute("x", "2"));
+    assertNotSame(start, new XMLTokenFactory().newStartElement("", "a"));
+  }
+
+  @Test
+  void testBounded() {
+    XMLTokenPool pool = new XMLTokenPool(32);
+    for (int i = 0; i < 1000; i++) {
+      pool.intern(new XMLAttribute("x", Integer.toString(i)));
+    }
+    assertTrue(pool.size() <= pool.maximumSize());
+    assertEquals(32, pool.maximumSize());
+    assertThrows(IllegalArgumentException.class, () -> new XMLTokenPool(0));
+  }
+
+  @Test
+  void testConcurrent() throws Exception {
+    XMLTokenPool pool = new XMLTokenPool();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<List<XMLToken>>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        futures.add(executor.submit(() -> {
+          List<XMLToken> tokens = new ArrayList<>();
+          for (int i = 0; i < 500; i++) {
+            tokens.add(pool.intern(new XMLStartElement("e" + i)));
+          }
+          return tokens;
+        }));
+      }
+      List<XMLToken> first = futures.get(0).get(10, TimeUnit.SECONDS);
+      for (Future<List<XMLToken>> future : futures) {
+        List<XMLToken> tokens = future.get(10, TimeUnit.SECONDS);
+        for (int i = 0; i < tokens.size(); i++) {
+          assertSame(first.get(i), tokens.get(i));
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void testSharedAcrossLoads() throws LoadingException {
+    XMLTokenPool pool = new XMLTokenPool();
+    SAXLoader loader1 = new SAXLoader();
+    loader1.setTokenPool(pool);
+    SAXLoader loader2 = new SAXLoader();
+    loader2.setTokenPool(pool);
+    Sequence a = loader1.load("<a x='1'><b/></a>");
+    Sequence b = loader2.load("<a x='1'><b/></a>");
+    assertEquals(a, b);
+    for (int i = 0; i < a.size(); i++) {
+      if (!(a.getToken(i) instanceof TextToken)) assertSame(a.getToken(i), b.getToken(i));
+    }
+  }
+
+}
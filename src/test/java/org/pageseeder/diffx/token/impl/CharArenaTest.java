@@ -0,0 +1,133 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.token.impl;
+
+import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.load.text.TokenizerByChar;
+import org.pageseeder.diffx.token.TextToken;
+import org.pageseeder.diffx.token.TokenTest;
+import org.pageseeder.diffx.token.XMLToken;
+import org.pageseeder.diffx.xml.Sequence;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for the character arena and the tokens referencing it.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+final class CharArenaTest {
+
+  @Test
+  void testToken() {
+    CharArena arena = new CharArena();
+    CharSliceToken token = arena.token("a word here", 2, 6);
+    assertEquals("word", token.getCharacters());
+    assertEquals(4, token.length());
+    assertEquals(4, arena.length());
+    assertFalse(token.isWhitespace());
+    assertTrue(arena.token(" \n").isWhitespace());
+  }
+
+  @Test
+  void testEqualsCharactersToken() {
+    CharArena arena = new CharArena();
+    XMLToken slice = arena.token("word");
+    XMLToken word = new WordToken("word");
+    XMLToken characters = new CharactersToken("word");
+    assertEquals(word.hashCode(), slice.hashCode());
+    assertEquals(characters.hashCode(), slice.hashCode());
+    assertEquals(word, slice);
+    assertEquals(slice, word);
+    assertEquals(characters, slice);
+    assertEquals(slice, characters);
+    assertNotEquals(slice, new WordToken("words"));
+    assertNotEquals(new WordToken("words"), slice);
+    TokenTest.assertEqualsNullIsFalse(slice);
+    TokenTest.assertEqualsIsReflexive(slice);
+  }
+
+  @Test
+  void testEqualsAcrossChunks() {
+    CharArena arena = new CharArena(8);
+    CharSliceToken a = arena.token("abcdef");
+    CharSliceToken b = arena.token("abcdef");
+    CharSliceToken c = arena.token("abcdeg");
+    assertEquals(a, b);
+    assertEquals(a.hashCode(), b.hashCode());
+    assertNotEquals(a, c);
+    assertEquals("abcdef", a.getCharacters());
+    assertEquals("abcdef", b.getCharacters());
+    assertEquals(18, arena.length());
+  }
+
+  @Test
+  void testLargeText() {
+    CharArena arena = new CharArena(4);
+    CharSliceToken small = arena.token("ab");
+    CharSliceToken large = arena.token(new StringBuilder("abcdefghij"));
+    CharSliceToken next = arena.token("cd");
+    assertEquals("ab", small.getCharacters());
+    assertEquals("abcdefghij", large.getCharacters());
+    assertEquals("cd", next.getCharacters());
+  }
+
+  @Test
+  void testInvalidRange() {
+    CharArena arena = new CharArena();
+    assertThrows(IndexOutOfBoundsException.class, () -> arena.token("abc", 2, 4));
+    assertThrows(IllegalArgumentException.class, () -> new CharArena(0));
+  }
+
+  @Test
+  void testToXML() throws XMLStreamException {
+    CharArena arena = new CharArena();
+    arena.token("ignored");
+    StringWriter out = new StringWriter();
+    XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+    arena.token("a < b").toXML(xml);
+    xml.flush();
+    assertEquals("a &lt; b", out.toString());
+  }
+
+  @Test
+  void testTokenizerByChar() {
+    List<TextToken> tokens = new TokenizerByChar(new CharArena()).tokenize("abab a");
+    assertEquals(new TokenizerByChar().tokenize("abab a"), tokens);
+    assertSame(tokens.get(0), tokens.get(2));
+    assertSame(tokens.get(1), tokens.get(3));
+    assertSame(tokens.get(0), tokens.get(5));
+  }
+
+  @Test
+  void testSequence() {
+    CharArena arena = new CharArena();
+    Sequence a = new Sequence(List.of(arena.token("x"), arena.token("y")));
+    Sequence b = new Sequence(List.of(new WordToken("x"), new WordToken("y")));
+    assertEquals(b, a);
+    assertEquals(b.hashCode(), a.hashCode());
+  }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for the limited size cache.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+final class LimitedSizeCacheTest {
+
+  @Test
+  void testGetOrCreate() {
+    LimitedSizeCache<String, String> cache = new LimitedSizeCache<>(10);
+    String a = cache.getOrCreate("a", String::new);
+    assertSame(a, cache.getOrCreate("a", String::new));
+    assertEquals(1, cache.size());
+    assertEquals(1, cache.hitCount());
+    assertEquals(1, cache.missCount());
+    assertEquals(0.5, cache.hitRate());
+    assertNull(cache.get("b"));
+    assertEquals(2, cache.missCount());
+  }
+
+  @Test
+  void testEvictLeastRecentlyUsed() {
+    LimitedSizeCache<String, String> cache = new LimitedSizeCache<>(2);
+    cache.getOrCreate("a", String::new);
+    cache.getOrCreate("b", String::new);
+    cache.getOrCreate("a", String::new);
+    cache.getOrCreate("c", String::new);
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.evictionCount());
+    assertNotNull(cache.get("a"));
+    assertNotNull(cache.get("c"));
+    assertNull(cache.get("b"));
+  }
+
+  @Test
+  void testBounded() {
+    LimitedSizeCache<Integer, Integer> cache = new LimitedSizeCache<>(1000);
+    for (int i = 0; i < 10000; i++) {
+      cache.getOrCreate(i, Integer::valueOf);
+    }
+    assertTrue(cache.size() <= cache.maxSize());
+    assertEquals(10000 - cache.size(), cache.evictionCount());
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertThrows(IllegalArgumentException.class, () -> new LimitedSizeCache<>(0));
+  }
+
+  @Test
+  void testConcurrent() throws Exception {
+    LimitedSizeCache<Integer, Object> cache = new LimitedSizeCache<>(4096);
+    AtomicInteger created = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Object[]>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        futures.add(executor.submit(() -> {
+          Object[] values = new Object[1000];
+          for (int i = 0; i < values.length; i++) {
+            values[i] = cache.getOrCreate(i, k -> {
+              created.incrementAndGet();
+              return new Object();
+            });
+          }
+          return values;
+        }));
+      }
+      Object[] first = futures.get(0).get(10, TimeUnit.SECONDS);
+      for (Future<Object[]> future : futures) {
+        assertArrayEquals(first, future.get(10, TimeUnit.SECONDS));
+      }
+      assertEquals(1000, created.get());
+      assertEquals(3000, cache.hitCount());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2010-2026 Allette Systems (Australia)
+ *    http://www.allette.com.au
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.pageseeder.diffx.xml;
+
+import org.junit.jupiter.api.Test;
+import org.pageseeder.diffx.api.LoadingException;
+import org.pageseeder.diffx.load.DOMLoader;
+import org.pageseeder.diffx.load.SAXLoader;
+import org.pageseeder.diffx.load.XMLEventLoader;
+import org.pageseeder.diffx.load.XMLStreamLoader;
+import org.pageseeder.diffx.token.XMLToken;
+import org.pageseeder.diffx.token.impl.XMLStartElement;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for subtree fingerprints.
+ *
+ * @author Christophe Lauret
+ *
+ * @version 1.3.4
+ * @since 1.3.4
+ */
+final class SubtreeFingerprintsTest {
+
+  private static Sequence load(String xml) throws LoadingException {
+    SAXLoader loader = new SAXLoader();
+    loader.setFingerprinting(true);
+    return loader.load(xml);
+  }
+
+  @Test
+  void testEmpty() {
+    SubtreeFingerprints fingerprints = SubtreeFingerprints.compute(List.of());
+    assertEquals(0, fingerprints.size());
+  }
+
+  @Test
+  void testEnds() throws LoadingException {
+    Sequence sequence = load("<a><b>x</b><c/></a>");
+    SubtreeFingerprints fingerprints = sequence.getFingerprints();
+    assertNotNull(fingerprints);
+    assertEquals(sequence.size(), fingerprints.size());
+    assertEquals(sequence.size() - 1, fingerprints.end(0));
+    assertEquals(3, fingerprints.end(1));
+    assertEquals(2, fingerprints.end(2));
+    assertEquals(5, fingerprints.end(4));
+  }
+
+  @Test
+  void testSameSubtrees() throws LoadingException {
+    Sequence sequence = load("<a><b k='v'>x y</b><b k='v'>x y</b><b k='w'>x y</b><b k='v'>x z</b></a>");
+    SubtreeFingerprints fingerprints = sequence.getFingerprints();
+    assertNotNull(fingerprints);
+    int first = 1;
+    int second = fingerprints.end(first) + 1;
+    int third = fingerprints.end(second) + 1;
+    int fourth = fingerprints.end(third) + 1;
+    assertEquals(fingerprints.get(first), fingerprints.get(second));
+    assertNotEquals(fingerprints.get(first), fingerprints.get(third));
+    assertNotEquals(fingerprints.get(first), fingerprints.get(fourth));
+  }
+
+  @Test
+  void testSameDocuments() throws LoadingException {
+    SubtreeFingerprints a = load("<a><b>x</b><c>y</c></a>").getFingerprints();
+    SubtreeFingerprints b = load("<a><b>x</b><c>y</c></a>").getFingerprints();
+    SubtreeFingerprints c = load("<a><c>y</c><b>x</b></a>").getFingerprints();
+    assertNotNull(a);
+    assertNotNull(b);
+    assertNotNull(c);
+    assertEquals(a.get(0), b.get(0));
+    assertNotEquals(a.get(0), c.get(0));
+  }
+
+  @Test
+  void testFolded() throws LoadingException {
+    Sequence sequence = load("<a><b>x</b><c><d>y</d></c></a>");
+    SubtreeFingerprints fingerprints = sequence.getFingerprints();
+    assertNotNull(fingerprints);
+    List<XMLToken> folded = SequenceFolding.forElements("b", "c").fold(sequence.tokens());
+    SubtreeFingerprints foldedFingerprints = SubtreeFingerprints.compute(folded);
+    assertEquals(4, folded.size());
+    assertEquals(fingerprints.get(0), foldedFingerprints.get(0));
+    assertEquals(fingerprints.get(1), foldedFingerprints.get(1));
+    assertEquals(fingerprints.get(fingerprints.end(1) + 1), foldedFingerprints.get(2));
+  }
+
+  @Test
+  void testUnclosed() {
+    List<XMLToken> tokens = List.of(new XMLStartElement("a"), new XMLStartElement("b"));
+    SubtreeFingerprints fingerprints = SubtreeFingerprints.compute(tokens);
+    assertEquals(1, fingerprints.end(0));
+    assertEquals(1, fingerprints.end(1));
+  }
+
+  @Test
+  void testLoaders() throws LoadingException {
+    String xml = "<a xmlns:x='urn:x'><x:b k='v'>some text</x:b><!-- c --><?pi data?></a>";
+    Sequence sax = load(xml);
+    DOMLoader dom = new DOMLoader();
+    dom.setFingerprinting(true);
+    XMLStreamLoader stream = new XMLStreamLoader();
+    stream.setFingerprinting(true);
+    XMLEventLoader event = new XMLEventLoader();
+    event.setFingerprinting(true);
+    SubtreeFingerprints expected = sax.getFingerprints();
+    assertNotNull(expected);
+    for (Sequence sequence : List.of(dom.load(xml), stream.load(xml), event.load(xml))) {
+      SubtreeFingerprints fingerprints = sequence.getFingerprints();
+      assertNotNull(fingerprints);
+      assertEquals(expected.get(0), fingerprints.get(0));
+    }
+  }
+
+  @Test
+  void testDisabled() throws LoadingException {
+    assertNull(new SAXLoader().load("<a/>").getFingerprints());
+  }
+
+  @Test
+  void testModified() throws LoadingException {
+    Sequence sequence = load("<a/>");
+    assertNotNull(sequence.getFingerprints());
+    sequence.addToken(new XMLStartElement("b"));
+    assertNull(sequence.getFingerprints());
+  }
+
+}